@@ -0,0 +1,63 @@
+package org.bloomreach.forge.brut.benchmarks;
+
+import org.bloomreach.forge.brut.resources.ConfigServiceRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ConfigServiceRepository} bootstrapped from the HCM modules of the {@code demo} project.
+ * <p>
+ * Single shot: the first iteration of a fork pays for parsing the modules, later iterations reuse the
+ * JVM-wide module and model caches, like every test class after the first in a surefire fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 5)
+@Fork(2)
+public class ConfigServiceBootstrapBenchmark {
+
+    private static final String PROJECT_NAMESPACE = "myproject";
+
+    private List<String> cndPatterns;
+    private String userDir;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cndPatterns = Fixtures.cndPatterns();
+        userDir = System.getProperty("user.dir");
+        // module discovery starts from the working directory
+        System.setProperty("user.dir", Fixtures.demoProject().toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setProperty("user.dir", userDir);
+    }
+
+    @Benchmark
+    public void bootstrapDemo() throws Exception {
+        ConfigServiceRepository repository = new ConfigServiceRepository(cndPatterns, Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList(), PROJECT_NAMESPACE);
+        try {
+            repository.init();
+        } finally {
+            repository.close();
+        }
+    }
+}
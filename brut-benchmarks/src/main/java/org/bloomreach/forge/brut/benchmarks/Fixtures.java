@@ -0,0 +1,102 @@
+package org.bloomreach.forge.brut.benchmarks;
+
+import org.bloomreach.forge.brut.common.repository.utils.ImporterUtils;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Shared inputs of the benchmarks: the CND patterns of the delivery stack, generated YAML content
+ * and the location of the {@code demo} project.
+ */
+final class Fixtures {
+
+    static final SimpleCredentials ADMIN = new SimpleCredentials("admin", "admin".toCharArray());
+
+    /**
+     * System property holding the {@code demo} project directory; set by the exec configuration of this module.
+     */
+    static final String DEMO_PROPERTY = "brut.benchmarks.demo";
+
+    private static final String JCR_CONFIG = "classpath:org/bloomreach/forge/brut/resources/hst/jcr.xml";
+    private static final int DOCUMENTS_PER_FOLDER = 50;
+
+    private Fixtures() {
+    }
+
+    /**
+     * @return the CND patterns the delivery stack registers, in registration order
+     */
+    @SuppressWarnings("unchecked")
+    static List<String> cndPatterns() {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beans).loadBeanDefinitions(JCR_CONFIG);
+        return beans.getBean("cndResourcesPatterns", List.class);
+    }
+
+    static void registerNodeTypes(Session session) throws RepositoryException, IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (String pattern : cndPatterns()) {
+            for (Resource resource : resolver.getResources(pattern)) {
+                try (InputStream in = resource.getInputStream()) {
+                    ImporterUtils.registerNamespaces(in, session);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a content YAML with {@code documents} documents below {@code /benchmark}, grouped in
+     * folders of {@value #DOCUMENTS_PER_FOLDER}. Every document is a handle with a single variant, so
+     * {@code hippo:paths} calculation sees the same shapes as in project content.
+     */
+    static Path writeContent(Path directory, int documents) throws IOException {
+        Path yaml = directory.resolve("content-" + documents + ".yaml");
+        try (Writer out = Files.newBufferedWriter(yaml, StandardCharsets.UTF_8)) {
+            out.write("/benchmark:\n");
+            out.write("  jcr:primaryType: hippostd:folder\n");
+            out.write("  jcr:mixinTypes: ['mix:referenceable']\n");
+            out.write("  hippostd:foldertype: [new-document]\n");
+            for (int folder = 0; folder * DOCUMENTS_PER_FOLDER < documents; folder++) {
+                out.write("  /folder-" + folder + ":\n");
+                out.write("    jcr:primaryType: hippostd:folder\n");
+                out.write("    jcr:mixinTypes: ['mix:referenceable']\n");
+                out.write("    hippostd:foldertype: [new-document]\n");
+                int last = Math.min(documents, (folder + 1) * DOCUMENTS_PER_FOLDER);
+                for (int document = folder * DOCUMENTS_PER_FOLDER; document < last; document++) {
+                    String name = "document-" + document;
+                    out.write("    /" + name + ":\n");
+                    out.write("      jcr:primaryType: hippo:handle\n");
+                    out.write("      jcr:mixinTypes: ['mix:referenceable']\n");
+                    out.write("      /" + name + ":\n");
+                    out.write("        jcr:primaryType: hippo:document\n");
+                    out.write("        jcr:mixinTypes: ['mix:referenceable']\n");
+                    out.write("        hippo:availability: [live, preview]\n");
+                }
+            }
+        }
+        return yaml;
+    }
+
+    static Path demoProject() {
+        String configured = System.getProperty(DEMO_PROPERTY);
+        Path demo = (configured != null ? Paths.get(configured) : Paths.get("demo")).toAbsolutePath().normalize();
+        if (!Files.isDirectory(demo.resolve("repository-data"))) {
+            throw new IllegalStateException("demo project not found at " + demo + "; set -D" + DEMO_PROPERTY);
+        }
+        return demo;
+    }
+}
@@ -0,0 +1,69 @@
+package org.bloomreach.forge.brut.benchmarks;
+
+import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
+import org.bloomreach.forge.brut.common.repository.utils.HippoPathUtils;
+import org.bloomreach.forge.brut.common.repository.utils.ImporterUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code hippo:paths} calculation over imported content, as done after every YAML import and bootstrap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HippoPathsBenchmark {
+
+    @Param({"500", "5000"})
+    public int documents;
+
+    private BrxmTestingRepository repository;
+    private Session session;
+    private Node content;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path directory = Files.createTempDirectory("brut-benchmarks-");
+        Path yaml = Fixtures.writeContent(directory, documents);
+        repository = new BrxmTestingRepository();
+        session = repository.login(Fixtures.ADMIN);
+        Fixtures.registerNodeTypes(session);
+        ImporterUtils.importYaml(yaml.toUri().toURL(), session.getRootNode(), "/content", "nt:unstructured");
+        session.save();
+        content = session.getNode("/content/benchmark");
+        Files.delete(yaml);
+        Files.delete(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.logout();
+        repository.close();
+    }
+
+    @Benchmark
+    public void calculateHippoPaths() throws Exception {
+        HippoPathUtils.calculateHippoPaths(content, HippoPathUtils.getPathsForNode(content, session.getRootNode()));
+        session.save();
+    }
+}
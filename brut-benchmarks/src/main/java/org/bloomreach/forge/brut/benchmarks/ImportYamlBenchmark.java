@@ -0,0 +1,77 @@
+package org.bloomreach.forge.brut.benchmarks;
+
+import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
+import org.bloomreach.forge.brut.common.repository.utils.ImporterUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.jcr.Session;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ImporterUtils#importYaml} of generated content with a small, medium and large number of documents,
+ * including the save. The imported tree is removed after every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportYamlBenchmark {
+
+    @Param({"10", "500", "5000"})
+    public int documents;
+
+    private Path directory;
+    private Path yaml;
+    private URL content;
+    private BrxmTestingRepository repository;
+    private Session session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("brut-benchmarks-");
+        yaml = Fixtures.writeContent(directory, documents);
+        content = yaml.toUri().toURL();
+        repository = new BrxmTestingRepository();
+        session = repository.login(Fixtures.ADMIN);
+        Fixtures.registerNodeTypes(session);
+    }
+
+    @TearDown(Level.Invocation)
+    public void removeImport() throws Exception {
+        if (session.nodeExists("/import")) {
+            session.getNode("/import").remove();
+            session.save();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        session.logout();
+        repository.close();
+        Files.deleteIfExists(yaml);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void importYaml() throws Exception {
+        ImporterUtils.importYaml(content, session.getRootNode(), "/import", "nt:unstructured");
+        session.save();
+    }
+}
@@ -0,0 +1,85 @@
+package org.bloomreach.forge.brut.benchmarks;
+
+import org.bloomreach.forge.brut.resources.AbstractJaxrsTest;
+import org.bloomreach.forge.brut.resources.util.RequestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.ws.rs.core.MediaType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A JAX-RS round trip through {@link RequestBuilder}, using the client fixtures of brut-resources.
+ * The delivery stack is started once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JaxrsRequestBenchmark {
+
+    private JaxrsStack stack;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stack = new JaxrsStack();
+        stack.init();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stack.destroy();
+    }
+
+    @Benchmark
+    public String helloEndpoint() {
+        return stack.request()
+                .get("/site/api/hello/benchmark")
+                .withAccept(MediaType.APPLICATION_JSON)
+                .execute();
+    }
+
+    static class JaxrsStack extends AbstractJaxrsTest {
+
+        RequestBuilder request() {
+            setupHstRequest();
+            setupServletContext();
+            setupForNewRequest();
+            return new RequestBuilder(getHstRequest(), this::invokeFilter, this::getResponseStatus);
+        }
+
+        @Override
+        protected String getAnnotatedHstBeansClasses() {
+            return "classpath*:client/packagename/model/*.class,";
+        }
+
+        @Override
+        protected List<String> contributeSpringConfigurationLocations() {
+            return Arrays.asList("/client/packagename/custom-jaxrs.xml", "/client/packagename/rest-resources.xml");
+        }
+
+        @Override
+        protected List<String> contributeAddonModulePaths() {
+            return null;
+        }
+
+        @Override
+        protected String contributeHstConfigurationRootPath() {
+            return "/hst:myproject";
+        }
+    }
+}
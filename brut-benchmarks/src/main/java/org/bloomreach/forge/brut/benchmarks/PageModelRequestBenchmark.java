@@ -0,0 +1,76 @@
+package org.bloomreach.forge.brut.benchmarks;
+
+import org.bloomreach.forge.brut.resources.AbstractPageModelTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A component rendering request through {@link AbstractPageModelTest#invokeFilter()}, using the client
+ * fixtures of brut-resources. The delivery stack is started once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PageModelRequestBenchmark {
+
+    private PageModelStack stack;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stack = new PageModelStack();
+        stack.init();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stack.destroy();
+    }
+
+    @Benchmark
+    public String componentRendering() {
+        stack.setupForNewRequest();
+        stack.getHstRequest().setRequestURI("/site/resourceapi/news");
+        stack.getHstRequest().setQueryString("_hn:type=component-rendering&_hn:ref=r5_r1_r1");
+        return stack.invokeFilter();
+    }
+
+    static class PageModelStack extends AbstractPageModelTest {
+
+        @Override
+        protected String getAnnotatedHstBeansClasses() {
+            return "classpath*:client/packagename/beans/*.class,";
+        }
+
+        @Override
+        protected List<String> contributeSpringConfigurationLocations() {
+            return Collections.singletonList("/client/packagename/custom-pagemodel.xml");
+        }
+
+        @Override
+        protected List<String> contributeAddonModulePaths() {
+            return null;
+        }
+
+        @Override
+        protected String contributeHstConfigurationRootPath() {
+            return "/hst:myproject";
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.bloomreach.forge.brut.benchmarks;
+
+import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.jcr.Session;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start-up and shutdown of an empty in-memory {@link BrxmTestingRepository}, the floor of every BRUT test class.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Benchmark
+    public void createRepository() throws Exception {
+        try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+            Session session = repository.login(Fixtures.ADMIN);
+            session.logout();
+        }
+    }
+}
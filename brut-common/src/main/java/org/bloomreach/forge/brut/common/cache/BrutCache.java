@@ -0,0 +1,234 @@
+/*
+ * Copyright 2024 Bloomreach, Inc. (http://www.bloomreach.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bloomreach.forge.brut.common.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * JVM-wide cache with least-recently-used eviction, registered with the {@link CacheRegistry}.
+ * <p>
+ * A cache holds at most {@code maxEntries} values; {@code -Dbrut.cache.<name>.maxEntries} overrides the default of
+ * a cache. After every insert, least recently used values are also evicted while the heap in use after the last
+ * garbage collection exceeds {@code -Dbrut.cache.maxHeapRatio} of the maximum heap, see
+ * {@link CacheRegistry#isHeapLow()}. The value just inserted is never evicted by its own insert.
+ * <p>
+ * Evicted and cleared values are handed to the eviction listener, e.g. to shut down a repository, outside the lock
+ * of the cache. Values that are not {@code evictable} at the time, e.g. a repository a test class is using, are
+ * skipped by eviction.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @since 6.2.0
+ */
+public final class BrutCache<K, V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BrutCache.class);
+
+    private final String name;
+    private final int maxEntries;
+    private final Consumer<? super V> evictionListener;
+    private final Predicate<? super V> evictable;
+
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private BrutCache(Builder<K, V> builder) {
+        this.name = builder.name;
+        this.maxEntries = Integer.getInteger(CacheRegistry.PROPERTY_PREFIX + builder.name + ".maxEntries",
+                builder.maxEntries);
+        this.evictionListener = builder.evictionListener;
+        this.evictable = builder.evictable;
+    }
+
+    public static <K, V> Builder<K, V> builder(String name) {
+        return new Builder<>(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the cached value, or {@code null} if there is none
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            V value = entries.get(key);
+            if (value != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Returns the cached value, computing and caching it on a miss. The loader runs outside the lock of the cache,
+     * so concurrent misses for the same key may both compute it; the value cached first wins and the other one is
+     * handed to the eviction listener.
+     */
+    public V getOrCompute(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        V computed = loader.apply(key);
+        if (computed == null) {
+            return null;
+        }
+        V existing;
+        List<V> evicted;
+        synchronized (entries) {
+            existing = entries.putIfAbsent(key, computed);
+            evicted = existing == null ? evictExcess(key) : List.of();
+        }
+        if (existing != null) {
+            notifyListener(List.of(computed));
+            return existing;
+        }
+        notifyListener(evicted);
+        return computed;
+    }
+
+    public void put(K key, V value) {
+        V replaced;
+        List<V> evicted;
+        synchronized (entries) {
+            replaced = entries.put(key, value);
+            evicted = evictExcess(key);
+        }
+        if (replaced != null && replaced != value) {
+            notifyListener(List.of(replaced));
+        }
+        notifyListener(evicted);
+    }
+
+    /**
+     * Removes the value without handing it to the eviction listener.
+     */
+    public V remove(K key) {
+        synchronized (entries) {
+            return entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes all values and hands them to the eviction listener.
+     */
+    public void clear() {
+        List<V> removed;
+        synchronized (entries) {
+            removed = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        notifyListener(removed);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public CacheStatistics getStatistics() {
+        synchronized (entries) {
+            return new CacheStatistics(name, entries.size(), maxEntries, hits, misses, evictions);
+        }
+    }
+
+    private List<V> evictExcess(K inserted) {
+        List<V> evicted = new ArrayList<>();
+        boolean heapLow = entries.size() > 1 && CacheRegistry.isHeapLow();
+        Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || heapLow) && eldest.hasNext()) {
+            Map.Entry<K, V> entry = eldest.next();
+            if (entry.getKey().equals(inserted) || !evictable.test(entry.getValue())) {
+                continue;
+            }
+            eldest.remove();
+            evicted.add(entry.getValue());
+            evictions++;
+            // one eviction per insert under heap pressure: heap usage is only measured again after the next GC
+            heapLow = false;
+        }
+        if (!evicted.isEmpty()) {
+            LOG.debug("Evicted {} value(s) from BRUT cache '{}'", evicted.size(), name);
+        }
+        return evicted;
+    }
+
+    private void notifyListener(List<V> values) {
+        if (evictionListener == null) {
+            return;
+        }
+        for (V value : values) {
+            try {
+                evictionListener.accept(value);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to release value evicted from BRUT cache '{}'", name, e);
+            }
+        }
+    }
+
+    public static final class Builder<K, V> {
+
+        private final String name;
+        private int maxEntries = Integer.MAX_VALUE;
+        private Consumer<? super V> evictionListener;
+        private Predicate<? super V> evictable = value -> true;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder<K, V> maxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public Builder<K, V> onEviction(Consumer<? super V> evictionListener) {
+            this.evictionListener = evictionListener;
+            return this;
+        }
+
+        public Builder<K, V> evictableWhen(Predicate<? super V> evictable) {
+            this.evictable = evictable;
+            return this;
+        }
+
+        /**
+         * Builds the cache and registers it with the {@link CacheRegistry}.
+         */
+        public BrutCache<K, V> build() {
+            BrutCache<K, V> cache = new BrutCache<>(this);
+            CacheRegistry.register(cache);
+            return cache;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Bloomreach, Inc. (http://www.bloomreach.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bloomreach.forge.brut.common.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of BRUT's JVM-wide {@link BrutCache}s: model and converter caches as well as the repositories and
+ * delivery stacks shared between test classes.
+ * <p>
+ * The registry exposes the statistics of all caches and logs them once at the end of the test suite. It also
+ * decides when the heap is low: when the heap in use after the last garbage collection exceeds
+ * {@value #MAX_HEAP_RATIO_PROPERTY} (default {@value #DEFAULT_MAX_HEAP_RATIO}) of the maximum heap, caches evict
+ * their least recently used values on insert.
+ *
+ * @since 6.2.0
+ */
+public final class CacheRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheRegistry.class);
+
+    static final String PROPERTY_PREFIX = "brut.cache.";
+    public static final String MAX_HEAP_RATIO_PROPERTY = PROPERTY_PREFIX + "maxHeapRatio";
+    static final String DEFAULT_MAX_HEAP_RATIO = "0.85";
+
+    private static final List<BrutCache<?, ?>> CACHES = new CopyOnWriteArrayList<>();
+
+    private CacheRegistry() {
+    }
+
+    static void register(BrutCache<?, ?> cache) {
+        CACHES.add(cache);
+    }
+
+    public static List<CacheStatistics> getStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (BrutCache<?, ?> cache : CACHES) {
+            statistics.add(cache.getStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Clears all caches, shutting down the repositories and stacks they hold.
+     */
+    public static void clearAll() {
+        CACHES.forEach(BrutCache::clear);
+    }
+
+    /**
+     * Logs the statistics of all caches that were used.
+     */
+    public static void logStatistics() {
+        List<CacheStatistics> used = getStatistics().stream()
+                .filter(statistics -> statistics.hits() + statistics.misses() > 0)
+                .toList();
+        if (!used.isEmpty()) {
+            LOG.info("BRUT cache statistics:\n  {}",
+                    String.join("\n  ", used.stream().map(CacheStatistics::toString).toList()));
+        }
+    }
+
+    /**
+     * @return whether the heap in use after the last garbage collection exceeds the configured ratio of the
+     * maximum heap
+     */
+    static boolean isHeapLow() {
+        double maxRatio = Double.parseDouble(System.getProperty(MAX_HEAP_RATIO_PROPERTY, DEFAULT_MAX_HEAP_RATIO));
+        if (maxRatio >= 1) {
+            return false;
+        }
+        long used = 0;
+        long max = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            // only tenured pools support usage thresholds; eden and survivor spaces are empty after a GC anyway
+            boolean tenured = pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported();
+            MemoryUsage afterGc = tenured ? pool.getCollectionUsage() : null;
+            if (afterGc == null || afterGc.getMax() < 0) {
+                continue;
+            }
+            used += afterGc.getUsed();
+            max += afterGc.getMax();
+        }
+        return max > 0 && used > max * maxRatio;
+    }
+}
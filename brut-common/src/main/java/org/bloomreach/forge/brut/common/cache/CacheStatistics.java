@@ -0,0 +1,36 @@
+/*
+ * Copyright 2024 Bloomreach, Inc. (http://www.bloomreach.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bloomreach.forge.brut.common.cache;
+
+/**
+ * Point-in-time statistics of a {@link BrutCache}.
+ *
+ * @param name       name of the cache
+ * @param size       number of cached values
+ * @param maxEntries maximum number of cached values
+ * @param hits       lookups that found a value
+ * @param misses     lookups that did not
+ * @param evictions  values evicted to stay within the bounds
+ * @since 6.2.0
+ */
+public record CacheStatistics(String name, int size, int maxEntries, long hits, long misses, long evictions) {
+
+    @Override
+    public String toString() {
+        return String.format("%s: size=%d/%s hits=%d misses=%d evictions=%d", name, size,
+                maxEntries == Integer.MAX_VALUE ? "unbounded" : String.valueOf(maxEntries), hits, misses, evictions);
+    }
+}
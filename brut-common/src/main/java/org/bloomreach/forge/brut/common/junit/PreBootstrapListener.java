@@ -0,0 +1,210 @@
+/*
+ * Copyright 2024 Bloomreach, Inc. (http://www.bloomreach.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bloomreach.forge.brut.common.junit;
+
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JUnit Platform listener that bootstraps the test infrastructure of every distinct BRUT configuration in the
+ * test plan in the background as soon as the plan starts executing, so that test classes later in the suite find
+ * their repository or delivery stack ready, or wait only for the part of the bootstrap that is still running.
+ * The configuration of the first test class is left to that class, which starts bootstrapping it right away.
+ * <p>
+ * Subclasses map a test class to the bootstrap of its configuration, keyed by the configuration so that classes
+ * sharing one are bootstrapped once. Configurations are resolved and bootstrapped in plan order on at most
+ * {@code -Dbrut.prebootstrap.threads} daemon threads (default 2), so the first test classes are not starved of
+ * CPU by the pre-bootstrap. {@code -Dbrut.prebootstrap=false} disables it. A failed pre-bootstrap is only logged
+ * at debug level: the test class repeats the bootstrap and reports the failure itself.
+ * <p>
+ * The pre-bootstrap stops when the suite's caches are cleared (see {@link SuiteCacheCleanup}): pending bootstraps
+ * are dropped and running ones are awaited, so every repository or stack they create is shut down with the caches.
+ *
+ * @since 6.2.0
+ */
+public abstract class PreBootstrapListener implements TestExecutionListener {
+
+    public static final String ENABLED_PROPERTY = "brut.prebootstrap";
+    public static final String THREADS_PROPERTY = "brut.prebootstrap.threads";
+
+    private static final Logger LOG = LoggerFactory.getLogger(PreBootstrapListener.class);
+    private static final int DEFAULT_THREADS = 2;
+    private static final long STOP_TIMEOUT_MINUTES = 5;
+
+    /**
+     * The pools of all listeners still pre-bootstrapping.
+     */
+    private static final Set<ExecutorService> RUNNING = ConcurrentHashMap.newKeySet();
+
+    private volatile ExecutorService executor;
+
+    /**
+     * Adds the bootstrap of the configuration of {@code testClass} to {@code bootstraps}, unless the class is not
+     * a BRUT test of this listener or a bootstrap with the same key was added already. Called on a background
+     * thread, for top-level test classes only.
+     */
+    protected abstract void collectBootstraps(Class<?> testClass, Map<String, Runnable> bootstraps);
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        if ("false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY))) {
+            return;
+        }
+        List<Class<?>> testClasses = collectTestClasses(testPlan);
+        if (testClasses.isEmpty()) {
+            return;
+        }
+        ExecutorService pool = newExecutor(Math.max(1, Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS)));
+        executor = pool;
+        RUNNING.add(pool);
+        pool.execute(() -> schedule(pool, testClasses));
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        ExecutorService pool = executor;
+        if (pool != null) {
+            executor = null;
+            stop(pool);
+        }
+    }
+
+    /**
+     * Stops the pre-bootstrap of all listeners: drops the pending bootstraps and waits for the running ones, so
+     * that no repository or stack is created after this method returns.
+     */
+    static void stopAll() {
+        RUNNING.forEach(PreBootstrapListener::stop);
+    }
+
+    private static void stop(ExecutorService pool) {
+        if (!RUNNING.remove(pool)) {
+            return;
+        }
+        pool.shutdownNow();
+        try {
+            if (!pool.awaitTermination(STOP_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                LOG.warn("Pre-bootstrap did not stop within {} minutes", STOP_TIMEOUT_MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void schedule(ExecutorService pool, List<Class<?>> testClasses) {
+        Map<String, Runnable> bootstraps = plan(testClasses);
+        if (bootstraps.isEmpty()) {
+            return;
+        }
+        LOG.info("Pre-bootstrapping {} BRUT configuration(s) in the background", bootstraps.size());
+        try {
+            bootstraps.forEach((key, bootstrap) -> pool.execute(() -> run(pool, key, bootstrap)));
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Test plan finished before all configurations were pre-bootstrapped");
+        }
+    }
+
+    /**
+     * Returns the bootstraps of the configurations of {@code testClasses} by key, in plan order and without the
+     * configuration of the first test class, which is already bootstrapping it itself.
+     */
+    Map<String, Runnable> plan(List<Class<?>> testClasses) {
+        Map<String, Runnable> bootstraps = new LinkedHashMap<>();
+        for (Class<?> testClass : testClasses) {
+            collect(testClass, bootstraps);
+        }
+        Map<String, Runnable> first = new LinkedHashMap<>();
+        collect(testClasses.get(0), first);
+        bootstraps.keySet().removeAll(first.keySet());
+        return bootstraps;
+    }
+
+    private void collect(Class<?> testClass, Map<String, Runnable> bootstraps) {
+        Set<String> known = new HashSet<>(bootstraps.keySet());
+        try {
+            collectBootstraps(testClass, bootstraps);
+        } catch (RuntimeException | LinkageError e) {
+            LOG.debug("Skipping pre-bootstrap of {}", testClass.getName(), e);
+        }
+        // the phases of a pre-bootstrap count towards the first test class that needs it
+        bootstraps.replaceAll((key, bootstrap) -> known.contains(key)
+                ? bootstrap : BootstrapTimings.withOwner(testClass.getName(), bootstrap));
+    }
+
+    private static void run(ExecutorService pool, String key, Runnable bootstrap) {
+        if (pool.isShutdown() || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        try {
+            bootstrap.run();
+        } catch (RuntimeException | LinkageError e) {
+            LOG.debug("Pre-bootstrap of {} failed", key, e);
+        }
+    }
+
+    /**
+     * Returns the distinct top-level test classes of the plan in execution order; nested classes are represented
+     * by their enclosing class, which owns the test infrastructure.
+     */
+    static List<Class<?>> collectTestClasses(TestPlan testPlan) {
+        Set<Class<?>> testClasses = new LinkedHashSet<>();
+        for (TestIdentifier root : testPlan.getRoots()) {
+            for (TestIdentifier identifier : testPlan.getDescendants(root)) {
+                TestSource source = identifier.getSource().orElse(null);
+                if (!(source instanceof ClassSource classSource)) {
+                    continue;
+                }
+                try {
+                    testClasses.add(NestedTestClassSupport.getRootTestClass(classSource.getJavaClass()));
+                } catch (RuntimeException e) {
+                    LOG.debug("Cannot load test class {}", classSource.getClassName(), e);
+                }
+            }
+        }
+        return new ArrayList<>(testClasses);
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "brut-prebootstrap-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 Bloomreach, Inc. (http://www.bloomreach.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bloomreach.forge.brut.common.junit;
+
+import org.bloomreach.forge.brut.common.cache.CacheRegistry;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Logs the statistics of BRUT's caches and clears them, shutting down shared repositories and delivery stacks,
+ * when the JUnit root store closes at the end of the test suite. The {@link PreBootstrapListener}s are stopped
+ * first, so that they create no repository or stack once the caches are cleared.
+ *
+ * @since 6.2.0
+ */
+public final class SuiteCacheCleanup implements ExtensionContext.Store.CloseableResource {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(SuiteCacheCleanup.class);
+
+    private SuiteCacheCleanup() {
+    }
+
+    /**
+     * Registers the cleanup in the root store of {@code context}; registering it more than once has no effect.
+     */
+    public static void register(ExtensionContext context) {
+        context.getRoot().getStore(NAMESPACE)
+                .getOrComputeIfAbsent(SuiteCacheCleanup.class, key -> new SuiteCacheCleanup(), SuiteCacheCleanup.class);
+    }
+
+    @Override
+    public void close() {
+        PreBootstrapListener.stopAll();
+        CacheRegistry.logStatistics();
+        CacheRegistry.clearAll();
+    }
+}
@@ -1,25 +1,39 @@
 package org.bloomreach.forge.brut.common.processor;
 
+import org.bloomreach.forge.brut.common.scan.NodeBean;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * Reads the compile-time bean registry files written by {@link BrxmBeanRegistryProcessor}.
  *
- * <p>Both methods return empty collections when the registry resource is absent,
+ * <p>{@value #INDEX_RESOURCE} is a versioned, tab separated index with one line per bean: binary class
+ * name, {@code jcrType}, declared superclass and package. Consumers build node type registration and the
+ * {@code ObjectConverter} mapping from it without scanning or loading classes. {@value #BEANS_RESOURCE}
+ * only lists class names and is still read for registries written by older versions.
+ *
+ * <p>All methods return empty collections when the registry resource is absent,
  * preserving full backward compatibility with projects that do not have the
  * annotation processor on their compile classpath.
  */
 public final class BrxmBeanRegistry {
 
     static final String BEANS_RESOURCE = "META-INF/brut-beans.list";
+    static final String INDEX_RESOURCE = "META-INF/brut-beans.index";
+    static final int INDEX_VERSION = 1;
+    static final String INDEX_HEADER = "version\t" + INDEX_VERSION;
 
     private BrxmBeanRegistry() {
     }
@@ -35,22 +49,135 @@ public final class BrxmBeanRegistry {
         return loadLines(classLoader, BEANS_RESOURCE, new LinkedHashSet<>());
     }
 
+    /**
+     * Returns the beans recorded in the compile-time index. Index files written by a newer, unsupported
+     * version of the processor are ignored.
+     *
+     * @param classLoader classloader to search for the index resources
+     * @return beans in index order; never null, empty when no index is present
+     */
+    public static List<NodeBean> loadBeans(ClassLoader classLoader) {
+        List<NodeBean> beans = new ArrayList<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_RESOURCE);
+            while (urls.hasMoreElements()) {
+                List<String> lines = new ArrayList<>();
+                readLines(urls.nextElement(), lines);
+                if (lines.isEmpty() || !INDEX_HEADER.equals(lines.get(0))) {
+                    continue;
+                }
+                lines.subList(1, lines.size()).stream()
+                     .map(BrxmBeanRegistry::parseIndexLine)
+                     .filter(Objects::nonNull)
+                     .forEach(beans::add);
+            }
+        } catch (IOException ignored) {
+            // resource absent — caller falls back to classpath scan
+        }
+        return beans;
+    }
+
+    /**
+     * Returns the classpath roots, directories or jars, that carry a supported index. The index of a root
+     * lists all of its beans, so the root need not be scanned; other roots are not covered by it.
+     *
+     * @param classLoader classloader to search for the index resources
+     * @return root URLs such as {@code file:/project/target/test-classes/}; never null
+     */
+    public static Set<URL> loadIndexedRoots(ClassLoader classLoader) {
+        Set<URL> roots = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_RESOURCE);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                List<String> lines = new ArrayList<>();
+                readLines(url, lines);
+                String spec = url.toString();
+                if (!lines.isEmpty() && INDEX_HEADER.equals(lines.get(0)) && spec.endsWith(INDEX_RESOURCE)) {
+                    roots.add(new URL(spec.substring(0, spec.length() - INDEX_RESOURCE.length())));
+                }
+            }
+        } catch (IOException ignored) {
+            // resource absent — no root is indexed
+        }
+        return roots;
+    }
+
+    /**
+     * Returns the beans whose class files match a location pattern such as
+     * {@code classpath*:com/example/beans/**}{@code /*.class}.
+     */
+    public static List<NodeBean> beansMatching(List<NodeBean> beans, String locationPattern) {
+        Pattern pattern = toRegex(locationPattern);
+        return beans.stream()
+                    .filter(bean -> pattern.matcher(bean.classFilePath()).matches())
+                    .toList();
+    }
+
+    static NodeBean parseIndexLine(String line) {
+        String[] columns = line.split("\t", -1);
+        if (columns.length < 3 || columns[0].isEmpty()) {
+            return null;
+        }
+        // lines are trimmed, which drops the empty package column of beans in the default package
+        String packageName = columns.length > 3 ? columns[3] : "";
+        return new NodeBean(columns[0], packageName, columns[2].isEmpty() ? null : columns[2], columns[1]);
+    }
+
+    static String toIndexLine(NodeBean bean) {
+        return String.join("\t", bean.className(), bean.jcrType(),
+                bean.superClassName() != null ? bean.superClassName() : "", bean.packageName());
+    }
+
+    private static Pattern toRegex(String locationPattern) {
+        String path = locationPattern.trim();
+        int colon = path.indexOf(':');
+        if (colon >= 0) {
+            path = path.substring(colon + 1);
+        }
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (path.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 2;
+            } else if (path.startsWith("**", i)) {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
     private static <C extends Collection<String>> C loadLines(
             ClassLoader classLoader, String resource, C collection) {
         try {
             Enumeration<URL> urls = classLoader.getResources(resource);
             while (urls.hasMoreElements()) {
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(urls.nextElement().openStream(), StandardCharsets.UTF_8))) {
-                    reader.lines()
-                          .map(String::trim)
-                          .filter(line -> !line.isEmpty() && !line.startsWith("#"))
-                          .forEach(collection::add);
-                }
+                readLines(urls.nextElement(), collection);
             }
         } catch (IOException ignored) {
             // resource absent — caller falls back to classpath scan
         }
         return collection;
     }
+
+    private static void readLines(URL url, Collection<String> collection) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            reader.lines()
+                  .map(String::trim)
+                  .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                  .forEach(collection::add);
+        }
+    }
 }
@@ -1,20 +1,33 @@
 package org.bloomreach.forge.brut.common.processor;
 
+import org.bloomreach.forge.brut.common.scan.NodeBean;
+
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
 import javax.tools.Diagnostic;
 import javax.tools.FileObject;
 import javax.tools.StandardLocation;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -25,52 +38,140 @@ import java.util.Set;
  * in the compiler output directory:
  *
  * <ul>
- *   <li>{@code META-INF/brut-beans.list} — FQNs of {@code @Node}-annotated classes
- *       found in the current compilation unit (typically {@code src/test/java} beans)</li>
- *   <li>{@code META-INF/brut-bean-packages.list} — bean package names extracted from
- *       {@code beanPackages} attributes on BRUT test annotations, replacing the
- *       {@code ProjectDiscovery} heuristic at runtime</li>
+ *   <li>{@code META-INF/brut-beans.index} — versioned index of the {@code @Node}-annotated classes
+ *       found in the current compilation unit (typically {@code src/test/java} beans), recording
+ *       their {@code jcrType}, declared superclass and package</li>
+ *   <li>{@code META-INF/brut-beans.list} — binary names of the same classes, for older
+ *       BRUT versions</li>
  * </ul>
  *
+ * <p>Incremental compilations only hand the changed sources to the processor, so the index of the
+ * previous compilation is merged in: its entries are kept as long as their class still exists and is
+ * still annotated. For Gradle the processor is declared {@code aggregating}, as all beans end up in
+ * a single index. The index is written for every compilation, empty if it has no beans, as consumers
+ * take all beans of an indexed classpath root from its index.
+ *
  * <p>Both files are optional at runtime — BRUT falls back to classpath scanning and
  * {@code ProjectDiscovery} when they are absent.
  */
-@SupportedAnnotationTypes("org.hippoecm.hst.content.beans.Node")
+// all types: the processor has to run, and rewrite the index, also when no class is annotated anymore
+@SupportedAnnotationTypes("*")
 @SupportedSourceVersion(SourceVersion.RELEASE_17)
 public final class BrxmBeanRegistryProcessor extends AbstractProcessor {
 
+    static final String NODE_ANNOTATION = "org.hippoecm.hst.content.beans.Node";
+
+    private final Map<String, NodeBean> beans = new LinkedHashMap<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         if (roundEnv.processingOver()) {
+            // written even without beans, so an index listing beans that were removed is replaced
+            mergePreviousIndex();
+            writeResource(BrxmBeanRegistry.INDEX_RESOURCE, indexLines());
+            writeResource(BrxmBeanRegistry.BEANS_RESOURCE, beans.keySet());
             return false;
         }
 
-        Set<String> beanFqns = new LinkedHashSet<>();
-
         for (TypeElement annotation : annotations) {
-            collectNodeBeans(annotation, roundEnv, beanFqns);
-        }
-
-        if (!beanFqns.isEmpty()) {
-            writeResource(BrxmBeanRegistry.BEANS_RESOURCE, beanFqns);
+            if (NODE_ANNOTATION.contentEquals(annotation.getQualifiedName())) {
+                collectNodeBeans(annotation, roundEnv);
+            }
         }
-
         return false;
     }
 
-    private void collectNodeBeans(TypeElement annotation, RoundEnvironment roundEnv,
-                                  Set<String> beanFqns) {
+    private void collectNodeBeans(TypeElement annotation, RoundEnvironment roundEnv) {
         for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
             if (element.getKind() == ElementKind.CLASS) {
-                beanFqns.add(((TypeElement) element).getQualifiedName().toString());
+                TypeElement type = (TypeElement) element;
+                NodeBean bean = toBean(type);
+                if (bean != null) {
+                    beans.put(bean.className(), bean);
+                    originatingElements.add(type);
+                }
+            }
+        }
+    }
+
+    private NodeBean toBean(TypeElement type) {
+        AnnotationMirror node = findNodeAnnotation(type);
+        if (node == null) {
+            return null;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        String jcrType = "";
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                : node.getElementValues().entrySet()) {
+            if ("jcrType".contentEquals(value.getKey().getSimpleName())) {
+                jcrType = String.valueOf(value.getValue().getValue());
+            }
+        }
+        TypeMirror superclass = type.getSuperclass();
+        String superClassName = superclass.getKind() == TypeKind.DECLARED
+                ? elements.getBinaryName((TypeElement) ((DeclaredType) superclass).asElement()).toString()
+                : null;
+        return new NodeBean(elements.getBinaryName(type).toString(),
+                elements.getPackageOf(type).getQualifiedName().toString(), superClassName, jcrType);
+    }
+
+    private static AnnotationMirror findNodeAnnotation(TypeElement type) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            Element annotationType = mirror.getAnnotationType().asElement();
+            if (NODE_ANNOTATION.contentEquals(((TypeElement) annotationType).getQualifiedName())) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps the entries of the index written by the previous compilation whose class was not processed
+     * in this one, but still exists and is still a bean.
+     */
+    private void mergePreviousIndex() {
+        List<String> lines = new ArrayList<>();
+        try {
+            FileObject previous = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", BrxmBeanRegistry.INDEX_RESOURCE);
+            try (BufferedReader reader = new BufferedReader(previous.openReader(true))) {
+                reader.lines().map(String::trim).filter(line -> !line.isEmpty()).forEach(lines::add);
             }
+        } catch (IOException | IllegalArgumentException ignored) {
+            // no previous index: full compilation
+            return;
         }
+        if (lines.isEmpty() || !BrxmBeanRegistry.INDEX_HEADER.equals(lines.get(0))) {
+            return;
+        }
+
+        Elements elements = processingEnv.getElementUtils();
+        for (String line : lines.subList(1, lines.size())) {
+            NodeBean previous = BrxmBeanRegistry.parseIndexLine(line);
+            if (previous == null || beans.containsKey(previous.className())) {
+                continue;
+            }
+            TypeElement type = elements.getTypeElement(previous.className().replace('$', '.'));
+            NodeBean current = type != null ? toBean(type) : null;
+            if (current != null) {
+                beans.put(current.className(), current);
+                originatingElements.add(type);
+            }
+        }
+    }
+
+    private List<String> indexLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add(BrxmBeanRegistry.INDEX_HEADER);
+        beans.values().forEach(bean -> lines.add(BrxmBeanRegistry.toIndexLine(bean)));
+        return lines;
     }
 
     private void writeResource(String resourcePath, Collection<String> lines) {
         try {
-            FileObject file = processingEnv.getFiler()
-                    .createResource(StandardLocation.CLASS_OUTPUT, "", resourcePath);
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    resourcePath, originatingElements.toArray(new Element[0]));
             try (PrintWriter writer = new PrintWriter(file.openWriter())) {
                 lines.forEach(writer::println);
             }
@@ -0,0 +1,114 @@
+package org.bloomreach.forge.brut.common.project;
+
+import org.bloomreach.forge.brut.common.cache.ContentDigests;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * JVM-wide memo of the results of {@link ProjectDiscovery}, shared by all test classes of a run.
+ * <p>
+ * Results are keyed by the start path (normally the working directory) and by the SHA-256 digests of the
+ * files that drive discovery: the {@code pom.xml} and the {@code project-settings.xml} of the project root.
+ * Editing one of those files yields a new key, so the next lookup discovers again. Digests are only
+ * recomputed when the size or modification time of a file changes.
+ * <p>
+ * Set {@value #ENABLED_PROPERTY} to {@code false} to discover on every call.
+ */
+final class DiscoveryCache {
+
+    static final String ENABLED_PROPERTY = "brut.discovery.cache";
+
+    private static final List<String> FINGERPRINT_FILES = List.of(
+        "pom.xml",
+        "essentials/src/main/resources/project-settings.xml",
+        "src/main/resources/project-settings.xml"
+    );
+
+    private static final Object NULL = new Object();
+
+    private static final Map<Key, Map<String, Object>> RESULTS = new ConcurrentHashMap<>();
+    private static final Map<Path, FileDigest> DIGESTS = new ConcurrentHashMap<>();
+
+    private DiscoveryCache() {
+    }
+
+    /**
+     * Returns the cached result {@code name} for {@code start}, computing it with {@code loader} on a miss.
+     * Loaders may look up other results of the same start path.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T get(Path start, String name, Supplier<T> loader) {
+        if (start == null || !Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) {
+            return loader.get();
+        }
+        Map<String, Object> results = resultsFor(start.toAbsolutePath().normalize());
+        // no computeIfAbsent: loaders call back into the same map
+        Object value = results.get(name);
+        if (value == null) {
+            T loaded = loader.get();
+            Object existing = results.putIfAbsent(name, loaded != null ? loaded : NULL);
+            return existing != null && existing != NULL ? (T) existing : loaded;
+        }
+        return value == NULL ? null : (T) value;
+    }
+
+    static void clear() {
+        RESULTS.clear();
+        DIGESTS.clear();
+    }
+
+    private static Map<String, Object> resultsFor(Path start) {
+        Path projectRoot = ProjectDiscovery.findProjectRoot(start).orElse(start);
+        Key key = new Key(start, fingerprint(projectRoot));
+        Map<String, Object> results = RESULTS.get(key);
+        if (results == null) {
+            RESULTS.keySet().removeIf(stale -> stale.start().equals(start));
+            results = RESULTS.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        }
+        return results;
+    }
+
+    private static String fingerprint(Path projectRoot) {
+        StringBuilder fingerprint = new StringBuilder(projectRoot.toString());
+        for (String file : FINGERPRINT_FILES) {
+            fingerprint.append('|').append(file).append('=').append(digest(projectRoot.resolve(file)));
+        }
+        return fingerprint.toString();
+    }
+
+    private static String digest(Path file) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            DIGESTS.remove(file);
+            return "-";
+        }
+        FileDigest cached = DIGESTS.get(file);
+        if (cached != null && cached.size() == attributes.size()
+            && cached.lastModified().equals(attributes.lastModifiedTime())) {
+            return cached.sha256();
+        }
+        try {
+            String value = ContentDigests.sha256Hex(Files.readAllBytes(file));
+            DIGESTS.put(file, new FileDigest(attributes.size(), attributes.lastModifiedTime(), value));
+            return value;
+        } catch (IOException e) {
+            return "-";
+        }
+    }
+
+    private record Key(Path start, String fingerprint) {
+    }
+
+    private record FileDigest(long size, FileTime lastModified, String sha256) {
+    }
+}
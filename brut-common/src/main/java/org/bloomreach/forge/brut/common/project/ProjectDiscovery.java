@@ -16,6 +16,14 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
+/**
+ * Discovers the layout of the brXM project the tests run in: project root, project settings, HST root,
+ * namespace, bean packages and repository module descriptors.
+ * <p>
+ * Results are memoized for the lifetime of the JVM, keyed by the start path and the digests of the project's
+ * {@code pom.xml} and {@code project-settings.xml}, so every test class after the first reuses them. Set the
+ * system property {@code brut.discovery.cache} to {@code false} to discover on every call.
+ */
 public final class ProjectDiscovery {
 
     public enum BeanPackageOrder {
@@ -52,6 +60,17 @@ public final class ProjectDiscovery {
     }
 
     public static Optional<ProjectSettings> loadProjectSettings(Path start) {
+        return DiscoveryCache.get(start, "projectSettings", () -> readProjectSettings(start));
+    }
+
+    /**
+     * Drops all memoized discovery results, so the next call discovers the project again.
+     */
+    public static void clearCache() {
+        DiscoveryCache.clear();
+    }
+
+    private static Optional<ProjectSettings> readProjectSettings(Path start) {
         Optional<Path> projectRoot = findProjectRoot(start);
         if (projectRoot.isEmpty()) {
             return Optional.empty();
@@ -61,6 +80,10 @@ public final class ProjectDiscovery {
     }
 
     public static String resolveHstRoot(Path start) {
+        return DiscoveryCache.get(start, "hstRoot", () -> discoverHstRoot(start));
+    }
+
+    private static String discoverHstRoot(Path start) {
         ProjectSettings settings = loadProjectSettings(start).orElse(null);
         if (settings != null && settings.getHstRoot() != null) {
             return normalizeHstRoot(settings.getHstRoot());
@@ -77,6 +100,10 @@ public final class ProjectDiscovery {
     }
 
     public static String resolveProjectNamespace(Path start) {
+        return DiscoveryCache.get(start, "projectNamespace", () -> discoverProjectNamespace(start));
+    }
+
+    private static String discoverProjectNamespace(Path start) {
         ProjectSettings settings = loadProjectSettings(start).orElse(null);
         if (settings != null && settings.getProjectNamespace() != null) {
             return settings.getProjectNamespace();
@@ -128,6 +155,16 @@ public final class ProjectDiscovery {
                                                                String testPackage,
                                                                BeanPackageOrder order,
                                                                boolean includeDomain) {
+        String name = "beanPackages:" + testPackage + ":" + order + ":" + includeDomain;
+        // the cached list is shared, callers get a copy of their own as before caching
+        return new ArrayList<>(DiscoveryCache.get(start, name,
+            () -> List.copyOf(discoverBeanPackages(start, testPackage, order, includeDomain))));
+    }
+
+    private static List<String> discoverBeanPackages(Path start,
+                                                     String testPackage,
+                                                     BeanPackageOrder order,
+                                                     boolean includeDomain) {
         Optional<Path> projectRoot = findProjectRoot(start);
         ProjectSettings settings = projectRoot.isPresent()
             ? loadProjectSettings(projectRoot.get()).orElse(null)
@@ -166,6 +203,12 @@ public final class ProjectDiscovery {
     }
 
     public static List<Path> discoverRepositoryModuleDescriptors(Path start, List<String> requestedModules) {
+        String name = "moduleDescriptors:" + (requestedModules != null ? requestedModules : List.of());
+        return new ArrayList<>(DiscoveryCache.get(start, name,
+            () -> List.copyOf(findRepositoryModuleDescriptors(start, requestedModules))));
+    }
+
+    private static List<Path> findRepositoryModuleDescriptors(Path start, List<String> requestedModules) {
         Path projectRoot = findProjectRoot(start).orElse(start.toAbsolutePath().normalize());
         ProjectSettings settings = loadProjectSettings(projectRoot).orElse(null);
         String repositoryDataModule = settings != null && settings.getRepositoryDataModule() != null
@@ -1,17 +1,21 @@
 package org.bloomreach.forge.brut.common.project.strategy;
 
+import org.bloomreach.forge.brut.common.scan.NodeBeanReader;
+
 import java.io.File;
 import java.io.IOException;
-import java.lang.annotation.Annotation;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.stream.Stream;
 
 /**
@@ -21,15 +25,20 @@ import java.util.stream.Stream;
  *
  * <p>Scans bounded prefixes (com.*, org.*) with common bean package
  * suffixes (beans, model, domain) to limit scanning scope.</p>
+ *
+ * <p>Annotations are read from the class files with {@link NodeBeanReader}; no candidate class is
+ * loaded. The packages found are remembered per class loader for the lifetime of the JVM, so the
+ * classpath is scanned once per test run rather than once per test class.</p>
  */
 public final class ClasspathNodeAnnotationStrategy implements BeanPackageStrategy {
 
     public static final int PRIORITY = 20;
 
-    private static final String NODE_ANNOTATION_CLASS = "org.hippoecm.hst.content.beans.Node";
     private static final List<String> SCAN_SUFFIXES = List.of("beans", "model", "domain");
     private static final List<String> SCAN_PREFIXES = List.of("com", "org", "nl", "net");
 
+    private static final Map<ClassLoader, Set<String>> SCANNED = Collections.synchronizedMap(new WeakHashMap<>());
+
     @Override
     public int getPriority() {
         return PRIORITY;
@@ -37,18 +46,11 @@ public final class ClasspathNodeAnnotationStrategy implements BeanPackageStrateg
 
     @Override
     public Optional<List<String>> resolve(DiscoveryContext context) {
-        Set<String> foundPackages = new LinkedHashSet<>();
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-
-        Class<? extends Annotation> nodeAnnotation = loadNodeAnnotation(classLoader);
-        if (nodeAnnotation == null) {
-            return Optional.empty();
-        }
-
-        for (String prefix : SCAN_PREFIXES) {
-            for (String suffix : SCAN_SUFFIXES) {
-                scanPackagesWithSuffix(classLoader, prefix, suffix, nodeAnnotation, foundPackages);
-            }
+        Set<String> foundPackages = SCANNED.get(classLoader);
+        if (foundPackages == null) {
+            foundPackages = scan(classLoader);
+            SCANNED.put(classLoader, foundPackages);
         }
 
         if (foundPackages.isEmpty()) {
@@ -59,18 +61,22 @@ public final class ClasspathNodeAnnotationStrategy implements BeanPackageStrateg
         return Optional.of(packages);
     }
 
-    @SuppressWarnings("unchecked")
-    private Class<? extends Annotation> loadNodeAnnotation(ClassLoader classLoader) {
-        try {
-            return (Class<? extends Annotation>) classLoader.loadClass(NODE_ANNOTATION_CLASS);
-        } catch (ClassNotFoundException e) {
-            return null;
+    private Set<String> scan(ClassLoader classLoader) {
+        List<ScanRoot> roots = new ArrayList<>();
+        for (String prefix : SCAN_PREFIXES) {
+            collectRoots(classLoader, prefix, roots);
         }
+
+        // every root is walked once for all suffixes; roots are independent, so they are walked in parallel
+        Set<String> foundPackages = new LinkedHashSet<>();
+        roots.parallelStream()
+             .map(this::scanRoot)
+             .toList()
+             .forEach(foundPackages::addAll);
+        return Collections.unmodifiableSet(foundPackages);
     }
 
-    private void scanPackagesWithSuffix(ClassLoader classLoader, String prefix, String suffix,
-                                        Class<? extends Annotation> nodeAnnotation,
-                                        Set<String> foundPackages) {
+    private void collectRoots(ClassLoader classLoader, String prefix, List<ScanRoot> roots) {
         try {
             String resourcePath = prefix.replace('.', '/');
             Enumeration<URL> resources = classLoader.getResources(resourcePath);
@@ -78,7 +84,10 @@ public final class ClasspathNodeAnnotationStrategy implements BeanPackageStrateg
             while (resources.hasMoreElements()) {
                 URL resource = resources.nextElement();
                 if ("file".equals(resource.getProtocol())) {
-                    scanDirectory(new File(resource.toURI()), prefix, suffix, nodeAnnotation, foundPackages);
+                    File baseDir = new File(resource.toURI());
+                    if (baseDir.isDirectory()) {
+                        roots.add(new ScanRoot(baseDir.toPath(), prefix));
+                    }
                 }
             }
         } catch (Exception ignored) {
@@ -86,67 +95,41 @@ public final class ClasspathNodeAnnotationStrategy implements BeanPackageStrateg
         }
     }
 
-    private void scanDirectory(File baseDir, String basePackage, String targetSuffix,
-                               Class<? extends Annotation> nodeAnnotation,
-                               Set<String> foundPackages) {
-        if (!baseDir.isDirectory()) {
-            return;
-        }
-
-        try (Stream<Path> paths = Files.walk(baseDir.toPath(), 10)) {
-            paths.filter(path -> path.toFile().isDirectory())
-                 .filter(path -> path.getFileName().toString().equals(targetSuffix))
-                 .forEach(suffixDir -> scanClassesInPackage(suffixDir, baseDir.toPath(),
-                         basePackage, nodeAnnotation, foundPackages));
+    private List<String> scanRoot(ScanRoot root) {
+        List<String> foundPackages = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root.baseDir(), 10)) {
+            paths.filter(path -> SCAN_SUFFIXES.contains(path.getFileName().toString()))
+                 .filter(Files::isDirectory)
+                 .filter(this::containsNodeAnnotatedClass)
+                 .forEach(packageDir -> foundPackages.add(
+                         toPackageName(packageDir, root.baseDir(), root.basePackage())));
         } catch (IOException ignored) {
             // Continue with other directories
         }
+        return foundPackages;
     }
 
-    private void scanClassesInPackage(Path packageDir, Path baseDir, String basePackage,
-                                      Class<? extends Annotation> nodeAnnotation,
-                                      Set<String> foundPackages) {
+    private boolean containsNodeAnnotatedClass(Path packageDir) {
         try (Stream<Path> classFiles = Files.list(packageDir)) {
-            boolean hasNodeAnnotatedClass = classFiles
+            return classFiles
                     .filter(path -> path.toString().endsWith(".class"))
-                    .anyMatch(classFile -> isNodeAnnotated(classFile, baseDir, basePackage, nodeAnnotation));
-
-            if (hasNodeAnnotatedClass) {
-                String packageName = toPackageName(packageDir, baseDir, basePackage);
-                foundPackages.add(packageName);
-            }
+                    .anyMatch(this::isNodeAnnotated);
         } catch (IOException ignored) {
-            // Continue
-        }
-    }
-
-    private boolean isNodeAnnotated(Path classFile, Path baseDir, String basePackage,
-                                    Class<? extends Annotation> nodeAnnotation) {
-        String className = toClassName(classFile, baseDir, basePackage);
-        if (className == null) {
             return false;
         }
+    }
 
+    /**
+     * Reads the annotation from the class file rather than loading the class.
+     */
+    private boolean isNodeAnnotated(Path classFile) {
         try {
-            Class<?> clazz = Class.forName(className, false,
-                    Thread.currentThread().getContextClassLoader());
-            return clazz.isAnnotationPresent(nodeAnnotation);
-        } catch (ClassNotFoundException | NoClassDefFoundError ignored) {
+            return NodeBeanReader.read(Files.readAllBytes(classFile)).isPresent();
+        } catch (IOException ignored) {
             return false;
         }
     }
 
-    private String toClassName(Path classFile, Path baseDir, String basePackage) {
-        Path relativePath = baseDir.relativize(classFile);
-        String pathString = relativePath.toString();
-        if (!pathString.endsWith(".class")) {
-            return null;
-        }
-        return basePackage + "." + pathString
-                .substring(0, pathString.length() - ".class".length())
-                .replace(File.separatorChar, '.');
-    }
-
     private String toPackageName(Path packageDir, Path baseDir, String basePackage) {
         Path relativePath = baseDir.relativize(packageDir);
         return basePackage + "." + relativePath.toString().replace(File.separatorChar, '.');
@@ -186,4 +169,7 @@ public final class ClasspathNodeAnnotationStrategy implements BeanPackageStrateg
 
         return result;
     }
+
+    private record ScanRoot(Path baseDir, String basePackage) {
+    }
 }
@@ -15,16 +15,17 @@
  */
 package org.bloomreach.forge.brut.common.repository;
 
-import org.apache.jackrabbit.commons.cnd.CndImporter;
-
 import org.hippoecm.repository.api.RuntimeRepositoryException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 
+import org.bloomreach.forge.brut.common.repository.utils.CndUtils;
+import org.bloomreach.forge.brut.common.scan.ClasspathIndex;
+import org.bloomreach.forge.brut.common.scan.IndexedResourcePatternResolver;
 import org.bloomreach.forge.brut.common.repository.utils.HippoPathUtils;
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
 
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
@@ -32,9 +33,12 @@ import javax.jcr.Session;
 import javax.jcr.SimpleCredentials;
 import javax.jcr.nodetype.NodeType;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Abstract base class for BRUT repository implementations.
@@ -49,42 +53,54 @@ public abstract class AbstractBrutRepository extends BrxmTestingRepository {
     }
 
     /**
-     * Registers CND node types from the given patterns.
+     * Registers CND node types from the given patterns. The node types of all CNDs are registered in one
+     * batch, so a CND may refer to node types of a CND that is matched by a later pattern.
      */
     protected void registerCnds(Session session, List<String> cndResourcesPatterns) throws RepositoryException {
-        for (String cndResourcePattern : cndResourcesPatterns) {
-            registerNamespaces(session, resolveResourcePattern(cndResourcePattern));
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.CND_REGISTRATION)) {
+            List<Resource> cndResources = new ArrayList<>();
+            for (String cndResourcePattern : cndResourcesPatterns) {
+                cndResources.addAll(Arrays.asList(resolveResourcePattern(cndResourcePattern)));
+            }
+            registerNamespaces(session, cndResources.toArray(new Resource[0]));
         }
     }
 
     /**
-     * Registers namespaces from CND resources.
+     * Registers namespaces and node types from CND resources. CNDs are parsed once per JVM, see {@link CndUtils}.
      */
     protected void registerNamespaces(Session session, Resource[] cndResources) throws RepositoryException {
+        List<CndUtils.ParsedCnd> cnds = new ArrayList<>(cndResources.length);
         for (Resource cndResource : cndResources) {
-            try {
-                LOG.debug("Registering CND: {}", cndResource.getFilename());
-                NodeType[] nodeTypes = CndImporter.registerNodeTypes(
-                        new InputStreamReader(cndResource.getInputStream()), session);
-                LOG.debug("Registered {} node type(s) from {}", nodeTypes.length, cndResource.getFilename());
-                for (NodeType nt : nodeTypes) {
-                    LOG.debug("  - {}", nt.getName());
-                }
-            } catch (Exception e) {
+            LOG.debug("Registering CND: {}", cndResource.getFilename());
+            try (InputStream in = cndResource.getInputStream()) {
+                cnds.add(CndUtils.parse(session, cndResource.getFilename(), in.readAllBytes()));
+            } catch (IOException e) {
                 throw new RepositoryException(
                         String.format("Failed to register CND file: %s%nCause: %s",
                                 cndResource.getFilename(), e.getMessage()), e);
             }
         }
+        try {
+            List<NodeType> nodeTypes = CndUtils.registerNodeTypes(session, cnds);
+            for (NodeType nt : nodeTypes) {
+                LOG.debug("  - {}", nt.getName());
+            }
+        } catch (RepositoryException e) {
+            throw new RepositoryException(
+                    String.format("Failed to register CND files: %s%nCause: %s",
+                            cnds.stream().map(CndUtils.ParsedCnd::systemId).collect(Collectors.joining(", ")),
+                            e.getMessage()), e);
+        }
     }
 
     /**
-     * Resolves resources matching the given classpath pattern.
+     * Resolves resources matching the given classpath pattern, from the {@link ClasspathIndex} when possible.
      */
     protected Resource[] resolveResourcePattern(String pattern) throws RepositoryException {
         try {
             ClassLoader cl = this.getClass().getClassLoader();
-            ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(cl);
+            ResourcePatternResolver resolver = new IndexedResourcePatternResolver(cl);
             Resource[] resources = resolver.getResources(pattern);
             return resources;
         } catch (Exception e) {
@@ -93,17 +109,19 @@ public abstract class AbstractBrutRepository extends BrxmTestingRepository {
     }
 
     /**
-     * Recalculates hippo paths for HstQuery support.
+     * Recalculates hippo paths for HstQuery support. Only nodes that were added or moved since the previous
+     * calculation are written, see {@link HippoPathUtils#updateHippoPaths(Node, List)}.
      *
      * @param absolutePath absolute JCR path (e.g., "/content")
      */
     protected void recalculateHippoPaths(String absolutePath) {
         Session session = null;
-        try {
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.HIPPO_PATHS)) {
             session = this.login(new SimpleCredentials("admin", "admin".toCharArray()));
             Node rootNode = session.getRootNode();
             Node node = rootNode.getNode(absolutePath.substring(1));
-            calculateHippoPaths(node, getPathsForNode(node, rootNode));
+            int updated = updateHippoPaths(node, getPathsForNode(node, rootNode));
+            LOG.debug("Updated hippo:paths of {} node(s) below {}", updated, absolutePath);
             session.save();
         } catch (RepositoryException e) {
             throw new RuntimeRepositoryException(e);
@@ -144,6 +162,10 @@ public abstract class AbstractBrutRepository extends BrxmTestingRepository {
         HippoPathUtils.calculateHippoPaths(node, paths);
     }
 
+    protected int updateHippoPaths(Node node, LinkedList<String> paths) throws RepositoryException {
+        return HippoPathUtils.updateHippoPaths(node, paths);
+    }
+
     protected void setHippoPath(Node node, LinkedList<String> paths) throws RepositoryException {
         HippoPathUtils.setHippoPath(node, paths);
     }
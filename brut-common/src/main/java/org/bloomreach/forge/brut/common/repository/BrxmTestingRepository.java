@@ -2,27 +2,35 @@ package org.bloomreach.forge.brut.common.repository;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.jackrabbit.core.config.RepositoryConfig;
+import org.apache.jackrabbit.core.fs.FileSystemException;
+import org.apache.jackrabbit.core.id.NodeId;
+import org.apache.jackrabbit.core.persistence.PersistenceManager;
+import org.apache.jackrabbit.core.state.ItemStateException;
 import org.hippoecm.repository.impl.RepositoryDecorator;
-import org.hippoecm.repository.jackrabbit.RepositoryImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import javax.jcr.Credentials;
 import javax.jcr.Repository;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import javax.jcr.UnsupportedRepositoryOperationException;
 import javax.jcr.Value;
 
 public class BrxmTestingRepository implements Repository, AutoCloseable {
 
-    private final RepositoryImpl originalRepository;
+    private final HippoRepository originalRepository;
     private final Repository repository;
     private final File repositoryFolder;
     private boolean managed = false;
@@ -31,10 +39,31 @@ public class BrxmTestingRepository implements Repository, AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(BrxmTestingRepository.class);
 
     public BrxmTestingRepository() throws RepositoryException, IOException {
+        this(null);
+    }
+
+    /**
+     * Starts a repository whose workspaces, version storage, namespaces and node types are copied
+     * from {@code template} instead of being empty. The initialisation keys recorded on the template
+     * repository are recorded on this one as well.
+     *
+     * @param template a template created by {@link #createTemplate()}, or {@code null} for an empty repository
+     */
+    public BrxmTestingRepository(RepositoryTemplate template) throws RepositoryException, IOException {
         InputStream configFile = BrxmTestingRepository.class.getClassLoader().getResourceAsStream(getRepositoryConfigFileLocation());
         this.repositoryFolder = Files.createTempDirectory("repository-").toFile();
-        RepositoryConfig config = RepositoryConfig.create(configFile, this.repositoryFolder.getAbsolutePath());
-        this.originalRepository = new HippoRepository(config);
+        String repositoryHome = this.repositoryFolder.getAbsolutePath();
+        RepositoryConfig config = RepositoryConfig.create(configFile, repositoryHome);
+        if (template != null) {
+            RepositoryStateRegistry.setSeed(repositoryHome, template);
+            appliedInitKeys.addAll(template.getInitializationKeys());
+        }
+        try {
+            this.originalRepository = new HippoRepository(config);
+        } catch (RepositoryException | RuntimeException e) {
+            RepositoryStateRegistry.removeSeed(repositoryHome);
+            throw e;
+        }
         this.repository = RepositoryDecorator.newRepositoryDecorator(originalRepository);
     }
 
@@ -57,8 +86,184 @@ public class BrxmTestingRepository implements Repository, AutoCloseable {
         return appliedInitKeys.add(key);
     }
 
+    /**
+     * Captures the persisted state of all workspaces. Runs in constant time regardless of the
+     * amount of content: the {@link CopyOnWriteBundlePersistenceManager} shares its maps with the
+     * checkpoint until they are next written to.
+     * <p>
+     * Only saved state is captured; transient changes and open transactions are not.
+     *
+     * @throws UnsupportedRepositoryOperationException if a workspace is not backed by a
+     *         {@link CopyOnWriteBundlePersistenceManager} or it cannot restore checkpoints
+     */
+    public RepositoryCheckpoint checkpoint() throws RepositoryException {
+        if (!CopyOnWriteBundlePersistenceManager.isRestoreSupported()) {
+            throw new UnsupportedRepositoryOperationException("Checkpoints cannot be restored with this "
+                    + "Jackrabbit version, see the error logged by " + CopyOnWriteBundlePersistenceManager.class.getName());
+        }
+        Map<String, CopyOnWriteBundlePersistenceManager.Snapshot> snapshots = new LinkedHashMap<>();
+        for (Map.Entry<String, PersistenceManager> entry : originalRepository.getWorkspacePersistenceManagers().entrySet()) {
+            snapshots.put(entry.getKey(), copyOnWrite(entry.getKey(), entry.getValue()).snapshot());
+        }
+        return new RepositoryCheckpoint(this, snapshots);
+    }
+
+    /**
+     * Resets all workspaces to the state captured by {@code checkpoint}. Only the nodes that changed
+     * since the checkpoint are touched: their cached item states are reloaded or dropped, which
+     * notifies live sessions (including pooled ones) so that they observe the checkpointed content
+     * after their next refresh, and they are reindexed so that queries see it too.
+     * <p>
+     * Transient changes of live sessions are not discarded. The version storage and the node type
+     * registry are not rolled back.
+     */
+    public void restore(RepositoryCheckpoint checkpoint) throws RepositoryException {
+        if (checkpoint == null || checkpoint.getRepository() != this) {
+            throw new IllegalArgumentException("Checkpoint was not created by this repository");
+        }
+        Map<String, PersistenceManager> persistenceManagers = originalRepository.getWorkspacePersistenceManagers();
+        for (Map.Entry<String, CopyOnWriteBundlePersistenceManager.Snapshot> entry : checkpoint.getWorkspaces().entrySet()) {
+            String workspaceName = entry.getKey();
+            CopyOnWriteBundlePersistenceManager.Snapshot target = entry.getValue();
+            CopyOnWriteBundlePersistenceManager persistenceManager =
+                    copyOnWrite(workspaceName, persistenceManagers.get(workspaceName));
+            CopyOnWriteBundlePersistenceManager.Snapshot previous = persistenceManager.snapshot();
+            persistenceManager.restore(target);
+
+            Set<NodeId> changed = previous.changedNodes(target);
+            if (changed.isEmpty()) {
+                continue;
+            }
+            originalRepository.refreshSharedItemStates(workspaceName, changed);
+            Set<NodeId> written = new LinkedHashSet<>();
+            for (NodeId id : changed) {
+                if (target.containsBundle(id)) {
+                    written.add(id);
+                }
+            }
+            originalRepository.reindex(workspaceName, changed, written);
+            LOG.debug("Restored {} node(s) of workspace '{}'", changed.size(), workspaceName);
+        }
+    }
+
+    /**
+     * Captures the current persisted state of this repository as a {@link RepositoryTemplate} from
+     * which new repositories can be forked. Only saved state is captured.
+     *
+     * @throws UnsupportedRepositoryOperationException if the repository configuration does not use
+     *         {@link SeedableMemoryFileSystem} and {@link CopyOnWriteBundlePersistenceManager} with a
+     *         {@code repositoryHome} and {@code scope}
+     */
+    public RepositoryTemplate createTemplate() throws RepositoryException {
+        String repositoryHome = repositoryFolder.getAbsolutePath();
+        Map<String, CopyOnWriteBundlePersistenceManager> persistenceManagers =
+                RepositoryStateRegistry.getPersistenceManagers(repositoryHome);
+        Map<String, SeedableMemoryFileSystem> fileSystems = RepositoryStateRegistry.getFileSystems(repositoryHome);
+        if (persistenceManagers.isEmpty() || fileSystems.isEmpty()) {
+            throw new UnsupportedRepositoryOperationException("Repository configuration "
+                    + getRepositoryConfigFileLocation() + " does not support templates");
+        }
+
+        // bundles first: the name index in the file systems only grows, so copying it afterwards
+        // guarantees it covers every name used by the captured bundles
+        Map<String, CopyOnWriteBundlePersistenceManager.Snapshot> snapshots = new LinkedHashMap<>();
+        persistenceManagers.forEach((scope, persistenceManager) -> snapshots.put(scope, persistenceManager.snapshot()));
+
+        Map<String, Map<String, byte[]>> contents = new LinkedHashMap<>();
+        for (Map.Entry<String, SeedableMemoryFileSystem> entry : fileSystems.entrySet()) {
+            try {
+                contents.put(entry.getKey(), entry.getValue().copyContents());
+            } catch (FileSystemException | IOException e) {
+                throw new RepositoryException("Failed to copy file system '" + entry.getKey() + "'", e);
+            }
+        }
+
+        Set<String> initKeys;
+        synchronized (appliedInitKeys) {
+            initKeys = new HashSet<>(appliedInitKeys);
+        }
+        return new RepositoryTemplate(contents, snapshots, initKeys);
+    }
+
+    /**
+     * Writes the saved content of the session's workspace and of the version storage, together with
+     * the namespaces and node types it depends on, to {@code out}. Unlike a {@link RepositoryTemplate}
+     * the image does not depend on the internal name indexes of this repository, so it can be stored
+     * and loaded into another repository, in this JVM or a later one, with {@link #readImage}.
+     *
+     * @throws UnsupportedRepositoryOperationException if the workspace or the version storage is not
+     *         backed by a {@link CopyOnWriteBundlePersistenceManager} with a {@code repositoryHome} and {@code scope}
+     */
+    public void writeImage(Session session, OutputStream out) throws RepositoryException, IOException {
+        RepositoryImage.capture(session, imageScopes(session)).write(out);
+    }
+
+    /**
+     * Loads an image written by {@link #writeImage} into the session's workspace. Missing namespaces
+     * and node types are registered, the workspace content is replaced by that of the image and
+     * reindexed, and version histories of the image are added to the version storage.
+     * <p>
+     * The image is read completely before anything is changed, so an unreadable image fails with an
+     * {@link IOException} and leaves the repository untouched. Unlike {@link #restore}, the item state
+     * caches are evicted wholesale, so sessions that are live while the image is loaded should be
+     * logged out before further use.
+     */
+    public void readImage(Session session, InputStream in) throws RepositoryException, IOException {
+        RepositoryImage image = RepositoryImage.read(in);
+        Map<String, CopyOnWriteBundlePersistenceManager> persistenceManagers = imageScopes(session);
+        String workspaceName = session.getWorkspace().getName();
+        String workspaceScope = RepositoryImage.WORKSPACE_SCOPE_PREFIX + workspaceName;
+        if (!image.getScopes().keySet().equals(persistenceManagers.keySet())) {
+            throw new RepositoryException("Repository image contains " + image.getScopes().keySet()
+                    + " but workspace '" + workspaceName + "' needs " + persistenceManagers.keySet());
+        }
+
+        image.registerNamespacesAndNodeTypes(session);
+        try {
+            // version histories are only added: the version storage root is cached by the version
+            // manager and cannot be evicted, so existing bundles are kept as they are
+            persistenceManagers.get(RepositoryImage.VERSION_SCOPE)
+                    .importPortable(image.getScopes().get(RepositoryImage.VERSION_SCOPE), false);
+            CopyOnWriteBundlePersistenceManager.ImportResult result = persistenceManagers.get(workspaceScope)
+                    .importPortable(image.getScopes().get(workspaceScope), true);
+            originalRepository.evictSharedItemStates(workspaceName);
+            originalRepository.reindex(workspaceName, result.removed(), result.written());
+            LOG.debug("Loaded repository image with {} bundle(s) into workspace '{}'",
+                    result.written().size(), workspaceName);
+        } catch (ItemStateException e) {
+            throw new RepositoryException("Failed to load repository image into workspace '" + workspaceName + "'", e);
+        }
+    }
+
+    private Map<String, CopyOnWriteBundlePersistenceManager> imageScopes(Session session)
+            throws UnsupportedRepositoryOperationException {
+        Map<String, CopyOnWriteBundlePersistenceManager> registered =
+                RepositoryStateRegistry.getPersistenceManagers(repositoryFolder.getAbsolutePath());
+        String workspaceScope = RepositoryImage.WORKSPACE_SCOPE_PREFIX + session.getWorkspace().getName();
+        Map<String, CopyOnWriteBundlePersistenceManager> scopes = new LinkedHashMap<>();
+        for (String scope : new String[]{RepositoryImage.VERSION_SCOPE, workspaceScope}) {
+            CopyOnWriteBundlePersistenceManager persistenceManager = registered.get(scope);
+            if (persistenceManager == null) {
+                throw new UnsupportedRepositoryOperationException("Repository configuration "
+                        + getRepositoryConfigFileLocation() + " does not support images for scope '" + scope + "'");
+            }
+            scopes.put(scope, persistenceManager);
+        }
+        return scopes;
+    }
+
+    private static CopyOnWriteBundlePersistenceManager copyOnWrite(String workspaceName, PersistenceManager persistenceManager)
+            throws UnsupportedRepositoryOperationException {
+        if (persistenceManager instanceof CopyOnWriteBundlePersistenceManager) {
+            return (CopyOnWriteBundlePersistenceManager) persistenceManager;
+        }
+        throw new UnsupportedRepositoryOperationException("Workspace '" + workspaceName + "' is not backed by "
+                + CopyOnWriteBundlePersistenceManager.class.getSimpleName() + " and cannot be checkpointed");
+    }
+
     public void shutdown() throws IOException {
         originalRepository.shutdown();
+        RepositoryStateRegistry.removeSeed(repositoryFolder.getAbsolutePath());
         FileUtils.deleteDirectory(repositoryFolder);
     }
 
@@ -0,0 +1,479 @@
+package org.bloomreach.forge.brut.common.repository;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.jackrabbit.core.id.NodeId;
+import org.apache.jackrabbit.core.id.PropertyId;
+import org.apache.jackrabbit.core.persistence.PMContext;
+import org.apache.jackrabbit.core.persistence.bundle.AbstractBundlePersistenceManager;
+import org.apache.jackrabbit.core.persistence.util.BLOBStore;
+import org.apache.jackrabbit.core.persistence.util.BundleBinding;
+import org.apache.jackrabbit.core.persistence.util.ErrorHandling;
+import org.apache.jackrabbit.core.persistence.util.NodePropBundle;
+import org.apache.jackrabbit.core.persistence.util.Serializer;
+import org.apache.jackrabbit.core.state.ItemStateException;
+import org.apache.jackrabbit.core.state.NoSuchItemStateException;
+import org.apache.jackrabbit.core.state.NodeReferences;
+import org.apache.jackrabbit.core.util.StringIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory bundle persistence manager whose bundles, references and blobs live in
+ * {@link PersistentHashMap}s. Writes replace the current maps with structurally shared copies,
+ * so a {@link Snapshot} is just a reference to the maps as they were and {@link #restore(Snapshot)}
+ * swaps them back in, independently of how many nodes the workspace holds.
+ * <p>
+ * Drop-in replacement for {@code InMemBundlePersistenceManager} with {@code persistent=false}. When
+ * configured with {@code repositoryHome} and {@code scope}, a repository forked from a
+ * {@link RepositoryTemplate} starts from the template's snapshot for the same scope.
+ */
+public class CopyOnWriteBundlePersistenceManager extends AbstractBundlePersistenceManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CopyOnWriteBundlePersistenceManager.class);
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MIN_BLOB_SIZE = 0x4000;
+    private static final int INLINE_ALL_BLOBS = Integer.MAX_VALUE;
+    private static final String[] INHERITED_CACHE_FIELDS = {"bundles", "missing"};
+
+    /**
+     * The inherited cache fields, or {@code null} if one of them does not exist in this Jackrabbit version.
+     */
+    private static final List<Field> INHERITED_CACHES = findInheritedCaches();
+
+    private volatile Snapshot current = Snapshot.EMPTY;
+    private BLOBStore blobStore;
+    private BundleBinding binding;
+    private boolean initialized;
+    private String repositoryHome;
+    private String scope;
+
+    public void setRepositoryHome(String repositoryHome) {
+        this.repositoryHome = repositoryHome;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    @Override
+    public void init(PMContext context) throws Exception {
+        if (initialized) {
+            throw new IllegalStateException("already initialized");
+        }
+        super.init(context);
+        RepositoryTemplate seed = RepositoryStateRegistry.getSeed(repositoryHome);
+        Snapshot seeded = seed != null ? seed.getPersistenceSnapshot(scope) : null;
+        current = seeded != null ? seeded : Snapshot.EMPTY;
+        blobStore = new SnapshotBlobStore();
+        binding = new BundleBinding(new ErrorHandling(), blobStore, getNsIndex(), getNameIndex(),
+                context.getDataStore());
+        binding.setMinBlobSize(MIN_BLOB_SIZE);
+        initialized = true;
+        RepositoryStateRegistry.register(repositoryHome, scope, this);
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (!initialized) {
+            throw new IllegalStateException("not initialized");
+        }
+        RepositoryStateRegistry.unregister(repositoryHome, scope, this);
+        try {
+            super.close();
+        } finally {
+            current = Snapshot.EMPTY;
+            initialized = false;
+        }
+    }
+
+    /**
+     * Captures the persisted state of this workspace. Constant time: the returned snapshot shares
+     * every branch with the live maps until they are next written to.
+     */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * @return whether {@link #restore(Snapshot)} can drop the bundle cache of the superclass; it cannot if
+     * Jackrabbit renamed its cache fields, and then a restored workspace would serve stale bundles
+     */
+    public static boolean isRestoreSupported() {
+        return INHERITED_CACHES != null;
+    }
+
+    /**
+     * Makes {@code snapshot} the persisted state of this workspace and drops the bundle cache.
+     * Callers are responsible for evicting item states cached above the persistence layer.
+     *
+     * @throws IllegalStateException if restoring is not supported, see {@link #isRestoreSupported()}
+     */
+    public synchronized void restore(Snapshot snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("snapshot must not be null");
+        }
+        if (!isRestoreSupported()) {
+            throw new IllegalStateException("Cannot restore a snapshot: the bundle cache of "
+                    + AbstractBundlePersistenceManager.class.getSimpleName() + " cannot be cleared");
+        }
+        current = snapshot;
+        clearBundleCaches();
+    }
+
+    /**
+     * Re-encodes the current bundles against string tables of their own, with every binary value
+     * inlined, so that they can be loaded into another repository by {@link #importPortable}.
+     */
+    synchronized PortableBundles exportPortable() throws ItemStateException {
+        PortableBundles.RecordingIndex namespaces = new PortableBundles.RecordingIndex();
+        PortableBundles.RecordingIndex names = new PortableBundles.RecordingIndex();
+        BundleBinding portable = portableBinding(namespaces, names);
+        Snapshot snapshot = current;
+        Map<NodeId, byte[]> bundles = new LinkedHashMap<>();
+        for (Map.Entry<NodeId, byte[]> entry : snapshot.bundles) {
+            NodeId id = entry.getKey();
+            try {
+                NodePropBundle bundle = binding.readBundle(new ByteArrayInputStream(entry.getValue()), id);
+                ByteArrayOutputStream out = new ByteArrayOutputStream(entry.getValue().length);
+                portable.writeBundle(out, bundle);
+                bundles.put(id, out.toByteArray());
+            } catch (IOException | RuntimeException e) {
+                throw new ItemStateException("failed to export bundle: " + id, e);
+            }
+        }
+        Map<NodeId, byte[]> references = new LinkedHashMap<>();
+        for (Map.Entry<NodeId, byte[]> entry : snapshot.references) {
+            references.put(entry.getKey(), entry.getValue());
+        }
+        return new PortableBundles(namespaces.getStrings(), names.getStrings(), bundles, references);
+    }
+
+    /**
+     * Loads bundles exported by {@link #exportPortable()}, re-encoding them against this
+     * repository's indexes. With {@code replace} the imported bundles become the entire state;
+     * otherwise only bundles and references that do not exist yet are added. All bundles are decoded
+     * before the state is swapped, so a corrupt image leaves this persistence manager untouched.
+     * Callers are responsible for evicting item states cached above the persistence layer.
+     */
+    synchronized ImportResult importPortable(PortableBundles image, boolean replace) throws ItemStateException {
+        BundleBinding portable = portableBinding(image.namespaceIndex(), image.nameIndex());
+        Snapshot previous = current;
+        Snapshot target = replace ? Snapshot.EMPTY : previous;
+        PersistentHashMap<NodeId, byte[]> bundles = target.bundles;
+        List<NodeId> written = new ArrayList<>();
+        for (Map.Entry<NodeId, byte[]> entry : image.getBundles().entrySet()) {
+            NodeId id = entry.getKey();
+            if (!replace && bundles.containsKey(id)) {
+                continue;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(entry.getValue().length);
+            try {
+                NodePropBundle bundle = portable.readBundle(new ByteArrayInputStream(entry.getValue()), id);
+                binding.writeBundle(out, bundle);
+            } catch (IOException | RuntimeException e) {
+                throw new ItemStateException("failed to import bundle: " + id, e);
+            }
+            bundles = bundles.put(id, out.toByteArray());
+            written.add(id);
+        }
+        PersistentHashMap<NodeId, byte[]> references = target.references;
+        for (Map.Entry<NodeId, byte[]> entry : image.getReferences().entrySet()) {
+            if (replace || !references.containsKey(entry.getKey())) {
+                references = references.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        List<NodeId> removed = new ArrayList<>();
+        if (replace) {
+            for (Map.Entry<NodeId, byte[]> entry : previous.bundles) {
+                removed.add(entry.getKey());
+            }
+        }
+        // binaries above the blob threshold were spilled into the current blob map while re-encoding
+        restore(target.withBundles(bundles).withReferences(references).withBlobs(current.blobs));
+        return new ImportResult(removed, written);
+    }
+
+    private BundleBinding portableBinding(StringIndex namespaceIndex, StringIndex nameIndex) {
+        BundleBinding portable = new BundleBinding(new ErrorHandling(), new InlineOnlyBlobStore(), namespaceIndex,
+                nameIndex, null);
+        portable.setMinBlobSize(INLINE_ALL_BLOBS);
+        return portable;
+    }
+
+    @Override
+    protected NodePropBundle loadBundle(NodeId id) throws ItemStateException {
+        byte[] data = current.bundles.get(id);
+        if (data == null) {
+            return null;
+        }
+        try {
+            NodePropBundle bundle = binding.readBundle(new ByteArrayInputStream(data), id);
+            bundle.setSize(data.length);
+            return bundle;
+        } catch (Exception e) {
+            String msg = "failed to read bundle: " + id + ": " + e;
+            LOG.error(msg);
+            throw new ItemStateException(msg, e);
+        }
+    }
+
+    @Override
+    protected boolean existsBundle(NodeId id) {
+        return current.bundles.containsKey(id);
+    }
+
+    @Override
+    protected synchronized void storeBundle(NodePropBundle bundle) throws ItemStateException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        try {
+            binding.writeBundle(out, bundle);
+        } catch (Exception e) {
+            String msg = "failed to write bundle: " + bundle.getId();
+            LOG.error(msg, e);
+            throw new ItemStateException(msg, e);
+        }
+        current = current.withBundles(current.bundles.put(bundle.getId(), out.toByteArray()));
+        bundle.setSize(out.size());
+    }
+
+    @Override
+    protected synchronized void destroyBundle(NodePropBundle bundle) {
+        current = current.withBundles(current.bundles.remove(bundle.getId()));
+    }
+
+    @Override
+    public NodeReferences loadReferencesTo(NodeId targetId) throws ItemStateException {
+        byte[] data = current.references.get(targetId);
+        if (data == null) {
+            throw new NoSuchItemStateException(targetId.toString());
+        }
+        try {
+            NodeReferences refs = new NodeReferences(targetId);
+            Serializer.deserialize(refs, new ByteArrayInputStream(data));
+            return refs;
+        } catch (Exception e) {
+            String msg = "failed to read references: " + targetId;
+            LOG.error(msg, e);
+            throw new ItemStateException(msg, e);
+        }
+    }
+
+    @Override
+    protected synchronized void store(NodeReferences refs) throws ItemStateException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        try {
+            Serializer.serialize(refs, out);
+        } catch (Exception e) {
+            String msg = "failed to write " + refs;
+            LOG.error(msg, e);
+            throw new ItemStateException(msg, e);
+        }
+        current = current.withReferences(current.references.put(refs.getTargetId(), out.toByteArray()));
+    }
+
+    @Override
+    protected synchronized void destroy(NodeReferences refs) {
+        current = current.withReferences(current.references.remove(refs.getTargetId()));
+    }
+
+    @Override
+    public boolean existsReferencesTo(NodeId targetId) {
+        return current.references.containsKey(targetId);
+    }
+
+    @Override
+    public List<NodeId> getAllNodeIds(NodeId after, int maxCount) {
+        List<NodeId> result = new ArrayList<>();
+        boolean add = after == null;
+        for (Map.Entry<NodeId, byte[]> entry : current.bundles) {
+            NodeId nodeId = entry.getKey();
+            if (!add) {
+                add = nodeId.equals(after);
+            } else {
+                result.add(nodeId);
+                if (maxCount > 0 && result.size() == maxCount) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected BLOBStore getBlobStore() {
+        return blobStore;
+    }
+
+    /**
+     * The bundle cache and the missing-id cache are private to the superclass and have no public
+     * clear operation, so they are reset reflectively. A stale entry there would otherwise serve
+     * a bundle that no longer exists in the restored maps.
+     */
+    private void clearBundleCaches() {
+        for (Field field : INHERITED_CACHES) {
+            try {
+                Object cache = field.get(this);
+                if (cache != null) {
+                    Method clear = cache.getClass().getMethod("clear");
+                    clear.setAccessible(true);
+                    clear.invoke(cache);
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new IllegalStateException("Failed to clear inherited cache field '" + field.getName() + "'", e);
+            }
+        }
+    }
+
+    private static List<Field> findInheritedCaches() {
+        List<Field> fields = new ArrayList<>();
+        for (String fieldName : INHERITED_CACHE_FIELDS) {
+            try {
+                Field field = AbstractBundlePersistenceManager.class.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                fields.add(field);
+            } catch (NoSuchFieldException | RuntimeException e) {
+                LOG.error("Checkpoint restore is disabled: {} has no accessible cache field '{}'",
+                        AbstractBundlePersistenceManager.class.getName(), fieldName, e);
+                return null;
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    /**
+     * Immutable view of a workspace's persisted bundles, references and blobs.
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(PersistentHashMap.empty(), PersistentHashMap.empty(),
+                PersistentHashMap.empty());
+
+        private final PersistentHashMap<NodeId, byte[]> bundles;
+        private final PersistentHashMap<NodeId, byte[]> references;
+        private final PersistentHashMap<String, byte[]> blobs;
+
+        private Snapshot(PersistentHashMap<NodeId, byte[]> bundles,
+                         PersistentHashMap<NodeId, byte[]> references,
+                         PersistentHashMap<String, byte[]> blobs) {
+            this.bundles = bundles;
+            this.references = references;
+            this.blobs = blobs;
+        }
+
+        public int getBundleCount() {
+            return bundles.size();
+        }
+
+        boolean containsBundle(NodeId id) {
+            return bundles.containsKey(id);
+        }
+
+        /**
+         * @return the nodes whose bundle differs between {@code this} and {@code other}, including
+         * nodes that exist in only one of them; branches shared by both snapshots are not visited
+         */
+        Set<NodeId> changedNodes(Snapshot other) {
+            Set<NodeId> changed = new LinkedHashSet<>();
+            PersistentHashMap.forEachChangedKey(bundles, other.bundles, changed::add);
+            return changed;
+        }
+
+        Snapshot withBundles(PersistentHashMap<NodeId, byte[]> newBundles) {
+            return new Snapshot(newBundles, references, blobs);
+        }
+
+        Snapshot withReferences(PersistentHashMap<NodeId, byte[]> newReferences) {
+            return new Snapshot(bundles, newReferences, blobs);
+        }
+
+        Snapshot withBlobs(PersistentHashMap<String, byte[]> newBlobs) {
+            return new Snapshot(bundles, references, newBlobs);
+        }
+    }
+
+    /**
+     * Outcome of {@link #importPortable}: the bundles that were dropped because the state was
+     * replaced, and the bundles that were written.
+     */
+    record ImportResult(List<NodeId> removed, List<NodeId> written) {
+    }
+
+    /**
+     * Blob store of the portable binding. Its minimum blob size makes it inline every binary, so
+     * it is never asked to store or load anything.
+     */
+    private static final class InlineOnlyBlobStore implements BLOBStore {
+
+        @Override
+        public String createId(PropertyId id, int index) {
+            throw new UnsupportedOperationException("portable bundles inline all binaries");
+        }
+
+        @Override
+        public void put(String blobId, InputStream in, long size) {
+            throw new UnsupportedOperationException("portable bundles inline all binaries");
+        }
+
+        @Override
+        public InputStream get(String blobId) throws Exception {
+            throw new Exception("no such BLOB: " + blobId);
+        }
+
+        @Override
+        public boolean remove(String blobId) {
+            return false;
+        }
+    }
+
+    private final class SnapshotBlobStore implements BLOBStore {
+
+        @Override
+        public String createId(PropertyId id, int index) {
+            return id.getParentId() + "/" + id.getName() + "." + index;
+        }
+
+        @Override
+        public void put(String blobId, InputStream in, long size) throws Exception {
+            byte[] data = IOUtils.toByteArray(in);
+            synchronized (CopyOnWriteBundlePersistenceManager.this) {
+                current = current.withBlobs(current.blobs.put(blobId, data));
+            }
+        }
+
+        @Override
+        public InputStream get(String blobId) throws Exception {
+            byte[] data = current.blobs.get(blobId);
+            if (data == null) {
+                throw new Exception("no such BLOB: " + blobId);
+            }
+            return new ByteArrayInputStream(data);
+        }
+
+        @Override
+        public boolean remove(String blobId) {
+            synchronized (CopyOnWriteBundlePersistenceManager.this) {
+                PersistentHashMap<String, byte[]> blobs = current.blobs;
+                if (!blobs.containsKey(blobId)) {
+                    return false;
+                }
+                current = current.withBlobs(blobs.remove(blobId));
+                return true;
+            }
+        }
+    }
+}
@@ -1,12 +1,141 @@
 package org.bloomreach.forge.brut.common.repository;
 
 import org.apache.jackrabbit.core.config.RepositoryConfig;
+import org.apache.jackrabbit.core.id.ItemId;
+import org.apache.jackrabbit.core.id.NodeId;
+import org.apache.jackrabbit.core.id.PropertyId;
+import org.apache.jackrabbit.core.persistence.PersistenceManager;
+import org.apache.jackrabbit.core.query.QueryHandler;
+import org.apache.jackrabbit.core.state.ChangeLog;
+import org.apache.jackrabbit.core.state.ItemState;
+import org.apache.jackrabbit.core.state.ItemStateCache;
+import org.apache.jackrabbit.core.state.ItemStateException;
+import org.apache.jackrabbit.core.state.NodeState;
+import org.apache.jackrabbit.core.state.SharedItemStateManager;
+import org.bloomreach.forge.brut.common.repository.utils.ReflectionUtils;
 import org.hippoecm.repository.jackrabbit.RepositoryImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.jcr.RepositoryException;
 
 class HippoRepository extends RepositoryImpl {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HippoRepository.class);
+
     HippoRepository(RepositoryConfig repConfig) throws RepositoryException {
         super(repConfig);
     }
+
+    Map<String, PersistenceManager> getWorkspacePersistenceManagers() throws RepositoryException {
+        Map<String, PersistenceManager> result = new LinkedHashMap<>();
+        for (String workspaceName : getWorkspaceNames()) {
+            result.put(workspaceName, getWorkspaceInfo(workspaceName).getPersistenceManager());
+        }
+        return result;
+    }
+
+    /**
+     * Drops every item state cached by the workspace's shared item state manager, so that the next
+     * read goes back to the persistence manager. Item states already held by live sessions are not
+     * affected.
+     */
+    void evictSharedItemStates(String workspaceName) throws RepositoryException {
+        Object itemStateManager = ReflectionUtils.invokeDeclaredMethod(getWorkspaceInfo(workspaceName),
+                "getItemStateProvider");
+        ItemStateCache cache = (ItemStateCache) ReflectionUtils.getDeclaredFieldValue(itemStateManager, "cache");
+        for (ItemState state : cache.retrieveAll()) {
+            cache.evict(state.getId());
+        }
+    }
+
+    /**
+     * Brings the item states cached by the workspace's shared item state manager in line with node
+     * bundles that were changed underneath it, the way Jackrabbit handles changes made by another
+     * cluster node: cached states of the changed nodes and of their properties are reloaded or
+     * marked removed, and the sessions holding local copies of them are notified. Unlike
+     * {@link #evictSharedItemStates(String)} this keeps live sessions, such as those pooled by HST,
+     * consistent. Falls back to eviction if the Jackrabbit internals are not available.
+     */
+    void refreshSharedItemStates(String workspaceName, Set<NodeId> changedNodes) throws RepositoryException {
+        if (changedNodes.isEmpty()) {
+            return;
+        }
+        PersistenceManager persistenceManager = getWorkspaceInfo(workspaceName).getPersistenceManager();
+        SharedItemStateManager itemStateManager = (SharedItemStateManager) ReflectionUtils.invokeDeclaredMethod(
+                getWorkspaceInfo(workspaceName), "getItemStateProvider");
+        ItemStateCache cache = (ItemStateCache) ReflectionUtils.getDeclaredFieldValue(itemStateManager, "cache");
+
+        ChangeLog external = new ChangeLog();
+        try {
+            for (ItemState state : cache.retrieveAll()) {
+                ItemId id = state.getId();
+                NodeId nodeId = state.isNode() ? (NodeId) id : ((PropertyId) id).getParentId();
+                if (!changedNodes.contains(nodeId)) {
+                    continue;
+                }
+                boolean exists = state.isNode()
+                        ? persistenceManager.exists((NodeId) id)
+                        : persistenceManager.exists((PropertyId) id);
+                if (exists) {
+                    external.modified(state);
+                } else {
+                    external.deleted(state);
+                }
+            }
+        } catch (ItemStateException e) {
+            throw new RepositoryException("Failed to refresh item states of workspace '" + workspaceName + "'", e);
+        }
+
+        try {
+            Method doExternalUpdate = SharedItemStateManager.class.getDeclaredMethod("doExternalUpdate", ChangeLog.class);
+            doExternalUpdate.setAccessible(true);
+            doExternalUpdate.invoke(itemStateManager, external);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            LOG.debug("External update not available, evicting all item states of workspace '{}'", workspaceName, e);
+            evictSharedItemStates(workspaceName);
+        } catch (InvocationTargetException e) {
+            throw new RepositoryException("Failed to refresh item states of workspace '" + workspaceName + "'",
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Brings the workspace's search index in line with bundles that were replaced underneath it:
+     * documents of {@code removed} and {@code written} nodes are dropped and the {@code written}
+     * nodes are indexed again from their persisted state. Call after
+     * {@link #evictSharedItemStates(String)}, so the states are read back from the persistence manager.
+     */
+    void reindex(String workspaceName, Collection<NodeId> removed, Collection<NodeId> written) throws RepositoryException {
+        Object workspaceInfo = getWorkspaceInfo(workspaceName);
+        Object searchManager = ReflectionUtils.invokeDeclaredMethod(workspaceInfo, "getSearchManager");
+        if (searchManager == null) {
+            return;
+        }
+        QueryHandler handler = (QueryHandler) ReflectionUtils.getDeclaredFieldValue(searchManager, "handler");
+        SharedItemStateManager itemStateManager = (SharedItemStateManager) ReflectionUtils.invokeDeclaredMethod(
+                workspaceInfo, "getItemStateProvider");
+
+        Set<NodeId> stale = new LinkedHashSet<>(removed);
+        stale.addAll(written);
+        List<NodeState> states = new ArrayList<>(written.size());
+        try {
+            for (NodeId id : written) {
+                states.add((NodeState) itemStateManager.getItemState(id));
+            }
+            handler.updateNodes(stale.iterator(), states.iterator());
+        } catch (ItemStateException | IOException e) {
+            throw new RepositoryException("Failed to reindex workspace '" + workspaceName + "'", e);
+        }
+    }
 }
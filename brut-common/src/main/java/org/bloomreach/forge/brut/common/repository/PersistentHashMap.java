@@ -0,0 +1,432 @@
+package org.bloomreach.forge.brut.common.repository;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Immutable hash array mapped trie. Every update returns a new map that shares all untouched
+ * branches with its predecessor, so holding on to an older version costs nothing and replacing
+ * the current version with an older one is a single reference assignment.
+ * <p>
+ * Lookups and updates are {@code O(log32 n)}. Iteration order is unspecified but stable for a
+ * given version.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class PersistentHashMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_DEPTH = 10;
+    private static final Object NOT_FOUND = new Object();
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean containsKey(Object key) {
+        return root != null && root.find(hash(key), key, 0) != NOT_FOUND;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        if (root == null) {
+            return null;
+        }
+        Object value = root.find(hash(key), key, 0);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    PersistentHashMap<K, V> put(K key, V value) {
+        Leaf leaf = new Leaf(hash(key), key, value);
+        if (root == null) {
+            return new PersistentHashMap<>(new BitmapNode(0, new Object[0]).put(leaf, 0), 1);
+        }
+        boolean added = root.find(leaf.hash, key, 0) == NOT_FOUND;
+        Node newRoot = root.put(leaf, 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, added ? size + 1 : size);
+    }
+
+    PersistentHashMap<K, V> remove(Object key) {
+        if (root == null) {
+            return this;
+        }
+        Object removed = root.remove(hash(key), key, 0);
+        if (removed == root) {
+            return this;
+        }
+        if (size == 1) {
+            return empty();
+        }
+        Node newRoot = removed instanceof Leaf leaf
+                ? new BitmapNode(0, new Object[0]).put(leaf, 0)
+                : (Node) removed;
+        return new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * Calls {@code action} for every key that is present in only one of the maps or maps to a
+     * different value instance in each. Branches the two maps share are skipped without being
+     * visited, so comparing two versions of the same map costs time proportional to the number
+     * of updates between them rather than to their size.
+     */
+    @SuppressWarnings("unchecked")
+    static <K> void forEachChangedKey(PersistentHashMap<K, ?> first, PersistentHashMap<K, ?> second,
+                                      Consumer<? super K> action) {
+        diff(first.root, second.root, (Consumer<Object>) action);
+    }
+
+    private static void diff(Object first, Object second, Consumer<Object> action) {
+        if (first == second) {
+            return;
+        }
+        if (first instanceof BitmapNode left && second instanceof BitmapNode right) {
+            for (int bits = left.bitmap | right.bitmap; bits != 0; bits &= bits - 1) {
+                int bit = Integer.lowestOneBit(bits);
+                Object leftSlot = (left.bitmap & bit) != 0 ? left.slots[left.index(bit)] : null;
+                Object rightSlot = (right.bitmap & bit) != 0 ? right.slots[right.index(bit)] : null;
+                diff(leftSlot, rightSlot, action);
+            }
+            return;
+        }
+        // leaves, collision nodes, or a leaf facing a subtree: small enough to compare entry by entry
+        Map<Object, Object> left = new HashMap<>();
+        collect(first, left);
+        Map<Object, Object> right = new HashMap<>();
+        collect(second, right);
+        for (Map.Entry<Object, Object> entry : left.entrySet()) {
+            if (!right.containsKey(entry.getKey()) || right.get(entry.getKey()) != entry.getValue()) {
+                action.accept(entry.getKey());
+            }
+        }
+        for (Object key : right.keySet()) {
+            if (!left.containsKey(key)) {
+                action.accept(key);
+            }
+        }
+    }
+
+    private static void collect(Object item, Map<Object, Object> entries) {
+        if (item instanceof Leaf leaf) {
+            entries.put(leaf.getKey(), leaf.getValue());
+        } else if (item instanceof Node node) {
+            for (Object child : node.children()) {
+                collect(child, entries);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator();
+    }
+
+    private static int hash(Object key) {
+        int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitFor(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static final class Leaf extends AbstractMap.SimpleImmutableEntry<Object, Object> {
+
+        private final int hash;
+
+        Leaf(int hash, Object key, Object value) {
+            super(key, value);
+            this.hash = hash;
+        }
+
+        boolean matches(int otherHash, Object otherKey) {
+            return hash == otherHash && Objects.equals(getKey(), otherKey);
+        }
+    }
+
+    private abstract static class Node {
+
+        abstract Object find(int hash, Object key, int shift);
+
+        abstract Node put(Leaf leaf, int shift);
+
+        /**
+         * @return {@code this} if the key was absent, {@code null} if the node became empty, a
+         * {@link Leaf} if a single entry remains, otherwise the replacement node
+         */
+        abstract Object remove(int hash, Object key, int shift);
+
+        abstract Object[] children();
+    }
+
+    private static final class BitmapNode extends Node {
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        @Override
+        Object find(int hash, Object key, int shift) {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            Object slot = slots[index(bit)];
+            if (slot instanceof Leaf) {
+                Leaf leaf = (Leaf) slot;
+                return leaf.matches(hash, key) ? leaf.getValue() : NOT_FOUND;
+            }
+            return ((Node) slot).find(hash, key, shift + BITS);
+        }
+
+        @Override
+        Node put(Leaf leaf, int shift) {
+            int bit = bitFor(leaf.hash, shift);
+            int idx = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, copy, 0, idx);
+                copy[idx] = leaf;
+                System.arraycopy(slots, idx, copy, idx + 1, slots.length - idx);
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object slot = slots[idx];
+            Object replacement;
+            if (slot instanceof Leaf) {
+                Leaf existing = (Leaf) slot;
+                if (existing.matches(leaf.hash, leaf.getKey())) {
+                    if (existing.getValue() == leaf.getValue()) {
+                        return this;
+                    }
+                    replacement = leaf;
+                } else {
+                    replacement = merge(existing, leaf, shift + BITS);
+                }
+            } else {
+                Node child = (Node) slot;
+                Node updated = child.put(leaf, shift + BITS);
+                if (updated == child) {
+                    return this;
+                }
+                replacement = updated;
+            }
+            Object[] copy = slots.clone();
+            copy[idx] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        Object remove(int hash, Object key, int shift) {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = index(bit);
+            Object slot = slots[idx];
+            Object replacement;
+            if (slot instanceof Leaf) {
+                Leaf leaf = (Leaf) slot;
+                if (!leaf.matches(hash, key)) {
+                    return this;
+                }
+                replacement = null;
+            } else {
+                Object result = ((Node) slot).remove(hash, key, shift + BITS);
+                if (result == slot) {
+                    return this;
+                }
+                replacement = result;
+            }
+            if (replacement == null) {
+                if (slots.length == 1) {
+                    return null;
+                }
+                if (slots.length == 2 && slots[1 - idx] instanceof Leaf) {
+                    return slots[1 - idx];
+                }
+                Object[] copy = new Object[slots.length - 1];
+                System.arraycopy(slots, 0, copy, 0, idx);
+                System.arraycopy(slots, idx + 1, copy, idx, slots.length - idx - 1);
+                return new BitmapNode(bitmap & ~bit, copy);
+            }
+            if (slots.length == 1 && replacement instanceof Leaf) {
+                return replacement;
+            }
+            Object[] copy = slots.clone();
+            copy[idx] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        Object[] children() {
+            return slots;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private Node merge(Leaf first, Leaf second, int shift) {
+            if (first.hash == second.hash) {
+                return new CollisionNode(first.hash, new Object[]{first, second});
+            }
+            int firstBit = bitFor(first.hash, shift);
+            int secondBit = bitFor(second.hash, shift);
+            if (firstBit == secondBit) {
+                return new BitmapNode(firstBit, new Object[]{merge(first, second, shift + BITS)});
+            }
+            Object[] pair = Integer.compareUnsigned(firstBit, secondBit) < 0
+                    ? new Object[]{first, second}
+                    : new Object[]{second, first};
+            return new BitmapNode(firstBit | secondBit, pair);
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] leaves;
+
+        CollisionNode(int hash, Object[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        @Override
+        Object find(int otherHash, Object key, int shift) {
+            int idx = indexOf(otherHash, key);
+            return idx < 0 ? NOT_FOUND : ((Leaf) leaves[idx]).getValue();
+        }
+
+        @Override
+        Node put(Leaf leaf, int shift) {
+            int idx = indexOf(leaf.hash, leaf.getKey());
+            if (idx < 0) {
+                Object[] copy = Arrays.copyOf(leaves, leaves.length + 1);
+                copy[leaves.length] = leaf;
+                return new CollisionNode(hash, copy);
+            }
+            if (((Leaf) leaves[idx]).getValue() == leaf.getValue()) {
+                return this;
+            }
+            Object[] copy = leaves.clone();
+            copy[idx] = leaf;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Object remove(int otherHash, Object key, int shift) {
+            int idx = indexOf(otherHash, key);
+            if (idx < 0) {
+                return this;
+            }
+            if (leaves.length == 2) {
+                return leaves[1 - idx];
+            }
+            Object[] copy = new Object[leaves.length - 1];
+            System.arraycopy(leaves, 0, copy, 0, idx);
+            System.arraycopy(leaves, idx + 1, copy, idx, leaves.length - idx - 1);
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Object[] children() {
+            return leaves;
+        }
+
+        private int indexOf(int otherHash, Object key) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (((Leaf) leaves[i]).matches(otherHash, key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        private final Object[][] stack = new Object[MAX_DEPTH][];
+        private final int[] cursor = new int[MAX_DEPTH];
+        private int depth = -1;
+        private Leaf next;
+
+        EntryIterator() {
+            if (root != null) {
+                push(root.children());
+                advance();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Leaf current = next;
+            advance();
+            return (Map.Entry<K, V>) (Map.Entry<?, ?>) current;
+        }
+
+        private void push(Object[] children) {
+            depth++;
+            stack[depth] = children;
+            cursor[depth] = 0;
+        }
+
+        private void advance() {
+            while (depth >= 0) {
+                Object[] level = stack[depth];
+                if (cursor[depth] < level.length) {
+                    Object item = level[cursor[depth]++];
+                    if (item instanceof Leaf) {
+                        next = (Leaf) item;
+                        return;
+                    }
+                    push(((Node) item).children());
+                } else {
+                    stack[depth--] = null;
+                }
+            }
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.bloomreach.forge.brut.common.repository;
+
+import org.apache.jackrabbit.core.id.NodeId;
+import org.apache.jackrabbit.core.util.StringIndex;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bundles and references of one persistence manager, encoded against string tables of their own
+ * instead of the name and namespace indexes of the repository they were taken from. That makes
+ * them loadable into any repository that has the same namespaces and node types registered.
+ */
+final class PortableBundles {
+
+    private final List<String> namespaces;
+    private final List<String> names;
+    private final Map<NodeId, byte[]> bundles;
+    private final Map<NodeId, byte[]> references;
+
+    PortableBundles(List<String> namespaces, List<String> names,
+                    Map<NodeId, byte[]> bundles, Map<NodeId, byte[]> references) {
+        this.namespaces = List.copyOf(namespaces);
+        this.names = List.copyOf(names);
+        this.bundles = Collections.unmodifiableMap(new LinkedHashMap<>(bundles));
+        this.references = Collections.unmodifiableMap(new LinkedHashMap<>(references));
+    }
+
+    StringIndex namespaceIndex() {
+        return new TableIndex(namespaces);
+    }
+
+    StringIndex nameIndex() {
+        return new TableIndex(names);
+    }
+
+    Map<NodeId, byte[]> getBundles() {
+        return bundles;
+    }
+
+    Map<NodeId, byte[]> getReferences() {
+        return references;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        writeStrings(out, namespaces);
+        writeStrings(out, names);
+        writeEntries(out, bundles);
+        writeEntries(out, references);
+    }
+
+    static PortableBundles read(DataInputStream in) throws IOException {
+        List<String> namespaces = readStrings(in);
+        List<String> names = readStrings(in);
+        Map<NodeId, byte[]> bundles = readEntries(in);
+        Map<NodeId, byte[]> references = readEntries(in);
+        return new PortableBundles(namespaces, names, bundles, references);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    private static void writeEntries(DataOutputStream out, Map<NodeId, byte[]> entries) throws IOException {
+        out.writeInt(entries.size());
+        for (Map.Entry<NodeId, byte[]> entry : entries.entrySet()) {
+            out.writeLong(entry.getKey().getMostSignificantBits());
+            out.writeLong(entry.getKey().getLeastSignificantBits());
+            out.writeInt(entry.getValue().length);
+            out.write(entry.getValue());
+        }
+    }
+
+    private static Map<NodeId, byte[]> readEntries(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        Map<NodeId, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            NodeId id = new NodeId(in.readLong(), in.readLong());
+            byte[] data = new byte[readCount(in)];
+            in.readFully(data);
+            entries.put(id, data);
+        }
+        return entries;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt repository image: negative count " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Index that hands out consecutive numbers for the strings it is asked about while bundles are
+     * written, and afterwards provides the table to store next to them.
+     */
+    static final class RecordingIndex implements StringIndex {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        @Override
+        public int stringToIndex(String string) {
+            return indexes.computeIfAbsent(string, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+
+        @Override
+        public String indexToString(int index) {
+            return strings.get(index);
+        }
+
+        List<String> getStrings() {
+            return strings;
+        }
+    }
+
+    private static final class TableIndex implements StringIndex {
+
+        private final List<String> strings;
+
+        TableIndex(List<String> strings) {
+            this.strings = strings;
+        }
+
+        @Override
+        public int stringToIndex(String string) {
+            throw new UnsupportedOperationException("read-only string table");
+        }
+
+        @Override
+        public String indexToString(int index) {
+            if (index < 0 || index >= strings.size()) {
+                throw new IllegalArgumentException("Unknown string index " + index);
+            }
+            return strings.get(index);
+        }
+    }
+}
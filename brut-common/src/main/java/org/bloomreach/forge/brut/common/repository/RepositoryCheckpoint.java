@@ -0,0 +1,35 @@
+package org.bloomreach.forge.brut.common.repository;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Point-in-time capture of the persisted state of every workspace of a {@link BrxmTestingRepository}.
+ * Obtained from {@link BrxmTestingRepository#checkpoint()} and handed back to
+ * {@link BrxmTestingRepository#restore(RepositoryCheckpoint)}; only valid for the repository that created it.
+ */
+public final class RepositoryCheckpoint {
+
+    private final BrxmTestingRepository repository;
+    private final Map<String, CopyOnWriteBundlePersistenceManager.Snapshot> workspaces;
+
+    RepositoryCheckpoint(BrxmTestingRepository repository,
+                         Map<String, CopyOnWriteBundlePersistenceManager.Snapshot> workspaces) {
+        this.repository = repository;
+        this.workspaces = Collections.unmodifiableMap(new LinkedHashMap<>(workspaces));
+    }
+
+    public Set<String> getWorkspaceNames() {
+        return workspaces.keySet();
+    }
+
+    BrxmTestingRepository getRepository() {
+        return repository;
+    }
+
+    Map<String, CopyOnWriteBundlePersistenceManager.Snapshot> getWorkspaces() {
+        return workspaces;
+    }
+}
@@ -0,0 +1,170 @@
+package org.bloomreach.forge.brut.common.repository;
+
+import org.apache.jackrabbit.commons.cnd.CndImporter;
+import org.apache.jackrabbit.commons.cnd.CompactNodeTypeDefWriter;
+import org.apache.jackrabbit.commons.cnd.ParseException;
+import org.apache.jackrabbit.core.state.ItemStateException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.jcr.NamespaceException;
+import javax.jcr.NamespaceRegistry;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.nodetype.NodeTypeIterator;
+
+/**
+ * Serialized form of a bootstrapped repository: the non built-in namespaces and node types, and
+ * the {@link PortableBundles} of each persistence manager scope. See
+ * {@link BrxmTestingRepository#writeImage} and {@link BrxmTestingRepository#readImage}.
+ */
+final class RepositoryImage {
+
+    static final String VERSION_SCOPE = "version";
+    static final String WORKSPACE_SCOPE_PREFIX = "workspace/";
+
+    private static final int MAGIC = 0x42525449;
+    private static final int FORMAT_VERSION = 1;
+    private static final Set<String> BUILT_IN_PREFIXES = Set.of("", "jcr", "nt", "mix", "xml", "sv", "rep");
+
+    private final Map<String, String> namespaces;
+    private final String nodeTypes;
+    private final Map<String, PortableBundles> scopes;
+
+    private RepositoryImage(Map<String, String> namespaces, String nodeTypes, Map<String, PortableBundles> scopes) {
+        this.namespaces = Collections.unmodifiableMap(new LinkedHashMap<>(namespaces));
+        this.nodeTypes = nodeTypes;
+        this.scopes = Collections.unmodifiableMap(new LinkedHashMap<>(scopes));
+    }
+
+    static RepositoryImage capture(Session session, Map<String, CopyOnWriteBundlePersistenceManager> persistenceManagers)
+            throws RepositoryException {
+        NamespaceRegistry registry = session.getWorkspace().getNamespaceRegistry();
+        Map<String, String> namespaces = new LinkedHashMap<>();
+        for (String prefix : registry.getPrefixes()) {
+            if (!BUILT_IN_PREFIXES.contains(prefix)) {
+                namespaces.put(prefix, registry.getURI(prefix));
+            }
+        }
+
+        StringWriter cnd = new StringWriter();
+        try {
+            CompactNodeTypeDefWriter writer = new CompactNodeTypeDefWriter(cnd, session, true);
+            for (NodeTypeIterator it = session.getWorkspace().getNodeTypeManager().getAllNodeTypes(); it.hasNext(); ) {
+                NodeType nodeType = it.nextNodeType();
+                if (!isBuiltIn(nodeType.getName())) {
+                    writer.write(nodeType);
+                }
+            }
+            writer.close();
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to write node type definitions", e);
+        }
+
+        Map<String, PortableBundles> scopes = new LinkedHashMap<>();
+        for (Map.Entry<String, CopyOnWriteBundlePersistenceManager> entry : persistenceManagers.entrySet()) {
+            try {
+                scopes.put(entry.getKey(), entry.getValue().exportPortable());
+            } catch (ItemStateException e) {
+                throw new RepositoryException("Failed to export persistence manager '" + entry.getKey() + "'", e);
+            }
+        }
+        return new RepositoryImage(namespaces, cnd.toString(), scopes);
+    }
+
+    Map<String, PortableBundles> getScopes() {
+        return scopes;
+    }
+
+    /**
+     * Registers the namespaces and node types of the image that are not known to the session's
+     * repository yet. Node types that already exist are left as they are.
+     */
+    void registerNamespacesAndNodeTypes(Session session) throws RepositoryException {
+        NamespaceRegistry registry = session.getWorkspace().getNamespaceRegistry();
+        for (Map.Entry<String, String> namespace : namespaces.entrySet()) {
+            try {
+                registry.getPrefix(namespace.getValue());
+            } catch (NamespaceException e) {
+                registry.registerNamespace(namespace.getKey(), namespace.getValue());
+            }
+        }
+        try {
+            CndImporter.registerNodeTypes(new StringReader(nodeTypes), session, false);
+        } catch (ParseException | IOException e) {
+            throw new RepositoryException("Failed to register node types of repository image", e);
+        }
+    }
+
+    void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(namespaces.size());
+        for (Map.Entry<String, String> namespace : namespaces.entrySet()) {
+            data.writeUTF(namespace.getKey());
+            data.writeUTF(namespace.getValue());
+        }
+        byte[] cnd = nodeTypes.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(cnd.length);
+        data.write(cnd);
+        data.writeInt(scopes.size());
+        for (Map.Entry<String, PortableBundles> scope : scopes.entrySet()) {
+            data.writeUTF(scope.getKey());
+            scope.getValue().write(data);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads an image completely into memory, so that a truncated or otherwise corrupt stream fails
+     * here rather than half way through loading it into a repository.
+     */
+    static RepositoryImage read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a repository image");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported repository image format " + version + ", expected " + FORMAT_VERSION);
+        }
+        Map<String, String> namespaces = new LinkedHashMap<>();
+        for (int i = readCount(data); i > 0; i--) {
+            namespaces.put(data.readUTF(), data.readUTF());
+        }
+        byte[] cnd = new byte[readCount(data)];
+        data.readFully(cnd);
+        Map<String, PortableBundles> scopes = new LinkedHashMap<>();
+        for (int i = readCount(data); i > 0; i--) {
+            scopes.put(data.readUTF(), PortableBundles.read(data));
+        }
+        return new RepositoryImage(namespaces, new String(cnd, StandardCharsets.UTF_8), scopes);
+    }
+
+    private static int readCount(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt repository image: negative count " + count);
+        }
+        return count;
+    }
+
+    private static boolean isBuiltIn(String nodeTypeName) {
+        int colon = nodeTypeName.indexOf(':');
+        return BUILT_IN_PREFIXES.contains(colon < 0 ? "" : nodeTypeName.substring(0, colon));
+    }
+}
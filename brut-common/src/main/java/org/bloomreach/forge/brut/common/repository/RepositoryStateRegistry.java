@@ -0,0 +1,81 @@
+package org.bloomreach.forge.brut.common.repository;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the in-memory file systems and persistence managers of every running
+ * {@link BrxmTestingRepository}, keyed by repository home and scope
+ * ({@code repository}, {@code version} or {@code workspace/<name>}), and the template a repository
+ * is being forked from. Jackrabbit instantiates these components from {@code repository.xml}, so
+ * this is the only way for the repository to reach them.
+ */
+final class RepositoryStateRegistry {
+
+    private static final Map<String, Map<String, SeedableMemoryFileSystem>> FILE_SYSTEMS = new ConcurrentHashMap<>();
+    private static final Map<String, Map<String, CopyOnWriteBundlePersistenceManager>> PERSISTENCE_MANAGERS =
+            new ConcurrentHashMap<>();
+    private static final Map<String, RepositoryTemplate> SEEDS = new ConcurrentHashMap<>();
+
+    private RepositoryStateRegistry() {
+        // utility class
+    }
+
+    static void register(String repositoryHome, String scope, SeedableMemoryFileSystem fileSystem) {
+        register(FILE_SYSTEMS, repositoryHome, scope, fileSystem);
+    }
+
+    static void unregister(String repositoryHome, String scope, SeedableMemoryFileSystem fileSystem) {
+        unregister(FILE_SYSTEMS, repositoryHome, scope, fileSystem);
+    }
+
+    static void register(String repositoryHome, String scope, CopyOnWriteBundlePersistenceManager persistenceManager) {
+        register(PERSISTENCE_MANAGERS, repositoryHome, scope, persistenceManager);
+    }
+
+    static void unregister(String repositoryHome, String scope, CopyOnWriteBundlePersistenceManager persistenceManager) {
+        unregister(PERSISTENCE_MANAGERS, repositoryHome, scope, persistenceManager);
+    }
+
+    static Map<String, SeedableMemoryFileSystem> getFileSystems(String repositoryHome) {
+        return snapshotOf(FILE_SYSTEMS, repositoryHome);
+    }
+
+    static Map<String, CopyOnWriteBundlePersistenceManager> getPersistenceManagers(String repositoryHome) {
+        return snapshotOf(PERSISTENCE_MANAGERS, repositoryHome);
+    }
+
+    static void setSeed(String repositoryHome, RepositoryTemplate template) {
+        SEEDS.put(repositoryHome, template);
+    }
+
+    static void removeSeed(String repositoryHome) {
+        SEEDS.remove(repositoryHome);
+    }
+
+    static RepositoryTemplate getSeed(String repositoryHome) {
+        return repositoryHome != null ? SEEDS.get(repositoryHome) : null;
+    }
+
+    private static <T> void register(Map<String, Map<String, T>> registry, String repositoryHome, String scope, T value) {
+        if (repositoryHome != null && scope != null) {
+            registry.computeIfAbsent(repositoryHome, k -> new ConcurrentHashMap<>()).put(scope, value);
+        }
+    }
+
+    private static <T> void unregister(Map<String, Map<String, T>> registry, String repositoryHome, String scope, T value) {
+        if (repositoryHome == null || scope == null) {
+            return;
+        }
+        registry.computeIfPresent(repositoryHome, (k, byScope) -> {
+            byScope.remove(scope, value);
+            return byScope.isEmpty() ? null : byScope;
+        });
+    }
+
+    private static <T> Map<String, T> snapshotOf(Map<String, Map<String, T>> registry, String repositoryHome) {
+        Map<String, T> byScope = registry.get(repositoryHome);
+        return byScope != null ? Map.copyOf(byScope) : Collections.emptyMap();
+    }
+}
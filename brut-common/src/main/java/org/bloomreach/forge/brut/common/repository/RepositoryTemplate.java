@@ -0,0 +1,53 @@
+package org.bloomreach.forge.brut.common.repository;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable image of a bootstrapped {@link BrxmTestingRepository}: the persisted bundles of every
+ * workspace and of the version storage, the contents of the in-memory file systems that hold the
+ * namespace and node type registries, and the initialisation keys recorded so far.
+ * <p>
+ * Created with {@link BrxmTestingRepository#createTemplate()}; any number of independent
+ * repositories can then be started from it with {@link BrxmTestingRepository#BrxmTestingRepository(RepositoryTemplate)}
+ * without repeating the bootstrap. Bundles are structurally shared, so a fork only pays for what
+ * it changes. The search index is not part of the template; Jackrabbit rebuilds it from the
+ * forked bundles when the workspace starts.
+ */
+public final class RepositoryTemplate {
+
+    private final Map<String, Map<String, byte[]>> fileSystems;
+    private final Map<String, CopyOnWriteBundlePersistenceManager.Snapshot> persistence;
+    private final Set<String> initializationKeys;
+
+    RepositoryTemplate(Map<String, Map<String, byte[]>> fileSystems,
+                       Map<String, CopyOnWriteBundlePersistenceManager.Snapshot> persistence,
+                       Set<String> initializationKeys) {
+        this.fileSystems = Collections.unmodifiableMap(new LinkedHashMap<>(fileSystems));
+        this.persistence = Collections.unmodifiableMap(new LinkedHashMap<>(persistence));
+        this.initializationKeys = Collections.unmodifiableSet(new HashSet<>(initializationKeys));
+    }
+
+    /**
+     * @return the keys passed to {@link BrxmTestingRepository#recordInitialization(String)} on the
+     * template repository; forks start with the same keys recorded
+     */
+    public Set<String> getInitializationKeys() {
+        return initializationKeys;
+    }
+
+    public Set<String> getScopes() {
+        return persistence.keySet();
+    }
+
+    Map<String, byte[]> getFileSystem(String scope) {
+        return fileSystems.get(scope);
+    }
+
+    CopyOnWriteBundlePersistenceManager.Snapshot getPersistenceSnapshot(String scope) {
+        return persistence.get(scope);
+    }
+}
@@ -0,0 +1,113 @@
+package org.bloomreach.forge.brut.common.repository;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.jackrabbit.core.fs.FileSystemException;
+import org.apache.jackrabbit.core.fs.mem.MemoryFileSystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link MemoryFileSystem} that can be copied into a {@link RepositoryTemplate} and pre-populated
+ * from one when a repository is forked. Jackrabbit keeps the namespace registry, the custom node
+ * types and the bundle name index in these file systems, so they have to travel together with the
+ * persisted bundles.
+ * <p>
+ * Configured in {@code repository.xml} with {@code repositoryHome} ({@code ${rep.home}}) and a
+ * {@code scope} that identifies it within the repository.
+ */
+public class SeedableMemoryFileSystem extends MemoryFileSystem {
+
+    private static final String ROOT = "/";
+
+    private String repositoryHome;
+    private String scope;
+
+    public void setRepositoryHome(String repositoryHome) {
+        this.repositoryHome = repositoryHome;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        RepositoryTemplate seed = RepositoryStateRegistry.getSeed(repositoryHome);
+        if (seed != null) {
+            Map<String, byte[]> files = seed.getFileSystem(scope);
+            if (files != null) {
+                try {
+                    writeContents(files);
+                } catch (FileSystemException | IOException e) {
+                    throw new IllegalStateException("Failed to seed file system '" + scope + "' from template", e);
+                }
+            }
+        }
+        RepositoryStateRegistry.register(repositoryHome, scope, this);
+    }
+
+    @Override
+    public void close() {
+        RepositoryStateRegistry.unregister(repositoryHome, scope, this);
+        super.close();
+    }
+
+    /**
+     * Copies every folder and file of this file system. Folders are recorded with a {@code null}
+     * value; parents always precede their children.
+     */
+    Map<String, byte[]> copyContents() throws FileSystemException, IOException {
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        copyFolder(ROOT, contents);
+        return contents;
+    }
+
+    private void copyFolder(String folderPath, Map<String, byte[]> contents) throws FileSystemException, IOException {
+        for (String folder : listFolders(folderPath)) {
+            String path = childPath(folderPath, folder);
+            contents.put(path, null);
+            copyFolder(path, contents);
+        }
+        for (String file : listFiles(folderPath)) {
+            String path = childPath(folderPath, file);
+            try (InputStream in = getInputStream(path)) {
+                contents.put(path, IOUtils.toByteArray(in));
+            }
+        }
+    }
+
+    private void writeContents(Map<String, byte[]> contents) throws FileSystemException, IOException {
+        contents.entrySet().stream()
+                .filter(entry -> entry.getValue() == null)
+                .map(Map.Entry::getKey)
+                .sorted(Comparator.comparingInt(String::length))
+                .forEach(this::ensureFolder);
+        for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+            if (entry.getValue() != null) {
+                try (OutputStream out = getOutputStream(entry.getKey())) {
+                    out.write(entry.getValue());
+                }
+            }
+        }
+    }
+
+    private void ensureFolder(String folderPath) {
+        try {
+            if (!isFolder(folderPath)) {
+                createFolder(folderPath);
+            }
+        } catch (FileSystemException e) {
+            throw new IllegalStateException("Failed to create folder " + folderPath, e);
+        }
+    }
+
+    private static String childPath(String folderPath, String name) {
+        return ROOT.equals(folderPath) ? ROOT + name : folderPath + "/" + name;
+    }
+}
@@ -0,0 +1,275 @@
+package org.bloomreach.forge.brut.common.repository.utils;
+
+import org.apache.jackrabbit.core.nodetype.NodeTypeDefinitionImpl;
+import org.bloomreach.forge.brut.common.cache.ContentDigests;
+import org.apache.jackrabbit.spi.Name;
+import org.apache.jackrabbit.spi.QNodeTypeDefinition;
+import org.apache.jackrabbit.spi.commons.conversion.NamePathResolver;
+import org.apache.jackrabbit.spi.commons.namespace.NamespaceMapping;
+import org.apache.jackrabbit.spi.commons.namespace.NamespaceResolver;
+import org.apache.jackrabbit.spi.commons.nodetype.QDefinitionBuilderFactory;
+import org.apache.jackrabbit.spi.commons.nodetype.compact.CompactNodeTypeDefReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.NamespaceException;
+import javax.jcr.NamespaceRegistry;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.ValueFactory;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.nodetype.NodeTypeDefinition;
+import javax.jcr.nodetype.NodeTypeIterator;
+import javax.jcr.nodetype.NodeTypeManager;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Parses CND files into repository independent definitions and registers them in bulk.
+ * <p>
+ * Parsed CNDs are cached for the lifetime of the JVM by the SHA-256 digest of their content and the URIs of the
+ * prefixes they use without declaring them, so the CNDs every test repository registers are parsed once.
+ * {@link #registerNodeTypes(Session, List)} registers the node types of several CNDs with a single
+ * {@link NodeTypeManager#registerNodeTypes} call: the registry validates the batch once, and node types may
+ * refer to node types of another CND regardless of the order of the files.
+ */
+public final class CndUtils {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CndUtils.class);
+
+    /**
+     * Parsed CNDs by content digest; one entry per distinct mapping of the prefixes a CND uses without declaring.
+     */
+    private static final Map<String, List<CachedCnd>> PARSED = new ConcurrentHashMap<>();
+
+    private CndUtils() {
+        // utility class
+    }
+
+    /**
+     * Parses a CND, or returns the cached result of a CND with the same content. Only the prefixes the CND
+     * declares and the built-in {@code jcr}, {@code nt}, {@code mix} and {@code xml} prefixes can be used.
+     *
+     * @param systemId name of the CND, used in error messages
+     * @param content  the CND
+     */
+    public static ParsedCnd parse(String systemId, byte[] content) throws RepositoryException {
+        return parse(systemId, content, null);
+    }
+
+    /**
+     * Parses a CND like {@link #parse(String, byte[])}, resolving the prefixes it uses without declaring them,
+     * such as {@code hippo}, against the namespace registry of the session's repository. The namespaces the
+     * CND declares are registered, so that CNDs parsed after it may use them as well.
+     *
+     * @param session  session of the repository the node types are registered in
+     * @param systemId name of the CND, used in error messages
+     * @param content  the CND
+     * @since 6.2.0
+     */
+    public static ParsedCnd parse(Session session, String systemId, byte[] content) throws RepositoryException {
+        NamespaceRegistry registry = session.getWorkspace().getNamespaceRegistry();
+        ParsedCnd parsed = parse(systemId, content, registry);
+        registerNamespaces(registry, List.of(parsed));
+        return parsed;
+    }
+
+    private static ParsedCnd parse(String systemId, byte[] content, NamespaceRegistry registry)
+            throws RepositoryException {
+        List<CachedCnd> variants = PARSED.computeIfAbsent(ContentDigests.sha256Hex(content), key -> new CopyOnWriteArrayList<>());
+        for (CachedCnd variant : variants) {
+            if (variant.resolvesLike(registry)) {
+                return variant.parsed();
+            }
+        }
+        RegistryResolver resolver = registry != null ? new RegistryResolver(registry) : null;
+        ParsedCnd parsed;
+        try {
+            Reader reader = new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8);
+            CompactNodeTypeDefReader<QNodeTypeDefinition, NamespaceMapping> cndReader = resolver != null
+                    ? new CompactNodeTypeDefReader<>(reader, systemId, new NamespaceMapping(resolver),
+                            new QDefinitionBuilderFactory())
+                    : new CompactNodeTypeDefReader<>(reader, systemId, new QDefinitionBuilderFactory());
+            parsed = new ParsedCnd(systemId,
+                    Collections.unmodifiableMap(new LinkedHashMap<>(cndReader.getNamespaceMapping().getPrefixToURIMapping())),
+                    List.copyOf(cndReader.getNodeTypeDefinitions()));
+        } catch (Exception e) {
+            throw new RepositoryException(
+                    String.format("Failed to parse CND file: %s%nCause: %s", systemId, e.getMessage()), e);
+        }
+        variants.add(new CachedCnd(resolver != null ? resolver.resolved() : Map.of(), parsed));
+        return parsed;
+    }
+
+    /**
+     * Registers the namespaces and node types of {@code cnds} that are not known to the session's repository
+     * yet, all node types in one call. Node types that already exist are left as they are; a node type
+     * declared by several CNDs is taken from the first.
+     *
+     * @return the registered node types
+     */
+    public static List<NodeType> registerNodeTypes(Session session, List<ParsedCnd> cnds) throws RepositoryException {
+        registerNamespaces(session.getWorkspace().getNamespaceRegistry(), cnds);
+
+        NodeTypeManager nodeTypeManager = session.getWorkspace().getNodeTypeManager();
+        NamePathResolver resolver = NodeTypeUtils.getNamePathResolver(session);
+        Map<Name, QNodeTypeDefinition> pending = new LinkedHashMap<>();
+        for (ParsedCnd cnd : cnds) {
+            for (QNodeTypeDefinition definition : cnd.nodeTypes()) {
+                Name name = definition.getName();
+                if (!pending.containsKey(name) && !nodeTypeManager.hasNodeType(resolver.getJCRName(name))) {
+                    pending.put(name, definition);
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+
+        ValueFactory valueFactory = session.getValueFactory();
+        List<NodeTypeDefinition> definitions = new ArrayList<>(pending.size());
+        for (QNodeTypeDefinition definition : supertypesFirst(pending)) {
+            definitions.add(new NodeTypeDefinitionImpl(definition, resolver, valueFactory));
+        }
+        List<NodeType> registered = new ArrayList<>(definitions.size());
+        NodeTypeIterator nodeTypes = nodeTypeManager.registerNodeTypes(
+                definitions.toArray(new NodeTypeDefinition[0]), false);
+        while (nodeTypes.hasNext()) {
+            registered.add(nodeTypes.nextNodeType());
+        }
+        LOG.debug("Registered {} node type(s) from {} CND file(s)", registered.size(), cnds.size());
+        return registered;
+    }
+
+    static void clearCache() {
+        PARSED.clear();
+    }
+
+    private static void registerNamespaces(NamespaceRegistry registry, List<ParsedCnd> cnds)
+            throws RepositoryException {
+        for (ParsedCnd cnd : cnds) {
+            for (Map.Entry<String, String> namespace : cnd.namespaces().entrySet()) {
+                if (namespace.getKey().isEmpty()) {
+                    continue;
+                }
+                try {
+                    registry.getPrefix(namespace.getValue());
+                } catch (NamespaceException e) {
+                    registry.registerNamespace(namespace.getKey(), namespace.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Orders the definitions so that supertypes declared in the batch precede their subtypes.
+     */
+    private static List<QNodeTypeDefinition> supertypesFirst(Map<Name, QNodeTypeDefinition> definitions) {
+        List<QNodeTypeDefinition> ordered = new ArrayList<>(definitions.size());
+        Set<Name> visited = new HashSet<>();
+        for (Name name : definitions.keySet()) {
+            addSupertypesFirst(name, definitions, visited, ordered);
+        }
+        return ordered;
+    }
+
+    private static void addSupertypesFirst(Name name, Map<Name, QNodeTypeDefinition> definitions, Set<Name> visited,
+                                           List<QNodeTypeDefinition> ordered) {
+        QNodeTypeDefinition definition = definitions.get(name);
+        if (definition == null || !visited.add(name)) {
+            return;
+        }
+        for (Name supertype : definition.getSupertypes()) {
+            addSupertypesFirst(supertype, definitions, visited, ordered);
+        }
+        ordered.add(definition);
+    }
+
+    /**
+     * A parsed CND and the URIs of the prefixes it used without declaring them.
+     */
+    private record CachedCnd(Map<String, String> resolved, ParsedCnd parsed) {
+
+        /**
+         * @return whether {@code registry} maps the prefixes the CND used without declaring them to the same URIs
+         */
+        boolean resolvesLike(NamespaceRegistry registry) {
+            if (registry == null) {
+                return resolved.isEmpty();
+            }
+            for (Map.Entry<String, String> namespace : resolved.entrySet()) {
+                try {
+                    if (!namespace.getValue().equals(registry.getURI(namespace.getKey()))) {
+                        return false;
+                    }
+                } catch (RepositoryException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Resolves prefixes against a namespace registry and records the mappings it resolved.
+     */
+    private static final class RegistryResolver implements NamespaceResolver {
+
+        private final NamespaceRegistry registry;
+        private final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+        RegistryResolver(NamespaceRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public String getURI(String prefix) throws NamespaceException {
+            try {
+                String uri = registry.getURI(prefix);
+                resolved.put(prefix, uri);
+                return uri;
+            } catch (NamespaceException e) {
+                throw e;
+            } catch (RepositoryException e) {
+                throw new NamespaceException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public String getPrefix(String uri) throws NamespaceException {
+            try {
+                return registry.getPrefix(uri);
+            } catch (NamespaceException e) {
+                throw e;
+            } catch (RepositoryException e) {
+                throw new NamespaceException(e.getMessage(), e);
+            }
+        }
+
+        Map<String, String> resolved() {
+            return Map.copyOf(resolved);
+        }
+    }
+
+    /**
+     * The namespaces and node type definitions of a CND. Definitions use expanded names, so they can be
+     * registered in any repository.
+     *
+     * @param systemId   name of the CND that was parsed first with this content
+     * @param namespaces prefix to URI mapping declared by the CND
+     * @param nodeTypes  node types in declaration order
+     */
+    public record ParsedCnd(String systemId, Map<String, String> namespaces, List<QNodeTypeDefinition> nodeTypes) {
+    }
+}
@@ -2,8 +2,14 @@ package org.bloomreach.forge.brut.common.repository.utils;
 
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
+import javax.jcr.Property;
 import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
 
 import static org.hippoecm.repository.api.HippoNodeType.HIPPO_PATHS;
 
@@ -31,24 +37,27 @@ public final class HippoPathUtils {
     }
 
     /**
-     * Recursively sets {@code hippo:paths} on {@code node} and all its descendants,
+     * Sets {@code hippo:paths} on {@code node} and all its descendants,
      * skipping {@code hippo:handle} subtrees (handled via {@link #setHandleHippoPaths}) and
      * {@code hippotranslation:translations} subtrees.
+     *
+     * @param paths the ancestor identifiers of {@code node}, see {@link #getPathsForNode(Node, Node)}
      */
-    @SuppressWarnings("unchecked")
     public static void calculateHippoPaths(Node node, LinkedList<String> paths) throws RepositoryException {
-        paths.add(0, node.getIdentifier());
-        setHippoPath(node, paths);
-        for (NodeIterator nodes = node.getNodes(); nodes.hasNext(); ) {
-            Node subnode = nodes.nextNode();
-            if (!subnode.isNodeType("hippo:handle")) {
-                if (!subnode.isNodeType("hippotranslation:translations")) {
-                    calculateHippoPaths(subnode, (LinkedList<String>) paths.clone());
-                }
-            } else {
-                setHandleHippoPaths(subnode, (LinkedList<String>) paths.clone());
-            }
-        }
+        walk(node, paths, false);
+    }
+
+    /**
+     * Incremental variant of {@link #calculateHippoPaths(Node, LinkedList)}: only writes {@code hippo:paths}
+     * where it is missing or differs from the computed value, i.e. on the nodes that were added or moved since
+     * the last calculation. Unchanged nodes are not modified, so saving afterwards only persists and reindexes
+     * the nodes that changed.
+     *
+     * @param paths the ancestor identifiers of {@code node}, see {@link #getPathsForNode(Node, Node)}
+     * @return the number of nodes whose {@code hippo:paths} was written
+     */
+    public static int updateHippoPaths(Node node, List<String> paths) throws RepositoryException {
+        return walk(node, paths, true);
     }
 
     public static void setHippoPath(Node node, LinkedList<String> paths) throws RepositoryException {
@@ -64,4 +73,106 @@ public final class HippoPathUtils {
             paths.remove(0);
         }
     }
+
+    /**
+     * Depth-first walk with an explicit stack. The identifiers of the current node and its ancestors are kept
+     * in one list, root first, that is truncated to the depth of each node taken from the stack, so no list is
+     * copied per node.
+     */
+    private static int walk(Node start, List<String> paths, boolean onlyChanged) throws RepositoryException {
+        List<String> ancestors = new ArrayList<>(paths.size() + 16);
+        for (int i = paths.size() - 1; i >= 0; i--) {
+            ancestors.add(paths.get(i));
+        }
+        int baseDepth = ancestors.size();
+        int written = 0;
+
+        Deque<PendingNode> pending = new ArrayDeque<>();
+        pending.push(new PendingNode(start, baseDepth));
+        List<Node> children = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            PendingNode current = pending.pop();
+            Node node = current.node();
+            ancestors.subList(current.depth(), ancestors.size()).clear();
+            ancestors.add(node.getIdentifier());
+            if (writePaths(node, ancestors, false, onlyChanged)) {
+                written++;
+            }
+
+            children.clear();
+            for (NodeIterator nodes = node.getNodes(); nodes.hasNext(); ) {
+                Node subnode = nodes.nextNode();
+                if (subnode.isNodeType("hippo:handle")) {
+                    written += writeHandlePaths(subnode, ancestors, onlyChanged);
+                } else if (!subnode.isNodeType("hippotranslation:translations")) {
+                    children.add(subnode);
+                }
+            }
+            // pushed in reverse, so that siblings are visited in document order
+            for (int i = children.size() - 1; i >= 0; i--) {
+                pending.push(new PendingNode(children.get(i), current.depth() + 1));
+            }
+        }
+        return written;
+    }
+
+    private static int writeHandlePaths(Node handle, List<String> ancestors, boolean onlyChanged)
+            throws RepositoryException {
+        int written = 0;
+        ancestors.add(handle.getIdentifier());
+        try {
+            for (NodeIterator nodes = handle.getNodes(handle.getName()); nodes.hasNext(); ) {
+                if (writePaths(nodes.nextNode(), ancestors, true, onlyChanged)) {
+                    written++;
+                }
+            }
+        } finally {
+            ancestors.remove(ancestors.size() - 1);
+        }
+        return written;
+    }
+
+    /**
+     * Writes the identifiers of {@code ancestors} in reverse, preceded by the identifier of {@code node} itself
+     * when {@code prependSelf} is set (documents of a handle are not part of {@code ancestors}).
+     */
+    private static boolean writePaths(Node node, List<String> ancestors, boolean prependSelf, boolean onlyChanged)
+            throws RepositoryException {
+        String[] values = new String[ancestors.size() + (prependSelf ? 1 : 0)];
+        int index = 0;
+        if (prependSelf) {
+            values[index++] = node.getIdentifier();
+        }
+        for (int i = ancestors.size() - 1; i >= 0; i--) {
+            values[index++] = ancestors.get(i);
+        }
+        if (onlyChanged && hasPaths(node, values)) {
+            return false;
+        }
+        node.setProperty(HIPPO_PATHS, values);
+        return true;
+    }
+
+    private static boolean hasPaths(Node node, String[] expected) throws RepositoryException {
+        if (!node.hasProperty(HIPPO_PATHS)) {
+            return false;
+        }
+        Property property = node.getProperty(HIPPO_PATHS);
+        if (!property.isMultiple()) {
+            return false;
+        }
+        Value[] values = property.getValues();
+        if (values.length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (!expected[i].equals(values[i].getString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record PendingNode(Node node, int depth) {
+    }
 }
@@ -1,6 +1,7 @@
 package org.bloomreach.forge.brut.common.repository.utils;
 
-import org.apache.jackrabbit.commons.cnd.CndImporter;
+import org.bloomreach.forge.brut.common.cache.BrutCache;
+import org.bloomreach.forge.brut.common.cache.ContentDigests;
 import org.bloomreach.forge.brut.common.repository.FileResourceInputProvider;
 import org.onehippo.cm.engine.JcrContentProcessor;
 import org.onehippo.cm.model.definition.ActionType;
@@ -17,39 +18,99 @@ import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.nodetype.NodeType;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URL;
+import java.util.List;
 
 public class ImporterUtils {
 
+    /**
+     * System property with the default batch size of {@link #importYaml(URL, Node, String, String)}; when it is set
+     * to a positive number, YAML is imported with {@link #importYaml(URL, Node, String, String, int)}.
+     *
+     * @since 6.2.0
+     */
+    public static final String BATCH_SIZE_PROPERTY = "brut.import.batchSize";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ImporterUtils.class);
     private static final JcrContentProcessor PROCESSOR = new JcrContentProcessor();
 
+    /**
+     * Parsed content definitions by resource URL and SHA-256 of the YAML. Test classes import the same fixtures
+     * many times per JVM; imports only read the definition, so they replay the cached one instead of parsing the
+     * YAML again. Binary resources the YAML refers to are still read at import time.
+     */
+    private static final BrutCache<String, ContentDefinitionImpl> CONTENT_DEFINITIONS =
+            BrutCache.<String, ContentDefinitionImpl>builder("contentDefinitions").maxEntries(256).build();
+
     private ImporterUtils() {
         //utility class
     }
 
     public static void importYaml(final URL resource, final Node parentNode, String path, String intermediateNodeType) throws RepositoryException {
+        int batchSize = Integer.getInteger(BATCH_SIZE_PROPERTY, 0);
+        if (batchSize > 0) {
+            importYaml(resource, parentNode, path, intermediateNodeType, batchSize);
+            return;
+        }
         try {
-            final ResourceInputProvider resourceInputProvider = new FileResourceInputProvider(resource.getPath());
             Node node = createNode(parentNode, path, intermediateNodeType);
-            final ModuleImpl module = new ModuleImpl("import-module", new ProjectImpl("import-project", new GroupImpl("import-group")));
-            module.setContentResourceInputProvider(resourceInputProvider);
-            final ContentSourceParser sourceParser = new ContentSourceParser(resourceInputProvider);
-            sourceParser.parse(resource.openStream(), "/import", resource.getPath(), module);
-            final ContentDefinitionImpl contentDefinition = module.getContentSources().iterator().next().getContentDefinition();
+            final ContentDefinitionImpl contentDefinition = getContentDefinition(resource);
             PROCESSOR.importNode(contentDefinition.getNode(), node, ActionType.RELOAD);
         } catch (Exception e) {
             throw new RepositoryException("Import failed", e);
         }
     }
 
+    /**
+     * Imports very large YAML files: the nodes are created while the YAML is read and the session is saved every
+     * {@code batchSize} nodes, so neither the parsed YAML nor the whole imported tree is held in memory. Nodes
+     * imported after the last batch are left unsaved. Anchors, aliases and {@code .meta:} directives are not
+     * supported in this mode.
+     *
+     * @since 6.2.0
+     */
+    public static void importYaml(final URL resource, final Node parentNode, String path, String intermediateNodeType,
+                                  int batchSize) throws RepositoryException {
+        try {
+            Node node = createNode(parentNode, path, intermediateNodeType);
+            StreamingYamlImporter.importYaml(resource, node, batchSize);
+        } catch (RepositoryException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RepositoryException("Import failed", e);
+        }
+    }
+
+    private static ContentDefinitionImpl getContentDefinition(final URL resource) throws Exception {
+        final byte[] content;
+        try (InputStream in = resource.openStream()) {
+            content = in.readAllBytes();
+        }
+        final String key = resource + "#" + ContentDigests.sha256Hex(content);
+        ContentDefinitionImpl contentDefinition = CONTENT_DEFINITIONS.get(key);
+        if (contentDefinition == null) {
+            contentDefinition = parse(resource, content);
+            CONTENT_DEFINITIONS.put(key, contentDefinition);
+        }
+        return contentDefinition;
+    }
+
+    private static ContentDefinitionImpl parse(final URL resource, final byte[] content) throws Exception {
+        final ResourceInputProvider resourceInputProvider = new FileResourceInputProvider(resource.getPath());
+        final ModuleImpl module = new ModuleImpl("import-module", new ProjectImpl("import-project", new GroupImpl("import-group")));
+        module.setContentResourceInputProvider(resourceInputProvider);
+        final ContentSourceParser sourceParser = new ContentSourceParser(resourceInputProvider);
+        sourceParser.parse(new ByteArrayInputStream(content), "/import", resource.getPath(), module);
+        return module.getContentSources().iterator().next().getContentDefinition();
+    }
+
     public static void registerNamespaces(InputStream cndResource, Session session) throws RepositoryException {
         try {
-            // Register the custom node types defined in the CND file, using JCR Commons CndImporter
-            NodeType[] nodeTypes = CndImporter.registerNodeTypes(new InputStreamReader(cndResource), session);
-            for (NodeType nodeType : nodeTypes) {
+            // Register the custom node types defined in the CND file, parsed once per JVM
+            CndUtils.ParsedCnd cnd = CndUtils.parse(session, "cnd input stream", cndResource.readAllBytes());
+            for (NodeType nodeType : CndUtils.registerNodeTypes(session, List.of(cnd))) {
                 LOGGER.debug("Registered node type: {}", nodeType.getName());
             }
         } catch (Exception e) {
@@ -15,6 +15,8 @@ import javax.jcr.Session;
 import javax.jcr.ValueFactory;
 import javax.jcr.nodetype.NodeTypeDefinition;
 import javax.jcr.nodetype.NodeTypeManager;
+import java.util.ArrayList;
+import java.util.List;
 
 public class NodeTypeUtils {
     private NodeTypeUtils() {
@@ -22,33 +24,19 @@ public class NodeTypeUtils {
     }
 
     public static void createNodeType(Session session, String nodeType) throws RepositoryException {
-        NodeTypeManager nodeTypeManager = session.getWorkspace().getNodeTypeManager();
-        if (!nodeTypeManager.hasNodeType(nodeType)) {
-            registerNodeOrMixin(session, nodeType, "nt:unstructured", false);
-        }
+        createNodeOrMixin(session, nodeType, "nt:unstructured", null, false);
     }
 
     public static void createNodeType(Session session, String nodeType, String superType) throws RepositoryException {
-        NodeTypeManager nodeTypeManager = session.getWorkspace().getNodeTypeManager();
-        createNodeType(session, superType);
-        if (!nodeTypeManager.hasNodeType(nodeType)) {
-            registerNodeOrMixin(session, nodeType, superType, false);
-        }
+        createNodeOrMixin(session, nodeType, superType, "nt:unstructured", false);
     }
 
     public static void createMixin(Session session, String mixinType) throws RepositoryException {
-        NodeTypeManager nodeTypeManager = session.getWorkspace().getNodeTypeManager();
-        if (!nodeTypeManager.hasNodeType(mixinType)) {
-            registerNodeOrMixin(session, mixinType, "nt:unstructured", true);
-        }
+        createNodeOrMixin(session, mixinType, "nt:unstructured", null, true);
     }
 
     public static void createMixin(Session session, String mixinType, String superType) throws RepositoryException {
-        NodeTypeManager nodeTypeManager = session.getWorkspace().getNodeTypeManager();
-        createMixin(session, superType);
-        if (!nodeTypeManager.hasNodeType(mixinType)) {
-            registerNodeOrMixin(session, mixinType, superType, true);
-        }
+        createNodeOrMixin(session, mixinType, superType, "nt:unstructured", true);
     }
 
     public static String getOrRegisterNamespace(Session session, String name) throws RepositoryException {
@@ -67,8 +55,26 @@ public class NodeTypeUtils {
     }
 
 
-    private static void registerNodeOrMixin(Session session, String nodeType, String superType, boolean isMixin) throws RepositoryException {
+    /**
+     * Registers {@code nodeType} and, when {@code superTypeOfSuperType} is given, its supertype in a single
+     * {@link NodeTypeManager#registerNodeTypes} call, skipping the ones that already exist.
+     */
+    private static void createNodeOrMixin(Session session, String nodeType, String superType,
+                                          String superTypeOfSuperType, boolean isMixin) throws RepositoryException {
         NodeTypeManager nodeTypeManager = session.getWorkspace().getNodeTypeManager();
+        List<NodeTypeDefinition> definitions = new ArrayList<>(2);
+        if (superTypeOfSuperType != null && !nodeTypeManager.hasNodeType(superType)) {
+            definitions.add(definitionOf(session, superType, superTypeOfSuperType, isMixin));
+        }
+        if (!nodeTypeManager.hasNodeType(nodeType)) {
+            definitions.add(definitionOf(session, nodeType, superType, isMixin));
+        }
+        if (!definitions.isEmpty()) {
+            nodeTypeManager.registerNodeTypes(definitions.toArray(new NodeTypeDefinition[0]), false);
+        }
+    }
+
+    private static NodeTypeDefinition definitionOf(Session session, String nodeType, String superType, boolean isMixin) throws RepositoryException {
         String uri = getOrRegisterNamespace(session, nodeType);
         NameFactory nameFactory = NameFactoryImpl.getInstance();
         Name name = nameFactory.create(uri, getLocalName(nodeType));
@@ -77,11 +83,10 @@ public class NodeTypeUtils {
         String namespace = getOrRegisterNamespace(session, superType);
         supertypes = new Name[]{nameFactory.create(namespace, getLocalName(superType))};
         QNodeTypeDefinitionImpl ntd = new QNodeTypeDefinitionImpl(name, supertypes, new Name[0], isMixin, false, true, true, null, new QPropertyDefinition[0], new QNodeDefinition[0]);
-        NodeTypeDefinition nodeTypeDefinition = new NodeTypeDefinitionImpl(ntd, getNamePathResolver(session), valueFactory);
-        nodeTypeManager.registerNodeType(nodeTypeDefinition, false);
+        return new NodeTypeDefinitionImpl(ntd, getNamePathResolver(session), valueFactory);
     }
 
-    private static NamePathResolver getNamePathResolver(Session session) {
+    static NamePathResolver getNamePathResolver(Session session) {
         NamePathResolver result = null;
         Session realSession = ReflectionUtils.unwrapSessionDecorator(session);
         if (realSession instanceof NamePathResolver) {
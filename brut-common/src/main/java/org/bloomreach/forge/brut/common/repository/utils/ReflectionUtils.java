@@ -30,6 +30,38 @@ public class ReflectionUtils {
         }
     }
 
+    /**
+     * Invokes a no-argument method declared anywhere in the class hierarchy of {@code obj},
+     * regardless of its visibility.
+     */
+    public static Object invokeDeclaredMethod(Object obj, String methodName) {
+        for (Class<?> type = obj.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Method method = type.getDeclaredMethod(methodName);
+                method.setAccessible(true);
+                return invokeMethod(method, obj);
+            } catch (NoSuchMethodException e) {
+                // continue with the superclass
+            }
+        }
+        throw new RuntimeReflectionException(new NoSuchMethodException(obj.getClass().getName() + "." + methodName));
+    }
+
+    /**
+     * Reads a field declared anywhere in the class hierarchy of {@code obj}, regardless of its visibility.
+     */
+    public static Object getDeclaredFieldValue(Object obj, String fieldName) {
+        for (Class<?> type = obj.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredField(fieldName);
+                return getPrivateField(type, obj, fieldName);
+            } catch (NoSuchFieldException e) {
+                // continue with the superclass
+            }
+        }
+        throw new RuntimeReflectionException(new NoSuchFieldException(obj.getClass().getName() + "." + fieldName));
+    }
+
     public static Session unwrapSessionDecorator(Session session) {
         Session result = session;
         if (session != null && "org.hippoecm.repository.impl.SessionDecorator".equals(session.getClass().getName())) {
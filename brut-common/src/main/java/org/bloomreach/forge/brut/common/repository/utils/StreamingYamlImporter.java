@@ -0,0 +1,494 @@
+package org.bloomreach.forge.brut.common.repository.utils;
+
+import org.bloomreach.forge.brut.common.repository.FileResourceInputProvider;
+import org.onehippo.cm.model.source.ResourceInputProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import javax.jcr.Binary;
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.PropertyType;
+import javax.jcr.ReferentialIntegrityException;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
+import javax.jcr.nodetype.ConstraintViolationException;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.nodetype.PropertyDefinition;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imports a content YAML file into the repository from the SnakeYAML event stream, without building the parsed
+ * content definition or the whole imported tree in memory first.
+ * <p>
+ * Nodes are created depth-first as their mapping is read, and the session is saved every {@code batchSize} nodes,
+ * so only the nodes since the last save are held in the transient space. A save that fails because a node is not
+ * complete yet, e.g. a mandatory child node or a referenced node follows later in the file, is retried once after
+ * the next batch; if the same failure remains, the import fails with the path the save was first deferred at.
+ * <p>
+ * Supports the content format read by {@link ImporterUtils#importYaml}: node keys starting with {@code /},
+ * implicitly typed scalars and sequences, {@code !!binary} scalars and {@code {type: ..., value|resource: ...}}
+ * maps; binary resources are resolved relative to the YAML file. {@code .meta:} keys are skipped and anchors and
+ * aliases are not supported. Like a {@code reload}, an existing node with the name of a root node is replaced.
+ */
+final class StreamingYamlImporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingYamlImporter.class);
+
+    private static final String JCR_PRIMARY_TYPE = "jcr:primaryType";
+    private static final String JCR_MIXIN_TYPES = "jcr:mixinTypes";
+    private static final String JCR_UUID = "jcr:uuid";
+    private static final String META_PREFIX = ".meta:";
+
+    private static final Resolver RESOLVER = new Resolver();
+
+    private final Session session;
+    private final ValueFactory valueFactory;
+    private final ResourceInputProvider resourceInputProvider;
+    private final int batchSize;
+    private Iterator<Event> events;
+    private Event peeked;
+    private int imported;
+    private int nextSave;
+    /** message of each save failure deferred since the last successful save → path it was first deferred at */
+    private final Map<String, String> deferred = new HashMap<>();
+
+    private StreamingYamlImporter(Session session, ResourceInputProvider resourceInputProvider, int batchSize)
+            throws RepositoryException {
+        this.session = session;
+        this.valueFactory = session.getValueFactory();
+        this.resourceInputProvider = resourceInputProvider;
+        this.batchSize = batchSize;
+        this.nextSave = batchSize;
+    }
+
+    /**
+     * Imports the root nodes of {@code resource} below {@code parentNode}, saving every {@code batchSize} nodes.
+     * Nodes imported after the last batch are left unsaved, like a regular import.
+     *
+     * @return the number of imported nodes
+     */
+    static int importYaml(URL resource, Node parentNode, int batchSize) throws RepositoryException, IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        StreamingYamlImporter importer = new StreamingYamlImporter(parentNode.getSession(),
+                new FileResourceInputProvider(resource.getPath()), batchSize);
+        LoaderOptions loaderOptions = new LoaderOptions();
+        // large fixtures are the point of streaming
+        loaderOptions.setCodePointLimit(Integer.MAX_VALUE);
+        try (Reader reader = new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8)) {
+            importer.events = new Yaml(loaderOptions).parse(reader).iterator();
+            importer.importDocument(parentNode);
+        }
+        LOG.debug("Imported {} node(s) from {}", importer.imported, resource);
+        return importer.imported;
+    }
+
+    private void importDocument(Node parentNode) throws RepositoryException, IOException {
+        while (hasNext() && !(peek() instanceof MappingStartEvent)) {
+            next();
+        }
+        if (!hasNext()) {
+            return;
+        }
+        next();
+        while (!(peek() instanceof MappingEndEvent)) {
+            String key = nextScalar().getValue();
+            if (!key.startsWith("/")) {
+                throw new IOException("Expected a root node key starting with '/' but found '" + key + "'");
+            }
+            String name = nodeName(key);
+            if (parentNode.hasNode(name)) {
+                parentNode.getNode(name).remove();
+            }
+            importNode(parentNode, name);
+        }
+    }
+
+    private void importNode(Node parentNode, String name) throws RepositoryException, IOException {
+        expect(MappingStartEvent.class);
+        // properties before the first child node are needed to create the node: its types and identifier
+        Map<String, PropertyValue> leading = new LinkedHashMap<>();
+        String childKey = null;
+        while (!(peek() instanceof MappingEndEvent)) {
+            String key = nextScalar().getValue();
+            if (key.startsWith("/")) {
+                childKey = key;
+                break;
+            }
+            PropertyValue value = readValue(key);
+            if (value != null) {
+                leading.put(key, value);
+            }
+        }
+
+        PropertyValue primaryType = leading.remove(JCR_PRIMARY_TYPE);
+        PropertyValue mixinTypes = leading.remove(JCR_MIXIN_TYPES);
+        PropertyValue uuid = leading.remove(JCR_UUID);
+        Node node = addNode(parentNode, name, primaryType == null ? null : primaryType.values().get(0),
+                uuid == null ? null : uuid.values().get(0));
+        if (mixinTypes != null) {
+            for (String mixinType : mixinTypes.values()) {
+                node.addMixin(mixinType);
+            }
+        }
+        for (Map.Entry<String, PropertyValue> property : leading.entrySet()) {
+            setProperty(node, property.getKey(), property.getValue());
+        }
+        imported++;
+
+        while (childKey != null || !(peek() instanceof MappingEndEvent)) {
+            String key = childKey != null ? childKey : nextScalar().getValue();
+            childKey = null;
+            if (key.startsWith("/")) {
+                importNode(node, nodeName(key));
+            } else {
+                PropertyValue value = readValue(key);
+                if (value != null) {
+                    setProperty(node, key, value);
+                }
+            }
+        }
+        expect(MappingEndEvent.class);
+        saveBatch(node);
+    }
+
+    private Node addNode(Node parentNode, String name, String primaryType, String uuid) throws RepositoryException {
+        if (uuid != null && primaryType != null && !isIdentifierInUse(uuid)) {
+            // JCR has no API to choose the identifier of a new node, Jackrabbit's NodeImpl does
+            Session realSession = ReflectionUtils.unwrapSessionDecorator(session);
+            Node realParent = realSession.getNodeByIdentifier(parentNode.getIdentifier());
+            Method addNodeWithUuid = ReflectionUtils.getMethod(realParent, "addNodeWithUuid",
+                    String.class, String.class, String.class);
+            if (addNodeWithUuid != null) {
+                try {
+                    Node created = (Node) ReflectionUtils.invokeMethod(addNodeWithUuid, realParent, name, primaryType, uuid);
+                    return session.getNodeByIdentifier(created.getIdentifier());
+                } catch (RuntimeReflectionException e) {
+                    throw new RepositoryException("Failed to create node '" + name + "' with identifier " + uuid, e.getCause());
+                }
+            }
+        }
+        return primaryType == null ? parentNode.addNode(name) : parentNode.addNode(name, primaryType);
+    }
+
+    private boolean isIdentifierInUse(String identifier) throws RepositoryException {
+        try {
+            session.getNodeByIdentifier(identifier);
+            return true;
+        } catch (ItemNotFoundException e) {
+            return false;
+        }
+    }
+
+    private void setProperty(Node node, String name, PropertyValue value) throws RepositoryException, IOException {
+        if (JCR_PRIMARY_TYPE.equals(name) || JCR_UUID.equals(name)) {
+            LOG.debug("Ignoring {} of {} after its first child node", name, node.getPath());
+            return;
+        }
+        if (JCR_MIXIN_TYPES.equals(name)) {
+            for (String mixinType : value.values()) {
+                node.addMixin(mixinType);
+            }
+            return;
+        }
+        if (isProtected(node, name)) {
+            LOG.debug("Skipping protected property {} of {}", name, node.getPath());
+            return;
+        }
+        int type = value.type() != PropertyType.UNDEFINED ? value.type() : implicitType(value.tag());
+        Value[] values = new Value[value.values().size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = createValue(value.values().get(i), type, value.resource());
+        }
+        if (value.multiple()) {
+            node.setProperty(name, values, type);
+        } else {
+            node.setProperty(name, values[0]);
+        }
+    }
+
+    private static boolean isProtected(Node node, String name) throws RepositoryException {
+        if (isProtected(node.getPrimaryNodeType(), name)) {
+            return true;
+        }
+        for (NodeType mixin : node.getMixinNodeTypes()) {
+            if (isProtected(mixin, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isProtected(NodeType nodeType, String name) {
+        for (PropertyDefinition definition : nodeType.getPropertyDefinitions()) {
+            if (definition.isProtected() && name.equals(definition.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Value createValue(String value, int type, boolean resource) throws RepositoryException, IOException {
+        switch (type) {
+            case PropertyType.BINARY:
+                try (InputStream in = resource
+                        ? resourceInputProvider.getResourceInputStream(null, value)
+                        : new ByteArrayInputStream(Base64.getMimeDecoder().decode(value))) {
+                    Binary binary = valueFactory.createBinary(in);
+                    return valueFactory.createValue(binary);
+                }
+            case PropertyType.BOOLEAN:
+                return valueFactory.createValue(isTrue(value));
+            case PropertyType.LONG:
+                return valueFactory.createValue(Long.decode(value.replace("_", "")));
+            case PropertyType.DOUBLE:
+                return valueFactory.createValue(Double.parseDouble(value.replace("_", "")));
+            case PropertyType.DECIMAL:
+                return valueFactory.createValue(new BigDecimal(value));
+            case PropertyType.DATE:
+                return valueFactory.createValue(parseDate(value));
+            default:
+                return valueFactory.createValue(value, type);
+        }
+    }
+
+    private static boolean isTrue(String value) {
+        String lowerCase = value.toLowerCase(Locale.ROOT);
+        return "true".equals(lowerCase) || "yes".equals(lowerCase) || "on".equals(lowerCase);
+    }
+
+    private static Calendar parseDate(String value) {
+        try {
+            return GregorianCalendar.from(OffsetDateTime.parse(value).toZonedDateTime());
+        } catch (DateTimeParseException e) {
+            if (value.indexOf('T') > 0) {
+                return GregorianCalendar.from(LocalDateTime.parse(value).atZone(ZoneOffset.UTC));
+            }
+            return GregorianCalendar.from(LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC));
+        }
+    }
+
+    private static int implicitType(Tag tag) {
+        if (Tag.BOOL.equals(tag)) {
+            return PropertyType.BOOLEAN;
+        } else if (Tag.INT.equals(tag)) {
+            return PropertyType.LONG;
+        } else if (Tag.FLOAT.equals(tag)) {
+            return PropertyType.DOUBLE;
+        } else if (Tag.TIMESTAMP.equals(tag)) {
+            return PropertyType.DATE;
+        } else if (Tag.BINARY.equals(tag)) {
+            return PropertyType.BINARY;
+        }
+        return PropertyType.STRING;
+    }
+
+    /**
+     * Reads the value of property {@code name}, or skips it and returns {@code null} for {@code .meta:} keys.
+     */
+    private PropertyValue readValue(String name) throws IOException {
+        if (name.startsWith(META_PREFIX)) {
+            LOG.debug("Skipping unsupported {} in streaming import", name);
+            skipValue();
+            return null;
+        }
+        Event event = peek();
+        if (event instanceof MappingStartEvent) {
+            return readTypedValue(name);
+        }
+        List<String> values = new ArrayList<>();
+        Tag tag = readScalars(values);
+        return new PropertyValue(PropertyType.UNDEFINED, event instanceof SequenceStartEvent, values, tag, false);
+    }
+
+    private PropertyValue readTypedValue(String name) throws IOException {
+        expect(MappingStartEvent.class);
+        int type = PropertyType.STRING;
+        boolean multiple = false;
+        boolean resource = false;
+        List<String> values = new ArrayList<>();
+        while (!(peek() instanceof MappingEndEvent)) {
+            String key = nextScalar().getValue();
+            switch (key) {
+                case "type":
+                    type = propertyType(nextScalar().getValue());
+                    break;
+                case "value":
+                case "resource":
+                    resource = "resource".equals(key);
+                    multiple = peek() instanceof SequenceStartEvent;
+                    readScalars(values);
+                    break;
+                case "operation":
+                    skipValue();
+                    break;
+                default:
+                    throw new IOException("Unsupported key '" + key + "' in value of property " + name);
+            }
+        }
+        expect(MappingEndEvent.class);
+        return new PropertyValue(type, multiple, values, null, resource);
+    }
+
+    private static int propertyType(String name) throws IOException {
+        for (int type = PropertyType.STRING; type <= PropertyType.DECIMAL; type++) {
+            if (PropertyType.nameFromValue(type).equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new IOException("Unknown property type '" + name + "'");
+    }
+
+    /**
+     * Adds the scalar or the scalars of the sequence at the current position to {@code values}.
+     *
+     * @return the tag of the first scalar, resolved like SnakeYAML does for plain scalars
+     */
+    private Tag readScalars(List<String> values) throws IOException {
+        if (!(peek() instanceof SequenceStartEvent)) {
+            ScalarEvent scalar = nextScalar();
+            values.add(scalar.getValue());
+            return tagOf(scalar);
+        }
+        next();
+        Tag tag = null;
+        while (!(peek() instanceof SequenceEndEvent)) {
+            ScalarEvent scalar = nextScalar();
+            values.add(scalar.getValue());
+            if (tag == null) {
+                tag = tagOf(scalar);
+            }
+        }
+        next();
+        return tag;
+    }
+
+    private static Tag tagOf(ScalarEvent scalar) {
+        if (scalar.getTag() != null && !"!".equals(scalar.getTag())) {
+            return new Tag(scalar.getTag());
+        }
+        if (scalar.getImplicit().canOmitTagInPlainScalar()) {
+            return RESOLVER.resolve(NodeId.scalar, scalar.getValue(), true);
+        }
+        return Tag.STR;
+    }
+
+    private void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            Event event = next();
+            if (event instanceof MappingStartEvent || event instanceof SequenceStartEvent) {
+                depth++;
+            } else if (event instanceof MappingEndEvent || event instanceof SequenceEndEvent) {
+                depth--;
+            }
+        } while (depth > 0);
+    }
+
+    private void saveBatch(Node node) throws RepositoryException {
+        if (imported < nextSave) {
+            return;
+        }
+        try {
+            session.save();
+            deferred.clear();
+        } catch (ConstraintViolationException | ReferentialIntegrityException e) {
+            String firstDeferredAt = deferred.putIfAbsent(e.getMessage(), node.getPath());
+            if (firstDeferredAt != null) {
+                String message = "Imported content is still invalid one batch after " + firstDeferredAt + ": "
+                        + e.getMessage();
+                throw e instanceof ReferentialIntegrityException
+                        ? new ReferentialIntegrityException(message, e)
+                        : new ConstraintViolationException(message, e);
+            }
+            LOG.warn("Deferring save of content imported up to {} to the next batch: {}", node.getPath(),
+                    e.getMessage());
+        }
+        nextSave = imported + batchSize;
+    }
+
+    private static String nodeName(String key) {
+        String name = key.substring(1);
+        // same name sibling indexes follow from the order of the nodes
+        int index = name.indexOf('[');
+        return index > 0 && name.endsWith("]") ? name.substring(0, index) : name;
+    }
+
+    private ScalarEvent nextScalar() throws IOException {
+        return expect(ScalarEvent.class);
+    }
+
+    private <T extends Event> T expect(Class<T> type) throws IOException {
+        Event event = next();
+        if (!type.isInstance(event)) {
+            throw new IOException("Expected " + type.getSimpleName() + " but found " + event
+                    + (event instanceof AliasEvent ? "; anchors and aliases are not supported" : ""));
+        }
+        return type.cast(event);
+    }
+
+    private boolean hasNext() {
+        return peeked != null || events.hasNext();
+    }
+
+    private Event peek() throws IOException {
+        if (peeked == null) {
+            peeked = next();
+        }
+        return peeked;
+    }
+
+    private Event next() throws IOException {
+        if (peeked != null) {
+            Event event = peeked;
+            peeked = null;
+            return event;
+        }
+        if (!events.hasNext()) {
+            throw new IOException("Unexpected end of YAML");
+        }
+        return events.next();
+    }
+
+    private record PropertyValue(int type, boolean multiple, List<String> values, Tag tag, boolean resource) {
+    }
+}
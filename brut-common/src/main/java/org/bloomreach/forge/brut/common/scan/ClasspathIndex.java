@@ -0,0 +1,404 @@
+package org.bloomreach.forge.brut.common.scan;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+/**
+ * In-memory index of all files on the classpath of a class loader, answering Ant-style pattern queries
+ * ({@code *}, {@code ?} and {@code **}) without listing jars or directories again.
+ * <p>
+ * The index is a path trie over the entries of every classpath directory and jar, built once per class loader
+ * and JVM; jars are read from their central directory only. Matches are returned in classpath order, as
+ * {@link ClassLoader#getResources} does, and sorted by path within each classpath entry. Files that are added to
+ * classpath directories after the index was built are not seen.
+ * <p>
+ * Only class loaders whose classpath is known are indexed: {@link URLClassLoader}s with {@code file:} URLs and the
+ * application class loader, including the {@code Class-Path} of jar manifests. For any other class loader
+ * {@link #of(ClassLoader)} returns {@code null} and callers fall back to the class loader. The index can be
+ * disabled with {@code -Dbrut.classpath.index=false}.
+ *
+ * @since 6.2.0
+ */
+public final class ClasspathIndex {
+
+    public static final String ENABLED_PROPERTY = "brut.classpath.index";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClasspathIndex.class);
+
+    private static final Map<ClassLoader, Optional<ClasspathIndex>> INDEXES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final List<Root> roots;
+    private final Entry root = new Entry();
+
+    private ClasspathIndex(List<Root> roots) {
+        this.roots = roots;
+    }
+
+    /**
+     * @return the index of the class loader, or {@code null} if it is disabled or the classpath of the class
+     * loader is not known
+     */
+    public static ClasspathIndex of(ClassLoader classLoader) {
+        if (classLoader == null || !Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) {
+            return null;
+        }
+        return INDEXES.computeIfAbsent(classLoader, ClasspathIndex::build).orElse(null);
+    }
+
+    /**
+     * Finds the resources with the given name, like {@link ClassLoader#getResources(String)}, from the index of
+     * the class loader if there is one.
+     */
+    public static List<URL> getResources(ClassLoader classLoader, String name) throws IOException {
+        ClasspathIndex index = of(classLoader);
+        if (index != null) {
+            return index.find(name, false);
+        }
+        List<URL> resources = new ArrayList<>();
+        Enumeration<URL> urls = classLoader.getResources(name);
+        while (urls.hasMoreElements()) {
+            resources.add(urls.nextElement());
+        }
+        return resources;
+    }
+
+    public static void clearCache() {
+        INDEXES.clear();
+    }
+
+    /**
+     * @param pattern Ant-style pattern relative to the classpath root, e.g. {@code org/acme/**&#47;*.cnd}
+     * @param firstRootOnly only match in the first classpath entry that contains the directory the pattern
+     *                      starts from, as {@code classpath:} patterns of Spring do
+     * @return URLs of the matching files
+     */
+    public List<URL> find(String pattern, boolean firstRootOnly) throws MalformedURLException {
+        String[] segments = Arrays.stream(pattern.split("/")).filter(s -> !s.isEmpty()).toArray(String[]::new);
+        int[] allowedRoots = null;
+        if (firstRootOnly) {
+            Entry start = root;
+            for (int i = 0; i < segments.length - 1 && start != null && !isPattern(segments[i]); i++) {
+                start = start.child(segments[i]);
+            }
+            if (start == null || start.roots.length == 0) {
+                return List.of();
+            }
+            allowedRoots = new int[]{start.roots[0]};
+        }
+
+        Map<Entry, String> matches = new LinkedHashMap<>();
+        match(root, segments, 0, "", matches);
+
+        List<URL> urls = new ArrayList<>();
+        List<Map.Entry<Entry, String>> sorted = new ArrayList<>(matches.entrySet());
+        sorted.sort(Map.Entry.comparingByValue());
+        for (int rootIndex = 0; rootIndex < roots.size(); rootIndex++) {
+            if (allowedRoots != null && allowedRoots[0] != rootIndex) {
+                continue;
+            }
+            for (Map.Entry<Entry, String> match : sorted) {
+                if (Arrays.binarySearch(match.getKey().fileRoots, rootIndex) >= 0) {
+                    urls.add(roots.get(rootIndex).url(match.getValue()));
+                }
+            }
+        }
+        return urls;
+    }
+
+    private static void match(Entry entry, String[] segments, int index, String path, Map<Entry, String> matches) {
+        if (index == segments.length) {
+            if (entry.fileRoots.length > 0) {
+                matches.putIfAbsent(entry, path);
+            }
+            return;
+        }
+        String segment = segments[index];
+        if ("**".equals(segment)) {
+            match(entry, segments, index + 1, path, matches);
+            entry.children().forEach((name, child) -> match(child, segments, index, child(path, name), matches));
+            return;
+        }
+        if (!isPattern(segment)) {
+            Entry child = entry.child(segment);
+            if (child != null) {
+                match(child, segments, index + 1, child(path, segment), matches);
+            }
+            return;
+        }
+        entry.children().forEach((name, child) -> {
+            if (matchesSegment(segment, name)) {
+                match(child, segments, index + 1, child(path, name), matches);
+            }
+        });
+    }
+
+    private static String child(String path, String name) {
+        return path.isEmpty() ? name : path + "/" + name;
+    }
+
+    private static boolean isPattern(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+    }
+
+    /**
+     * Matches one path segment against a pattern of {@code *} and {@code ?} wildcards.
+     */
+    static boolean matchesSegment(String pattern, String name) {
+        int p = 0;
+        int n = 0;
+        int star = -1;
+        int starMatch = 0;
+        while (n < name.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == name.charAt(n))) {
+                p++;
+                n++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                starMatch = n;
+            } else if (star >= 0) {
+                p = star + 1;
+                n = ++starMatch;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    private static Optional<ClasspathIndex> build(ClassLoader classLoader) {
+        long start = System.nanoTime();
+        List<Path> paths = classpathOf(classLoader);
+        if (paths == null) {
+            LOG.debug("Classpath of {} is not known, resources are not indexed", classLoader);
+            return Optional.empty();
+        }
+
+        List<Root> roots = new ArrayList<>();
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                roots.add(new Root(path, false));
+            } else if (Files.isRegularFile(path)) {
+                roots.add(new Root(path, true));
+            }
+        }
+        // listing jars and directories dominates, so they are listed in parallel and merged in classpath order
+        List<List<String>> files = roots.parallelStream().map(Root::listFiles).toList();
+
+        ClasspathIndex index = new ClasspathIndex(List.copyOf(roots));
+        Map<String, String> names = new HashMap<>();
+        int count = 0;
+        for (int rootIndex = 0; rootIndex < files.size(); rootIndex++) {
+            for (String file : files.get(rootIndex)) {
+                index.add(rootIndex, file, names);
+                count++;
+            }
+        }
+        LOG.debug("Indexed {} file(s) of {} classpath entries in {} ms", count, roots.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return Optional.of(index);
+    }
+
+    private void add(int rootIndex, String file, Map<String, String> names) {
+        Entry entry = root;
+        entry.addRoot(rootIndex);
+        for (String segment : file.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            // directory and file names repeat across jars, so one instance of each is kept
+            entry = entry.addChild(names.computeIfAbsent(segment, s -> s));
+            entry.addRoot(rootIndex);
+        }
+        entry.addFileRoot(rootIndex);
+    }
+
+    /**
+     * @return the classpath entries the class loader and its parents search, in search order, or {@code null} if
+     * they are not known
+     */
+    static List<Path> classpathOf(ClassLoader classLoader) {
+        List<ClassLoader> chain = new ArrayList<>();
+        for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+            chain.add(0, loader);
+        }
+        ClassLoader platform = ClassLoader.getPlatformClassLoader();
+        ClassLoader system = ClassLoader.getSystemClassLoader();
+
+        Set<Path> classpath = new LinkedHashSet<>();
+        for (ClassLoader loader : chain) {
+            if (loader == platform) {
+                // only serves JDK modules
+                continue;
+            }
+            if (loader instanceof URLClassLoader urlClassLoader) {
+                for (URL url : urlClassLoader.getURLs()) {
+                    Path path = toPath(url);
+                    if (path == null) {
+                        return null;
+                    }
+                    addWithManifestClassPath(path, classpath);
+                }
+            } else if (loader == system && System.getProperty("jdk.module.path") == null) {
+                for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+                    if (!entry.isEmpty()) {
+                        addWithManifestClassPath(Paths.get(entry).toAbsolutePath().normalize(), classpath);
+                    }
+                }
+            } else {
+                return null;
+            }
+        }
+        return List.copyOf(classpath);
+    }
+
+    private static void addWithManifestClassPath(Path path, Set<Path> classpath) {
+        if (!classpath.add(path) || !Files.isRegularFile(path)) {
+            return;
+        }
+        // test runners put the classpath in the manifest of a single jar when the command line gets too long
+        try (JarFile jar = new JarFile(path.toFile())) {
+            Manifest manifest = jar.getManifest();
+            String manifestClassPath = manifest != null
+                    ? manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) : null;
+            if (manifestClassPath == null) {
+                return;
+            }
+            URI base = path.getParent().toUri();
+            for (String entry : manifestClassPath.trim().split("\\s+")) {
+                Path entryPath = toPath(base.resolve(entry).toURL());
+                if (entryPath != null) {
+                    addWithManifestClassPath(entryPath, classpath);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.debug("Could not read the manifest of {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static Path toPath(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI()).toAbsolutePath().normalize();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A directory or jar on the classpath.
+     */
+    private record Root(Path path, boolean jar) {
+
+        List<String> listFiles() {
+            if (jar) {
+                try (JarFile jarFile = new JarFile(path.toFile())) {
+                    return jarFile.stream().filter(entry -> !entry.isDirectory()).map(ZipEntry::getName).toList();
+                } catch (IOException e) {
+                    LOG.debug("Could not index {}: {}", path, e.getMessage());
+                    return List.of();
+                }
+            }
+            try (Stream<Path> files = Files.walk(path)) {
+                return files.filter(Files::isRegularFile)
+                        .map(file -> path.relativize(file).toString().replace(File.separatorChar, '/'))
+                        .toList();
+            } catch (IOException | UncheckedIOException e) {
+                LOG.debug("Could not index {}: {}", path, e.getMessage());
+                return List.of();
+            }
+        }
+
+        URL url(String file) throws MalformedURLException {
+            if (!jar) {
+                return path.resolve(file).toFile().toURI().toURL();
+            }
+            try {
+                return new URL("jar:" + path.toFile().toURI() + "!/" + new URI(null, null, file, null).getRawPath());
+            } catch (URISyntaxException e) {
+                throw new MalformedURLException(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A directory or file of the trie; a path can be a directory in one classpath entry and a file in another.
+     */
+    private static final class Entry {
+
+        private static final int[] NONE = new int[0];
+
+        private Map<String, Entry> children;
+        /** classpath entries that contain this path, ascending */
+        private int[] roots = NONE;
+        /** classpath entries in which this path is a file, ascending */
+        private int[] fileRoots = NONE;
+
+        Entry child(String name) {
+            return children != null ? children.get(name) : null;
+        }
+
+        Map<String, Entry> children() {
+            return children != null ? children : Map.of();
+        }
+
+        Entry addChild(String name) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            return children.computeIfAbsent(name, n -> new Entry());
+        }
+
+        void addRoot(int rootIndex) {
+            roots = append(roots, rootIndex);
+        }
+
+        void addFileRoot(int rootIndex) {
+            fileRoots = append(fileRoots, rootIndex);
+        }
+
+        private static int[] append(int[] indexes, int index) {
+            // classpath entries are added in order, so a repeated index is always the last one
+            if (indexes.length > 0 && indexes[indexes.length - 1] == index) {
+                return indexes;
+            }
+            int[] appended = Arrays.copyOf(indexes, indexes.length + 1);
+            appended[indexes.length] = index;
+            return appended;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.bloomreach.forge.brut.common.scan;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+
+/**
+ * {@link PathMatchingResourcePatternResolver} that answers {@code classpath*:} locations and {@code classpath:}
+ * patterns from the {@link ClasspathIndex} of its class loader, so repeated lookups do not list jars and
+ * directories again. Other locations, patterns with {@code {...}} variables and class loaders without an index are
+ * resolved by Spring.
+ *
+ * @since 6.2.0
+ */
+public class IndexedResourcePatternResolver extends PathMatchingResourcePatternResolver {
+
+    public IndexedResourcePatternResolver() {
+        super();
+    }
+
+    public IndexedResourcePatternResolver(ClassLoader classLoader) {
+        super(classLoader);
+    }
+
+    @Override
+    public Resource[] getResources(String locationPattern) throws IOException {
+        ClasspathIndex index = ClasspathIndex.of(getClassLoader());
+        // URI template variables are not supported by the index
+        if (index != null && locationPattern.indexOf('{') < 0) {
+            List<URL> urls = null;
+            if (locationPattern.startsWith(CLASSPATH_ALL_URL_PREFIX)) {
+                urls = index.find(locationPattern.substring(CLASSPATH_ALL_URL_PREFIX.length()), false);
+            } else if (locationPattern.startsWith(CLASSPATH_URL_PREFIX)
+                    && getPathMatcher().isPattern(locationPattern.substring(CLASSPATH_URL_PREFIX.length()))) {
+                urls = index.find(locationPattern.substring(CLASSPATH_URL_PREFIX.length()), true);
+            }
+            if (urls != null) {
+                Resource[] resources = new Resource[urls.size()];
+                for (int i = 0; i < resources.length; i++) {
+                    resources[i] = new UrlResource(urls.get(i));
+                }
+                return resources;
+            }
+        }
+        return super.getResources(locationPattern);
+    }
+}
@@ -0,0 +1,21 @@
+package org.bloomreach.forge.brut.common.scan;
+
+/**
+ * A class annotated with {@code @Node}, as read from its class file by {@link NodeBeanReader} or from the
+ * compile-time bean index.
+ *
+ * @param className      binary name of the bean class
+ * @param packageName    package of the bean class
+ * @param superClassName binary name of the declared superclass
+ * @param jcrType        the {@code jcrType} of the annotation, empty if not set
+ * @since 6.2.0
+ */
+public record NodeBean(String className, String packageName, String superClassName, String jcrType) {
+
+    /**
+     * @return path of the class file of the bean, relative to the classpath root
+     */
+    public String classFilePath() {
+        return className.replace('.', '/') + ".class";
+    }
+}
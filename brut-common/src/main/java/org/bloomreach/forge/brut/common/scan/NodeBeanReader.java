@@ -0,0 +1,78 @@
+package org.bloomreach.forge.brut.common.scan;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads the {@code @Node} annotation of a content bean straight from its class file.
+ * <p>
+ * Scanning bean packages with {@code Class.forName} initializes static state and fills metaspace with classes
+ * that are never used; this reader reads the class file with Spring's ASM based {@link MetadataReader}
+ * instead, so only annotation types are loaded.
+ *
+ * @since 6.2.0
+ */
+public final class NodeBeanReader {
+
+    static final String NODE_ANNOTATION = "org.hippoecm.hst.content.beans.Node";
+
+    private static final Logger LOG = LoggerFactory.getLogger(NodeBeanReader.class);
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String JCR_TYPE = "jcrType";
+    private static final MetadataReaderFactory METADATA_READER_FACTORY = new SimpleMetadataReaderFactory();
+
+    private NodeBeanReader() {
+    }
+
+    /**
+     * @param classFile contents of a {@code .class} file
+     * @return the bean, or empty if the class is not annotated with {@code @Node} or is not a class file
+     */
+    public static Optional<NodeBean> read(byte[] classFile) {
+        if (!isClassFile(classFile)) {
+            return Optional.empty();
+        }
+        MetadataReader reader;
+        try {
+            reader = METADATA_READER_FACTORY.getMetadataReader(new ByteArrayResource(classFile));
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not read class file, a @Node bean it declares is not found: {}", e.getMessage());
+            return Optional.empty();
+        }
+        AnnotationMetadata metadata = reader.getAnnotationMetadata();
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(NODE_ANNOTATION);
+        if (attributes == null) {
+            return Optional.empty();
+        }
+        String className = metadata.getClassName();
+        Object jcrType = attributes.get(JCR_TYPE);
+        return Optional.of(new NodeBean(className, ClassUtils.getPackageName(className), metadata.getSuperClassName(),
+                jcrType != null ? jcrType.toString() : ""));
+    }
+
+    /**
+     * @param classFile stream of a {@code .class} file; not closed
+     * @return the bean, or empty if the class is not annotated with {@code @Node} or is not a class file
+     */
+    public static Optional<NodeBean> read(InputStream classFile) throws IOException {
+        return read(classFile.readAllBytes());
+    }
+
+    private static boolean isClassFile(byte[] content) {
+        return content.length >= 4
+                && ((content[0] & 0xFF) << 24 | (content[1] & 0xFF) << 16 | (content[2] & 0xFF) << 8
+                | (content[3] & 0xFF)) == MAGIC;
+    }
+}
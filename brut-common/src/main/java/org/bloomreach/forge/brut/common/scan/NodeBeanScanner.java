@@ -0,0 +1,140 @@
+package org.bloomreach.forge.brut.common.scan;
+
+import org.bloomreach.forge.brut.common.processor.BrxmBeanRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the {@code @Node} beans matching classpath location patterns such as
+ * {@code classpath*:com/example/beans/**}{@code /*.class}.
+ * <p>
+ * The compile-time bean index of {@link BrxmBeanRegistry} only describes the classpath root it was written to,
+ * typically the test classes. Beans of indexed roots are taken from the index; the class files of all other
+ * roots, such as main classes and jars, are read with {@link NodeBeanReader}. No class is loaded either way.
+ *
+ * @since 6.2.0
+ */
+public final class NodeBeanScanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NodeBeanScanner.class);
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final ResourcePatternResolver resolver;
+    private final List<NodeBean> index;
+    private final Set<Path> indexedRoots;
+
+    public NodeBeanScanner(ClassLoader classLoader) {
+        this.resolver = new IndexedResourcePatternResolver(classLoader);
+        this.index = BrxmBeanRegistry.loadBeans(classLoader);
+        this.indexedRoots = BrxmBeanRegistry.loadIndexedRoots(classLoader).stream()
+            .map(NodeBeanScanner::location)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return whether a classpath root of the class loader carries a bean index
+     */
+    public boolean hasIndex() {
+        return !indexedRoots.isEmpty();
+    }
+
+    /**
+     * @return the beans matching the patterns: indexed ones first, then those read from the other roots
+     */
+    public List<NodeBean> scan(String... locationPatterns) {
+        List<NodeBean> beans = new ArrayList<>();
+        List<Resource> resources = new ArrayList<>();
+        for (String pattern : locationPatterns) {
+            List<NodeBean> indexed = BrxmBeanRegistry.beansMatching(index, pattern);
+            if (!indexed.isEmpty()) {
+                LOG.debug("Using compile-time index for pattern '{}': {} bean(s)", pattern, indexed.size());
+                beans.addAll(indexed);
+            }
+            resolvePattern(pattern.trim(), resources);
+        }
+
+        // class files in directories and jars are read independently, so they are read in parallel
+        resources.parallelStream()
+            .map(NodeBeanScanner::readNodeBean)
+            .flatMap(Optional::stream)
+            .toList()
+            .forEach(beans::add);
+        return beans;
+    }
+
+    private void resolvePattern(String pattern, List<Resource> resources) {
+        try {
+            Resource[] found = resolver.getResources(pattern);
+            int scanned = 0;
+            for (Resource resource : found) {
+                String name = resource.getFilename();
+                if (name != null && name.endsWith(CLASS_SUFFIX) && !isIndexed(resource)) {
+                    resources.add(resource);
+                    scanned++;
+                }
+            }
+            LOG.debug("Scanning pattern '{}': {} of {} class file(s) outside indexed roots",
+                pattern, scanned, found.length);
+        } catch (IOException e) {
+            LOG.warn("Failed to scan pattern '{}': {}", pattern, e.getMessage());
+        }
+    }
+
+    private boolean isIndexed(Resource resource) {
+        if (indexedRoots.isEmpty()) {
+            return false;
+        }
+        try {
+            Path location = location(resource.getURL());
+            return location != null && indexedRoots.stream().anyMatch(location::startsWith);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the file of a {@code file:} URL or the jar file of a {@code jar:} URL, {@code null} for other URLs
+     */
+    private static Path location(URL url) {
+        try {
+            String spec = url.toString();
+            if (spec.startsWith("jar:")) {
+                int separator = spec.indexOf("!/");
+                spec = separator >= 0 ? spec.substring("jar:".length(), separator) : spec.substring("jar:".length());
+            }
+            URI uri = new URI(spec);
+            return "file".equals(uri.getScheme()) ? Paths.get(uri).toAbsolutePath().normalize() : null;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads {@code @Node} from the class file, so scanning does not load or initialize any class.
+     */
+    private static Optional<NodeBean> readNodeBean(Resource resource) {
+        try (InputStream classFile = resource.getInputStream()) {
+            return NodeBeanReader.read(classFile);
+        } catch (IOException e) {
+            LOG.debug("Skipping resource '{}': {}", resource, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.bloomreach.forge.brut.common.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one bootstrap phase of a BRUT test class.
+ */
+@Name("org.bloomreach.forge.brut.BootstrapPhase")
+@Label("BRUT Bootstrap Phase")
+@Category("BRUT")
+@Description("A bootstrap phase of a BRUT test class, e.g. CND registration or Spring refresh")
+final class BootstrapPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Test Class")
+    String testClass;
+}
@@ -0,0 +1,322 @@
+package org.bloomreach.forge.brut.common.timing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times the bootstrap phases of BRUT test classes.
+ * <p>
+ * Every phase is emitted as a {@code org.bloomreach.forge.brut.BootstrapPhase} Flight Recorder event and
+ * accumulated per test class. When the JVM exits the accumulated timings are written as JSON to
+ * {@code <pid>.json} in {@value #DEFAULT_DIRECTORY}, or in the directory named by {@value #DIRECTORY_PROPERTY},
+ * so that every Surefire fork writes a report of its own, whether forks run at the same time or one after the
+ * other. Set {@value #ENABLED_PROPERTY} to {@code false} to disable the instrumentation.
+ * <pre>
+ * try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.CND_REGISTRATION)) {
+ *     registerCnds(session, patterns);
+ * }
+ * </pre>
+ *
+ * @since 6.2.0
+ */
+public final class BootstrapTimings {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BootstrapTimings.class);
+
+    public static final String ENABLED_PROPERTY = "brut.timings.enabled";
+    public static final String DIRECTORY_PROPERTY = "brut.timings.dir";
+    static final String DEFAULT_DIRECTORY = "target/brut-timings";
+
+    /** Everything a test class does before its first test: repository, Spring and HST model. */
+    public static final String CLASS_SETUP = "class-setup";
+    public static final String CND_REGISTRATION = "cnd-registration";
+    public static final String HCM_MODULE_PARSING = "hcm-module-parsing";
+    public static final String HCM_NODE_TYPES = "hcm-node-types";
+    public static final String COMPUTE_AND_WRITE_DELTA = "compute-and-write-delta";
+    public static final String CONTENT_IMPORT = "content-import";
+    public static final String HIPPO_PATHS = "hippo-paths";
+    public static final String POST_PROCESSING = "post-processing";
+    public static final String SPRING_REFRESH = "spring-refresh";
+
+    /** Owner of phases that run outside a test class, e.g. a shared template bootstrapped on first use. */
+    static final String UNATTRIBUTED = "<unattributed>";
+
+    private static final ThreadLocal<String> OWNER = new ThreadLocal<>();
+    private static final Map<String, Map<String, PhaseStats>> TIMINGS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean REPORT_SCHEDULED = new AtomicBoolean();
+    private static final Phase NO_PHASE = new Phase(null, null, false);
+
+    private BootstrapTimings() {
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * Starts the {@value #CLASS_SETUP} phase of {@code testClass} and attributes the phases the current
+     * thread starts until it is closed to that class. Nested class setups are no-ops, so that a test class
+     * initialised by an extension is not counted twice.
+     */
+    public static Phase classSetup(String testClass) {
+        if (!isEnabled() || testClass == null || OWNER.get() != null) {
+            return NO_PHASE;
+        }
+        OWNER.set(testClass);
+        return new Phase(CLASS_SETUP, testClass, true);
+    }
+
+    /**
+     * Starts timing {@code name}; the phase ends when the returned handle is closed.
+     */
+    public static Phase phase(String name) {
+        if (!isEnabled()) {
+            return NO_PHASE;
+        }
+        String owner = OWNER.get();
+        return new Phase(name, owner != null ? owner : UNATTRIBUTED, false);
+    }
+
+    /**
+     * Returns {@code task} running with the owner of the current thread's phases, so that the phases a worker
+     * thread starts for the current test class are attributed to it rather than to {@value #UNATTRIBUTED}.
+     * Call it where the task is submitted.
+     */
+    public static Runnable withCurrentOwner(Runnable task) {
+        return withOwner(OWNER.get(), task);
+    }
+
+    /**
+     * Like {@link #withCurrentOwner(Runnable)}, for a task with a result.
+     */
+    public static <V> Callable<V> withCurrentOwner(Callable<V> task) {
+        String owner = OWNER.get();
+        if (owner == null) {
+            return task;
+        }
+        return () -> {
+            String previous = OWNER.get();
+            OWNER.set(owner);
+            try {
+                return task.call();
+            } finally {
+                restoreOwner(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns {@code task} attributing the phases it starts to {@code testClass}, e.g. a configuration that is
+     * bootstrapped ahead of the test class that uses it.
+     */
+    public static Runnable withOwner(String testClass, Runnable task) {
+        if (testClass == null) {
+            return task;
+        }
+        return () -> {
+            String previous = OWNER.get();
+            OWNER.set(testClass);
+            try {
+                task.run();
+            } finally {
+                restoreOwner(previous);
+            }
+        };
+    }
+
+    private static void restoreOwner(String previous) {
+        if (previous != null) {
+            OWNER.set(previous);
+        } else {
+            OWNER.remove();
+        }
+    }
+
+    static void record(String owner, String phase, long nanos) {
+        TIMINGS.computeIfAbsent(owner, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(phase, key -> new PhaseStats())
+                .add(1, nanos, nanos);
+        if (REPORT_SCHEDULED.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(BootstrapTimings::writeReportOnExit, "brut-timings"));
+        }
+    }
+
+    static void reset() {
+        TIMINGS.clear();
+    }
+
+    private static void writeReportOnExit() {
+        if (TIMINGS.isEmpty()) {
+            return;
+        }
+        String configured = System.getProperty(DIRECTORY_PROPERTY);
+        Path directory = Paths.get(configured != null ? configured : DEFAULT_DIRECTORY).toAbsolutePath();
+        if (configured == null && !Files.isDirectory(directory.getParent())) {
+            // not running from a Maven module, don't leave a target folder behind
+            return;
+        }
+        try {
+            writeReport(directory, ProcessHandle.current().pid(),
+                    Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime()));
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Failed to write BRUT timings to {}", directory, e);
+        }
+    }
+
+    /**
+     * Writes the accumulated timings of the JVM with process id {@code pid} to {@code <pid>.json} in
+     * {@code directory}.
+     *
+     * @return the report file
+     */
+    static Path writeReport(Path directory, long pid, Instant started) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, Map<String, PhaseStats>> report = new TreeMap<>();
+        TIMINGS.forEach((owner, phases) -> report.put(owner, new TreeMap<>(phases)));
+        Path file = directory.resolve(pid + ".json");
+        Files.writeString(file, format(pid, started, report), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    static String format(long pid, Instant started, Map<String, Map<String, PhaseStats>> report) {
+        Map<String, PhaseStats> totals = new TreeMap<>();
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\n  \"pid\": ").append(pid)
+                .append(",\n  \"started\": \"").append(started)
+                .append("\",\n  \"generated\": \"").append(Instant.now()).append("\",\n  \"classes\": [\n");
+        int remaining = report.size();
+        for (Map.Entry<String, Map<String, PhaseStats>> owner : report.entrySet()) {
+            json.append("    {\"class\":\"").append(escape(owner.getKey())).append("\",\"phases\":{");
+            appendPhases(json, owner.getValue());
+            json.append("}}").append(--remaining > 0 ? ",\n" : "\n");
+            owner.getValue().forEach((phase, stats) ->
+                    totals.computeIfAbsent(phase, key -> new PhaseStats()).add(stats));
+        }
+        json.append("  ],\n  \"phases\": {");
+        appendPhases(json, totals);
+        return json.append("}\n}\n").toString();
+    }
+
+    private static void appendPhases(StringBuilder json, Map<String, PhaseStats> phases) {
+        boolean first = true;
+        for (Map.Entry<String, PhaseStats> phase : phases.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            PhaseStats stats = phase.getValue();
+            json.append('"').append(escape(phase.getKey())).append("\":{\"count\":").append(stats.count)
+                    .append(",\"totalMillis\":").append(toMillis(stats.totalNanos))
+                    .append(",\"maxMillis\":").append(toMillis(stats.maxNanos)).append('}');
+        }
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000d);
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * A running phase, ended by {@link #close()}.
+     */
+    public static final class Phase implements AutoCloseable {
+
+        private final String name;
+        private final String owner;
+        private final boolean classSetup;
+        private final BootstrapPhaseEvent event;
+        private final long start;
+
+        private Phase(String name, String owner, boolean classSetup) {
+            this.name = name;
+            this.owner = owner;
+            this.classSetup = classSetup;
+            if (name == null) {
+                this.event = null;
+                this.start = 0;
+                return;
+            }
+            this.event = new BootstrapPhaseEvent();
+            this.event.begin();
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (event == null) {
+                return;
+            }
+            long nanos = System.nanoTime() - start;
+            if (classSetup) {
+                OWNER.remove();
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.testClass = owner;
+                event.commit();
+            }
+            record(owner, name, nanos);
+        }
+    }
+
+    static final class PhaseStats {
+
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        synchronized void add(long count, long totalNanos, long maxNanos) {
+            this.count += count;
+            this.totalNanos += totalNanos;
+            this.maxNanos = Math.max(this.maxNanos, maxNanos);
+        }
+
+        void add(PhaseStats other) {
+            long otherCount;
+            long otherTotal;
+            long otherMax;
+            synchronized (other) {
+                otherCount = other.count;
+                otherTotal = other.totalNanos;
+                otherMax = other.maxNanos;
+            }
+            add(otherCount, otherTotal, otherMax);
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized long totalNanos() {
+            return totalNanos;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.bloomreach.forge.brut.common.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BrutCacheTest {
+
+    @BeforeEach
+    void setUp() {
+        // only the entry bounds apply, whatever the heap of the test JVM looks like
+        System.setProperty(CacheRegistry.MAX_HEAP_RATIO_PROPERTY, "1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(CacheRegistry.MAX_HEAP_RATIO_PROPERTY);
+    }
+
+    @Test
+    void put_beyondMaxEntries_evictsLeastRecentlyUsed() {
+        List<String> evicted = new ArrayList<>();
+        BrutCache<String, String> cache = BrutCache.<String, String>builder("test-lru")
+            .maxEntries(2)
+            .onEviction(evicted::add)
+            .build();
+
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+
+        assertEquals(List.of("B"), evicted);
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(new CacheStatistics("test-lru", 2, 2, 2, 1, 1), cache.getStatistics());
+    }
+
+    @Test
+    void put_skipsValuesThatAreNotEvictable() {
+        Set<String> inUse = Set.of("A");
+        BrutCache<String, String> cache = BrutCache.<String, String>builder("test-pinned")
+            .maxEntries(1)
+            .evictableWhen(value -> !inUse.contains(value))
+            .build();
+
+        cache.put("a", "A");
+        cache.put("b", "B");
+
+        assertEquals(2, cache.size());
+        assertEquals("A", cache.get("a"));
+    }
+
+    @Test
+    void getOrCompute_computesOncePerKey() {
+        List<String> loaded = new ArrayList<>();
+        BrutCache<String, String> cache = BrutCache.<String, String>builder("test-compute").build();
+
+        assertEquals("A", cache.getOrCompute("a", key -> {
+            loaded.add(key);
+            return "A";
+        }));
+        assertEquals("A", cache.getOrCompute("a", key -> {
+            loaded.add(key);
+            return "other";
+        }));
+
+        assertEquals(List.of("a"), loaded);
+    }
+
+    @Test
+    void clear_releasesAllValues_andCacheIsRegistered() {
+        List<String> released = new ArrayList<>();
+        BrutCache<String, String> cache = BrutCache.<String, String>builder("test-clear")
+            .onEviction(released::add)
+            .build();
+        cache.put("a", "A");
+
+        assertTrue(CacheRegistry.getStatistics().stream().anyMatch(s -> s.name().equals("test-clear")));
+        cache.clear();
+
+        assertEquals(List.of("A"), released);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void heapRatioOfOne_neverReportsLowHeap() {
+        assertFalse(CacheRegistry.isHeapLow());
+    }
+}
@@ -0,0 +1,22 @@
+package org.bloomreach.forge.brut.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentDigestsTest {
+
+    @Test
+    void sha256Hex_returnsLowerCaseHexDigest() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+            ContentDigests.sha256Hex("abc".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void newSha256_returnsIndependentInstances() {
+        assertNotSame(ContentDigests.newSha256(), ContentDigests.newSha256());
+        assertEquals("SHA-256", ContentDigests.newSha256().getAlgorithm());
+    }
+}
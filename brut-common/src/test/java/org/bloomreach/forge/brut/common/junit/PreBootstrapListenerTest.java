@@ -0,0 +1,166 @@
+package org.bloomreach.forge.brut.common.junit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+class PreBootstrapListenerTest {
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(PreBootstrapListener.THREADS_PROPERTY);
+        PreBootstrapListener.stopAll();
+    }
+
+    @Test
+    @DisplayName("collectTestClasses: returns top-level test classes in plan order, nested ones as their enclosing class")
+    void collectTestClasses_returnsTopLevelClassesInPlanOrder() {
+        TestPlan testPlan = discover(FirstTest.class, SecondTest.class);
+
+        assertEquals(List.of(FirstTest.class, SecondTest.class), PreBootstrapListener.collectTestClasses(testPlan));
+    }
+
+    @Test
+    @DisplayName("plan: bootstraps each key once in plan order, without the key of the first test class")
+    void plan_deduplicatesKeysAndSkipsFirstTestClass() {
+        KeyedListener listener = new KeyedListener(Map.of(
+                FirstTest.class, "a",
+                SecondTest.class, "b",
+                ThirdTest.class, "a",
+                FourthTest.class, "c"));
+
+        Map<String, Runnable> plan = listener.plan(
+                List.of(FirstTest.class, SecondTest.class, ThirdTest.class, FourthTest.class));
+
+        assertEquals(List.of("b", "c"), List.copyOf(plan.keySet()));
+    }
+
+    @Test
+    @DisplayName("plan: skips test classes whose bootstrap cannot be collected")
+    void plan_skipsFailingTestClasses() {
+        KeyedListener listener = new KeyedListener(Map.of(FirstTest.class, "a", ThirdTest.class, "c"));
+
+        Map<String, Runnable> plan = listener.plan(List.of(FirstTest.class, SecondTest.class, ThirdTest.class));
+
+        assertEquals(List.of("c"), List.copyOf(plan.keySet()));
+    }
+
+    @Test
+    @DisplayName("stopAll: waits for running bootstraps and drops pending ones")
+    void stopAll_awaitsRunningAndDropsPendingBootstraps() throws Exception {
+        System.setProperty(PreBootstrapListener.THREADS_PROPERTY, "1");
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicBoolean pendingRan = new AtomicBoolean();
+        PreBootstrapListener listener = new PreBootstrapListener() {
+            @Override
+            protected void collectBootstraps(Class<?> testClass, Map<String, Runnable> bootstraps) {
+                if (testClass == SecondTest.class) {
+                    bootstraps.put("second", () -> {
+                        started.countDown();
+                        sleepUninterruptibly(200);
+                        finished.set(true);
+                    });
+                } else if (testClass == ThirdTest.class) {
+                    bootstraps.put("third", () -> pendingRan.set(true));
+                }
+            }
+        };
+        listener.testPlanExecutionStarted(discover(FirstTest.class, SecondTest.class, ThirdTest.class));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        PreBootstrapListener.stopAll();
+
+        assertTrue(finished.get(), "running bootstrap should complete before stopAll returns");
+        assertFalse(pendingRan.get(), "pending bootstrap should be dropped");
+    }
+
+    private static TestPlan discover(Class<?>... testClasses) {
+        return LauncherFactory.create().discover(request()
+                .selectors(Arrays.stream(testClasses).map(testClass -> selectClass(testClass)).toList())
+                .build());
+    }
+
+    private static void sleepUninterruptibly(long millis) {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        boolean interrupted = false;
+        long remaining;
+        while ((remaining = end - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                // a bootstrap in progress does not react to interrupts either
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Maps test classes to fixed bootstrap keys; classes without a key fail like a broken configuration.
+     */
+    private static class KeyedListener extends PreBootstrapListener {
+
+        private final Map<Class<?>, String> keys;
+
+        KeyedListener(Map<Class<?>, String> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        protected void collectBootstraps(Class<?> testClass, Map<String, Runnable> bootstraps) {
+            String key = keys.get(testClass);
+            if (key == null) {
+                throw new IllegalStateException("No configuration for " + testClass.getName());
+            }
+            bootstraps.putIfAbsent(key, () -> { });
+        }
+    }
+
+    static class FirstTest {
+        @Test
+        void test() {
+        }
+
+        @Nested
+        class InnerTest {
+            @Test
+            void test() {
+            }
+        }
+    }
+
+    static class SecondTest {
+        @Test
+        void test() {
+        }
+    }
+
+    static class ThirdTest {
+        @Test
+        void test() {
+        }
+    }
+
+    static class FourthTest {
+        @Test
+        void test() {
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.bloomreach.forge.brut.common.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BrxmBeanRegistryProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void process_writesIndexOfAnnotatedClasses() throws IOException {
+        Path classes = compile(write("src/com/acme/Article.java",
+            "package com.acme;\n@org.hippoecm.hst.content.beans.Node(jcrType = \"acme:article\")\n"
+                + "public class Article {}\n"));
+
+        assertEquals(List.of(BrxmBeanRegistry.INDEX_HEADER,
+                "com.acme.Article\tacme:article\tjava.lang.Object\tcom.acme"),
+            Files.readAllLines(classes.resolve(BrxmBeanRegistry.INDEX_RESOURCE)));
+    }
+
+    @Test
+    void process_withoutAnnotatedClasses_replacesPreviousIndex() throws IOException {
+        Path article = write("src/com/acme/Article.java",
+            "package com.acme;\n@org.hippoecm.hst.content.beans.Node(jcrType = \"acme:article\")\n"
+                + "public class Article {}\n");
+        compile(article);
+
+        // the annotation was removed from the last bean
+        Files.writeString(article, "package com.acme;\npublic class Article {}\n");
+        Path classes = compile(article);
+
+        assertEquals(List.of(BrxmBeanRegistry.INDEX_HEADER),
+            Files.readAllLines(classes.resolve(BrxmBeanRegistry.INDEX_RESOURCE)));
+        assertEquals(List.of(), Files.readAllLines(classes.resolve(BrxmBeanRegistry.BEANS_RESOURCE)));
+    }
+
+    private Path compile(Path source) throws IOException {
+        Path node = write("src/org/hippoecm/hst/content/beans/Node.java",
+            "package org.hippoecm.hst.content.beans;\n"
+                + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+                + "public @interface Node { String jcrType() default \"\"; }\n");
+        Path classes = Files.createDirectories(tempDir.resolve("classes"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null, "-processor", BrxmBeanRegistryProcessor.class.getName(),
+            "-processorpath", System.getProperty("java.class.path"), "-d", classes.toString(),
+            node.toString(), source.toString());
+        assertEquals(0, result, "sources must compile");
+        return classes;
+    }
+
+    private Path write(String path, String content) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
@@ -1,5 +1,6 @@
 package org.bloomreach.forge.brut.common.processor;
 
+import org.bloomreach.forge.brut.common.scan.NodeBean;
 import org.junit.jupiter.api.Test;
 
 import java.net.URL;
@@ -7,6 +8,7 @@ import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,6 +48,45 @@ class BrxmBeanRegistryTest {
         assertTrue(result.contains("com.example.Foo"));
     }
 
+    @Test
+    void loadBeans_withIndex_returnsJcrTypeSuperclassAndPackage() throws Exception {
+        Path dir = createTempRegistry(BrxmBeanRegistry.INDEX_RESOURCE,
+                "version\t1\n"
+                        + "com.example.beans.NewsDocument\tns:news\tcom.example.beans.BaseDocument\tcom.example.beans\n"
+                        + "com.example.beans.Outer$Link\t\tjava.lang.Object\tcom.example.beans\n");
+        ClassLoader cl = new URLClassLoader(new URL[]{dir.toUri().toURL()}, null);
+
+        List<NodeBean> result = BrxmBeanRegistry.loadBeans(cl);
+
+        assertEquals(List.of(
+                new NodeBean("com.example.beans.NewsDocument", "com.example.beans",
+                        "com.example.beans.BaseDocument", "ns:news"),
+                new NodeBean("com.example.beans.Outer$Link", "com.example.beans", "java.lang.Object", "")),
+                result);
+    }
+
+    @Test
+    void loadBeans_unsupportedVersion_returnsEmpty() throws Exception {
+        Path dir = createTempRegistry(BrxmBeanRegistry.INDEX_RESOURCE,
+                "version\t2\ncom.example.beans.NewsDocument\tns:news\t\tcom.example.beans\tmore\n");
+        ClassLoader cl = new URLClassLoader(new URL[]{dir.toUri().toURL()}, null);
+
+        assertTrue(BrxmBeanRegistry.loadBeans(cl).isEmpty());
+    }
+
+    @Test
+    void beansMatching_selectsBeansByLocationPattern() {
+        NodeBean news = new NodeBean("com.example.beans.NewsDocument", "com.example.beans", null, "ns:news");
+        NodeBean link = new NodeBean("com.example.beans.compound.Link", "com.example.beans.compound", null, "ns:link");
+        List<NodeBean> index = List.of(news, link);
+
+        assertEquals(List.of(news, link),
+                BrxmBeanRegistry.beansMatching(index, "classpath*:com/example/beans/**/*.class"));
+        assertEquals(List.of(news),
+                BrxmBeanRegistry.beansMatching(index, " classpath*:com/example/beans/*.class"));
+        assertTrue(BrxmBeanRegistry.beansMatching(index, "classpath*:org/onehippo/forge/**/*.class").isEmpty());
+    }
+
     private Path createTempRegistry(String resourcePath, String content) throws Exception {
         Path dir = Files.createTempDirectory("brut-registry-test");
         dir.toFile().deleteOnExit();
@@ -0,0 +1,78 @@
+package org.bloomreach.forge.brut.common.project;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectDiscoveryTest {
+
+    @TempDir
+    Path projectRoot;
+
+    @AfterEach
+    void tearDown() {
+        ProjectDiscovery.clearCache();
+        System.clearProperty(DiscoveryCache.ENABLED_PROPERTY);
+    }
+
+    @Test
+    void resolvesOncePerPomDigest() throws IOException {
+        Path site = Files.createDirectories(projectRoot.resolve("repository-data/site/src/main/resources"));
+        writePom("myproject", "");
+
+        assertEquals("myproject", ProjectDiscovery.resolveProjectNamespace(projectRoot));
+        assertEquals("/hst:myproject", ProjectDiscovery.resolveHstRoot(projectRoot));
+
+        Files.writeString(site.resolve("hcm-module.yaml"), "group:\n  name: mygroup\nproject: renamed\n");
+        Files.writeString(projectRoot.resolve("repository-data/namespaces.cnd"), "<acme='http://www.acme.com/nt/1.0'>\n");
+        assertEquals("myproject", ProjectDiscovery.resolveProjectNamespace(projectRoot));
+        assertEquals("/hst:myproject", ProjectDiscovery.resolveHstRoot(projectRoot));
+        assertEquals(List.of(site.resolve("hcm-module.yaml").toAbsolutePath().normalize()),
+            ProjectDiscovery.discoverRepositoryModuleDescriptors(projectRoot));
+
+        writePom("myproject", "<!-- edited -->");
+        assertEquals("acme", ProjectDiscovery.resolveProjectNamespace(projectRoot));
+        assertEquals("/hst:renamed", ProjectDiscovery.resolveHstRoot(projectRoot));
+    }
+
+    @Test
+    void cacheCanBeDisabled() throws IOException {
+        Files.createDirectories(projectRoot.resolve("repository-data"));
+        writePom("myproject", "");
+        System.setProperty(DiscoveryCache.ENABLED_PROPERTY, "false");
+
+        assertEquals("myproject", ProjectDiscovery.resolveProjectNamespace(projectRoot));
+        Files.writeString(projectRoot.resolve("repository-data/namespaces.cnd"), "<acme='http://www.acme.com/nt/1.0'>\n");
+        assertEquals("acme", ProjectDiscovery.resolveProjectNamespace(projectRoot));
+    }
+
+    @Test
+    void discoveredListsCanBeModifiedByCallers() throws IOException {
+        Path site = Files.createDirectories(projectRoot.resolve("repository-data/site/src/main/resources"));
+        Files.writeString(site.resolve("hcm-module.yaml"), "group:\n  name: mygroup\nproject: myproject\n");
+        writePom("myproject", "");
+        List<Path> expected = List.of(site.resolve("hcm-module.yaml").toAbsolutePath().normalize());
+
+        List<Path> descriptors = ProjectDiscovery.discoverRepositoryModuleDescriptors(projectRoot);
+        descriptors.add(projectRoot.resolve("other/hcm-module.yaml"));
+        List<String> packages = ProjectDiscovery.resolveBeanPackages(projectRoot, getClass(),
+            ProjectDiscovery.BeanPackageOrder.BEANS_FIRST, false);
+        packages.add("com.example.extra");
+
+        assertEquals(expected, ProjectDiscovery.discoverRepositoryModuleDescriptors(projectRoot));
+        assertFalse(ProjectDiscovery.resolveBeanPackages(projectRoot, getClass(),
+            ProjectDiscovery.BeanPackageOrder.BEANS_FIRST, false).contains("com.example.extra"));
+    }
+
+    private void writePom(String artifactId, String comment) throws IOException {
+        Files.writeString(projectRoot.resolve("pom.xml"),
+            "<project>\n  <artifactId>" + artifactId + "</artifactId>\n  " + comment + "\n</project>\n");
+    }
+}
@@ -1,5 +1,7 @@
 package org.bloomreach.forge.brut.common.repository;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 
@@ -17,8 +19,10 @@ import org.junit.jupiter.api.Test;
 import org.bloomreach.forge.brut.common.repository.utils.NodeTypeUtils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BrxmTestingRepositoryTest {
 
@@ -72,6 +76,158 @@ public class BrxmTestingRepositoryTest {
         assertThrows(Exception.class, () -> repo.login(new SimpleCredentials("admin", "admin".toCharArray())));
     }
 
+    @Test
+    void restore_canClearBundleCachesOfBundledJackrabbit() {
+        // guards the reflective access to the bundle caches against Jackrabbit upgrades
+        assertTrue(CopyOnWriteBundlePersistenceManager.isRestoreSupported());
+    }
+
+    @Test
+    void restore_discardsChangesSavedAfterCheckpoint() throws Exception {
+        try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+            Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            addSampleNode(session);
+            session.logout();
+
+            RepositoryCheckpoint checkpoint = repository.checkpoint();
+            assertTrue(checkpoint.getWorkspaceNames().contains("default"));
+
+            session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            session.getRootNode().addNode("added", NODE_TYPE);
+            session.getNode("/" + NODE_NAME).remove();
+            session.save();
+            session.logout();
+
+            repository.restore(checkpoint);
+
+            session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            assertTrue(session.nodeExists("/" + NODE_NAME));
+            assertFalse(session.nodeExists("/added"));
+            session.logout();
+        }
+    }
+
+    @Test
+    void restore_canBeRepeated() throws Exception {
+        try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+            RepositoryCheckpoint checkpoint = repository.checkpoint();
+            for (int i = 0; i < 3; i++) {
+                Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+                session.getRootNode().addNode("run" + i, "nt:unstructured");
+                session.save();
+                session.logout();
+
+                repository.restore(checkpoint);
+
+                session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+                assertFalse(session.nodeExists("/run" + i));
+                session.logout();
+            }
+        }
+    }
+
+    @Test
+    void restore_liveSessionObservesRestoredContentAndIndex() throws Exception {
+        try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+            Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            addSampleNode(session);
+            RepositoryCheckpoint checkpoint = repository.checkpoint();
+
+            session.getRootNode().addNode("added", NODE_TYPE);
+            session.getNode("/" + NODE_NAME).setProperty("title", "changed");
+            session.save();
+
+            repository.restore(checkpoint);
+            session.refresh(false);
+
+            assertFalse(session.nodeExists("/added"));
+            assertFalse(session.getNode("/" + NODE_NAME).hasProperty("title"));
+            QueryResult result = session.getWorkspace().getQueryManager()
+                    .createQuery("SELECT * FROM [ns:MyNodeType]", Query.JCR_SQL2).execute();
+            assertEquals(1, result.getNodes().getSize());
+            session.logout();
+        }
+    }
+
+    @Test
+    void restore_checkpointOfOtherRepository_throws() throws Exception {
+        try (BrxmTestingRepository first = new BrxmTestingRepository();
+             BrxmTestingRepository second = new BrxmTestingRepository()) {
+            RepositoryCheckpoint checkpoint = first.checkpoint();
+            assertThrows(IllegalArgumentException.class, () -> second.restore(checkpoint));
+        }
+    }
+
+    @Test
+    void fork_startsFromTemplateStateAndIsIndependent() throws Exception {
+        RepositoryTemplate template;
+        try (BrxmTestingRepository original = new BrxmTestingRepository()) {
+            original.recordInitialization("skeleton");
+            Session session = original.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            addSampleNode(session);
+            session.logout();
+            template = original.createTemplate();
+        }
+
+        try (BrxmTestingRepository fork = new BrxmTestingRepository(template);
+             BrxmTestingRepository otherFork = new BrxmTestingRepository(template)) {
+            assertFalse(fork.recordInitialization("skeleton"));
+
+            Session session = fork.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            assertTrue(session.nodeExists("/" + NODE_NAME));
+            assertTrue(session.getWorkspace().getNodeTypeManager().hasNodeType(NODE_TYPE));
+            session.getRootNode().addNode("forkOnly", NODE_TYPE);
+            session.save();
+
+            QueryResult result = session.getWorkspace().getQueryManager()
+                    .createQuery("SELECT * FROM [ns:MyNodeType]", Query.JCR_SQL2).execute();
+            assertEquals(2, result.getNodes().getSize());
+            session.logout();
+
+            Session otherSession = otherFork.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            assertTrue(otherSession.nodeExists("/" + NODE_NAME));
+            assertFalse(otherSession.nodeExists("/forkOnly"));
+            otherSession.logout();
+        }
+    }
+
+    @Test
+    void readImage_loadsContentNodeTypesAndSearchIndex() throws Exception {
+        ByteArrayOutputStream image = new ByteArrayOutputStream();
+        try (BrxmTestingRepository original = new BrxmTestingRepository()) {
+            Session session = original.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            addSampleNode(session);
+            original.writeImage(session, image);
+            session.logout();
+        }
+
+        try (BrxmTestingRepository loaded = new BrxmTestingRepository()) {
+            Session session = loaded.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            loaded.readImage(session, new ByteArrayInputStream(image.toByteArray()));
+            session.logout();
+
+            session = loaded.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            assertTrue(session.getWorkspace().getNodeTypeManager().hasNodeType(NODE_TYPE));
+            assertTrue(session.nodeExists("/" + NODE_NAME));
+            QueryResult result = session.getWorkspace().getQueryManager()
+                    .createQuery("SELECT * FROM [ns:MyNodeType]", Query.JCR_SQL2).execute();
+            assertEquals(1, result.getNodes().getSize());
+            session.logout();
+        }
+    }
+
+    @Test
+    void readImage_corruptImage_throwsAndLeavesRepositoryUntouched() throws Exception {
+        try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+            Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            addSampleNode(session);
+            assertThrows(IOException.class,
+                    () -> repository.readImage(session, new ByteArrayInputStream(new byte[]{1, 2, 3})));
+            assertTrue(session.nodeExists("/" + NODE_NAME));
+            session.logout();
+        }
+    }
+
     private void addSampleNode(Session session) throws RepositoryException {
         Node rootNode = session.getRootNode();
         NodeTypeUtils.createNodeType(session, NODE_TYPE);
@@ -0,0 +1,140 @@
+package org.bloomreach.forge.brut.common.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class PersistentHashMapTest {
+
+    @Test
+    void put_leavesPreviousVersionUntouched() {
+        PersistentHashMap<String, String> v1 = PersistentHashMap.<String, String>empty().put("a", "1");
+        PersistentHashMap<String, String> v2 = v1.put("a", "2").put("b", "3");
+
+        assertEquals("1", v1.get("a"));
+        assertFalse(v1.containsKey("b"));
+        assertEquals(1, v1.size());
+        assertEquals("2", v2.get("a"));
+        assertEquals("3", v2.get("b"));
+        assertEquals(2, v2.size());
+    }
+
+    @Test
+    void put_sameValue_returnsSameInstance() {
+        String value = "1";
+        PersistentHashMap<String, String> map = PersistentHashMap.<String, String>empty().put("a", value);
+        assertSame(map, map.put("a", value));
+    }
+
+    @Test
+    void remove_absentKey_returnsSameInstance() {
+        PersistentHashMap<String, String> map = PersistentHashMap.<String, String>empty().put("a", "1");
+        assertSame(map, map.remove("missing"));
+    }
+
+    @Test
+    void collidingHashes_areKeptApart() {
+        PersistentHashMap<CollidingKey, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 5; i++) {
+            map = map.put(new CollidingKey(i), i);
+        }
+        assertEquals(5, map.size());
+        assertEquals(3, map.get(new CollidingKey(3)));
+
+        map = map.remove(new CollidingKey(3));
+        assertNull(map.get(new CollidingKey(3)));
+        assertEquals(4, map.size());
+        assertEquals(4, map.get(new CollidingKey(4)));
+    }
+
+    @Test
+    void randomOperations_matchHashMap() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> actual = PersistentHashMap.empty();
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                actual = actual.remove(key);
+            } else {
+                expected.put(key, i);
+                actual = actual.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), actual.size());
+        Map<Integer, Integer> iterated = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : actual) {
+            iterated.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(expected, iterated);
+        for (int key = 0; key < 5_000; key++) {
+            assertEquals(expected.get(key), actual.get(key));
+        }
+    }
+
+    @Test
+    void removingEverything_yieldsEmptyMap() {
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 100; i++) {
+            map = map.put(i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            map = map.remove(i);
+        }
+        assertTrue(map.isEmpty());
+        assertFalse(map.iterator().hasNext());
+    }
+
+    @Test
+    void forEachChangedKey_reportsAddedRemovedAndReplacedKeys() {
+        PersistentHashMap<Integer, String> before = PersistentHashMap.empty();
+        for (int i = 0; i < 1000; i++) {
+            before = before.put(i, "v" + i);
+        }
+        PersistentHashMap<Integer, String> after = before.put(1000, "added").remove(3).put(500, "replaced");
+
+        Set<Integer> changed = new HashSet<>();
+        PersistentHashMap.forEachChangedKey(before, after, changed::add);
+        assertEquals(Set.of(3, 500, 1000), changed);
+    }
+
+    @Test
+    void forEachChangedKey_sameMap_reportsNothing() {
+        PersistentHashMap<Integer, String> map = PersistentHashMap.<Integer, String>empty().put(1, "a");
+        PersistentHashMap.forEachChangedKey(map, map, key -> fail("unexpected change of " + key));
+    }
+
+    @Test
+    void forEachChangedKey_collidingHashes() {
+        PersistentHashMap<CollidingKey, Integer> before = PersistentHashMap.empty();
+        for (int i = 0; i < 5; i++) {
+            before = before.put(new CollidingKey(i), i);
+        }
+        PersistentHashMap<CollidingKey, Integer> after = before.remove(new CollidingKey(1)).put(new CollidingKey(4), 40);
+
+        Set<CollidingKey> changed = new HashSet<>();
+        PersistentHashMap.forEachChangedKey(before, after, changed::add);
+        assertEquals(Set.of(new CollidingKey(1), new CollidingKey(4)), changed);
+    }
+
+    private record CollidingKey(int id) {
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.bloomreach.forge.brut.common.repository.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CndUtilsTest {
+
+    private static final String BASE_CND = "<base='http://example.com/base/1.0'>\n"
+            + "[base:document] > nt:unstructured\n";
+    private static final String DOCUMENT_CND = "<base='http://example.com/base/1.0'>\n"
+            + "<doc='http://example.com/doc/1.0'>\n"
+            + "[doc:article] > base:document\n"
+            + "[doc:news] > doc:article\n";
+
+    private static final String OTHER_BASE_CND = "<base='http://example.com/other/1.0'>\n"
+            + "[base:document] > nt:unstructured\n";
+    private static final String UNDECLARED_BASE_CND = "<ext='http://example.com/ext/1.0'>\n"
+            + "[ext:article] > base:document\n";
+    private static final String UNDECLARED_HIPPO_CND = "<ext='http://example.com/ext/1.0'>\n"
+            + "[ext:document] > hippo:document\n";
+
+    @AfterEach
+    public void tearDown() {
+        CndUtils.clearCache();
+    }
+
+    @Test
+    public void parse_sameContent_isParsedOnce() throws Exception {
+        CndUtils.ParsedCnd first = parse("base.cnd", BASE_CND);
+        CndUtils.ParsedCnd second = parse("copy-of-base.cnd", BASE_CND);
+
+        assertSame(first, second);
+        assertEquals(1, first.nodeTypes().size());
+        assertEquals("http://example.com/base/1.0", first.namespaces().get("base"));
+    }
+
+    @Test
+    public void parse_invalidCnd_namesTheFile() {
+        RepositoryException e = assertThrows(RepositoryException.class,
+                () -> parse("broken.cnd", "[broken:type > nt:base"));
+        assertTrue(e.getMessage().contains("broken.cnd"));
+    }
+
+    @Test
+    public void registerNodeTypes_resolvesSupertypesOfLaterFiles() throws Exception {
+        try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+            Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+
+            List<CndUtils.ParsedCnd> cnds = List.of(parse("document.cnd", DOCUMENT_CND), parse("base.cnd", BASE_CND));
+            assertEquals(3, CndUtils.registerNodeTypes(session, cnds).size());
+
+            Node node = session.getRootNode().addNode("news", "doc:news");
+            assertTrue(node.isNodeType("base:document"));
+            session.save();
+        }
+    }
+
+    @Test
+    public void registerNodeTypes_skipsExistingNodeTypes() throws Exception {
+        try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+            Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            CndUtils.registerNodeTypes(session, List.of(parse("base.cnd", BASE_CND)));
+
+            List<CndUtils.ParsedCnd> cnds = List.of(parse("base.cnd", BASE_CND), parse("document.cnd", DOCUMENT_CND));
+            assertEquals(2, CndUtils.registerNodeTypes(session, cnds).size());
+            assertTrue(CndUtils.registerNodeTypes(session, cnds).isEmpty());
+        }
+    }
+
+    @Test
+    public void parse_withSession_resolvesPrefixesRegisteredInTheRepository() throws Exception {
+        try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+            Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+
+            CndUtils.ParsedCnd cnd = parse(session, "undeclared-hippo.cnd", UNDECLARED_HIPPO_CND);
+            CndUtils.registerNodeTypes(session, List.of(cnd));
+
+            assertTrue(session.getWorkspace().getNodeTypeManager().getNodeType("ext:document")
+                    .isNodeType("hippo:document"));
+            assertEquals("http://example.com/ext/1.0", session.getNamespaceURI("ext"));
+        }
+    }
+
+    @Test
+    public void parse_withSession_isCachedPerResolvedNamespace() throws Exception {
+        CndUtils.ParsedCnd first;
+        CndUtils.ParsedCnd other;
+        try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+            Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            parse(session, "base.cnd", BASE_CND);
+            first = parse(session, "undeclared-base.cnd", UNDECLARED_BASE_CND);
+            assertSame(first, parse(session, "copy.cnd", UNDECLARED_BASE_CND));
+        }
+        try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+            Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            parse(session, "other-base.cnd", OTHER_BASE_CND);
+            other = parse(session, "undeclared-base.cnd", UNDECLARED_BASE_CND);
+        }
+
+        assertNotSame(first, other);
+        assertEquals("http://example.com/base/1.0",
+                first.nodeTypes().get(0).getSupertypes()[0].getNamespaceURI());
+        assertEquals("http://example.com/other/1.0",
+                other.nodeTypes().get(0).getSupertypes()[0].getNamespaceURI());
+    }
+
+    @Test
+    public void parse_withoutSession_rejectsUndeclaredPrefixes() {
+        assertThrows(RepositoryException.class, () -> parse("undeclared-hippo.cnd", UNDECLARED_HIPPO_CND));
+    }
+
+    private static CndUtils.ParsedCnd parse(Session session, String systemId, String cnd) throws RepositoryException {
+        return CndUtils.parse(session, systemId, cnd.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CndUtils.ParsedCnd parse(String systemId, String cnd) throws RepositoryException {
+        return CndUtils.parse(systemId, cnd.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package org.bloomreach.forge.brut.common.repository.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+import javax.jcr.Value;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
+
+import static org.hippoecm.repository.api.HippoNodeType.HIPPO_PATHS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class HippoPathUtilsTest {
+
+    private BrxmTestingRepository repository;
+    private Session session;
+    private Node content;
+
+    @BeforeEach
+    public void setup() throws RepositoryException, IOException {
+        repository = new BrxmTestingRepository();
+        session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+        try (InputStream cnd = getClass().getClassLoader()
+                .getResourceAsStream("org/bloomreach/forge/brut/common/repository/utils/hippo.cnd")) {
+            ImporterUtils.registerNamespaces(cnd, session);
+        }
+        NodeTypeUtils.createNodeType(session, "hippotranslation:translations");
+
+        content = session.getRootNode().addNode("content", "nt:unstructured");
+        Node documents = content.addNode("documents", "nt:unstructured");
+        documents.addNode("news", "hippo:handle").addNode("news", "hippo:document");
+        documents.addNode("translations", "hippotranslation:translations").addNode("child", "nt:unstructured");
+        content.addNode("archive", "nt:unstructured");
+        session.save();
+    }
+
+    @AfterEach
+    public void teardown() {
+        session.logout();
+        repository.close();
+    }
+
+    @Test
+    public void calculateHippoPaths_setsAncestorIdentifiersAndSkipsHandlesAndTranslations() throws Exception {
+        HippoPathUtils.calculateHippoPaths(content, HippoPathUtils.getPathsForNode(content, session.getRootNode()));
+
+        assertPaths("/content/documents/news/news");
+        assertPaths("/content/documents");
+        assertFalse(session.getNode("/content/documents/news").hasProperty(HIPPO_PATHS));
+        assertFalse(session.getNode("/content/documents/translations").hasProperty(HIPPO_PATHS));
+        assertFalse(session.getNode("/content/documents/translations/child").hasProperty(HIPPO_PATHS));
+    }
+
+    @Test
+    public void updateHippoPaths_writesOnlyAddedAndMovedNodes() throws Exception {
+        assertEquals(4, update());
+        session.save();
+        assertEquals(0, update());
+
+        session.getNode("/content/archive").addNode("old", "nt:unstructured");
+        assertEquals(1, update());
+
+        session.move("/content/documents", "/content/archive/documents");
+        assertEquals(2, update());
+        assertPaths("/content/archive/documents/news/news");
+        assertPaths("/content/archive/old");
+    }
+
+    private int update() throws RepositoryException {
+        return HippoPathUtils.updateHippoPaths(content, HippoPathUtils.getPathsForNode(content, session.getRootNode()));
+    }
+
+    /**
+     * hippo:paths holds the identifiers of the node and its ancestors; documents below a handle include the handle.
+     */
+    private void assertPaths(String path) throws RepositoryException {
+        List<String> expected = new ArrayList<>();
+        for (Node node = session.getNode(path); ; node = node.getParent()) {
+            expected.add(node.getIdentifier());
+            if (node.getDepth() == 0) {
+                break;
+            }
+        }
+        List<String> actual = new ArrayList<>();
+        for (Value value : session.getNode(path).getProperty(HIPPO_PATHS).getValues()) {
+            actual.add(value.getString());
+        }
+        assertEquals(expected, actual);
+    }
+}
@@ -1,8 +1,12 @@
 package org.bloomreach.forge.brut.common.repository.utils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -10,6 +14,7 @@ import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.SimpleCredentials;
+import javax.jcr.nodetype.ConstraintViolationException;
 import javax.jcr.nodetype.NodeType;
 import javax.jcr.nodetype.NodeTypeIterator;
 import javax.jcr.nodetype.NodeTypeManager;
@@ -17,15 +22,21 @@ import javax.jcr.nodetype.NodeTypeManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ImporterUtilsTest {
 
+    @TempDir
+    Path tempDir;
+
     private BrxmTestingRepository repository;
     private Session session;
 
@@ -64,6 +75,64 @@ public class ImporterUtilsTest {
         assertTrue(thumbnail.getProperty("jcr:data").getBinary().getSize() > 0, "Thumbnail has empty binary data");
     }
 
+    @Test
+    public void testImportingSameYamlTwice() throws Exception {
+        URL resource = getClass().getResource("/org/bloomreach/forge/brut/common/repository/utils/gallery.yaml");
+        ImporterUtils.importYaml(resource, session.getRootNode(), "/content", "hippostd:folder");
+        ImporterUtils.importYaml(resource, session.getRootNode(), "/copy", "hippostd:folder");
+
+        String thumbnailPath = "/gallery/myhippoproject/samples/viognier-grapes-188185_640.jpg/viognier-grapes-188185_640.jpg/hippogallery:thumbnail";
+        Node original = session.getNode("/content" + thumbnailPath);
+        Node copy = session.getNode("/copy" + thumbnailPath);
+        assertEquals(original.getProperty("jcr:data").getBinary().getSize(), copy.getProperty("jcr:data").getBinary().getSize(),
+                "Replayed import has different binary data");
+    }
+
+    @Test
+    public void testStreamingImportInBatches() throws Exception {
+        URL resource = getClass().getResource("/org/bloomreach/forge/brut/common/repository/utils/gallery.yaml");
+        ImporterUtils.importYaml(resource, session.getRootNode(), "/content", "hippostd:folder", 2);
+        session.save();
+
+        Node gallery = session.getNodeByIdentifier("37aa21b2-d5dd-4ac2-9e1c-9cb0f82dd099");
+        assertEquals("/content/gallery", gallery.getPath(), "Imported node has a different identifier");
+        Node thumbnail = session.getNode("/content/gallery/myhippoproject/samples/viognier-grapes-188185_640.jpg/viognier-grapes-188185_640.jpg/hippogallery:thumbnail");
+        assertEquals(60L, thumbnail.getProperty("hippogallery:height").getLong(), "Thumbnail height was incorrect");
+        assertTrue(thumbnail.getProperty("jcr:data").getBinary().getSize() > 0, "Thumbnail has empty binary data");
+    }
+
+    @Test
+    public void testStreamingImportDefersSaveOfIncompleteNode() throws Exception {
+        registerStrictNodeType();
+        URL resource = writeYaml("/valid:\n"
+                + "  jcr:primaryType: test:strict\n"
+                + "  /child:\n"
+                + "    jcr:primaryType: nt:unstructured\n"
+                + "  test:required: value\n");
+
+        ImporterUtils.importYaml(resource, session.getRootNode(), "/content", "nt:unstructured", 1);
+        session.save();
+
+        assertEquals("value", session.getNode("/content/valid").getProperty("test:required").getString());
+    }
+
+    @Test
+    public void testStreamingImportFailsOnInvalidNodeAfterOneRetry() throws Exception {
+        registerStrictNodeType();
+        URL resource = writeYaml("/broken:\n"
+                + "  jcr:primaryType: test:strict\n"
+                + "/first:\n"
+                + "  jcr:primaryType: nt:unstructured\n"
+                + "/second:\n"
+                + "  jcr:primaryType: nt:unstructured\n");
+
+        ConstraintViolationException e = assertThrows(ConstraintViolationException.class, () ->
+                ImporterUtils.importYaml(resource, session.getRootNode(), "/content", "nt:unstructured", 1));
+
+        assertTrue(e.getMessage().contains("/content/broken"), e.getMessage());
+        assertFalse(session.nodeExists("/content/second"), "Import continued after the retry failed");
+    }
+
     @AfterEach
     public void tearDown() {
         if (session != null && session.isLive()) {
@@ -77,6 +146,17 @@ public class ImporterUtilsTest {
         return StreamSupport.stream(iterable.spliterator(), false);
     }
 
+    private void registerStrictNodeType() throws RepositoryException {
+        ImporterUtils.registerNamespaces(new ByteArrayInputStream(("<test='http://example.com/test/1.0'>\n"
+                + "[test:strict] > nt:base\n"
+                + "- test:required (string) mandatory\n"
+                + "+ * (nt:base) = nt:unstructured\n").getBytes(StandardCharsets.UTF_8)), session);
+    }
+
+    private URL writeYaml(String yaml) throws IOException {
+        return Files.writeString(tempDir.resolve("content.yaml"), yaml).toUri().toURL();
+    }
+
     private InputStream getResourceAsStream(String classpathLocation) {
         return getClass().getClassLoader().getResourceAsStream(classpathLocation);
     }
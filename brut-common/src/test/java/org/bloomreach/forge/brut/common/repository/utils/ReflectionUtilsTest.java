@@ -37,10 +37,36 @@ public class ReflectionUtilsTest {
         assertThrows(RuntimeReflectionException.class, () -> ReflectionUtils.invokeMethod(method, testObj));
     }
 
+    @Test
+    public void invokeDeclaredMethod_findsPrivateMethodOfSuperclass() {
+        assertEquals("hidden", ReflectionUtils.invokeDeclaredMethod(new TestSubClass(), "hiddenMethod"));
+    }
+
+    @Test
+    public void getDeclaredFieldValue_findsPrivateFieldOfSuperclass() {
+        assertEquals(MOCK_VALUE, ReflectionUtils.getDeclaredFieldValue(new TestSubClass(), "hiddenField"));
+    }
+
+    @Test
+    public void declaredMembers_missing_throw() {
+        TestSubClass testObj = new TestSubClass();
+        assertThrows(RuntimeReflectionException.class, () -> ReflectionUtils.invokeDeclaredMethod(testObj, "nonExisting"));
+        assertThrows(RuntimeReflectionException.class, () -> ReflectionUtils.getDeclaredFieldValue(testObj, "nonExisting"));
+    }
+
     static class TestClass {
+        private final String hiddenField = MOCK_VALUE;
+
         public void method() {
             throw new IllegalArgumentException();
         }
+
+        private String hiddenMethod() {
+            return "hidden";
+        }
+    }
+
+    static class TestSubClass extends TestClass {
     }
 
 
@@ -0,0 +1,124 @@
+package org.bloomreach.forge.brut.common.scan;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClasspathIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        ClasspathIndex.clearCache();
+        System.clearProperty(ClasspathIndex.ENABLED_PROPERTY);
+    }
+
+    @Test
+    void find_matchesPatternsInClasspathOrder() throws IOException {
+        Path classes = Files.createDirectories(tempDir.resolve("classes"));
+        write(classes.resolve("namespaces/acme.cnd"));
+        write(classes.resolve("namespaces/nested/types.cnd"));
+        write(classes.resolve("namespaces/readme.txt"));
+        Path jar = jar(tempDir.resolve("lib.jar"), null, "namespaces/lib.cnd", "META-INF/hcm-module.yaml");
+
+        try (URLClassLoader classLoader = classLoader(classes, jar)) {
+            ClasspathIndex index = ClasspathIndex.of(classLoader);
+
+            assertEquals(List.of("namespaces/acme.cnd", "namespaces/nested/types.cnd", "namespaces/lib.cnd"),
+                relativePaths(index.find("namespaces/**/*.cnd", false)));
+            assertEquals(List.of("namespaces/acme.cnd"), relativePaths(index.find("namespaces/*.cnd", true)));
+            assertEquals(List.of("namespaces/readme.txt"), relativePaths(index.find("**/read?e.*", false)));
+            assertEquals(Collections.list(classLoader.getResources("META-INF/hcm-module.yaml")),
+                ClasspathIndex.getResources(classLoader, "META-INF/hcm-module.yaml"));
+        }
+    }
+
+    @Test
+    void of_includesManifestClassPath() throws IOException {
+        Path lib = jar(tempDir.resolve("lib/lib.jar"), null, "META-INF/hcm-module.yaml");
+        Path booter = jar(tempDir.resolve("booter.jar"), "lib/lib.jar");
+
+        try (URLClassLoader classLoader = classLoader(booter)) {
+            assertEquals(List.of(booter.toRealPath(), lib.toRealPath()),
+                ClasspathIndex.classpathOf(classLoader).stream().map(ClasspathIndexTest::realPath).toList());
+            assertEquals(1, ClasspathIndex.of(classLoader).find("META-INF/hcm-module.yaml", false).size());
+        }
+    }
+
+    @Test
+    void of_disabled_returnsNull() throws IOException {
+        System.setProperty(ClasspathIndex.ENABLED_PROPERTY, "false");
+        try (URLClassLoader classLoader = classLoader(tempDir)) {
+            assertNull(ClasspathIndex.of(classLoader));
+        }
+    }
+
+    @Test
+    void matchesSegment_supportsWildcards() {
+        assertTrue(ClasspathIndex.matchesSegment("*.cnd", "acme.cnd"));
+        assertTrue(ClasspathIndex.matchesSegment("a*b*c", "aXbYbc"));
+        assertTrue(ClasspathIndex.matchesSegment("?cme.*", "acme.cnd"));
+        assertFalse(ClasspathIndex.matchesSegment("*.cnd", "acme.yaml"));
+    }
+
+    private static URLClassLoader classLoader(Path... entries) throws IOException {
+        URL[] urls = new URL[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            urls[i] = entries[i].toUri().toURL();
+        }
+        return new URLClassLoader(urls, null);
+    }
+
+    private static List<String> relativePaths(List<URL> urls) {
+        return urls.stream().map(URL::toString)
+            .map(url -> url.substring(url.indexOf("namespaces/")))
+            .toList();
+    }
+
+    private static Path realPath(Path path) {
+        try {
+            return path.toRealPath();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, file.getFileName().toString());
+    }
+
+    private static Path jar(Path jar, String classPath, String... entries) throws IOException {
+        Files.createDirectories(jar.getParent());
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (classPath != null) {
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+        }
+        try (OutputStream out = Files.newOutputStream(jar); JarOutputStream jarOut = new JarOutputStream(out, manifest)) {
+            for (String entry : entries) {
+                jarOut.putNextEntry(new JarEntry(entry));
+                jarOut.write(entry.getBytes());
+                jarOut.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,84 @@
+package org.bloomreach.forge.brut.common.scan;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeBeanReaderTest {
+
+    @TempDir
+    static Path tempDir;
+
+    @BeforeAll
+    static void compileBeans() throws IOException {
+        Path node = write("org/hippoecm/hst/content/beans/Node.java",
+            "package org.hippoecm.hst.content.beans;\n"
+                + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+                + "public @interface Node { String jcrType() default \"\"; }\n");
+        Path article = write("com/acme/beans/Article.java",
+            "package com.acme.beans;\n"
+                + "@Deprecated(since = \"1\")\n"
+                + "@org.hippoecm.hst.content.beans.Node(jcrType = \"acme:article\")\n"
+                + "public class Article extends Base {\n"
+                + "    static final long VERSION = 5L;\n"
+                + "    static final double RATIO = 1.5;\n"
+                + "    public String getTitle() { return \"title\"; }\n"
+                + "}\n");
+        Path base = write("com/acme/beans/Base.java",
+            "package com.acme.beans;\n"
+                + "public class Base { org.hippoecm.hst.content.beans.Node node; }\n");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null, "-d", tempDir.resolve("classes").toString(),
+            node.toString(), article.toString(), base.toString());
+        assertEquals(0, result, "test beans must compile");
+    }
+
+    @Test
+    void read_annotatedClass_returnsJcrTypeAndSuperclass() throws IOException {
+        Optional<NodeBean> bean = NodeBeanReader.read(classFile("com/acme/beans/Article"));
+
+        assertTrue(bean.isPresent());
+        assertEquals("com.acme.beans.Article", bean.get().className());
+        assertEquals("com.acme.beans.Base", bean.get().superClassName());
+        assertEquals("acme:article", bean.get().jcrType());
+        assertEquals("com.acme.beans", bean.get().packageName());
+    }
+
+    @Test
+    void read_classReferringToNodeWithoutAnnotation_returnsEmpty() throws IOException {
+        assertTrue(NodeBeanReader.read(classFile("com/acme/beans/Base")).isEmpty());
+    }
+
+    @Test
+    void read_noClassFile_returnsEmpty() {
+        assertTrue(NodeBeanReader.read(new byte[]{1, 2, 3}).isEmpty());
+    }
+
+    @Test
+    void read_truncatedClassFile_returnsEmpty() throws IOException {
+        byte[] classFile = classFile("com/acme/beans/Article");
+
+        assertTrue(NodeBeanReader.read(Arrays.copyOf(classFile, 12)).isEmpty());
+    }
+
+    private static byte[] classFile(String name) throws IOException {
+        return Files.readAllBytes(tempDir.resolve("classes").resolve(name + ".class"));
+    }
+
+    private static Path write(String name, String source) throws IOException {
+        Path file = tempDir.resolve("src").resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, source);
+    }
+}
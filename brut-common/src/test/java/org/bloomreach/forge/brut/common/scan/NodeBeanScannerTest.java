@@ -0,0 +1,95 @@
+package org.bloomreach.forge.brut.common.scan;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeBeanScannerTest {
+
+    private static final String NODE = "package org.hippoecm.hst.content.beans;\n"
+        + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+        + "public @interface Node { String jcrType() default \"\"; }\n";
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        ClasspathIndex.clearCache();
+    }
+
+    @Test
+    void scan_takesIndexedRootsFromIndexAndScansOtherRoots() throws IOException {
+        // the index of the test classes lists Listed; Unlisted is a class file the index does not know about
+        Path testClasses = compile("test-classes", bean("Unlisted", "acme:unlisted"));
+        write(testClasses.resolve("META-INF/brut-beans.index"),
+            "version\t1\ncom.acme.beans.Listed\tacme:listed\tjava.lang.Object\tcom.acme.beans\n");
+        Path mainClasses = compile("classes", bean("Article", "acme:article"));
+
+        try (URLClassLoader classLoader = classLoader(testClasses, mainClasses)) {
+            NodeBeanScanner scanner = new NodeBeanScanner(classLoader);
+
+            assertTrue(scanner.hasIndex());
+            assertEquals(List.of("acme:listed", "acme:article"),
+                scanner.scan("classpath*:com/acme/beans/**/*.class").stream().map(NodeBean::jcrType).toList());
+        }
+    }
+
+    @Test
+    void scan_withoutIndex_scansAllRoots() throws IOException {
+        Path classes = compile("classes", bean("Article", "acme:article"));
+
+        try (URLClassLoader classLoader = classLoader(classes)) {
+            NodeBeanScanner scanner = new NodeBeanScanner(classLoader);
+
+            assertFalse(scanner.hasIndex());
+            assertEquals(List.of("acme:article"),
+                scanner.scan("classpath*:com/acme/beans/*.class").stream().map(NodeBean::jcrType).toList());
+        }
+    }
+
+    private static String[] bean(String name, String jcrType) {
+        return new String[]{"com/acme/beans/" + name + ".java",
+            "package com.acme.beans;\n"
+                + "@org.hippoecm.hst.content.beans.Node(jcrType = \"" + jcrType + "\")\n"
+                + "public class " + name + " {}\n"};
+    }
+
+    private Path compile(String output, String[] source) throws IOException {
+        Path sources = tempDir.resolve(output + "-src");
+        Path node = write(sources.resolve("org/hippoecm/hst/content/beans/Node.java"), NODE);
+        Path bean = write(sources.resolve(source[0]), source[1]);
+        Path classes = tempDir.resolve(output);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null, "-proc:none", "-d", classes.toString(),
+            node.toString(), bean.toString());
+        assertEquals(0, result, "test beans must compile");
+        // only the bean belongs to this root
+        Files.delete(classes.resolve("org/hippoecm/hst/content/beans/Node.class"));
+        return classes;
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private static URLClassLoader classLoader(Path... roots) throws IOException {
+        URL[] urls = new URL[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            urls[i] = roots[i].toUri().toURL();
+        }
+        return new URLClassLoader(urls, null);
+    }
+}
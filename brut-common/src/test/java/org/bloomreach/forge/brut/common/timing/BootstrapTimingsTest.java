@@ -0,0 +1,147 @@
+package org.bloomreach.forge.brut.common.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BootstrapTimingsTest {
+
+    private static final Instant STARTED = Instant.parse("2026-01-01T00:00:00Z");
+
+    @AfterEach
+    void tearDown() {
+        BootstrapTimings.reset();
+    }
+
+    @Test
+    void phasesInsideClassSetup_areAttributedToTheTestClass(@TempDir Path dir) throws IOException {
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.classSetup("com.example.FirstTest")) {
+            try (BootstrapTimings.Phase nested = BootstrapTimings.classSetup("com.example.Ignored")) {
+                try (BootstrapTimings.Phase phase = BootstrapTimings.phase(BootstrapTimings.CND_REGISTRATION)) {
+                    // timed
+                }
+            }
+        }
+        try (BootstrapTimings.Phase phase = BootstrapTimings.phase(BootstrapTimings.SPRING_REFRESH)) {
+            // outside a test class
+        }
+
+        String report = Files.readString(BootstrapTimings.writeReport(dir, 42, STARTED));
+
+        assertEquals(List.of("class-setup", "cnd-registration"), phases(report, "com.example.FirstTest"));
+        assertEquals(List.of("spring-refresh"), phases(report, BootstrapTimings.UNATTRIBUTED));
+        assertFalse(report.contains("com.example.Ignored"));
+    }
+
+    @Test
+    void phasesOfWorkerThreads_areAttributedToTheOwnerAtSubmission(@TempDir Path dir) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Runnable cnds;
+            Callable<String> modules;
+            try (BootstrapTimings.Phase ignored = BootstrapTimings.classSetup("com.example.FirstTest")) {
+                cnds = BootstrapTimings.withCurrentOwner(() -> timed(BootstrapTimings.CND_REGISTRATION));
+                modules = BootstrapTimings.withCurrentOwner(() -> {
+                    timed(BootstrapTimings.HCM_MODULE_PARSING);
+                    return "parsed";
+                });
+            }
+            executor.submit(cnds).get();
+            assertEquals("parsed", executor.submit(modules).get());
+            executor.submit(BootstrapTimings.withOwner("com.example.SecondTest",
+                    () -> timed(BootstrapTimings.CONTENT_IMPORT))).get();
+            executor.submit(() -> timed(BootstrapTimings.SPRING_REFRESH)).get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        String report = Files.readString(BootstrapTimings.writeReport(dir, 42, STARTED));
+
+        assertEquals(List.of("class-setup", "cnd-registration", "hcm-module-parsing"),
+                phases(report, "com.example.FirstTest"));
+        assertEquals(List.of("content-import"), phases(report, "com.example.SecondTest"));
+        assertEquals(List.of("spring-refresh"), phases(report, BootstrapTimings.UNATTRIBUTED));
+    }
+
+    @Test
+    void writeReport_writesAReportPerFork(@TempDir Path dir) throws IOException {
+        BootstrapTimings.record("com.example.FirstTest", BootstrapTimings.CLASS_SETUP, 3_000_000);
+        BootstrapTimings.record("com.example.FirstTest", BootstrapTimings.CLASS_SETUP, 1_000_000);
+        Path first = BootstrapTimings.writeReport(dir.resolve("target/brut-timings"), 1, STARTED);
+        BootstrapTimings.reset();
+        BootstrapTimings.record("com.example.SecondTest", BootstrapTimings.CLASS_SETUP, 1_000_000);
+        Path second = BootstrapTimings.writeReport(dir.resolve("target/brut-timings"), 2, STARTED);
+
+        assertEquals(dir.resolve("target/brut-timings/1.json"), first);
+        String firstReport = Files.readString(first);
+        assertTrue(firstReport.startsWith("{\n  \"pid\": 1,\n  \"started\": \"2026-01-01T00:00:00Z\","));
+        assertTrue(firstReport.contains(
+                "\"phases\": {\"class-setup\":{\"count\":2,\"totalMillis\":4.000,\"maxMillis\":3.000}}"));
+        assertFalse(firstReport.contains("com.example.SecondTest"));
+        String secondReport = Files.readString(second);
+        assertTrue(secondReport.contains("com.example.SecondTest"));
+        assertFalse(secondReport.contains("com.example.FirstTest"));
+    }
+
+    @Test
+    void format_escapesClassNames() {
+        Map<String, Map<String, BootstrapTimings.PhaseStats>> report = new TreeMap<>();
+        report.put("com.example.\"Quoted\"\\Test\n", Map.of(BootstrapTimings.CLASS_SETUP,
+                new BootstrapTimings.PhaseStats()));
+
+        assertTrue(BootstrapTimings.format(1, STARTED, report)
+                .contains("{\"class\":\"com.example.\\\"Quoted\\\"\\\\Test\\u000a\",\"phases\":"));
+    }
+
+    @Test
+    void disabled_recordsNothing(@TempDir Path dir) throws IOException {
+        System.setProperty(BootstrapTimings.ENABLED_PROPERTY, "false");
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.classSetup("com.example.FirstTest")) {
+            try (BootstrapTimings.Phase phase = BootstrapTimings.phase(BootstrapTimings.HIPPO_PATHS)) {
+                // not timed
+            }
+        } finally {
+            System.clearProperty(BootstrapTimings.ENABLED_PROPERTY);
+        }
+
+        assertFalse(Files.readString(BootstrapTimings.writeReport(dir, 42, STARTED)).contains("{\"class\":"));
+    }
+
+    private static void timed(String phase) {
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(phase)) {
+            // timed
+        }
+    }
+
+    /**
+     * @return the phases of {@code testClass} in the report, which puts each class on a line of its own
+     */
+    private static List<String> phases(String report, String testClass) {
+        String prefix = "{\"class\":\"" + testClass + "\",\"phases\":{";
+        String line = report.lines().map(String::trim).filter(l -> l.startsWith(prefix)).findFirst().orElseThrow();
+        List<String> phases = new ArrayList<>();
+        Matcher phase = Pattern.compile("\"([^\"]+)\":\\{\"count\"").matcher(line);
+        while (phase.find()) {
+            phases.add(phase.group(1));
+        }
+        return phases;
+    }
+}
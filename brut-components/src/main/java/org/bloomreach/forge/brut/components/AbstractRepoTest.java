@@ -1,9 +1,13 @@
 package org.bloomreach.forge.brut.components;
 
 import org.apache.commons.lang3.StringUtils;
+import org.bloomreach.forge.brut.common.cache.BrutCache;
 import org.bloomreach.forge.brut.common.repository.utils.HippoPathUtils;
 import org.bloomreach.forge.brut.common.repository.utils.ImporterUtils;
 import org.bloomreach.forge.brut.common.repository.utils.NodeTypeUtils;
+import org.bloomreach.forge.brut.common.scan.IndexedResourcePatternResolver;
+import org.bloomreach.forge.brut.common.scan.NodeBeanScanner;
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
 import org.bloomreach.forge.brut.components.exception.SetupTeardownException;
 import org.hippoecm.hst.component.support.spring.util.MetadataReaderClasspathResourceScanner;
 import org.hippoecm.hst.content.beans.ObjectBeanManagerException;
@@ -19,7 +23,6 @@ import org.hippoecm.hst.core.search.HstQueryManagerFactoryImpl;
 import org.hippoecm.hst.site.content.ObjectConverterFactoryBean;
 import org.hippoecm.hst.util.PathUtils;
 import org.hippoecm.repository.util.DateTools;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
@@ -31,12 +34,12 @@ import java.io.InputStream;
 import java.io.PrintStream;
 import java.net.URL;
 import java.util.HashMap;
-import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractRepoTest extends SimpleComponentTest {
 
     private static final String SLASH = "/";
-    private static final ConcurrentHashMap<String, ObjectConverter> CONVERTER_CACHE = new ConcurrentHashMap<>();
+    private static final BrutCache<String, ObjectConverter> CONVERTER_CACHE =
+            BrutCache.<String, ObjectConverter>builder("objectConverters").maxEntries(32).build();
 
     protected Node rootNode;
     protected ObjectConverter objectConverter;
@@ -49,10 +52,14 @@ public abstract class AbstractRepoTest extends SimpleComponentTest {
         if (objectConverter == null) {
             try {
                 if (shouldRegisterBaseNodeTypes()) {
-                    registerBaseNodeTypes();
+                    try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.CND_REGISTRATION)) {
+                        registerBaseNodeTypes();
+                    }
                 }
                 if (shouldImportNodeStructure()) {
-                    importNodeStructure();
+                    try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.CONTENT_IMPORT)) {
+                        importNodeStructure();
+                    }
                 }
                 requestContext.setSession(this.rootNode.getSession());
                 setObjectConverter();
@@ -246,7 +253,7 @@ public abstract class AbstractRepoTest extends SimpleComponentTest {
     }
 
     protected void setObjectConverter() throws Exception {
-        this.objectConverter = CONVERTER_CACHE.computeIfAbsent(
+        this.objectConverter = CONVERTER_CACHE.getOrCompute(
                 getAnnotatedClassesResourcePath(), AbstractRepoTest::buildObjectConverter);
 
         this.objectBeanManager = new ObjectBeanManagerImpl(this.rootNode.getSession(), objectConverter);
@@ -259,9 +266,11 @@ public abstract class AbstractRepoTest extends SimpleComponentTest {
     private static ObjectConverter buildObjectConverter(String annotatedClassesResourcePath) {
         try {
             MetadataReaderClasspathResourceScanner resourceScanner = new MetadataReaderClasspathResourceScanner();
-            resourceScanner.setResourceLoader(new PathMatchingResourcePatternResolver());
+            resourceScanner.setResourceLoader(new IndexedResourcePatternResolver());
+            NodeBeanScanner beanScanner = new NodeBeanScanner(Thread.currentThread().getContextClassLoader());
             ObjectConverterFactoryBean objectConverterFactory = new ObjectConverterFactoryBean();
-            objectConverterFactory.setClasspathResourceScanner(resourceScanner);
+            objectConverterFactory.setClasspathResourceScanner(
+                    new IndexedClasspathResourceScanner(resourceScanner, beanScanner));
             objectConverterFactory.setAnnotatedClassesResourcePath(annotatedClassesResourcePath);
             objectConverterFactory.setGenerateDynamicBean(false);
             objectConverterFactory.afterPropertiesSet();
@@ -301,11 +310,15 @@ public abstract class AbstractRepoTest extends SimpleComponentTest {
         recalculateHippoPaths("/content", save);
     }
 
+    /**
+     * Sets {@code hippo:paths} below {@code absolutePath}. Only nodes that were added or moved since the previous
+     * calculation are written, so repeated calls after small imports do not modify the whole tree.
+     */
     protected void recalculateHippoPaths(String absolutePath, boolean save) {
-        try {
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.HIPPO_PATHS)) {
             validateAbsolutePath(absolutePath);
             Node node = rootNode.getNode(absolutePath.substring(1));
-            HippoPathUtils.calculateHippoPaths(node, HippoPathUtils.getPathsForNode(node, rootNode));
+            HippoPathUtils.updateHippoPaths(node, HippoPathUtils.getPathsForNode(node, rootNode));
             if (save) {
                 rootNode.getSession().save();
             }
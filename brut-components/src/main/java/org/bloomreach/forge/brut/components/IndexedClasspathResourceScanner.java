@@ -0,0 +1,43 @@
+package org.bloomreach.forge.brut.components;
+
+import org.bloomreach.forge.brut.common.processor.BrxmBeanRegistry;
+import org.bloomreach.forge.brut.common.scan.NodeBean;
+import org.bloomreach.forge.brut.common.scan.NodeBeanScanner;
+import org.hippoecm.hst.content.beans.Node;
+import org.hippoecm.hst.util.ClasspathResourceScanner;
+
+import java.lang.annotation.Annotation;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Answers {@code @Node} scans with a {@link NodeBeanScanner}: beans of the classpath roots covered by the
+ * compile-time bean index of {@link BrxmBeanRegistry} come from the index, the other roots are scanned. Other
+ * annotations, superclass matching and classpaths without an index are delegated to a scanning implementation.
+ * The {@code ObjectConverter} mapping is then built without scanning the indexed roots, and only the classes
+ * that are registered get loaded.
+ */
+final class IndexedClasspathResourceScanner implements ClasspathResourceScanner {
+
+    private final ClasspathResourceScanner delegate;
+    private final NodeBeanScanner scanner;
+
+    IndexedClasspathResourceScanner(ClasspathResourceScanner delegate, NodeBeanScanner scanner) {
+        this.delegate = delegate;
+        this.scanner = scanner;
+    }
+
+    @Override
+    public Set<String> scanClassNamesAnnotatedBy(Class<? extends Annotation> annotationType,
+                                                 boolean matchSuperClass, String... locationPatterns) {
+        if (!scanner.hasIndex() || matchSuperClass || !Node.class.equals(annotationType)) {
+            return delegate.scanClassNamesAnnotatedBy(annotationType, matchSuperClass, locationPatterns);
+        }
+
+        Set<String> classNames = new LinkedHashSet<>();
+        for (NodeBean bean : scanner.scan(locationPatterns)) {
+            classNames.add(bean.className());
+        }
+        return classNames;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2024 Bloomreach, Inc. (http://www.bloomreach.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bloomreach.forge.brut.components.annotation;
+
+import org.bloomreach.forge.brut.common.junit.PreBootstrapListener;
+
+import java.util.Map;
+
+/**
+ * Bootstraps the shared repositories of the {@link BrxmComponentTest} configurations in the test plan when the
+ * suite starts. Registered with the JUnit Platform through {@code META-INF/services}.
+ *
+ * @since 6.2.0
+ */
+public class BrxmComponentPreBootstrapListener extends PreBootstrapListener {
+
+    @Override
+    protected void collectBootstraps(Class<?> testClass, Map<String, Runnable> bootstraps) {
+        BrxmComponentTestExtension.collectPreBootstrap(testClass, bootstraps);
+    }
+}
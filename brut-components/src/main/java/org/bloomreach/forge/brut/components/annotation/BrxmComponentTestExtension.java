@@ -1,11 +1,15 @@
 package org.bloomreach.forge.brut.components.annotation;
 
+import org.bloomreach.forge.brut.common.cache.BrutCache;
 import org.bloomreach.forge.brut.common.exception.BrutTestConfigurationException;
 import org.bloomreach.forge.brut.common.junit.NestedTestClassSupport;
+import org.bloomreach.forge.brut.common.junit.SuiteCacheCleanup;
 import org.bloomreach.forge.brut.common.junit.TestInstanceInjector;
 import org.bloomreach.forge.brut.common.logging.TestConfigurationLogger;
 import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
 import org.bloomreach.forge.brut.common.repository.JcrTransactionSupport;
+import org.bloomreach.forge.brut.common.repository.RepositoryTemplate;
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
 import org.junit.jupiter.api.extension.AfterAllCallback;
 import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
@@ -18,7 +22,9 @@ import org.slf4j.LoggerFactory;
 
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BrxmComponentTestExtension implements BeforeAllCallback, BeforeEachCallback, AfterEachCallback, AfterAllCallback, ParameterResolver {
 
@@ -26,10 +32,38 @@ public class BrxmComponentTestExtension implements BeforeAllCallback, BeforeEach
     private static final String TEST_INSTANCE_KEY = "brxm.component.test.instance";
     private static final String TEST_CONFIG_KEY = "brxm.component.test.config";
     private static final String TX_SUPPORT_KEY = "brxm.component.test.tx.support";
-    private static final String SHARED_REPO_KEY_PREFIX = "brxm.shared.repo.";
+    private static final String SHARED_REPO_LEASE_KEY = "brxm.component.test.shared.repo";
+    private static final String NODE_TYPES_INIT_KEY = "__annotationNodeTypes__";
     private static final String FRAMEWORK = "Component";
     private static final String ANNOTATION_PACKAGE = "org.bloomreach.forge.brut.components.annotation";
 
+    /**
+     * Repositories shared by the test classes with the same config fingerprint. A repository in use by a test
+     * class is not evicted; evicted and remaining repositories are shut down once their last user completes.
+     */
+    private static final BrutCache<String, SharedRepositoryEntry> SHARED_REPOSITORIES =
+        BrutCache.<String, SharedRepositoryEntry>builder("componentRepositories")
+            .maxEntries(16)
+            .evictableWhen(SharedRepositoryEntry::isIdle)
+            .onEviction(SharedRepositoryEntry::retire)
+            .build();
+
+    /**
+     * Bootstraps of shared repositories in progress by config fingerprint, by a test class or by the
+     * {@link BrxmComponentPreBootstrapListener}. Whoever registers the bootstrap of a fingerprint first runs it;
+     * the others wait for it instead of bootstrapping the same repository a second time.
+     */
+    private static final Map<String, CompletableFuture<Void>> PRE_BOOTSTRAPS = new ConcurrentHashMap<>();
+
+    /**
+     * Repository templates by template fingerprint. Templates are plain values, so eviction only costs a new
+     * bootstrap for a later config with the same template fingerprint.
+     */
+    private static final BrutCache<String, RepositoryTemplate> REPOSITORY_TEMPLATES =
+        BrutCache.<String, RepositoryTemplate>builder("repositoryTemplates")
+            .maxEntries(8)
+            .build();
+
     @Override
     public void beforeAll(ExtensionContext context) throws Exception {
         Class<?> testClass = context.getRequiredTestClass();
@@ -38,6 +72,12 @@ public class BrxmComponentTestExtension implements BeforeAllCallback, BeforeEach
             return;
         }
 
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.classSetup(testClass.getName())) {
+            setUpTestClass(context, testClass);
+        }
+    }
+
+    private void setUpTestClass(ExtensionContext context, Class<?> testClass) throws Exception {
         BrxmComponentTest annotation = NestedTestClassSupport.findAnnotation(testClass, BrxmComponentTest.class);
         if (annotation == null) {
             throw BrutTestConfigurationException.missingAnnotation(testClass, "BrxmComponentTest", ANNOTATION_PACKAGE);
@@ -46,17 +86,14 @@ public class BrxmComponentTestExtension implements BeforeAllCallback, BeforeEach
         ComponentTestConfig config = ComponentConfigResolver.resolve(annotation, testClass);
         logComponentConfig(testClass, config);
 
-        // Look up or bootstrap the shared repository for this config fingerprint.
-        // Using the JUnit 5 root store means the SharedRepositoryEntry.close() is called
-        // once at the end of the entire test suite, closing Jackrabbit exactly once per
-        // unique config regardless of how many test classes share the same fingerprint.
-        String sharedKey = SHARED_REPO_KEY_PREFIX + config.computeFingerprint();
-        ExtensionContext.Store globalStore = context.getRoot().getStore(ExtensionContext.Namespace.GLOBAL);
-        SharedRepositoryEntry entry = globalStore.getOrComputeIfAbsent(
-            sharedKey,
-            k -> bootstrapSharedRepository(config),
-            SharedRepositoryEntry.class
-        );
+        // Look up or bootstrap the shared repository for this config fingerprint. The repository
+        // is leased until afterAll, so it is shut down at most once per unique config: when it is
+        // evicted from the cache and idle, or when the suite ends (see SuiteCacheCleanup).
+        // New repositories are forked from a template holding the common base (node types and
+        // skeleton), so configs differing only in content skip the identical bootstrap.
+        SuiteCacheCleanup.register(context);
+        SharedRepositoryEntry entry = leaseSharedRepository(config);
+        getRootStore(context).put(SHARED_REPO_LEASE_KEY, entry);
 
         DynamicComponentTest testInstance = new DynamicComponentTest(config);
 
@@ -78,23 +115,106 @@ public class BrxmComponentTestExtension implements BeforeAllCallback, BeforeEach
     }
 
     /**
-     * Creates and bootstraps a new {@link BrxmTestingRepository}, records the skeleton import
-     * via {@link BrxmTestingRepository#recordInitialization}, then closes the bootstrap session
-     * so subsequent test classes can open their own sessions on the shared repository.
-     * <p>
-     * The returned entry is stored in JUnit 5's root store; its {@code close()} method shuts
-     * down the repository exactly once at the very end of the test suite.
+     * Leases the shared repository for the config's fingerprint, forking it from the config's template
+     * on first use. An entry that was evicted between the lookup and the lease is shut down already,
+     * so the lookup is repeated and finds or creates a new one.
+     */
+    private static SharedRepositoryEntry leaseSharedRepository(ComponentTestConfig config) {
+        while (true) {
+            SharedRepositoryEntry entry = getOrBootstrapSharedRepository(config);
+            if (entry.lease()) {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * Returns the cached shared repository for the config's fingerprint, bootstrapping it unless it is cached.
+     * The lookup is registered in {@link #PRE_BOOTSTRAPS} first, so a test class and the pre-bootstrap never
+     * bootstrap the same fingerprint at the same time: whoever comes second waits and looks it up again.
+     */
+    private static SharedRepositoryEntry getOrBootstrapSharedRepository(ComponentTestConfig config) {
+        String fingerprint = config.computeFingerprint();
+        while (true) {
+            CompletableFuture<Void> bootstrap = new CompletableFuture<>();
+            CompletableFuture<Void> running = PRE_BOOTSTRAPS.putIfAbsent(fingerprint, bootstrap);
+            if (running != null) {
+                running.join();
+                continue;
+            }
+            try {
+                return SHARED_REPOSITORIES.getOrCompute(fingerprint,
+                    k -> forkSharedRepository(config, getOrCreateTemplate(config)));
+            } finally {
+                PRE_BOOTSTRAPS.remove(fingerprint, bootstrap);
+                bootstrap.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Adds the bootstrap of the shared repository of {@code testClass} to {@code bootstraps}, keyed by the
+     * config fingerprint, unless the class is not a {@link BrxmComponentTest} or as many repositories as the
+     * cache holds are planned already. The repository is cached without a lease, like one whose test class
+     * completed.
+     */
+    static void collectPreBootstrap(Class<?> testClass, Map<String, Runnable> bootstraps) {
+        BrxmComponentTest annotation = NestedTestClassSupport.findAnnotation(testClass, BrxmComponentTest.class);
+        if (annotation == null || bootstraps.size() >= SHARED_REPOSITORIES.getStatistics().maxEntries()) {
+            return;
+        }
+        ComponentTestConfig config = ComponentConfigResolver.resolve(annotation, testClass);
+        bootstraps.computeIfAbsent(FRAMEWORK + ":" + config.computeFingerprint(),
+            key -> () -> getOrBootstrapSharedRepository(config));
+    }
+
+    /**
+     * Returns the {@link RepositoryTemplate} for the config's template fingerprint, bootstrapping
+     * it on first use. The template is a plain value, so it is built once per JVM while it stays
+     * cached and outlives the repository it was captured from.
+     */
+    private static RepositoryTemplate getOrCreateTemplate(ComponentTestConfig config) {
+        return REPOSITORY_TEMPLATES.getOrCompute(config.computeTemplateFingerprint(), k -> bootstrapTemplate(config));
+    }
+
+    /**
+     * Bootstraps a throw-away {@link BrxmTestingRepository} with the base node types, the skeleton
+     * and the bean node types, captures it as a {@link RepositoryTemplate} and shuts it down.
      */
-    private static SharedRepositoryEntry bootstrapSharedRepository(ComponentTestConfig config) {
+    private static RepositoryTemplate bootstrapTemplate(ComponentTestConfig config) {
         DynamicComponentTest bootstrap = new DynamicComponentTest(config);
         try {
             bootstrap.setup();
-            BrxmTestingRepository repo = bootstrap.getRepository();
-            repo.setManaged(true);
+            registerNodeTypes(bootstrap, config);
+            bootstrap.getRepository().recordInitialization(NODE_TYPES_INIT_KEY);
             Session bootstrapSession = bootstrap.getSession();
             if (bootstrapSession != null && bootstrapSession.isLive()) {
                 bootstrapSession.logout();
             }
+            return bootstrap.getRepository().createTemplate();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to bootstrap repository template for config: "
+                + config.computeTemplateFingerprint(), e);
+        } finally {
+            BrxmTestingRepository repo = bootstrap.getRepository();
+            if (repo != null) {
+                repo.forceClose();
+            }
+        }
+    }
+
+    /**
+     * Forks a new {@link BrxmTestingRepository} from {@code template}. Base node types and the
+     * skeleton import are already recorded via {@link BrxmTestingRepository#recordInitialization},
+     * so only the per-class delta is applied on top when the test instance is set up.
+     * <p>
+     * The returned entry is cached in {@link #SHARED_REPOSITORIES}, which shuts the repository down
+     * when it is evicted or the suite ends.
+     */
+    private static SharedRepositoryEntry forkSharedRepository(ComponentTestConfig config, RepositoryTemplate template) {
+        try {
+            BrxmTestingRepository repo = new BrxmTestingRepository(template);
+            repo.setManaged(true);
             return new SharedRepositoryEntry(repo);
         } catch (Exception e) {
             throw new RuntimeException("Failed to bootstrap shared repository for config: "
@@ -155,12 +275,14 @@ public class BrxmComponentTestExtension implements BeforeAllCallback, BeforeEach
     @Override
     public void afterAll(ExtensionContext context) {
         if (!NestedTestClassSupport.isNestedTestClass(context.getRequiredTestClass())) {
-            // The repository lifecycle is managed by SharedRepositoryEntry (a CloseableResource
-            // stored in the JUnit 5 root store). JUnit closes it once at the end of the suite,
-            // so we must not forceClose() here — doing so would break any subsequent test class
-            // that shares the same repository instance.
+            // The repository is shared with other test classes of the same config, so it is only
+            // released here; SharedRepositoryEntry shuts it down once it is evicted and idle.
             getRootStore(context).remove(TEST_INSTANCE_KEY);
             getRootStore(context).remove(TX_SUPPORT_KEY);
+            SharedRepositoryEntry entry = getRootStore(context).remove(SHARED_REPO_LEASE_KEY, SharedRepositoryEntry.class);
+            if (entry != null) {
+                entry.release();
+            }
         }
     }
 
@@ -182,7 +304,9 @@ public class BrxmComponentTestExtension implements BeforeAllCallback, BeforeEach
     }
 
     private void applyAnnotationConfig(DynamicComponentTest testInstance, ComponentTestConfig config) {
-        registerNodeTypes(testInstance, config);
+        if (testInstance.getRepository().recordInitialization(NODE_TYPES_INIT_KEY)) {
+            registerNodeTypes(testInstance, config);
+        }
         if (config.hasContent() && config.hasContentRoot()) {
             testInstance.importYaml(config.getContent(), config.getContentRoot(),
                     "hippostd:folder", config.getTestClass());
@@ -202,28 +326,69 @@ public class BrxmComponentTestExtension implements BeforeAllCallback, BeforeEach
     }
 
     /**
-     * Wraps a shared {@link BrxmTestingRepository} as a JUnit 5 {@code CloseableResource}.
-     * Stored in the root-scoped {@link ExtensionContext.Store}; JUnit calls {@link #close()}
-     * exactly once at the end of the full test suite, shutting down the shared Jackrabbit
-     * instance and cleaning up its temporary directory.
+     * A shared {@link BrxmTestingRepository} and the number of test classes using it. Once retired,
+     * by eviction or at the end of the suite, the repository is shut down as soon as it is idle,
+     * exactly once, and can no longer be leased.
      */
-    private record SharedRepositoryEntry(BrxmTestingRepository repository)
-            implements ExtensionContext.Store.CloseableResource {
+    private static final class SharedRepositoryEntry {
+
+        private final BrxmTestingRepository repository;
+        private int users;
+        private boolean retired;
+        private boolean closed;
+
+        SharedRepositoryEntry(BrxmTestingRepository repository) {
+            this.repository = repository;
+        }
 
-        @Override
-        public void close() {
-            repository.forceClose();
+        BrxmTestingRepository repository() {
+            return repository;
+        }
+
+        synchronized boolean lease() {
+            if (closed) {
+                return false;
+            }
+            users++;
+            return true;
+        }
+
+        synchronized void release() {
+            users--;
+            closeIfRetiredAndIdle();
+        }
+
+        synchronized boolean isIdle() {
+            return users == 0;
+        }
+
+        synchronized void retire() {
+            retired = true;
+            closeIfRetiredAndIdle();
+        }
+
+        private void closeIfRetiredAndIdle() {
+            if (retired && users == 0 && !closed) {
+                closed = true;
+                repository.forceClose();
+            }
         }
     }
 
-    private void registerNodeTypes(DynamicComponentTest testInstance, ComponentTestConfig config) {
+    private static void registerNodeTypes(DynamicComponentTest testInstance, ComponentTestConfig config) {
         String[] explicitTypes = config.getNodeTypes();
 
         if (explicitTypes.length == 0) {
-            Set<String> scannedTypes = NodeTypeScanner.scanForNodeTypes(config.getAnnotatedClassesResourcePath());
+            Map<String, String> scannedTypes = NodeTypeScanner.scanForNodeTypes(config.getAnnotatedClassesResourcePath());
             if (!scannedTypes.isEmpty()) {
                 LOG.debug("Auto-registering {} node type(s) from @Node annotations", scannedTypes.size());
-                testInstance.registerNodeTypes(scannedTypes.toArray(new String[0]));
+                scannedTypes.forEach((nodeType, superType) -> {
+                    if (superType != null) {
+                        testInstance.registerNodeTypeWithSupertype(nodeType, superType);
+                    } else {
+                        testInstance.registerNodeTypes(nodeType);
+                    }
+                });
             }
             return;
         }
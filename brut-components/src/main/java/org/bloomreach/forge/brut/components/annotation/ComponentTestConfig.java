@@ -64,4 +64,19 @@ class ComponentTestConfig {
             contentRoot != null ? contentRoot : ""
         );
     }
+
+    /**
+     * Returns a stable string that identifies the part of the configuration that is identical for
+     * every repository built from it: base node types, the skeleton ({@code testResourcePath}) and
+     * the node types registered for the bean classes. Configs that only differ in {@code content}
+     * or {@code contentRoot} share a template fingerprint and can be forked from the same
+     * {@link org.bloomreach.forge.brut.common.repository.RepositoryTemplate}.
+     */
+    String computeTemplateFingerprint() {
+        return String.join("|",
+            annotatedClassesResourcePath != null ? annotatedClassesResourcePath : "",
+            testResourcePath != null ? testResourcePath : "",
+            nodeTypes != null ? String.join(",", nodeTypes) : ""
+        );
+    }
 }
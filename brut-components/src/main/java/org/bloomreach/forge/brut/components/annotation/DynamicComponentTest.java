@@ -2,6 +2,7 @@ package org.bloomreach.forge.brut.components.annotation;
 
 import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
 import org.bloomreach.forge.brut.common.repository.utils.ImporterUtils;
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
 import org.bloomreach.forge.brut.components.BaseComponentTest;
 import org.bloomreach.forge.brut.components.exception.SetupTeardownException;
 import org.bloomreach.forge.brut.components.mock.MockComponentManager;
@@ -182,7 +183,7 @@ public class DynamicComponentTest extends BaseComponentTest {
      * @param resourceClass class to use for resource loading
      */
     public void importYaml(String resourcePath, String targetPath, String folderType, Class<?> resourceClass) {
-        try {
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.CONTENT_IMPORT)) {
             URL resource = resourceClass.getResource(resourcePath);
             if (resource == null) {
                 throw new IllegalArgumentException("Resource not found: " + resourcePath);
@@ -1,19 +1,26 @@
 package org.bloomreach.forge.brut.components.annotation;
 
 import org.bloomreach.forge.brut.common.processor.BrxmBeanRegistry;
-import org.hippoecm.hst.content.beans.Node;
+import org.bloomreach.forge.brut.common.scan.NodeBean;
+import org.bloomreach.forge.brut.common.scan.NodeBeanReader;
+import org.bloomreach.forge.brut.common.scan.NodeBeanScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
-import org.springframework.core.io.support.ResourcePatternResolver;
 
 import java.io.IOException;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Scans classpath for classes annotated with {@code @Node} and extracts JCR type names.
+ * <p>
+ * Beans of classpath roots covered by the compile-time bean index of {@link BrxmBeanRegistry} are taken from
+ * the index; the other roots are scanned, reading the annotations from the class files with
+ * {@link NodeBeanReader}. No class is loaded either way, see {@link NodeBeanScanner}.
  */
 final class NodeTypeScanner {
 
@@ -27,114 +34,74 @@ final class NodeTypeScanner {
      * Scans comma-separated classpath patterns for @Node-annotated classes and extracts JCR types.
      *
      * @param classpathPatterns comma-separated patterns
-     * @return set of JCR type names
+     * @return JCR type names mapped to the JCR type of the bean they extend, or {@code null} when the
+     * superclass is not a bean; supertypes come before their subtypes
      */
-    static Set<String> scanForNodeTypes(String classpathPatterns) {
-        Set<String> fromRegistry = loadFromRegistry();
-        if (!fromRegistry.isEmpty()) {
-            LOG.debug("Using compile-time registry: {} node type(s): {}", fromRegistry.size(), fromRegistry);
-            return fromRegistry;
-        }
-
-        Set<String> nodeTypes = new LinkedHashSet<>();
-        ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-
-        for (String pattern : classpathPatterns.split(",\\s*")) {
-            if (!pattern.endsWith(CLASS_SUFFIX)) {
-                continue;
+    static Map<String, String> scanForNodeTypes(String classpathPatterns) {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        NodeBeanScanner scanner = new NodeBeanScanner(cl);
+        if (!scanner.hasIndex()) {
+            List<NodeBean> fromRegistry = loadFromRegistry(cl);
+            if (!fromRegistry.isEmpty()) {
+                Map<String, String> nodeTypes = toNodeTypes(fromRegistry);
+                LOG.debug("Using compile-time registry: {} node type(s): {}", nodeTypes.size(), nodeTypes.keySet());
+                return nodeTypes;
             }
-            scanPattern(resolver, pattern.trim(), nodeTypes);
         }
 
+        String[] patterns = Arrays.stream(classpathPatterns.split(",\\s*"))
+            .map(String::trim)
+            .filter(pattern -> pattern.endsWith(CLASS_SUFFIX))
+            .toArray(String[]::new);
+        Map<String, String> nodeTypes = toNodeTypes(scanner.scan(patterns));
         LOG.debug("Auto-detected {} node type(s) from @Node annotations: {}", nodeTypes.size(), nodeTypes);
         return nodeTypes;
     }
 
-    private static Set<String> loadFromRegistry() {
-        Set<String> nodeTypes = new LinkedHashSet<>();
-        ClassLoader cl = Thread.currentThread().getContextClassLoader();
-        for (String fqn : BrxmBeanRegistry.loadBeanClassNames(cl)) {
-            try {
-                Class<?> clazz = Class.forName(fqn, false, cl);
-                Node nodeAnnotation = clazz.getAnnotation(Node.class);
-                if (nodeAnnotation != null && !nodeAnnotation.jcrType().isEmpty()) {
-                    nodeTypes.add(nodeAnnotation.jcrType());
-                }
-            } catch (ClassNotFoundException | NoClassDefFoundError e) {
-                LOG.debug("Registry entry '{}' not loadable: {}", fqn, e.getMessage());
+    static Map<String, String> toNodeTypes(List<NodeBean> beans) {
+        Map<String, NodeBean> byClassName = new LinkedHashMap<>();
+        for (NodeBean bean : beans) {
+            if (!bean.jcrType().isEmpty()) {
+                byClassName.putIfAbsent(bean.className(), bean);
             }
         }
-        return nodeTypes;
-    }
-
-    private static void scanPattern(ResourcePatternResolver resolver, String pattern, Set<String> nodeTypes) {
-        try {
-            Resource[] resources = resolver.getResources(pattern);
-            LOG.debug("Scanning pattern '{}': found {} resources", pattern, resources.length);
-            for (Resource resource : resources) {
-                extractNodeType(resource, pattern, nodeTypes);
-            }
-        } catch (IOException e) {
-            LOG.warn("Failed to scan pattern '{}': {}", pattern, e.getMessage());
+        Map<String, String> nodeTypes = new LinkedHashMap<>();
+        for (NodeBean bean : byClassName.values()) {
+            addNodeType(bean, byClassName, nodeTypes);
         }
+        return nodeTypes;
     }
 
-    private static void extractNodeType(Resource resource, String pattern, Set<String> nodeTypes) {
-        String className = resolveClassName(resource, pattern);
-        if (className == null) {
-            LOG.debug("Could not resolve class name for resource: {}", resource);
+    private static void addNodeType(NodeBean bean, Map<String, NodeBean> byClassName, Map<String, String> nodeTypes) {
+        if (nodeTypes.containsKey(bean.jcrType())) {
             return;
         }
-
-        try {
-            Class<?> clazz = Class.forName(className, false, Thread.currentThread().getContextClassLoader());
-            Node nodeAnnotation = clazz.getAnnotation(Node.class);
-            if (nodeAnnotation != null && !nodeAnnotation.jcrType().isEmpty()) {
-                nodeTypes.add(nodeAnnotation.jcrType());
-                LOG.debug("Found @Node(jcrType=\"{}\") on {}", nodeAnnotation.jcrType(), className);
-            }
-        } catch (ClassNotFoundException | NoClassDefFoundError e) {
-            LOG.debug("Skipping class '{}': {}", className, e.getMessage());
-        }
-    }
-
-    private static String resolveClassName(Resource resource, String pattern) {
-        try {
-            String path = resource.getURL().getPath();
-            int classesIdx = path.indexOf("/classes/");
-            int testClassesIdx = path.indexOf("/test-classes/");
-
-            int startIdx;
-            if (testClassesIdx >= 0) {
-                startIdx = testClassesIdx + "/test-classes/".length();
-            } else if (classesIdx >= 0) {
-                startIdx = classesIdx + "/classes/".length();
-            } else {
-                // JAR entry: extract from pattern base
-                return resolveFromJarPath(path);
-            }
-
-            String classPath = path.substring(startIdx);
-            if (classPath.endsWith(CLASS_SUFFIX)) {
-                classPath = classPath.substring(0, classPath.length() - CLASS_SUFFIX.length());
-            }
-            return classPath.replace('/', '.');
-        } catch (IOException e) {
-            LOG.trace("Could not resolve class name for resource: {}", resource);
-            return null;
+        NodeBean superBean = bean.superClassName() != null ? byClassName.get(bean.superClassName()) : null;
+        String superType = null;
+        if (superBean != null && !superBean.jcrType().equals(bean.jcrType())) {
+            addNodeType(superBean, byClassName, nodeTypes);
+            superType = superBean.jcrType();
         }
+        nodeTypes.putIfAbsent(bean.jcrType(), superType);
+        LOG.debug("Found @Node(jcrType=\"{}\") on {}", bean.jcrType(), bean.className());
     }
 
-    private static String resolveFromJarPath(String path) {
-        // Format: file:/path/to/jar.jar!/org/example/MyClass.class
-        int jarSeparator = path.indexOf("!/");
-        if (jarSeparator >= 0) {
-            String classPath = path.substring(jarSeparator + 2);
-            if (classPath.endsWith(CLASS_SUFFIX)) {
-                classPath = classPath.substring(0, classPath.length() - CLASS_SUFFIX.length());
+    /**
+     * Reads the beans of a registry written by an older processor, which only lists class names.
+     */
+    private static List<NodeBean> loadFromRegistry(ClassLoader cl) {
+        List<NodeBean> beans = new ArrayList<>();
+        for (String fqn : BrxmBeanRegistry.loadBeanClassNames(cl)) {
+            try (InputStream classFile = cl.getResourceAsStream(fqn.replace('.', '/') + CLASS_SUFFIX)) {
+                if (classFile == null) {
+                    LOG.debug("Registry entry '{}' not found on the classpath", fqn);
+                    continue;
+                }
+                NodeBeanReader.read(classFile).ifPresent(beans::add);
+            } catch (IOException e) {
+                LOG.debug("Registry entry '{}' not readable: {}", fqn, e.getMessage());
             }
-            return classPath.replace('/', '.');
         }
-        return null;
+        return beans;
     }
 }
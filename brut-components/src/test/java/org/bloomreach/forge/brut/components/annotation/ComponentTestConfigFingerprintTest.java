@@ -53,5 +53,32 @@ class ComponentTestConfigFingerprintTest {
         assertNotNull(c.computeFingerprint());
     }
 
+    @Test
+    void differentContent_shareTemplateFingerprint() {
+        ComponentTestConfig c1 = new ComponentTestConfig(
+            "classpath*:org/**/*.class", "/skeleton.yaml", new String[0], "/content-a.yaml", "/content", Dummy.class);
+        ComponentTestConfig c2 = new ComponentTestConfig(
+            "classpath*:org/**/*.class", "/skeleton.yaml", new String[0], "/content-b.yaml", "/other", Dummy.class);
+        assertEquals(c1.computeTemplateFingerprint(), c2.computeTemplateFingerprint());
+    }
+
+    @Test
+    void differentTestResource_produceDifferentTemplateFingerprint() {
+        ComponentTestConfig c1 = new ComponentTestConfig(
+            "classpath*:org/**/*.class", "/skeleton.yaml", new String[0], null, null, Dummy.class);
+        ComponentTestConfig c2 = new ComponentTestConfig(
+            "classpath*:org/**/*.class", "/other.yaml", new String[0], null, null, Dummy.class);
+        assertNotEquals(c1.computeTemplateFingerprint(), c2.computeTemplateFingerprint());
+    }
+
+    @Test
+    void differentNodeTypes_produceDifferentTemplateFingerprint() {
+        ComponentTestConfig c1 = new ComponentTestConfig(
+            "classpath*:org/**/*.class", "/skeleton.yaml", new String[]{"ns:A"}, null, null, Dummy.class);
+        ComponentTestConfig c2 = new ComponentTestConfig(
+            "classpath*:org/**/*.class", "/skeleton.yaml", new String[]{"ns:B"}, null, null, Dummy.class);
+        assertNotEquals(c1.computeTemplateFingerprint(), c2.computeTemplateFingerprint());
+    }
+
     private static class Dummy {}
 }
@@ -1,5 +1,6 @@
 package org.bloomreach.forge.brut.resources;
 
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
 import org.hippoecm.hst.configuration.model.HstManager;
 import org.hippoecm.hst.configuration.model.HstManagerImpl;
 import org.hippoecm.hst.core.container.ContainerConfigurationImpl;
@@ -27,11 +28,13 @@ public abstract class AbstractJaxrsTest extends AbstractResourceTest {
     private static final int DEFAULT_BYTE_ARRAY_INPUT_STREAM_SIZE = 1024;
 
     public void init() {
-        setupHstRequest();
-        setupServletContext();
-        setupComponentManager();
-        setupHstPlatform();
-        setupForNewRequest();
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.classSetup(getClass().getName())) {
+            setupHstRequest();
+            setupServletContext();
+            setupComponentManager();
+            setupHstPlatform();
+            setupForNewRequest();
+        }
     }
 
     /**
@@ -39,8 +42,7 @@ public abstract class AbstractJaxrsTest extends AbstractResourceTest {
      * Subclasses can override to add custom setup but must call {@code super.setupForNewRequest()}.
      */
     protected void setupForNewRequest() {
-        unregisterHstModel();
-        registerHstModel();
+        refreshHstModel();
         setupHstResponse();
         hstRequest.invalidateSession();
     }
@@ -68,7 +70,9 @@ public abstract class AbstractJaxrsTest extends AbstractResourceTest {
     protected void setupComponentManager() {
         includeAdditionalSpringConfigurations();
         includeAdditionalAddonModules();
-        componentManager.initialize();
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.SPRING_REFRESH)) {
+            componentManager.initialize();
+        }
         IsolatingComponentManager.set(componentManager);
         ContainerConfigurationImpl containerConfiguration = componentManager.getComponent("containerConfiguration");
         String hstRoot = resolveExistingHstRoot(contributeHstConfigurationRootPath());
@@ -1,6 +1,7 @@
 package org.bloomreach.forge.brut.resources;
 
 import org.apache.commons.io.IOUtils;
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
 import org.hippoecm.hst.core.container.ContainerConfigurationImpl;
 import org.hippoecm.hst.core.parameters.Parameter;
 import org.hippoecm.hst.site.addon.module.model.ModuleDefinition;
@@ -41,15 +42,18 @@ public abstract class AbstractPageModelTest extends AbstractResourceTest {
     private static final String PAGEMODEL_ADDON_PATH = "org/bloomreach/forge/brut/resources/hst/pagemodel-addon/module.xml";
 
     public void init() {
-        setupHstRequest();
-        setupServletContext();
-        setupComponentManager();
-        setupHstPlatform();
-        registerHstModel();
-        setupHstResponse();
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.classSetup(getClass().getName())) {
+            setupHstRequest();
+            setupServletContext();
+            setupComponentManager();
+            setupHstPlatform();
+            registerHstModel();
+            setupHstResponse();
+        }
     }
 
     public void setupForNewRequest() {
+        refreshHstModel();
         setupHstRequest();
         getHstRequest().setHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
         getHstRequest().setMethod(HttpMethod.GET);
@@ -79,8 +83,10 @@ public abstract class AbstractPageModelTest extends AbstractResourceTest {
         includeAdditionalAddonModules();
         componentManager.setAddonModuleDefinitions(Collections.singletonList(Utils.loadAddonModule(PAGEMODEL_ADDON_PATH)));
         componentManager.setServletContext(servletContext);
-        componentManager.initialize();
-        registerWebApplicationContext();
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.SPRING_REFRESH)) {
+            componentManager.initialize();
+            registerWebApplicationContext();
+        }
         IsolatingComponentManager.set(componentManager);
         ContainerConfigurationImpl containerConfiguration = componentManager.getComponent("containerConfiguration");
         String hstRoot = resolveExistingHstRoot(contributeHstConfigurationRootPath());
@@ -184,7 +190,7 @@ public abstract class AbstractPageModelTest extends AbstractResourceTest {
         try {
             createSitemapItem(hstConfig, id);
             createPageDefinition(hstConfig, id, componentClass, paramInfo);
-            invalidateHstModel();
+            refreshHstModel();
         } catch (RepositoryException e) {
             LOGGER.error("Exception during import of component {}: {}", id, e.getLocalizedMessage());
         }
@@ -5,6 +5,7 @@ import org.hippoecm.hst.container.HstDelegateeFilterBean;
 import org.hippoecm.hst.container.HstFilter;
 import org.hippoecm.hst.container.RequestContextProvider;
 import org.hippoecm.hst.content.tool.DefaultContentBeansTool;
+import org.hippoecm.hst.core.container.ContainerConfiguration;
 import org.hippoecm.hst.core.container.ContainerConstants;
 import org.hippoecm.hst.core.internal.PlatformModelAvailableService;
 import org.hippoecm.hst.core.request.HstRequestContext;
@@ -74,6 +75,8 @@ public abstract class AbstractResourceTest {
     protected HstModelRegistryImpl hstModelRegistry;
     protected PlatformServicesImpl platformServices;
     protected PlatformModelAvailableService platformModelAvailableService;
+    protected HstConfigurationChangeTracker hstChangeTracker;
+    private boolean hstModelRegistered;
 
     public SpringComponentManager getComponentManager() {
         return componentManager;
@@ -108,6 +111,10 @@ public abstract class AbstractResourceTest {
         return platformServices;
     }
 
+    public HstConfigurationChangeTracker getHstChangeTracker() {
+        return hstChangeTracker;
+    }
+
     protected void setupServletContext() {
         servletContext.setContextPath(contextPath());
         servletContext.setInitParameter(DefaultContentBeansTool.BEANS_ANNOTATED_CLASSES_CONF_PARAM,
@@ -135,6 +142,21 @@ public abstract class AbstractResourceTest {
         platformServices.init();
         hstModelRegistry.setRepository(getComponentManager().getComponent(Repository.class));
         hstModelRegistry.init();
+        startHstChangeTracker();
+    }
+
+    private void startHstChangeTracker() {
+        ContainerConfiguration containerConfiguration = componentManager.getComponent("containerConfiguration");
+        String hstRoot = containerConfiguration != null
+            ? containerConfiguration.getString("hst.configuration.rootPath", contributeHstConfigurationRootPath())
+            : contributeHstConfigurationRootPath();
+        try {
+            hstChangeTracker = HstConfigurationChangeTracker.start(
+                getComponentManager().getComponent(Repository.class), hstRoot);
+        } catch (RepositoryException | RuntimeException e) {
+            LOGGER.warn("Unable to track HST configuration changes below '{}'; the HST model will be rebuilt "
+                + "before every request", hstRoot, e);
+        }
     }
 
     protected void registerHstModel() {
@@ -142,9 +164,15 @@ public abstract class AbstractResourceTest {
             LOGGER.warn("Cannot register HST model: hstModelRegistry is null. Ensure setupHstPlatform() has been called.");
             return;
         }
+        if (hstChangeTracker != null) {
+            // the model about to be built reflects every change recorded so far
+            hstChangeTracker.drainChanges();
+        }
         try {
             hstModelRegistry.registerHstModel(servletContext, componentManager, true);
+            hstModelRegistered = true;
         } catch (IllegalStateException e) {
+            hstModelRegistered = true;
             // Expected when running multiple test methods in same class
             LOGGER.debug("HstModel already registered for contextPath '{}': {}",
                 servletContext.getContextPath(), e.getMessage());
@@ -155,6 +183,7 @@ public abstract class AbstractResourceTest {
         if (hstModelRegistry != null) {
             hstModelRegistry.unregisterHstModel(servletContext);
         }
+        hstModelRegistered = false;
     }
 
 
@@ -169,6 +198,10 @@ public abstract class AbstractResourceTest {
         hstSiteMapItemHandlerFactories.destroy();
         hstSiteMapItemHandlerFactories.unregister(contextPath());
 
+        if (hstChangeTracker != null) {
+            hstChangeTracker.close();
+            hstChangeTracker = null;
+        }
         unregisterHstModel();
         if (hstModelRegistry != null) {
             hstModelRegistry.destroy();
@@ -290,6 +323,27 @@ public abstract class AbstractResourceTest {
         registerHstModel();
     }
 
+    /**
+     * Rebuilds the HST model only if something below the HST configuration root changed since it was
+     * last built, as recorded by the {@link HstConfigurationChangeTracker}, and registers it if it is
+     * not registered yet. Unlike {@link #invalidateHstModel()} this is free when only content changed.
+     */
+    public void refreshHstModel() {
+        if (!hstModelRegistered) {
+            registerHstModel();
+            return;
+        }
+        if (hstChangeTracker == null) {
+            invalidateHstModel();
+            return;
+        }
+        Set<String> changed = hstChangeTracker.drainChanges();
+        if (!changed.isEmpty()) {
+            LOGGER.debug("HST configuration changed below {}; rebuilding HST model", changed);
+            invalidateHstModel();
+        }
+    }
+
     /**
      * @return any additional spring xml locations to be included in the spring application context The returned value
      * should be a pattern
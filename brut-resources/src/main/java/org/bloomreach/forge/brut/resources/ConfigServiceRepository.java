@@ -3,15 +3,19 @@ package org.bloomreach.forge.brut.resources;
 import org.bloomreach.forge.brut.common.repository.AbstractBrutRepository;
 import org.bloomreach.forge.brut.common.repository.utils.ImporterUtils;
 import org.bloomreach.forge.brut.common.project.ProjectDiscovery;
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
 import org.bloomreach.forge.brut.resources.bootstrap.BootstrapContext;
 import org.bloomreach.forge.brut.resources.bootstrap.ConfigServiceBootstrapStrategy;
+import org.bloomreach.forge.brut.resources.bootstrap.ContentPathVisitor;
+import org.bloomreach.forge.brut.resources.bootstrap.DirectorySnapshotStore;
+import org.bloomreach.forge.brut.resources.bootstrap.JcrBootstrapStrategy;
+import org.bloomreach.forge.brut.resources.bootstrap.NodeVisitorPipeline;
+import org.bloomreach.forge.brut.resources.bootstrap.SnapshotBootstrapStrategy;
+import org.bloomreach.forge.brut.resources.bootstrap.SnapshotStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
 
-import javax.jcr.Node;
-import javax.jcr.NodeIterator;
-import javax.jcr.Property;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.SimpleCredentials;
@@ -24,6 +28,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -54,12 +59,11 @@ import java.util.stream.Collectors;
 public class ConfigServiceRepository extends AbstractBrutRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(ConfigServiceRepository.class);
-    private static final String HST_CONTENT_PROPERTY = "hst:content";
 
     private final List<String> cndResourcesPatterns;
     private final List<String> yamlResourcesPatterns;
     private final String projectNamespace;
-    private final ConfigServiceBootstrapStrategy bootstrapStrategy;
+    private JcrBootstrapStrategy bootstrapStrategy;
     private static final Set<String> PLATFORM_GROUP_PREFIXES = Set.of("hippo", "onehippo");
 
     private List<String> additionalRepositoryModules = Collections.emptyList();
@@ -97,6 +101,24 @@ public class ConfigServiceRepository extends AbstractBrutRepository {
             );
         }
         this.bootstrapStrategy = new ConfigServiceBootstrapStrategy();
+        if (SnapshotBootstrapStrategy.isEnabled()) {
+            setSnapshotStore(DirectorySnapshotStore.fromSystemProperties());
+        }
+    }
+
+    /**
+     * Caches the ConfigService bootstrap as a repository image in {@code snapshotStore}, so that
+     * later repositories with the same modules load the image instead of bootstrapping again.
+     * Applied automatically with a {@link DirectorySnapshotStore#fromSystemProperties() directory store}
+     * when the {@value SnapshotBootstrapStrategy#ENABLED_PROPERTY} system property is {@code true}.
+     *
+     * @param snapshotStore the store to use, or {@code null} to bootstrap without images
+     */
+    public void setSnapshotStore(SnapshotStore snapshotStore) {
+        JcrBootstrapStrategy configService = new ConfigServiceBootstrapStrategy();
+        this.bootstrapStrategy = snapshotStore != null
+            ? new SnapshotBootstrapStrategy(this, configService, snapshotStore)
+            : configService;
     }
 
     public void setAdditionalRepositoryModules(List<String> additionalRepositoryModules) {
@@ -146,33 +168,9 @@ public class ConfigServiceRepository extends AbstractBrutRepository {
 
             currentStep = "ConfigService HST bootstrap";
             try {
-                List<Path> projectDescriptors = ProjectDiscovery.discoverRepositoryModuleDescriptors(
-                    Paths.get(System.getProperty("user.dir")),
-                    additionalRepositoryModules
-                );
-
-                ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-                Set<String> projectGroupNames = readGroupNames(projectDescriptors);
-                Set<String> excludeModuleNames = new java.util.HashSet<>(excludeDependencyHcmModules);
-
-                List<Path> autoDiscovered = DependencyHcmModuleResolver.resolveAll(
-                    classLoader, PLATFORM_GROUP_PREFIXES, projectGroupNames, excludeModuleNames);
-
-                // Force-include explicit modules (may override auto-discovery exclusions)
-                List<Path> explicit = DependencyHcmModuleResolver.resolve(
-                    dependencyHcmModules, classLoader);
-
-                // Merge: addon modules first (they define types project content depends on)
-                Map<Path, Path> merged = new LinkedHashMap<>();
-                for (Path p : autoDiscovered) {
-                    merged.put(p, p);
-                }
-                for (Path p : explicit) {
-                    merged.put(p, p);
-                }
-
-                List<Path> moduleDescriptors = new ArrayList<>(merged.keySet());
-                moduleDescriptors.addAll(projectDescriptors);
+                List<Path> moduleDescriptors = resolveModuleDescriptors(additionalRepositoryModules,
+                    dependencyHcmModules, excludeDependencyHcmModules,
+                    Thread.currentThread().getContextClassLoader());
 
                 if (moduleDescriptors.isEmpty()) {
                     throw new RepositoryException(
@@ -192,6 +190,11 @@ public class ConfigServiceRepository extends AbstractBrutRepository {
                     Thread.currentThread().getContextClassLoader()
                 );
                 bootstrapStrategy.initializeHstStructure(session, projectNamespace, context);
+                if (bootstrapStrategy instanceof SnapshotBootstrapStrategy) {
+                    // a loaded image replaces workspace content underneath the session's item states
+                    session.logout();
+                    session = this.login(new SimpleCredentials("admin", "admin".toCharArray()));
+                }
             } catch (Exception e) {
                 throw new RepositoryException(buildStepFailureMessage(currentStep, yamlResourcesPatterns,
                         "Check that hcm-module.yaml and HST configuration YAML files exist and are valid"), e);
@@ -229,6 +232,77 @@ public class ConfigServiceRepository extends AbstractBrutRepository {
         }
     }
 
+    /**
+     * Builds the configuration model of the HCM modules that a repository with these module settings bootstraps,
+     * on a background thread. A repository created later in this JVM with the same modules then takes the model
+     * from the cache, so the YAML parse overlaps with Spring and repository start-up instead of following them.
+     * Failures are only logged: the bootstrap of the repository parses the modules again and reports them.
+     * Does nothing when repository images are enabled, as a loaded image does not need the model.
+     *
+     * @since 6.2.0
+     */
+    public static CompletableFuture<Void> prepareBootstrap(List<String> additionalRepositoryModules,
+                                                           List<String> dependencyHcmModules,
+                                                           List<String> excludeDependencyHcmModules) {
+        if (SnapshotBootstrapStrategy.isEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return CompletableFuture.runAsync(BootstrapTimings.withCurrentOwner(() -> {
+            try {
+                List<Path> moduleDescriptors = resolveModuleDescriptors(
+                    additionalRepositoryModules != null ? additionalRepositoryModules : List.of(),
+                    dependencyHcmModules != null ? dependencyHcmModules : List.of(),
+                    excludeDependencyHcmModules != null ? excludeDependencyHcmModules : List.of(),
+                    classLoader);
+                if (!moduleDescriptors.isEmpty()) {
+                    new ConfigServiceBootstrapStrategy().prepareModel(new BootstrapContext(
+                        List.of(), List.of(), List.of(), moduleDescriptors, classLoader));
+                }
+            } catch (Exception e) {
+                LOG.debug("Preparing the ConfigService bootstrap in the background failed: {}", e.getMessage());
+            }
+        }), task -> {
+            Thread thread = new Thread(task, "brut-bootstrap-prepare");
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            thread.start();
+        });
+    }
+
+    private static List<Path> resolveModuleDescriptors(List<String> additionalRepositoryModules,
+                                                       List<String> dependencyHcmModules,
+                                                       List<String> excludeDependencyHcmModules,
+                                                       ClassLoader classLoader) throws IOException {
+        List<Path> projectDescriptors = ProjectDiscovery.discoverRepositoryModuleDescriptors(
+            Paths.get(System.getProperty("user.dir")),
+            additionalRepositoryModules
+        );
+
+        Set<String> projectGroupNames = readGroupNames(projectDescriptors);
+        Set<String> excludeModuleNames = new java.util.HashSet<>(excludeDependencyHcmModules);
+
+        List<Path> autoDiscovered = DependencyHcmModuleResolver.resolveAll(
+            classLoader, PLATFORM_GROUP_PREFIXES, projectGroupNames, excludeModuleNames);
+
+        // Force-include explicit modules (may override auto-discovery exclusions)
+        List<Path> explicit = DependencyHcmModuleResolver.resolve(
+            dependencyHcmModules, classLoader);
+
+        // Merge: addon modules first (they define types project content depends on)
+        Map<Path, Path> merged = new LinkedHashMap<>();
+        for (Path p : autoDiscovered) {
+            merged.put(p, p);
+        }
+        for (Path p : explicit) {
+            merged.put(p, p);
+        }
+
+        List<Path> moduleDescriptors = new ArrayList<>(merged.keySet());
+        moduleDescriptors.addAll(projectDescriptors);
+        return moduleDescriptors;
+    }
+
     private static Set<String> readGroupNames(List<Path> descriptors) {
         return descriptors.stream()
             .map(p -> {
@@ -255,7 +329,7 @@ public class ConfigServiceRepository extends AbstractBrutRepository {
     }
 
     private void importYamlResources(Session session, List<String> yamlResourcePatterns) throws RepositoryException {
-        try {
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.CONTENT_IMPORT)) {
             int totalResources = 0;
             for (String yamlResourcePattern : yamlResourcePatterns) {
                 Resource[] resources = resolveResourcePattern(yamlResourcePattern);
@@ -290,56 +364,11 @@ public class ConfigServiceRepository extends AbstractBrutRepository {
         try {
             // Check project-specific HST root and fallback to /hst:hst
             String projectHstRoot = "/hst:" + projectNamespace;
-            String[] hstRoots = {projectHstRoot, "/hst:hst"};
-            for (String hstRoot : hstRoots) {
-                if (session.nodeExists(hstRoot)) {
-                    ensureContentPathsUnder(session, session.getNode(hstRoot));
-                }
-            }
+            new NodeVisitorPipeline()
+                    .add(new ContentPathVisitor(List.of(projectHstRoot, "/hst:hst")))
+                    .run(session);
         } catch (RepositoryException e) {
             LOG.debug("Content path setup skipped: {}", e.getMessage());
         }
     }
-
-    private void ensureContentPathsUnder(Session session, Node node) throws RepositoryException {
-        if (node.hasProperty(HST_CONTENT_PROPERTY)) {
-            Property contentProp = node.getProperty(HST_CONTENT_PROPERTY);
-            String contentPath = contentProp.getString();
-            if (contentPath != null && !contentPath.isEmpty()) {
-                String absolutePath = contentPath.startsWith("/") ? contentPath : "/" + contentPath;
-                if (!session.nodeExists(absolutePath)) {
-                    ensureContentPath(session, absolutePath);
-                    LOG.info("Created stub content folder at '{}' for HST config '{}'",
-                            absolutePath, node.getPath());
-                }
-            }
-        }
-        // Recurse into child nodes
-        for (NodeIterator children = node.getNodes(); children.hasNext(); ) {
-            ensureContentPathsUnder(session, children.nextNode());
-        }
-    }
-
-    /**
-     * Creates a stub content folder at the given path, ensuring all parent folders exist.
-     */
-    private void ensureContentPath(Session session, String path) throws RepositoryException {
-        String[] segments = path.substring(1).split("/");
-        Node current = session.getRootNode();
-
-        for (String segment : segments) {
-            if (segment.isEmpty()) {
-                continue;
-            }
-            if (current.hasNode(segment)) {
-                current = current.getNode(segment);
-            } else {
-                current = current.addNode(segment, "hippostd:folder");
-                if (current.canAddMixin("mix:referenceable")) {
-                    current.addMixin("mix:referenceable");
-                }
-            }
-        }
-        session.save();
-    }
 }
@@ -1,20 +1,15 @@
 package org.bloomreach.forge.brut.resources;
 
+import org.bloomreach.forge.brut.common.scan.ClasspathIndex;
+import org.bloomreach.forge.brut.resources.bootstrap.ClasspathModulePaths;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
 import java.net.URL;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -60,9 +55,7 @@ final class DependencyHcmModuleResolver {
 
         Map<String, Path> resolved = new HashMap<>();
         for (String descriptorLocation : HCM_MODULE_DESCRIPTORS) {
-            Enumeration<URL> resources = effectiveClassLoader.getResources(descriptorLocation);
-            while (resources.hasMoreElements()) {
-                URL resource = resources.nextElement();
+            for (URL resource : ClasspathIndex.getResources(effectiveClassLoader, descriptorLocation)) {
                 String moduleName = readModuleName(resource);
                 if (moduleName == null || !requested.contains(moduleName) || resolved.containsKey(moduleName)) {
                     continue;
@@ -100,9 +93,7 @@ final class DependencyHcmModuleResolver {
         // module name → descriptor path; use TreeMap for deterministic ordering
         Map<String, Path> discovered = new TreeMap<>();
         for (String descriptorLocation : HCM_MODULE_DESCRIPTORS) {
-            Enumeration<URL> resources = effectiveClassLoader.getResources(descriptorLocation);
-            while (resources.hasMoreElements()) {
-                URL resource = resources.nextElement();
+            for (URL resource : ClasspathIndex.getResources(effectiveClassLoader, descriptorLocation)) {
                 String moduleName = readModuleName(resource);
                 String groupName = readGroupName(resource);
 
@@ -230,61 +221,14 @@ final class DependencyHcmModuleResolver {
         return value;
     }
 
+    /**
+     * Descriptors in jars resolve to paths of the jar's zip file system, so their modules are read in place.
+     */
     private static Path materializeDescriptor(URL resource) throws IOException {
         try {
-            if ("file".equals(resource.getProtocol())) {
-                return Paths.get(resource.toURI());
-            }
-            if ("jar".equals(resource.getProtocol())) {
-                return copyDescriptorFromJar(resource);
-            }
+            return ClasspathModulePaths.toPath(resource);
         } catch (Exception e) {
             throw new IOException("Failed to resolve dependency HCM module from " + resource, e);
         }
-        return null;
-    }
-
-    private static Path copyDescriptorFromJar(URL resource) throws Exception {
-        String url = resource.toString();
-        int separator = url.indexOf("!/");
-        if (separator < 0) {
-            return null;
-        }
-
-        URI jarUri = URI.create(url.substring(0, separator));
-        String entryPath = url.substring(separator + 2);
-        Path tempDir = Files.createTempDirectory("brut-dependency-hcm-");
-        tempDir.toFile().deleteOnExit();
-
-        try (FileSystem fs = FileSystems.newFileSystem(jarUri, Map.of())) {
-            Path jarRoot = fs.getPath("/");
-            try (var entries = Files.list(jarRoot)) {
-                for (Path entry : (Iterable<Path>) entries::iterator) {
-                    String fileName = entry.getFileName() != null ? entry.getFileName().toString() : "";
-                    if (fileName.isBlank()) {
-                        continue;
-                    }
-                    copyPath(entry, tempDir.resolve(fileName));
-                }
-            }
-        }
-        Path descriptor = tempDir.resolve(entryPath);
-        return Files.exists(descriptor) ? descriptor : null;
-    }
-
-    private static void copyPath(Path sourceRoot, Path targetRoot) throws IOException {
-        try (var stream = Files.walk(sourceRoot)) {
-            for (Path source : (Iterable<Path>) stream::iterator) {
-                Path relative = sourceRoot.relativize(source);
-                Path target = targetRoot.resolve(relative.toString());
-                if (Files.isDirectory(source)) {
-                    Files.createDirectories(target);
-                } else {
-                    Files.createDirectories(target.getParent());
-                    Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
-                    target.toFile().deleteOnExit();
-                }
-            }
-        }
     }
 }
@@ -0,0 +1,142 @@
+package org.bloomreach.forge.brut.resources;
+
+import org.apache.jackrabbit.core.observation.SynchronousEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.ObservationManager;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Records which subtrees of the HST configuration root changed, so that the HST model is only
+ * rebuilt when its configuration actually changed rather than before every request.
+ * <p>
+ * The listener is synchronous: events are delivered in the thread that saves, before
+ * {@code Session.save()} returns, so a test that writes HST configuration and then invokes the
+ * filter always sees the change recorded. Changes that bypass observation, such as a repository
+ * checkpoint being restored, are reported with {@link #markChanged(String)}.
+ *
+ * @since 6.2.0
+ */
+public final class HstConfigurationChangeTracker implements SynchronousEventListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HstConfigurationChangeTracker.class);
+
+    private static final int EVENT_TYPES = Event.NODE_ADDED | Event.NODE_REMOVED | Event.NODE_MOVED
+            | Event.PROPERTY_ADDED | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+
+    /**
+     * Depth below the HST root that identifies a changed subtree, e.g.
+     * {@code /hst:myproject/hst:configurations/myproject}.
+     */
+    private static final int SUBTREE_DEPTH = 2;
+
+    private final String hstRoot;
+    private final Set<String> changedSubtrees = new LinkedHashSet<>();
+    private long changeCount;
+    private Session session;
+
+    private HstConfigurationChangeTracker(String hstRoot) {
+        this.hstRoot = hstRoot;
+    }
+
+    /**
+     * Starts tracking changes below {@code hstRoot}. The returned tracker keeps a session open
+     * until it is {@link #close() closed}.
+     */
+    public static HstConfigurationChangeTracker start(Repository repository, String hstRoot) throws RepositoryException {
+        HstConfigurationChangeTracker tracker = new HstConfigurationChangeTracker(hstRoot);
+        Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+        try {
+            session.getWorkspace().getObservationManager()
+                    .addEventListener(tracker, EVENT_TYPES, hstRoot, true, null, null, false);
+        } catch (RepositoryException e) {
+            session.logout();
+            throw e;
+        }
+        tracker.session = session;
+        return tracker;
+    }
+
+    public String getHstRoot() {
+        return hstRoot;
+    }
+
+    @Override
+    public void onEvent(EventIterator events) {
+        while (events.hasNext()) {
+            Event event = events.nextEvent();
+            try {
+                markChanged(event.getPath());
+            } catch (RepositoryException e) {
+                LOG.debug("Unable to resolve path of HST configuration event; treating the root as changed", e);
+                markChanged(hstRoot);
+            }
+        }
+    }
+
+    /**
+     * Records a change at {@code path}, which should be the HST root or a path below it.
+     */
+    public synchronized void markChanged(String path) {
+        changedSubtrees.add(subtreeOf(path));
+        changeCount++;
+    }
+
+    /**
+     * @return the number of changes recorded since the tracker started; grows monotonically
+     */
+    public synchronized long getChangeCount() {
+        return changeCount;
+    }
+
+    public synchronized boolean hasChanges() {
+        return !changedSubtrees.isEmpty();
+    }
+
+    /**
+     * @return the subtrees that changed since the previous call, or an empty set if none did
+     */
+    public synchronized Set<String> drainChanges() {
+        if (changedSubtrees.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> drained = new LinkedHashSet<>(changedSubtrees);
+        changedSubtrees.clear();
+        return drained;
+    }
+
+    public void close() {
+        Session current = session;
+        session = null;
+        if (current == null || !current.isLive()) {
+            return;
+        }
+        try {
+            current.getWorkspace().getObservationManager().removeEventListener(this);
+        } catch (RepositoryException e) {
+            LOG.debug("Failed to remove HST configuration listener", e);
+        } finally {
+            current.logout();
+        }
+    }
+
+    private String subtreeOf(String path) {
+        if (path == null || !path.startsWith(hstRoot + "/")) {
+            return hstRoot;
+        }
+        int end = hstRoot.length();
+        for (int depth = 0; depth < SUBTREE_DEPTH && end >= 0; depth++) {
+            end = path.indexOf('/', end + 1);
+        }
+        return end < 0 ? path : path.substring(0, end);
+    }
+}
@@ -3,18 +3,19 @@ package org.bloomreach.forge.brut.resources;
 import org.bloomreach.forge.brut.common.project.ProjectDiscovery;
 import org.bloomreach.forge.brut.common.repository.AbstractBrutRepository;
 import org.bloomreach.forge.brut.common.repository.utils.ImporterUtils;
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
+import org.bloomreach.forge.brut.resources.bootstrap.ContentPathVisitor;
+import org.bloomreach.forge.brut.resources.bootstrap.NodeVisitorPipeline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
 
-import javax.jcr.Node;
-import javax.jcr.NodeIterator;
-import javax.jcr.Property;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.SimpleCredentials;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -22,7 +23,6 @@ import java.util.Set;
 public class SkeletonRepository extends AbstractBrutRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(SkeletonRepository.class);
-    private static final String HST_CONTENT_PROPERTY = "hst:content";
 
     private final List<String> cndResourcesPatterns;
     private final List<String> yamlResourcesPatterns;
@@ -72,60 +72,16 @@ public class SkeletonRepository extends AbstractBrutRepository {
             if (projectRoot != null && !"/hst:hst".equals(projectRoot)) {
                 candidates.add(projectRoot);
             }
-            for (String hstRoot : candidates) {
-                if (session.nodeExists(hstRoot)) {
-                    ensureContentPathsUnder(session, session.getNode(hstRoot));
-                }
-            }
+            new NodeVisitorPipeline()
+                    .add(new ContentPathVisitor(new ArrayList<>(candidates)))
+                    .run(session);
         } catch (RepositoryException e) {
             LOG.debug("Content path setup skipped: {}", e.getMessage());
         }
     }
 
-    private void ensureContentPathsUnder(Session session, Node node) throws RepositoryException {
-        if (node.hasProperty(HST_CONTENT_PROPERTY)) {
-            Property contentProp = node.getProperty(HST_CONTENT_PROPERTY);
-            String contentPath = contentProp.getString();
-            if (contentPath != null && !contentPath.isEmpty()) {
-                String absolutePath = contentPath.startsWith("/") ? contentPath : "/" + contentPath;
-                if (!session.nodeExists(absolutePath)) {
-                    ensureContentPath(session, absolutePath);
-                    LOG.info("Created stub content folder at '{}' for HST config '{}'",
-                            absolutePath, node.getPath());
-                }
-            }
-        }
-        // Recurse into child nodes
-        for (NodeIterator children = node.getNodes(); children.hasNext(); ) {
-            ensureContentPathsUnder(session, children.nextNode());
-        }
-    }
-
-    /**
-     * Creates a stub content folder at the given path, ensuring all parent folders exist.
-     */
-    private void ensureContentPath(Session session, String path) throws RepositoryException {
-        String[] segments = path.substring(1).split("/");
-        Node current = session.getRootNode();
-
-        for (String segment : segments) {
-            if (segment.isEmpty()) {
-                continue;
-            }
-            if (current.hasNode(segment)) {
-                current = current.getNode(segment);
-            } else {
-                current = current.addNode(segment, "hippostd:folder");
-                if (current.canAddMixin("mix:referenceable")) {
-                    current.addMixin("mix:referenceable");
-                }
-            }
-        }
-        session.save();
-    }
-
     private void importYamlResources(Session session, List<String> yamlResourcePatterns) throws RepositoryException {
-        try {
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.CONTENT_IMPORT)) {
             for (String yamlResourcePattern : yamlResourcePatterns) {
                 Resource[] resources = resolveResourcePattern(yamlResourcePattern);
                 for (Resource resource : resources) {
@@ -6,14 +6,25 @@ import org.slf4j.LoggerFactory;
 
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
-import jakarta.xml.bind.Unmarshaller;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Utils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Utils.class);
 
+    /**
+     * Parsed addon module descriptors by URL. Creating the JAXB context and parsing take hundreds of milliseconds
+     * while descriptors on the classpath do not change, so both are done once per JVM. The container only reads
+     * the definitions, so they are shared between component managers.
+     */
+    private static final Map<String, ModuleDefinition> MODULE_DEFINITIONS = new ConcurrentHashMap<>();
+
+    private static volatile JAXBContext moduleDefinitionContext;
+
     private Utils() {
         //utility
     }
@@ -24,20 +35,47 @@ public class Utils {
             if (addonUrl == null) {
                 throw new IOException("Error while loading the pagemodel addon module");
             }
-            return loadModuleDefinition(addonUrl);
+            ModuleDefinition moduleDefinition = MODULE_DEFINITIONS.get(addonUrl.toString());
+            if (moduleDefinition == null) {
+                moduleDefinition = loadModuleDefinition(addonUrl);
+                ModuleDefinition previous = MODULE_DEFINITIONS.putIfAbsent(addonUrl.toString(), moduleDefinition);
+                moduleDefinition = previous != null ? previous : moduleDefinition;
+            }
+            return moduleDefinition;
         } catch (IOException | JAXBException e) {
             LOGGER.error(e.getMessage());
             throw new RuntimeException(e);
         }
     }
 
-    private static ModuleDefinition loadModuleDefinition(URL url) throws JAXBException, IOException {
-        ModuleDefinition moduleDefinition;
+    /**
+     * Loads the given addon modules, so that test classes using them later in this JVM get them from the cache.
+     *
+     * @since 6.2.0
+     */
+    public static void preloadAddonModules(String... addonModuleResourcePaths) {
+        for (String addonModuleResourcePath : addonModuleResourcePaths) {
+            loadAddonModule(addonModuleResourcePath);
+        }
+    }
 
-        JAXBContext jc = JAXBContext.newInstance(ModuleDefinition.class);
-        Unmarshaller um = jc.createUnmarshaller();
+    private static ModuleDefinition loadModuleDefinition(URL url) throws JAXBException, IOException {
+        try (InputStream in = url.openStream()) {
+            return (ModuleDefinition) moduleDefinitionContext().createUnmarshaller().unmarshal(in);
+        }
+    }
 
-        moduleDefinition = (ModuleDefinition) um.unmarshal(url.openStream());
-        return moduleDefinition;
+    private static JAXBContext moduleDefinitionContext() throws JAXBException {
+        JAXBContext context = moduleDefinitionContext;
+        if (context == null) {
+            synchronized (Utils.class) {
+                context = moduleDefinitionContext;
+                if (context == null) {
+                    context = JAXBContext.newInstance(ModuleDefinition.class);
+                    moduleDefinitionContext = context;
+                }
+            }
+        }
+        return context;
     }
 }
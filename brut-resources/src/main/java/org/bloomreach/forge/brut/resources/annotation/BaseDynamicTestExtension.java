@@ -18,14 +18,24 @@ package org.bloomreach.forge.brut.resources.annotation;
 import jakarta.ws.rs.HttpMethod;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import org.bloomreach.forge.brut.common.cache.BrutCache;
 import org.bloomreach.forge.brut.common.exception.BrutTestConfigurationException;
+import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
+import org.bloomreach.forge.brut.common.repository.RepositoryCheckpoint;
 import org.bloomreach.forge.brut.common.junit.NestedTestClassSupport;
+import org.bloomreach.forge.brut.common.junit.SuiteCacheCleanup;
 import org.bloomreach.forge.brut.common.junit.TestInstanceInjector;
 import org.bloomreach.forge.brut.common.logging.TestConfigurationLogger;
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
+import org.bloomreach.forge.brut.resources.ConfigServiceRepository;
+import org.bloomreach.forge.brut.resources.HstConfigurationChangeTracker;
+import org.bloomreach.forge.brut.resources.IsolatingComponentManager;
+import org.bloomreach.forge.brut.resources.Utils;
 import org.bloomreach.forge.brut.resources.diagnostics.ConfigurationDiagnostics;
 import org.bloomreach.forge.brut.resources.diagnostics.DiagnosticResult;
 import org.bloomreach.forge.brut.resources.diagnostics.DiagnosticSeverity;
 import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
 import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
@@ -33,19 +43,73 @@ import org.junit.jupiter.api.extension.ParameterContext;
 import org.junit.jupiter.api.extension.ParameterResolver;
 import org.slf4j.Logger;
 
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.UnsupportedRepositoryOperationException;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Base JUnit 5 extension that manages lifecycle for dynamic test classes.
  * Handles initialization, request setup, and cleanup automatically.
+ * <p>
+ * Test classes whose resolved {@link TestConfig} has the same fingerprint share one initialised
+ * dynamic test through a {@link SharedDeliveryStack}, so the repository, Spring context and HST model
+ * are started once per distinct configuration rather than once per class. The stacks are kept in a
+ * bounded {@link BrutCache}: idle stacks are destroyed when they are evicted, the others at the end
+ * of the suite.
+ * <p>
+ * Every test method starts from the repository state its class started with: a
+ * {@link RepositoryCheckpoint} is taken before each test and restored after it, covering writes
+ * made through any session, including those handed out by the HST session pools. Likewise, a shared
+ * stack is restored to the state it was acquired in when its class completes, so fixtures written in
+ * {@code @BeforeAll} do not leak into the next class.
+ * <p>
+ * While a stack initialises, the work that needs no repository session, parsing the HCM modules of the
+ * ConfigService repository and loading the addon module descriptors, runs on background threads next to the
+ * Spring and repository start-up; the initialisation takes the results from the JVM-wide caches, waiting for
+ * them only where it needs them.
+ * <p>
+ * When the suite starts, {@link BrxmPreBootstrapListener} initialises the shared stacks of the configurations
+ * in the test plan in the background; a test class whose stack is still initialising waits for it.
  *
  * @param <T> the dynamic test type (e.g., DynamicJaxrsTest or DynamicPageModelTest)
  * @param <A> the annotation type (e.g., BrxmJaxrsTest or BrxmPageModelTest)
  */
 abstract class BaseDynamicTestExtension<T extends DynamicTest, A extends Annotation>
-        implements BeforeAllCallback, BeforeEachCallback, AfterAllCallback, ParameterResolver {
+        implements BeforeAllCallback, BeforeEachCallback, AfterEachCallback, AfterAllCallback, ParameterResolver {
 
     private static final String ANNOTATION_PACKAGE = "org.bloomreach.forge.brut.resources.annotation";
+    private static final String SHARED_LEASE_KEY_SUFFIX = ".shared";
+    private static final String CHECKPOINT_KEY_SUFFIX = ".checkpoint";
+
+    /**
+     * Set to {@code false} to give every test class its own repository, Spring context and HST model.
+     */
+    static final String SHARE_STACK_PROPERTY = "brut.resources.shareStack";
+
+    /**
+     * Set to {@code false} to keep repository changes made by a test for the tests that follow it.
+     */
+    static final String ROLLBACK_PROPERTY = "brut.resources.rollback";
+
+    /**
+     * Set to {@code false} to initialise test classes strictly in sequence, without background preparation.
+     */
+    static final String PREPARE_IN_BACKGROUND_PROPERTY = "brut.resources.prepareInBackground";
+
+    /**
+     * Shared stacks by extension and configuration fingerprint. A stack leased by a test class is not evicted.
+     */
+    private static final BrutCache<String, SharedDeliveryStack<?>> SHARED_STACKS =
+            BrutCache.<String, SharedDeliveryStack<?>>builder("deliveryStacks")
+                    .maxEntries(8)
+                    .evictableWhen(stack -> stack.getUsers() == 0)
+                    .onEviction(SharedDeliveryStack::retire)
+                    .build();
 
     protected abstract Logger getLogger();
     protected abstract String getTestInstanceKey();
@@ -63,6 +127,12 @@ abstract class BaseDynamicTestExtension<T extends DynamicTest, A extends Annotat
             return;
         }
 
+        try (BootstrapTimings.Phase ignored = BootstrapTimings.classSetup(testClass.getName())) {
+            setUpTestClass(context, testClass);
+        }
+    }
+
+    private void setUpTestClass(ExtensionContext context, Class<?> testClass) throws Exception {
         A annotation = NestedTestClassSupport.findAnnotation(testClass, getAnnotationClass());
         if (annotation == null) {
             throw BrutTestConfigurationException.missingAnnotation(
@@ -72,6 +142,54 @@ abstract class BaseDynamicTestExtension<T extends DynamicTest, A extends Annotat
         TestConfig config = resolveConfig(annotation, testClass);
         logTestConfig(testClass, config);
 
+        T testInstance = null;
+        if (isSharingEnabled()) {
+            SuiteCacheCleanup.register(context);
+            SharedDeliveryStack<T> shared = getSharedStack(config);
+            testInstance = shared.acquire(() -> createInitializedInstance(testClass, config));
+            if (testInstance != null) {
+                getRootStore(context).put(getSharedLeaseKey(), shared);
+                putCheckpoint(getRootStore(context), testInstance);
+                getLogger().info("Using shared {} test infrastructure for {}",
+                        getFrameworkName(), testClass.getSimpleName());
+            } else {
+                getLogger().info("{} test infrastructure for {} is in use by a concurrent test class; "
+                        + "creating a private instance", getFrameworkName(), testClass.getSimpleName());
+            }
+        }
+        if (testInstance == null) {
+            testInstance = createInitializedInstance(testClass, config);
+        }
+
+        getRootStore(context).put(getTestInstanceKey(), testInstance);
+    }
+
+    /**
+     * Adds the initialisation of the shared stack of {@code testClass} to {@code bootstraps}, keyed by
+     * the stack, for {@link BrxmPreBootstrapListener}. Nothing is added if sharing is disabled, the
+     * class is not annotated for this extension, or as many stacks as the cache holds are planned
+     * already, since later ones would evict stacks prepared earlier.
+     */
+    void collectPreBootstrap(Class<?> testClass, Map<String, Runnable> bootstraps) {
+        if (!isSharingEnabled() || bootstraps.size() >= SHARED_STACKS.getStatistics().maxEntries()) {
+            return;
+        }
+        A annotation = NestedTestClassSupport.findAnnotation(testClass, getAnnotationClass());
+        if (annotation == null) {
+            return;
+        }
+        TestConfig config = resolveConfig(annotation, testClass);
+        bootstraps.computeIfAbsent(getSharedStackKey(config), key -> () -> {
+            try {
+                getSharedStack(config).prepare(() -> createInitializedInstance(testClass, config));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private T createInitializedInstance(Class<?> testClass, TestConfig config) {
+        CompletableFuture<Void> prepared = prepareInBackground(config);
         T testInstance = createTestInstance(config);
 
         try {
@@ -91,9 +209,39 @@ abstract class BaseDynamicTestExtension<T extends DynamicTest, A extends Annotat
             throw BrutTestConfigurationException.bootstrapFailed(
                     getFrameworkName() + " test initialization",
                     config.getBeanPatterns(), config.getSpringConfigs(), config.getHstRoot(), e);
+        } finally {
+            prepared.join();
         }
+        return testInstance;
+    }
 
-        getRootStore(context).put(getTestInstanceKey(), testInstance);
+    /**
+     * Starts the preparation stages of {@code config} that need no repository session. Their failures are
+     * ignored: {@code init()} repeats the work that failed and reports the error itself.
+     */
+    private CompletableFuture<Void> prepareInBackground(TestConfig config) {
+        if ("false".equalsIgnoreCase(System.getProperty(PREPARE_IN_BACKGROUND_PROPERTY))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Void>> stages = new ArrayList<>();
+        if (config.isLoadProjectContent()) {
+            stages.add(ConfigServiceRepository.prepareBootstrap(config.getRepositoryDataModules(),
+                    config.getDependencyHcmModules(), config.getExcludeDependencyHcmModules()));
+        }
+        List<String> addonModules = config.getAddonModules();
+        if (addonModules != null && !addonModules.isEmpty()) {
+            // JAXB looks up its implementation through the context class loader
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            stages.add(CompletableFuture.runAsync(BootstrapTimings.withCurrentOwner(
+                    () -> Utils.preloadAddonModules(addonModules.toArray(new String[0]))), task -> {
+                        Thread thread = new Thread(task, "brut-addon-prepare");
+                        thread.setDaemon(true);
+                        thread.setContextClassLoader(classLoader);
+                        thread.start();
+                    }));
+        }
+        return CompletableFuture.allOf(stages.toArray(new CompletableFuture<?>[0]))
+                .exceptionally(e -> null);
     }
 
     @Override
@@ -108,9 +256,18 @@ abstract class BaseDynamicTestExtension<T extends DynamicTest, A extends Annotat
         }
 
         TestInstanceInjector.inject(context, testInstance, getTestInstanceClass(), getLogger());
+        // a shared stack may have been used by another configuration on this thread in between
+        IsolatingComponentManager.set(testInstance.getComponentManager());
         testInstance.setupForNewRequest();
         testInstance.getHstRequest().setHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
         testInstance.getHstRequest().setMethod(HttpMethod.GET);
+        putCheckpoint(context.getStore(ExtensionContext.Namespace.create(getClass())), testInstance);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws Exception {
+        T testInstance = getRootStore(context).get(getTestInstanceKey(), getTestInstanceClass());
+        restoreCheckpoint(context.getStore(ExtensionContext.Namespace.create(getClass())), testInstance);
     }
 
     @Override
@@ -120,8 +277,19 @@ abstract class BaseDynamicTestExtension<T extends DynamicTest, A extends Annotat
         }
 
         T testInstance = getRootStore(context).get(getTestInstanceKey(), getTestInstanceClass());
+        SharedDeliveryStack<?> shared = getRootStore(context).remove(getSharedLeaseKey(), SharedDeliveryStack.class);
 
-        if (testInstance != null) {
+        if (shared != null) {
+            // the shared stack is destroyed when it is evicted or the suite ends
+            try {
+                restoreCheckpoint(getRootStore(context), testInstance);
+            } catch (RepositoryException e) {
+                getLogger().error("Failed to restore shared {} repository after {}",
+                        getFrameworkName(), context.getRequiredTestClass().getSimpleName(), e);
+            }
+            shared.release();
+            getRootStore(context).remove(getTestInstanceKey());
+        } else if (testInstance != null) {
             getLogger().info("Destroying {} test infrastructure for {}",
                     getFrameworkName(), context.getRequiredTestClass().getSimpleName());
             try {
@@ -134,11 +302,88 @@ abstract class BaseDynamicTestExtension<T extends DynamicTest, A extends Annotat
         }
     }
 
+    /**
+     * Test classes with the same configuration share one delivery stack unless the
+     * {@value #SHARE_STACK_PROPERTY} system property is {@code false}.
+     */
+    static boolean isSharingEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(SHARE_STACK_PROPERTY));
+    }
+
+    /**
+     * Repository changes are rolled back after each test unless the {@value #ROLLBACK_PROPERTY}
+     * system property is {@code false}.
+     */
+    static boolean isRollbackEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(ROLLBACK_PROPERTY));
+    }
+
+    private void putCheckpoint(ExtensionContext.Store store, T testInstance) throws RepositoryException {
+        BrxmTestingRepository repository = isRollbackEnabled() ? getTestingRepository(testInstance) : null;
+        if (repository == null) {
+            return;
+        }
+        try {
+            store.put(getCheckpointKey(), new Rollback(repository.checkpoint(), getHstChangeCount(testInstance)));
+        } catch (UnsupportedRepositoryOperationException e) {
+            getLogger().debug("Repository changes will not be rolled back: {}", e.getMessage());
+        }
+    }
+
+    private void restoreCheckpoint(ExtensionContext.Store store, T testInstance) throws RepositoryException {
+        Rollback rollback = store.remove(getCheckpointKey(), Rollback.class);
+        BrxmTestingRepository repository = rollback != null ? getTestingRepository(testInstance) : null;
+        if (repository == null) {
+            return;
+        }
+        repository.restore(rollback.checkpoint());
+        // restores bypass observation: if the HST configuration changed since the checkpoint, the
+        // restore changed it back and the model has to be rebuilt before the next request
+        HstConfigurationChangeTracker tracker = testInstance.getHstChangeTracker();
+        if (tracker != null && tracker.getChangeCount() != rollback.hstChangeCount()) {
+            tracker.markChanged(tracker.getHstRoot());
+        }
+    }
+
+    private static long getHstChangeCount(DynamicTest testInstance) {
+        HstConfigurationChangeTracker tracker = testInstance.getHstChangeTracker();
+        return tracker != null ? tracker.getChangeCount() : 0;
+    }
+
+    private BrxmTestingRepository getTestingRepository(T testInstance) {
+        if (testInstance == null) {
+            return null;
+        }
+        Repository repository = testInstance.getComponentManager().getComponent(Repository.class);
+        return repository instanceof BrxmTestingRepository testingRepository ? testingRepository : null;
+    }
+
+    private String getCheckpointKey() {
+        return getTestInstanceKey() + CHECKPOINT_KEY_SUFFIX;
+    }
+
+    @SuppressWarnings("unchecked")
+    private SharedDeliveryStack<T> getSharedStack(TestConfig config) {
+        return (SharedDeliveryStack<T>) SHARED_STACKS.getOrCompute(getSharedStackKey(config),
+                k -> new SharedDeliveryStack<T>());
+    }
+
+    private String getSharedStackKey(TestConfig config) {
+        return getClass().getName() + ":" + config.computeFingerprint();
+    }
+
+    private String getSharedLeaseKey() {
+        return getTestInstanceKey() + SHARED_LEASE_KEY_SUFFIX;
+    }
+
     private ExtensionContext.Store getRootStore(ExtensionContext context) {
         Class<?> rootClass = NestedTestClassSupport.getRootTestClass(context.getRequiredTestClass());
         return context.getRoot().getStore(ExtensionContext.Namespace.create(getClass(), rootClass));
     }
 
+    private record Rollback(RepositoryCheckpoint checkpoint, long hstChangeCount) {
+    }
+
     @Override
     public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
         return parameterContext.getParameter().getType() == getTestInstanceClass();
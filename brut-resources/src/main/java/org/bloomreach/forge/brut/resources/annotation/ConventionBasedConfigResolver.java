@@ -16,10 +16,10 @@
 package org.bloomreach.forge.brut.resources.annotation;
 
 import org.bloomreach.forge.brut.common.project.ProjectDiscovery;
+import org.bloomreach.forge.brut.common.scan.IndexedResourcePatternResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 
 import java.io.IOException;
@@ -130,7 +130,7 @@ class ConventionBasedConfigResolver {
                 addonModules, repositoryDataModules, dependencyHcmModules, excludeDependencyHcmModules);
 
         return new TestConfig(beanPatterns, resolvedHstRoot, springConfigs, addonModules,
-            repositoryDataModules, dependencyHcmModules, excludeDependencyHcmModules, testClass);
+            repositoryDataModules, dependencyHcmModules, excludeDependencyHcmModules, loadProjectContent, testClass);
     }
 
     private static List<String> resolveSpringConfigs(String singleConfig, String[] multiConfigs,
@@ -282,7 +282,7 @@ class ConventionBasedConfigResolver {
 
     private static boolean patternHasResources(String pattern, ClassLoader classLoader) {
         try {
-            ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+            ResourcePatternResolver resolver = new IndexedResourcePatternResolver(classLoader);
             Resource[] resources = resolver.getResources(pattern);
             return resources != null && resources.length > 0;
         } catch (IOException e) {
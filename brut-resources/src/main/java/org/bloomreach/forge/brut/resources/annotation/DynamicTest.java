@@ -15,7 +15,9 @@
  */
 package org.bloomreach.forge.brut.resources.annotation;
 
+import org.bloomreach.forge.brut.resources.HstConfigurationChangeTracker;
 import org.bloomreach.forge.brut.resources.MockHstRequest;
+import org.bloomreach.forge.brut.resources.SpringComponentManager;
 import org.bloomreach.forge.brut.resources.util.RequestBuilder;
 import org.bloomreach.forge.brut.resources.util.RepositorySession;
 
@@ -31,6 +33,10 @@ interface DynamicTest {
 
     MockHstRequest getHstRequest();
 
+    SpringComponentManager getComponentManager();
+
+    HstConfigurationChangeTracker getHstChangeTracker();
+
     String invokeFilter();
 
     void setupForNewRequest();
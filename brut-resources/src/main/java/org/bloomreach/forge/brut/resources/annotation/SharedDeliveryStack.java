@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024 Bloomreach, Inc. (http://www.bloomreach.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bloomreach.forge.brut.resources.annotation;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Reference-counted holder of one initialised dynamic test (repository, Spring context, HST model
+ * registry and servlet context) shared by all test classes with the same {@link TestConfig}
+ * fingerprint.
+ * <p>
+ * Cached in a {@code BrutCache}, which {@link #retire() retires} the stack when it is evicted or the
+ * suite ends. The stack serves one test class at a time: the mock request and response it holds are
+ * not thread-safe, so a class that runs concurrently with another user of the stack is turned away by
+ * {@link #acquire(Callable)} and builds a private instance instead.
+ *
+ * @param <T> the dynamic test type
+ */
+final class SharedDeliveryStack<T extends DynamicTest> implements ExtensionContext.Store.CloseableResource {
+
+    private T instance;
+    private int users;
+    private boolean retired;
+    private boolean closed;
+
+    /**
+     * Leases the stack, initialising it with {@code factory} on first use. If initialisation fails
+     * the stack stays empty and the next caller tries again.
+     *
+     * @return the shared instance, or {@code null} if another test class is currently using it
+     */
+    synchronized T acquire(Callable<T> factory) throws Exception {
+        if (closed) {
+            throw new IllegalStateException("Shared test infrastructure has already been closed");
+        }
+        if (users > 0) {
+            return null;
+        }
+        if (instance == null) {
+            instance = factory.call();
+        }
+        users++;
+        return instance;
+    }
+
+    /**
+     * Initialises the stack with {@code factory} without leasing it, unless it is initialised, retired
+     * or closed already. A test class acquiring the stack meanwhile waits until initialisation ends.
+     */
+    synchronized void prepare(Callable<T> factory) throws Exception {
+        if (closed || retired || instance != null) {
+            return;
+        }
+        instance = factory.call();
+    }
+
+    /**
+     * Ends a lease obtained from {@link #acquire(Callable)}. The instance stays initialised for the
+     * next test class with the same configuration, unless the stack was retired.
+     */
+    synchronized void release() {
+        if (users == 0) {
+            throw new IllegalStateException("Shared test infrastructure released more often than acquired");
+        }
+        users--;
+        if (retired && users == 0) {
+            destroyInstance();
+        }
+    }
+
+    /**
+     * Destroys the instance once the stack is not leased. A test class that looked the stack up just
+     * before it was retired can still acquire it; the instance is then destroyed on release.
+     */
+    synchronized void retire() {
+        retired = true;
+        if (users == 0) {
+            destroyInstance();
+        }
+    }
+
+    synchronized int getUsers() {
+        return users;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        destroyInstance();
+    }
+
+    private void destroyInstance() {
+        if (instance != null) {
+            try {
+                instance.destroy();
+            } finally {
+                instance = null;
+            }
+        }
+    }
+}
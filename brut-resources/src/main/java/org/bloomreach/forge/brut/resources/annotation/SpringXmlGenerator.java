@@ -15,13 +15,22 @@
  */
 package org.bloomreach.forge.brut.resources.annotation;
 
+import org.bloomreach.forge.brut.common.cache.ContentDigests;
+
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility for generating Spring XML configuration files at runtime.
+ * <p>
+ * Test classes with the same annotations generate byte-identical configuration, so each distinct configuration
+ * is written to a temp file once per JVM and later requests for the same content return that file.
  */
 final class SpringXmlGenerator {
 
@@ -36,13 +45,28 @@ final class SpringXmlGenerator {
 
     static final String XML_FOOTER = "</beans>\n";
 
+    /** prefix and SHA-256 of the content → URI of the temp file holding it */
+    private static final Map<String, String> CONFIGS = new ConcurrentHashMap<>();
+
     private SpringXmlGenerator() {
     }
 
     static String createTempConfig(String prefix, String xmlContent) {
+        byte[] content = xmlContent.getBytes(StandardCharsets.UTF_8);
+        String key = prefix + ContentDigests.sha256Hex(content);
+        String uri = CONFIGS.get(key);
+        if (uri != null && Files.isRegularFile(Paths.get(URI.create(uri)))) {
+            return uri;
+        }
+        uri = writeTempConfig(prefix, content);
+        CONFIGS.put(key, uri);
+        return uri;
+    }
+
+    private static String writeTempConfig(String prefix, byte[] content) {
         try {
             Path tempFile = Files.createTempFile(prefix, ".xml");
-            Files.writeString(tempFile, xmlContent, StandardCharsets.UTF_8);
+            Files.write(tempFile, content);
             tempFile.toFile().deleteOnExit();
             return tempFile.toUri().toString();
         } catch (Exception e) {
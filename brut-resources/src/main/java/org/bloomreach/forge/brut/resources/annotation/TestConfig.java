@@ -15,8 +15,15 @@
  */
 package org.bloomreach.forge.brut.resources.annotation;
 
+import org.bloomreach.forge.brut.common.cache.ContentDigests;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Immutable configuration holder for annotation-based tests.
@@ -30,6 +37,7 @@ class TestConfig {
     private final List<String> repositoryDataModules;
     private final List<String> dependencyHcmModules;
     private final List<String> excludeDependencyHcmModules;
+    private final boolean loadProjectContent;
     private final Class<?> testClass;
 
     TestConfig(List<String> beanPatterns,
@@ -40,6 +48,19 @@ class TestConfig {
                List<String> dependencyHcmModules,
                List<String> excludeDependencyHcmModules,
                Class<?> testClass) {
+        this(beanPatterns, hstRoot, springConfigs, addonModules, repositoryDataModules, dependencyHcmModules,
+                excludeDependencyHcmModules, false, testClass);
+    }
+
+    TestConfig(List<String> beanPatterns,
+               String hstRoot,
+               List<String> springConfigs,
+               List<String> addonModules,
+               List<String> repositoryDataModules,
+               List<String> dependencyHcmModules,
+               List<String> excludeDependencyHcmModules,
+               boolean loadProjectContent,
+               Class<?> testClass) {
         this.beanPatterns = beanPatterns;
         this.hstRoot = hstRoot;
         this.springConfigs = springConfigs;
@@ -47,6 +68,7 @@ class TestConfig {
         this.repositoryDataModules = repositoryDataModules;
         this.dependencyHcmModules = dependencyHcmModules;
         this.excludeDependencyHcmModules = excludeDependencyHcmModules;
+        this.loadProjectContent = loadProjectContent;
         this.testClass = testClass;
     }
 
@@ -78,6 +100,14 @@ class TestConfig {
         return excludeDependencyHcmModules;
     }
 
+    /**
+     * Whether the repository is bootstrapped from the project's HCM modules by the ConfigService. The generated
+     * Spring configuration of that repository is part of {@link #getSpringConfigs()}, and so of the fingerprint.
+     */
+    boolean isLoadProjectContent() {
+        return loadProjectContent;
+    }
+
     Class<?> getTestClass() {
         return testClass;
     }
@@ -86,10 +116,31 @@ class TestConfig {
      * Computes a fingerprint covering all configuration fields.
      * Two TestConfig instances with the same fingerprint can share the same
      * Spring ApplicationContext (and JCR repository) safely.
+     * <p>
+     * Spring configurations in {@code file:} locations, such as the ones generated per test class, are
+     * represented by the digest of their content, so generated configurations with the same content yield
+     * the same fingerprint wherever they were written.
      */
     String computeFingerprint() {
-        return String.valueOf(Objects.hash(
-                beanPatterns, hstRoot, springConfigs, addonModules,
-                repositoryDataModules, dependencyHcmModules, excludeDependencyHcmModules));
+        List<String> springConfigContents = springConfigs == null ? null
+                : springConfigs.stream().map(TestConfig::springConfigFingerprint).toList();
+        // the field values themselves rather than their hash code: configurations that merely
+        // collide would otherwise end up sharing a Spring context
+        return Stream.of(beanPatterns, hstRoot, springConfigContents, addonModules,
+                        repositoryDataModules, dependencyHcmModules, excludeDependencyHcmModules)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+    }
+
+    private static String springConfigFingerprint(String location) {
+        if (location == null || !location.startsWith("file:")) {
+            return location;
+        }
+        try {
+            return "sha256:" + ContentDigests.sha256Hex(Files.readAllBytes(Paths.get(URI.create(location))));
+        } catch (IOException | RuntimeException e) {
+            // unreadable locations fail when the Spring context loads them; keep them apart until then
+            return location;
+        }
     }
 }
@@ -0,0 +1,77 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns classpath resources of HCM modules into {@link Path}s that {@code ModuleReader} reads in place.
+ * <p>
+ * Resources in jars resolve to paths of the jar's zip file system, so module content is read straight from
+ * the jar instead of being copied to a temporary directory. The zip file systems are opened once per jar
+ * and stay open for the lifetime of the JVM, as parsed modules and digests keep referring to their paths.
+ *
+ * @since 6.2.0
+ */
+public final class ClasspathModulePaths {
+
+    private static final String JAR_SEPARATOR = "!/";
+
+    private static final Map<URI, FileSystem> JAR_FILE_SYSTEMS = new ConcurrentHashMap<>();
+
+    private ClasspathModulePaths() {
+    }
+
+    /**
+     * @param resource a {@code file:} or {@code jar:} URL
+     * @return the path of the resource, or {@code null} for other protocols and nested jars
+     */
+    public static Path toPath(URL resource) throws IOException {
+        try {
+            if ("file".equals(resource.getProtocol())) {
+                return Paths.get(resource.toURI());
+            }
+            if (!"jar".equals(resource.getProtocol())) {
+                return null;
+            }
+            String url = resource.toString();
+            int separator = url.indexOf(JAR_SEPARATOR);
+            if (separator < 0 || url.indexOf(JAR_SEPARATOR, separator + 2) >= 0) {
+                return null;
+            }
+            URI jarUri = new URI(url.substring(0, separator));
+            String entryPath = url.substring(separator + 1);
+            return jarFileSystem(jarUri).getPath(entryPath);
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid classpath resource URL: " + resource, e);
+        }
+    }
+
+    private static FileSystem jarFileSystem(URI jarUri) throws IOException {
+        FileSystem fileSystem = JAR_FILE_SYSTEMS.get(jarUri);
+        if (fileSystem != null) {
+            return fileSystem;
+        }
+        synchronized (JAR_FILE_SYSTEMS) {
+            fileSystem = JAR_FILE_SYSTEMS.get(jarUri);
+            if (fileSystem == null) {
+                try {
+                    fileSystem = FileSystems.newFileSystem(jarUri, Map.of());
+                } catch (FileSystemAlreadyExistsException e) {
+                    // opened elsewhere in this JVM; it is shared, so it must not be closed here either
+                    fileSystem = FileSystems.getFileSystem(jarUri);
+                }
+                JAR_FILE_SYSTEMS.put(jarUri, fileSystem);
+            }
+            return fileSystem;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package org.bloomreach.forge.brut.resources.bootstrap;
 
-import org.apache.jackrabbit.commons.cnd.CndImporter;
 import org.apache.jackrabbit.commons.cnd.ParseException;
 import org.apache.jackrabbit.spi.Name;
 import org.apache.jackrabbit.spi.QNodeTypeDefinition;
 import org.hippoecm.repository.jackrabbit.HippoCompactNodeTypeDefReader;
+import org.bloomreach.forge.brut.common.cache.BrutCache;
 import org.bloomreach.forge.brut.common.project.ProjectDiscovery;
 import org.bloomreach.forge.brut.common.project.ProjectSettings;
+import org.bloomreach.forge.brut.common.repository.utils.CndUtils;
+import org.bloomreach.forge.brut.common.repository.utils.ImporterUtils;
+import org.bloomreach.forge.brut.common.scan.ClasspathIndex;
+import org.bloomreach.forge.brut.common.timing.BootstrapTimings;
 import org.bloomreach.forge.brut.resources.diagnostics.ConfigurationDiagnostics;
 import org.bloomreach.forge.brut.resources.diagnostics.DiagnosticResult;
 import org.bloomreach.forge.brut.resources.diagnostics.DiagnosticSeverity;
@@ -33,8 +37,10 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
+import javax.jcr.ReferentialIntegrityException;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import javax.jcr.nodetype.ConstraintViolationException;
 import javax.jcr.nodetype.NodeType;
 import javax.jcr.nodetype.NodeTypeManager;
 import javax.jcr.nodetype.NoSuchNodeTypeException;
@@ -43,21 +49,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
-import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Bootstrap strategy using brXM's ConfigurationConfigService.
@@ -99,23 +105,49 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
     private String projectNamespace;
 
     /**
-     * JVM-scoped cache of built ConfigurationModels keyed by a fingerprint of the module
-     * descriptor paths and their last-modified timestamps.
+     * JVM-scoped cache of built ConfigurationModels keyed by the content digests of the modules
+     * they were built from (see {@link ModuleDigest}) and the settings that shape them.
      * <p>
      * The ConfigurationModelImpl is immutable after {@code build()}, so it is safe to share
      * across test classes within the same JVM run. This eliminates repeated YAML parsing and
-     * model construction when multiple test classes share the same HCM modules.
-     * <p>
-     * Call {@link #clearModelCache()} in tests that modify module descriptors on disk.
+     * model construction when multiple test classes share the same HCM modules. Bounded, see
+     * {@link BrutCache}.
+     */
+    static final BrutCache<String, LoadedModules> MODEL_CACHE =
+        BrutCache.<String, LoadedModules>builder("configurationModels").maxEntries(8).build();
+
+    /**
+     * JVM-scoped cache of parsed modules keyed by descriptor path, site and allowed config roots,
+     * holding the module digest they were parsed at. When a model has to be rebuilt because some
+     * module sources changed, only those modules are parsed again; the model is merged from the
+     * cached results of the others.
+     */
+    static final BrutCache<String, ParsedModule> MODULE_CACHE =
+        BrutCache.<String, ParsedModule>builder("hcmModules").maxEntries(512).build();
+
+    /**
+     * Serializes model building: cached modules are shared between the models built from them.
+     */
+    private static final Object MODEL_BUILD_LOCK = new Object();
+
+    /**
+     * Modules of the model being built that come from {@link #MODULE_CACHE}, with the sources to read them
+     * again from. Recovering from a failed build prunes config definitions and adds stub modules; those steps
+     * replace a cached module by a private copy first, see {@link #writableModule}, so other models built
+     * from the cached module are not affected. Only used while holding {@link #MODEL_BUILD_LOCK}.
      */
-    static final ConcurrentHashMap<String, LoadedModules> MODEL_CACHE = new ConcurrentHashMap<>();
+    private Map<ModuleImpl, SharedModule> sharedModules = Map.of();
 
     /**
-     * Clears the model cache. Intended for test isolation when module descriptors change.
+     * Clears the model and module caches. Intended for test isolation.
      */
     static void clearModelCache() {
         MODEL_CACHE.clear();
+        MODULE_CACHE.clear();
+        ModuleDigest.clearCache();
     }
+
+    private static final String FRAMEWORK_MODULE_KEY = "minimal-framework";
     private static final String HCM_MODULE_DESCRIPTOR = "META-INF/hcm-module.yaml";
     private static final String MINIMAL_FRAMEWORK_MODULE_RESOURCE =
         "org/bloomreach/forge/brut/resources/config-service/minimal-framework/hcm-module.yaml";
@@ -131,6 +163,7 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
     private static final String PRUNE_CONFIG_ROOTS_PROPERTY = "brut.configservice.pruneConfigRoots";
     private static final int MAX_ITEM_EXISTS_RETRIES = 10;
     private static final int MAX_STUB_RETRIES = 5;
+    private static final String PARSE_THREADS_PROPERTY = "brut.configservice.parseThreads";
     private static final String STUB_MISSING_NAMESPACES_PROPERTY = "brut.configservice.stubMissingNamespaces";
     private static final String STUB_MISSING_NODE_TYPES_PROPERTY = "brut.configservice.stubMissingNodeTypes";
     private static final List<String> DEFAULT_ALLOWED_CONFIG_ROOTS = List.of(
@@ -156,6 +189,24 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
         "hippo-essentials"
     );
 
+    /**
+     * Parses the HCM modules of {@code context} and builds their configuration model without a repository, so that
+     * a later {@link #initializeHstStructure} with the same modules takes the model from the cache. A bootstrap
+     * that needs the model while it is being prepared waits for it instead of parsing the modules again.
+     *
+     * @param context bootstrap context with the module descriptors and class loader
+     * @throws Exception if the modules cannot be parsed or the model cannot be built
+     * @since 6.2.0
+     */
+    public void prepareModel(BootstrapContext context) throws Exception {
+        suppressNoisyLoggers(true);
+        try {
+            loadModulesExplicitly(context);
+        } finally {
+            suppressNoisyLoggers(false);
+        }
+    }
+
     @Override
     public void initializeHstStructure(Session session, String projectNamespace,
                                       BootstrapContext context) throws RepositoryException {
@@ -165,7 +216,7 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
         try {
             suppressNoisyLoggers(true);
             LoadedModules loadedModules;
-            try {
+            try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.HCM_MODULE_PARSING)) {
                 loadedModules = loadModulesExplicitly(context);
             } finally {
                 suppressNoisyLoggers(false);
@@ -191,7 +242,7 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
             ConfigurationConfigService configService = new ConfigurationConfigService();
 
             suppressNoisyLoggers(true);
-            try {
+            try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.HCM_NODE_TYPES)) {
                 preRegisterNamespaces(configModel, session);
                 preRegisterMissingSupertypes(configModel, session);
                 applyNamespacesAndNodeTypesWithRetry(configService, baseline, configModel, session);
@@ -206,18 +257,22 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
             // ensures the delta engine sees the real repository state. The retry loop in
             // applyConfigDeltaWithRetries is a reactive fallback for any remaining conflicts.
             session.refresh(false);
-            applyConfigDeltaWithMixinRecovery(configService, baseline, configModel, session);
-
-            ensureMandatoryConfigChildren(session);
-            ensureSelectionNamespace(session);
-            importContentDefinitions(modules, session);
-            ensureProjectSpecificHstRoot(session, projectNamespace);
-            rewriteMountpointsToProjectRoot(session, projectNamespace);
-            ensurePreviewMounts(session, projectNamespace);
-            ensureUnmappedForMissingMounts(session);
-            logWorkspaceDiagnostics(session, projectNamespace);
-            ensureMissingStateSummaries(session);
-            session.save();
+            try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.COMPUTE_AND_WRITE_DELTA)) {
+                applyConfigDeltaWithMixinRecovery(configService, baseline, configModel, session);
+            }
+
+            try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.POST_PROCESSING)) {
+                ensureMandatoryConfigChildren(session);
+                ensureSelectionNamespace(session);
+            }
+            try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.CONTENT_IMPORT)) {
+                importContentDefinitions(modules, session);
+            }
+            try (BootstrapTimings.Phase ignored = BootstrapTimings.phase(BootstrapTimings.POST_PROCESSING)) {
+                ensureProjectSpecificHstRoot(session, projectNamespace);
+                logWorkspaceDiagnostics(session, projectNamespace);
+                postBootstrapPipeline(session, projectNamespace).run(session);
+            }
 
             LOG.info("ConfigService bootstrap completed for project: {}", projectNamespace);
 
@@ -236,127 +291,24 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
         }
     }
 
-    private void ensureMissingStateSummaries(Session session) throws RepositoryException {
-        if (!session.nodeExists("/hippo:namespaces")) {
-            return;
-        }
-
-        Node root = session.getRootNode();
-        addStateSummaryRecursively(root);
-    }
-
-    private void addStateSummaryRecursively(Node node) throws RepositoryException {
-        if (!node.hasProperty("hippostd:stateSummary") && requiresStateSummary(node)) {
-            node.setProperty("hippostd:stateSummary", "");
-        }
-
-        for (NodeIterator it = node.getNodes(); it.hasNext(); ) {
-            addStateSummaryRecursively(it.nextNode());
-        }
-    }
-
-    private boolean requiresStateSummary(Node node) throws RepositoryException {
-        if (hasMandatoryStateSummary(node.getPrimaryNodeType())) {
-            return true;
-        }
-        for (NodeType mixin : node.getMixinNodeTypes()) {
-            if (hasMandatoryStateSummary(mixin)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private void ensurePreviewMounts(Session session, String projectNamespace) throws RepositoryException {
-        if (session == null || projectNamespace == null || projectNamespace.isBlank()) {
-            return;
-        }
-        String projectHostsPath = "/hst:" + projectNamespace + "/hst:hosts";
-        if (!session.nodeExists(projectHostsPath)) {
-            return;
-        }
-        Node hosts = session.getNode(projectHostsPath);
-        int updated = markPreviewMountsRecursively(hosts);
-        if (updated > 0) {
-            LOG.info("Marked {} mount(s) as preview under {}", updated, projectHostsPath);
-        }
-    }
-
-    private int markPreviewMountsRecursively(Node node) throws RepositoryException {
-        int updated = 0;
-        if (node.isNodeType("hst:mount")) {
-            String currentType = node.hasProperty("hst:type")
-                ? node.getProperty("hst:type").getString()
-                : null;
-            if (!"preview".equals(currentType)) {
-                node.setProperty("hst:type", "preview");
-                updated++;
-            }
-        }
-        for (NodeIterator it = node.getNodes(); it.hasNext(); ) {
-            updated += markPreviewMountsRecursively(it.nextNode());
-        }
-        return updated;
-    }
-
-    private void ensureUnmappedForMissingMounts(Session session) throws RepositoryException {
-        NodeIterator hstRoots = session.getRootNode().getNodes("hst:*");
-        int patched = 0;
-        while (hstRoots.hasNext()) {
-            Node hstRoot = hstRoots.nextNode();
-            if (hstRoot.hasNode("hst:hosts")) {
-                String rootPath = hstRoot.getPath();
-                patched += markUnresolvableMountsRecursively(
-                        session, hstRoot.getNode("hst:hosts"), rootPath);
-            }
-        }
-        if (patched > 0) {
-            LOG.info("Set hst:ismapped=false on {} mount(s) with unresolvable site references", patched);
-        }
-    }
-
-    private int markUnresolvableMountsRecursively(Session session, Node node, String hstRootPath)
-            throws RepositoryException {
-        int patched = checkAndPatchMount(session, node, hstRootPath);
-        for (NodeIterator it = node.getNodes(); it.hasNext(); ) {
-            patched += markUnresolvableMountsRecursively(session, it.nextNode(), hstRootPath);
-        }
-        return patched;
-    }
-
-    private int checkAndPatchMount(Session session, Node node, String hstRootPath)
+    /**
+     * The fix-ups that follow the bootstrap, run in a single walk of the repository: mount points of the
+     * project hosts are rewritten to the project HST root and marked as preview, mounts with unresolvable
+     * mount points are unmapped and missing mandatory {@code hippostd:stateSummary} properties are added.
+     */
+    private NodeVisitorPipeline postBootstrapPipeline(Session session, String projectNamespace)
             throws RepositoryException {
-        if (!node.hasProperty("hst:mountpoint")) {
-            return 0;
-        }
-        String mountPoint = node.getProperty("hst:mountpoint").getString();
-        if (mountPoint.isEmpty()) {
-            return 0;
-        }
-        // Outside the HstNodeLoadingCache scope or target node missing → unresolvable
-        boolean unresolvable = !mountPoint.startsWith(hstRootPath + "/")
-                || !session.nodeExists(mountPoint);
-        if (!unresolvable) {
-            return 0;
+        NodeVisitorPipeline pipeline = new NodeVisitorPipeline();
+        if (projectNamespace != null && !projectNamespace.isBlank()) {
+            String projectHostsPath = "/hst:" + projectNamespace + "/hst:hosts";
+            pipeline.add(new MountpointRewriteVisitor(projectHostsPath, "/hst:hst", "/hst:" + projectNamespace));
+            pipeline.add(new PreviewMountVisitor(projectHostsPath));
         }
-        boolean currentlyMapped = !node.hasProperty("hst:ismapped")
-                || node.getProperty("hst:ismapped").getBoolean();
-        if (!currentlyMapped) {
-            return 0;
-        }
-        node.setProperty("hst:ismapped", false);
-        LOG.debug("Set hst:ismapped=false on mount '{}': mountpoint '{}' not resolvable from HST root '{}'",
-                node.getPath(), mountPoint, hstRootPath);
-        return 1;
-    }
-
-    private boolean hasMandatoryStateSummary(NodeType nodeType) {
-        for (PropertyDefinition def : nodeType.getPropertyDefinitions()) {
-            if (def.isMandatory() && "hippostd:stateSummary".equals(def.getName())) {
-                return true;
-            }
+        pipeline.add(new UnresolvableMountVisitor());
+        if (session.nodeExists("/hippo:namespaces")) {
+            pipeline.add(new StateSummaryVisitor());
         }
-        return false;
+        return pipeline;
     }
 
     private void logWorkspaceDiagnostics(Session session, String projectNamespace) throws RepositoryException {
@@ -454,44 +406,6 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
         LOG.info("Project-specific HST root {} synced successfully", projectHstRoot);
     }
 
-    private void rewriteMountpointsToProjectRoot(Session session, String projectNamespace)
-            throws RepositoryException {
-        if (projectNamespace == null || projectNamespace.isBlank()) {
-            return;
-        }
-        String projectRoot = "/hst:" + projectNamespace;
-        String standardRoot = "/hst:hst";
-        String hostsPath = projectRoot + "/hst:hosts";
-        if (!session.nodeExists(hostsPath)) {
-            return;
-        }
-        int rewritten = rewriteMountpointsRecursively(
-                session.getNode(hostsPath), standardRoot, projectRoot);
-        if (rewritten > 0) {
-            LOG.info("Rewritten {} hst:mountpoint(s) from {} to {} scope",
-                    rewritten, standardRoot, projectRoot);
-        }
-    }
-
-    private int rewriteMountpointsRecursively(Node node, String oldPrefix, String newPrefix)
-            throws RepositoryException {
-        int rewritten = 0;
-        if (node.hasProperty("hst:mountpoint")) {
-            String mountPoint = node.getProperty("hst:mountpoint").getString();
-            if (mountPoint.startsWith(oldPrefix + "/")) {
-                String rewrittenPath = newPrefix + mountPoint.substring(oldPrefix.length());
-                node.setProperty("hst:mountpoint", rewrittenPath);
-                rewritten++;
-                LOG.debug("Rewrote hst:mountpoint on '{}': '{}' -> '{}'",
-                        node.getPath(), mountPoint, rewrittenPath);
-            }
-        }
-        for (NodeIterator it = node.getNodes(); it.hasNext(); ) {
-            rewritten += rewriteMountpointsRecursively(it.nextNode(), oldPrefix, newPrefix);
-        }
-        return rewritten;
-    }
-
     @Override
     public boolean canHandle(BootstrapContext context) {
         if (context.getModuleDescriptors() != null && !context.getModuleDescriptors().isEmpty()) {
@@ -500,8 +414,7 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
         }
 
         try {
-            Enumeration<URL> resources = context.getClassLoader().getResources(HCM_MODULE_DESCRIPTOR);
-            boolean found = resources.hasMoreElements();
+            boolean found = !ClasspathIndex.getResources(context.getClassLoader(), HCM_MODULE_DESCRIPTOR).isEmpty();
 
             if (found) {
                 LOG.debug("Found hcm-module.yaml on classpath - ConfigService strategy can handle");
@@ -529,6 +442,9 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
      * <p>
      * We find test modules in target/test-classes or build/resources/test directories
      * and load them directly using ModuleReader, then let ConfigService write them to JCR.
+     * <p>
+     * Parsed modules are cached by a digest of their sources, so after an edit only the modules
+     * whose sources changed are read again and the model is merged from the cached others.
      *
      * @param classLoader classloader to find test resource directories
      * @return ConfigurationModel with only test modules loaded
@@ -542,17 +458,6 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
             return new LoadedModules(new ConfigurationModelImpl().build(), List.of());
         }
 
-        String cacheKey = computeModelCacheKey(moduleDescriptors);
-        LoadedModules cached = MODEL_CACHE.get(cacheKey);
-        if (cached != null) {
-            LOG.debug("ConfigurationModel cache hit ({} module(s)); skipping YAML parse and model build",
-                moduleDescriptors.size());
-            return cached;
-        }
-
-        LOG.info("Loading {} module(s) explicitly using ModuleReader (no classpath scanning)...",
-            moduleDescriptors.size());
-
         Path startPath = Paths.get(System.getProperty("user.dir"));
         ProjectSettings settings = ProjectDiscovery.loadProjectSettings(startPath).orElse(null);
         String projectSiteName = stripHstRootPrefix(ProjectDiscovery.resolveHstRoot(startPath));
@@ -560,70 +465,189 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
             ? settings.getRepositoryDataModule()
             : "repository-data";
         Set<String> siteModuleNames = resolveSiteModuleNames(settings);
+        List<String> allowedRoots = resolveAllowedConfigRoots();
 
-        ModuleReader moduleReader = new ModuleReader();
-        List<ModuleImpl> modules = new ArrayList<>();
-
-        addMinimalFrameworkModule(moduleReader, modules, context.getClassLoader());
-
+        List<ModuleSource> sources = new ArrayList<>();
+        Path frameworkModule = resolveFrameworkModulePath(context.getClassLoader());
+        if (frameworkModule != null) {
+            LOG.debug("Embedded minimal framework config from {} is injected to satisfy core node types. " +
+                "Consider defining required primary types in project config for full parity.", frameworkModule);
+            sources.add(new ModuleSource(FRAMEWORK_MODULE_KEY, frameworkModule, null, ModuleDigest.of(frameworkModule)));
+        } else {
+            LOG.debug("No minimal framework module resource found on classpath");
+        }
         for (Path moduleDescriptor : moduleDescriptors) {
             if (!Files.exists(moduleDescriptor)) {
                 LOG.warn("  Module descriptor not found: {}", moduleDescriptor);
                 continue;
             }
-
-            LOG.debug("  Loading module from: {}", moduleDescriptor);
             String moduleName = resolveRepositoryModuleName(moduleDescriptor, repositoryDataModule);
             String siteName = siteModuleNames.contains(moduleName) ? projectSiteName : null;
-            if (siteName != null) {
-                LOG.debug("  Using site '{}' for module at {}", siteName, moduleDescriptor);
-            }
-            ModuleImpl module = moduleReader.read(moduleDescriptor, false, siteName, null).getModule();
-            modules.add(module);
-            LOG.info("  Loaded module from: {}", moduleDescriptor);
+            sources.add(new ModuleSource(moduleDescriptor.toUri().toString(), moduleDescriptor, siteName,
+                ModuleDigest.of(moduleDescriptor)));
         }
 
-        List<String> allowedRoots = resolveAllowedConfigRoots();
-        int filteredDefinitions = filterConfigDefinitionsByAllowedRoots(modules, allowedRoots);
-        if (filteredDefinitions > 0) {
-            LOG.info("Removed {} config definition(s) outside allowed roots {}. " +
-                    "Set -D{} to adjust or '*' to disable filtering.",
-                filteredDefinitions, allowedRoots, ALLOWED_CONFIG_ROOTS_PROPERTY);
+        String cacheKey = computeModelCacheKey(sources, allowedRoots);
+        LoadedModules cached = MODEL_CACHE.get(cacheKey);
+        if (cached != null) {
+            LOG.debug("ConfigurationModel cache hit ({} module(s)); skipping YAML parse and model build",
+                moduleDescriptors.size());
+            return cached;
         }
 
-        ConfigurationModelImpl model = new ConfigurationModelImpl();
-        Set<String> stubGroups = collectStubGroups(modules);
-        addStubGroups(model, stubGroups);
-        modules.forEach(model::addModule);
+        synchronized (MODEL_BUILD_LOCK) {
+            cached = MODEL_CACHE.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
 
-        LOG.debug("Building configuration model from {} module(s)...", modules.size());
-        ConfigurationModelImpl builtModel = buildModelOnce(model, modules, stubGroups);
+            List<ParsedModule> parsedModules = new ArrayList<>(sources.size());
+            List<ModuleSource> staleSources = new ArrayList<>();
+            for (ModuleSource source : sources) {
+                ParsedModule parsedModule = MODULE_CACHE.get(source.cacheKey(allowedRoots));
+                if (parsedModule == null || !parsedModule.digest().equals(source.digest())) {
+                    staleSources.add(source);
+                    parsedModule = null;
+                }
+                parsedModules.add(parsedModule);
+            }
+
+            Iterator<ModuleImpl> readModules = readModules(staleSources).iterator();
+            List<ModuleImpl> modules = new ArrayList<>();
+            Map<ModuleImpl, SharedModule> shared = new IdentityHashMap<>();
+            int parsed = staleSources.size();
+            int filteredDefinitions = 0;
+            for (int i = 0; i < sources.size(); i++) {
+                ParsedModule parsedModule = parsedModules.get(i);
+                ModuleSource source = sources.get(i);
+                if (parsedModule == null) {
+                    ModuleImpl module = readModules.next();
+                    filteredDefinitions += filterConfigDefinitionsByAllowedRoots(List.of(module), allowedRoots);
+                    parsedModule = new ParsedModule(source.digest(), module);
+                    MODULE_CACHE.put(source.cacheKey(allowedRoots), parsedModule);
+                }
+                modules.add(parsedModule.module());
+                shared.put(parsedModule.module(), new SharedModule(source, allowedRoots));
+            }
+            LOG.info("Parsed {} of {} module(s) explicitly using ModuleReader (no classpath scanning); "
+                + "reused {} unchanged module(s)", parsed, sources.size(), sources.size() - parsed);
+            if (filteredDefinitions > 0) {
+                LOG.info("Removed {} config definition(s) outside allowed roots {}. " +
+                        "Set -D{} to adjust or '*' to disable filtering.",
+                    filteredDefinitions, allowedRoots, ALLOWED_CONFIG_ROOTS_PROPERTY);
+            }
 
-        LOG.debug("Successfully built model with explicit modules only (framework modules NOT scanned)");
-        LoadedModules result = new LoadedModules(builtModel, List.copyOf(modules));
-        // putIfAbsent is atomic: if a concurrent fork already stored a result for the same key,
-        // discard ours and return theirs — avoids silent overwrites from the prior get+put pattern.
-        LoadedModules existing = MODEL_CACHE.putIfAbsent(cacheKey, result);
-        return existing != null ? existing : result;
-    }
+            ConfigurationModelImpl model = new ConfigurationModelImpl();
+            Set<String> stubGroups = collectStubGroups(modules);
+            addStubGroups(model, stubGroups);
+            modules.forEach(model::addModule);
 
-    private String computeModelCacheKey(List<Path> descriptors) {
-        StringBuilder key = new StringBuilder();
-        List<Path> sorted = new ArrayList<>(descriptors);
-        sorted.sort(Comparator.naturalOrder());
-        for (Path p : sorted) {
-            Path abs = p.toAbsolutePath().normalize();
-            long lastModified = 0L;
+            LOG.debug("Building configuration model from {} module(s)...", modules.size());
+            ConfigurationModelImpl builtModel;
+            sharedModules = shared;
             try {
-                lastModified = Files.getLastModifiedTime(abs).toMillis();
-            } catch (IOException ignored) {
-                // use 0 if unavailable
+                builtModel = buildModelOnce(model, modules, stubGroups);
+            } finally {
+                sharedModules = Map.of();
             }
-            if (key.length() > 0) {
-                key.append('|');
+
+            LOG.debug("Successfully built model with explicit modules only (framework modules NOT scanned)");
+            LoadedModules result = new LoadedModules(builtModel, List.copyOf(modules));
+            MODEL_CACHE.put(cacheKey, result);
+            return result;
+        }
+    }
+
+    /**
+     * Reads the modules of {@code sources} on up to {@code -Dbrut.configservice.parseThreads} threads, by default
+     * one per processor. Parsing YAML is independent per module; the modules are returned in the order of
+     * {@code sources}, so the model is built and written to JCR as when they are read one by one.
+     */
+    private List<ModuleImpl> readModules(List<ModuleSource> sources) throws Exception {
+        int threads = Math.min(sources.size(),
+            Integer.getInteger(PARSE_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+        if (threads <= 1) {
+            List<ModuleImpl> modules = new ArrayList<>(sources.size());
+            for (ModuleSource source : sources) {
+                modules.add(readModule(source));
+            }
+            return modules;
+        }
+
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "brut-hcm-parse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        });
+        try {
+            List<Future<ModuleImpl>> futures = new ArrayList<>(sources.size());
+            for (ModuleSource source : sources) {
+                futures.add(executor.submit(BootstrapTimings.withCurrentOwner(() -> readModule(source))));
+            }
+            List<ModuleImpl> modules = new ArrayList<>(sources.size());
+            for (Future<ModuleImpl> future : futures) {
+                try {
+                    modules.add(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception exception) {
+                        throw exception;
+                    }
+                    throw e;
+                }
             }
-            key.append(abs).append('@').append(lastModified);
+            return modules;
+        } finally {
+            executor.shutdownNow();
         }
+    }
+
+    /**
+     * Returns {@code module} if it belongs to the model being built only. A module shared through
+     * {@link #MODULE_CACHE} is read again from its source instead, and the copy takes its place in
+     * {@code modules}, so the caller can change it without affecting other models.
+     */
+    private ModuleImpl writableModule(List<ModuleImpl> modules, ModuleImpl module) {
+        SharedModule shared = sharedModules.get(module);
+        if (shared == null) {
+            return module;
+        }
+        ModuleImpl copy;
+        try {
+            copy = readModule(shared.source());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to copy cached module " + module.getName(), e);
+        }
+        filterConfigDefinitionsByAllowedRoots(List.of(copy), shared.allowedRoots());
+        sharedModules.remove(module);
+        for (int i = 0; i < modules.size(); i++) {
+            if (modules.get(i) == module) {
+                modules.set(i, copy);
+            }
+        }
+        return copy;
+    }
+
+    private static ModuleImpl readModule(ModuleSource source) throws Exception {
+        LOG.debug("  Loading module from: {}", source.descriptor());
+        if (source.siteName() != null) {
+            LOG.debug("  Using site '{}' for module at {}", source.siteName(), source.descriptor());
+        }
+        ModuleImpl module = new ModuleReader().read(source.descriptor(), false, source.siteName(), null).getModule();
+        LOG.info("  Loaded module from: {}", source.descriptor());
+        return module;
+    }
+
+    private String computeModelCacheKey(List<ModuleSource> sources, List<String> allowedRoots) {
+        StringBuilder key = new StringBuilder();
+        for (ModuleSource source : sources) {
+            key.append(source.cacheKey(allowedRoots)).append('@').append(source.digest()).append('\n');
+        }
+        key.append("prune=").append(System.getProperty(PRUNE_FRONTEND_CONFIG_PROPERTY))
+            .append('|').append(System.getProperty(PRUNE_CONFIG_ROOTS_PROPERTY));
         return key.toString();
     }
 
@@ -644,73 +668,16 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
         return siteModules;
     }
 
-    private void addMinimalFrameworkModule(ModuleReader moduleReader,
-                                           List<ModuleImpl> modules,
-                                           ClassLoader classLoader) throws Exception {
-        if (moduleReader == null || modules == null) {
-            return;
-        }
-        Path modulePath = resolveFrameworkModulePath(classLoader);
-        if (modulePath == null) {
-            LOG.debug("No minimal framework module resource found on classpath");
-            return;
-        }
-        LOG.debug("Loading minimal framework module from: {}", modulePath);
-        LOG.debug("Embedded minimal framework config is injected to satisfy core node types. " +
-            "Consider defining required primary types in project config for full parity.");
-        ModuleImpl module = moduleReader.read(modulePath, false).getModule();
-        modules.add(module);
-    }
-
+    /**
+     * Resolves the minimal framework module in place; inside a jar it is read from the jar's zip file system.
+     */
     private Path resolveFrameworkModulePath(ClassLoader classLoader) throws Exception {
         ClassLoader effectiveLoader = classLoader != null ? classLoader : getClass().getClassLoader();
         URL resource = effectiveLoader.getResource(MINIMAL_FRAMEWORK_MODULE_RESOURCE);
         if (resource == null) {
             return null;
         }
-        if ("file".equals(resource.getProtocol())) {
-            return Paths.get(resource.toURI());
-        }
-        if ("jar".equals(resource.getProtocol())) {
-            return copyFrameworkModuleFromJar(resource);
-        }
-        return null;
-    }
-
-    private Path copyFrameworkModuleFromJar(URL resource) throws Exception {
-        String url = resource.toString();
-        int separator = url.indexOf("!/");
-        if (separator < 0) {
-            return null;
-        }
-        URI jarUri = URI.create(url.substring(0, separator));
-        String entryPath = url.substring(separator + 2);
-        Path tempDir = Files.createTempDirectory("brut-minimal-framework");
-        tempDir.toFile().deleteOnExit();
-        try (FileSystem fs = FileSystems.newFileSystem(jarUri, java.util.Map.of())) {
-            Path sourceRoot = fs.getPath(entryPath).getParent();
-            if (sourceRoot == null) {
-                return null;
-            }
-            copyDirectory(sourceRoot, tempDir);
-        }
-        return tempDir.resolve("hcm-module.yaml");
-    }
-
-    private void copyDirectory(Path sourceRoot, Path targetRoot) throws IOException {
-        try (var stream = Files.walk(sourceRoot)) {
-            for (Path source : (Iterable<Path>) stream::iterator) {
-                Path relative = sourceRoot.relativize(source);
-                Path target = targetRoot.resolve(relative.toString());
-                if (Files.isDirectory(source)) {
-                    Files.createDirectories(target);
-                } else {
-                    Files.createDirectories(target.getParent());
-                    Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
-                    target.toFile().deleteOnExit();
-                }
-            }
-        }
+        return ClasspathModulePaths.toPath(resource);
     }
 
     private String stripHstRootPrefix(String hstRoot) {
@@ -760,9 +727,7 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
         ClassLoader classLoader = context.getClassLoader();
         LOG.debug("Finding test module descriptors (target/test-classes or build/resources/test)...");
 
-        Enumeration<URL> resources = classLoader.getResources(HCM_MODULE_DESCRIPTOR);
-        while (resources.hasMoreElements()) {
-            URL moduleUrl = resources.nextElement();
+        for (URL moduleUrl : ClasspathIndex.getResources(classLoader, HCM_MODULE_DESCRIPTOR)) {
             if (moduleUrl.getProtocol().equals("file") &&
                 (moduleUrl.getPath().contains("/target/test-classes/") ||
                  moduleUrl.getPath().contains("/build/resources/test/"))) {
@@ -847,6 +812,7 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
             if (owner == null) {
                 throw e;
             }
+            owner = writableModule(modules, owner);
             LOG.warn("Missing module dependency '{}' detected; retrying with stub in project '{}'",
                 info.missing(), owner.getProject().getName());
             ConfigurationModelImpl retry = new ConfigurationModelImpl();
@@ -1361,10 +1327,12 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
             return false;
         }
         int removed = 0;
-        for (ModuleImpl module : modules) {
-            if (module == null) {
+        for (int i = 0; i < modules.size(); i++) {
+            ModuleImpl module = modules.get(i);
+            if (module == null || !hasConfigDefinitionsUnder(module, rootPrefix)) {
                 continue;
             }
+            module = writableModule(modules, module);
             for (ConfigSourceImpl source : module.getConfigSources()) {
                 List<ConfigDefinitionImpl> definitions = new ArrayList<>(source.getConfigDefinitions());
                 for (ConfigDefinitionImpl definition : definitions) {
@@ -1385,6 +1353,18 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
         return removed > 0;
     }
 
+    private boolean hasConfigDefinitionsUnder(ModuleImpl module, String rootPrefix) {
+        for (ConfigSourceImpl source : module.getConfigSources()) {
+            for (ConfigDefinitionImpl definition : source.getConfigDefinitions()) {
+                if (definition != null && definition.getRootPath() != null
+                        && definition.getRootPath().toString().startsWith(rootPrefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private String extractMissingDependency(String message) {
         if (message == null) {
             return null;
@@ -1462,6 +1442,8 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
             System.getProperty(STUB_MISSING_NODE_TYPES_PROPERTY, "true"));
         Set<String> stubbedNamespaces = new HashSet<>();
         Set<String> stubbedNodeTypes = new HashSet<>();
+        // in batch mode every content source is saved on its own, so the transient space holds one source at a time
+        boolean saveEachSource = Integer.getInteger(ImporterUtils.BATCH_SIZE_PROPERTY, 0) > 0;
 
         for (ModuleImpl module : modules) {
             if (module == null || module.getContentSources() == null || module.getContentSources().isEmpty()) {
@@ -1487,6 +1469,9 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
                 contentSources++;
                 importContentWithStubbing(contentDefinition, session, module.getName(),
                     stubNamespaces, stubNodeTypes, stubbedNamespaces, stubbedNodeTypes);
+                if (saveEachSource) {
+                    saveImportedContent(session);
+                }
             }
         }
 
@@ -1502,6 +1487,15 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
         }
     }
 
+    private void saveImportedContent(Session session) throws RepositoryException {
+        try {
+            session.save();
+        } catch (ConstraintViolationException | ReferentialIntegrityException e) {
+            // a later content source completes the content, e.g. adds a mandatory child node or referenced node
+            LOG.debug("Postponing save of imported HCM content: {}", e.getMessage());
+        }
+    }
+
     private void importContentWithStubbing(ContentDefinitionImpl contentDef,
                                            Session session,
                                            String moduleName,
@@ -1681,13 +1675,187 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
                 LOG.warn("Selection CND resource not found: {}", MINIMAL_SELECTION_CND_RESOURCE);
                 return;
             }
-            CndImporter.registerNodeTypes(new InputStreamReader(stream, StandardCharsets.UTF_8), session);
+            CndUtils.registerNodeTypes(session,
+                    List.of(CndUtils.parse(session, MINIMAL_SELECTION_CND_RESOURCE, stream.readAllBytes())));
             LOG.info("Registered selection namespace from minimal framework CND");
         } catch (Exception e) {
             throw new RepositoryException("Failed to register selection namespace CND", e);
         }
     }
 
+    /**
+     * Rewrites {@code hst:mountpoint}s below {@code hostsPath} from {@code oldPrefix} to {@code newPrefix}.
+     */
+    private static final class MountpointRewriteVisitor implements NodeVisitor {
+
+        private final String hostsPath;
+        private final String oldPrefix;
+        private final String newPrefix;
+        private int rewritten;
+
+        private MountpointRewriteVisitor(String hostsPath, String oldPrefix, String newPrefix) {
+            this.hostsPath = hostsPath;
+            this.oldPrefix = oldPrefix;
+            this.newPrefix = newPrefix;
+        }
+
+        @Override
+        public boolean enters(String path) {
+            return NodeVisitor.onPathTo(path, hostsPath);
+        }
+
+        @Override
+        public void visit(Node node, String path) throws RepositoryException {
+            if (!NodeVisitor.isAtOrBelow(path, hostsPath) || !node.hasProperty("hst:mountpoint")) {
+                return;
+            }
+            String mountPoint = node.getProperty("hst:mountpoint").getString();
+            if (mountPoint.startsWith(oldPrefix + "/")) {
+                String rewrittenPath = newPrefix + mountPoint.substring(oldPrefix.length());
+                node.setProperty("hst:mountpoint", rewrittenPath);
+                rewritten++;
+                LOG.debug("Rewrote hst:mountpoint on '{}': '{}' -> '{}'",
+                        node.getPath(), mountPoint, rewrittenPath);
+            }
+        }
+
+        @Override
+        public void finish(Session session) {
+            if (rewritten > 0) {
+                LOG.info("Rewritten {} hst:mountpoint(s) from {} to {} scope", rewritten, oldPrefix, newPrefix);
+            }
+        }
+    }
+
+    /**
+     * Marks the mounts below {@code hostsPath} as preview mounts.
+     */
+    private static final class PreviewMountVisitor implements NodeVisitor {
+
+        private final String hostsPath;
+        private int updated;
+
+        private PreviewMountVisitor(String hostsPath) {
+            this.hostsPath = hostsPath;
+        }
+
+        @Override
+        public boolean enters(String path) {
+            return NodeVisitor.onPathTo(path, hostsPath);
+        }
+
+        @Override
+        public void visit(Node node, String path) throws RepositoryException {
+            if (!NodeVisitor.isAtOrBelow(path, hostsPath) || !node.isNodeType("hst:mount")) {
+                return;
+            }
+            String currentType = node.hasProperty("hst:type")
+                ? node.getProperty("hst:type").getString()
+                : null;
+            if (!"preview".equals(currentType)) {
+                node.setProperty("hst:type", "preview");
+                updated++;
+            }
+        }
+
+        @Override
+        public void finish(Session session) {
+            if (updated > 0) {
+                LOG.info("Marked {} mount(s) as preview under {}", updated, hostsPath);
+            }
+        }
+    }
+
+    /**
+     * Sets {@code hst:ismapped=false} on the mounts below {@code /hst:*}{@code /hst:hosts} whose mount point lies
+     * outside their HST root or does not exist.
+     */
+    private static final class UnresolvableMountVisitor implements NodeVisitor {
+
+        private int patched;
+
+        @Override
+        public boolean enters(String path) {
+            String[] segments = path.split("/");
+            return segments.length <= 1
+                || (segments[1].startsWith("hst:") && (segments.length == 2 || "hst:hosts".equals(segments[2])));
+        }
+
+        @Override
+        public void visit(Node node, String path) throws RepositoryException {
+            String[] segments = path.split("/");
+            if (segments.length < 3 || !node.hasProperty("hst:mountpoint")) {
+                return;
+            }
+            String hstRootPath = "/" + segments[1];
+            String mountPoint = node.getProperty("hst:mountpoint").getString();
+            if (mountPoint.isEmpty()) {
+                return;
+            }
+            // Outside the HstNodeLoadingCache scope or target node missing → unresolvable
+            boolean unresolvable = !mountPoint.startsWith(hstRootPath + "/")
+                    || !node.getSession().nodeExists(mountPoint);
+            if (!unresolvable) {
+                return;
+            }
+            boolean currentlyMapped = !node.hasProperty("hst:ismapped")
+                    || node.getProperty("hst:ismapped").getBoolean();
+            if (!currentlyMapped) {
+                return;
+            }
+            node.setProperty("hst:ismapped", false);
+            patched++;
+            LOG.debug("Set hst:ismapped=false on mount '{}': mountpoint '{}' not resolvable from HST root '{}'",
+                    node.getPath(), mountPoint, hstRootPath);
+        }
+
+        @Override
+        public void finish(Session session) {
+            if (patched > 0) {
+                LOG.info("Set hst:ismapped=false on {} mount(s) with unresolvable site references", patched);
+            }
+        }
+    }
+
+    /**
+     * Adds an empty {@code hippostd:stateSummary} to every node whose type declares it mandatory.
+     */
+    private static final class StateSummaryVisitor implements NodeVisitor {
+
+        @Override
+        public boolean enters(String path) {
+            return true;
+        }
+
+        @Override
+        public void visit(Node node, String path) throws RepositoryException {
+            if (!node.hasProperty("hippostd:stateSummary") && requiresStateSummary(node)) {
+                node.setProperty("hippostd:stateSummary", "");
+            }
+        }
+
+        private static boolean requiresStateSummary(Node node) throws RepositoryException {
+            if (hasMandatoryStateSummary(node.getPrimaryNodeType())) {
+                return true;
+            }
+            for (NodeType mixin : node.getMixinNodeTypes()) {
+                if (hasMandatoryStateSummary(mixin)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean hasMandatoryStateSummary(NodeType nodeType) {
+            for (PropertyDefinition def : nodeType.getPropertyDefinitions()) {
+                if (def.isMandatory() && "hippostd:stateSummary".equals(def.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     private enum MissingDependencyType {
         GROUP,
         MODULE
@@ -1695,5 +1863,15 @@ public class ConfigServiceBootstrapStrategy implements JcrBootstrapStrategy {
 
     private record LoadedModules(ConfigurationModelImpl model, List<ModuleImpl> modules) {}
 
+    private record ParsedModule(String digest, ModuleImpl module) {}
+
+    private record SharedModule(ModuleSource source, List<String> allowedRoots) {}
+
+    private record ModuleSource(String id, Path descriptor, String siteName, String digest) {
+        String cacheKey(List<String> allowedRoots) {
+            return id + "|site=" + siteName + "|roots=" + allowedRoots;
+        }
+    }
+
     private record MissingDependencyInfo(MissingDependencyType type, String owner, String missing) {}
 }
@@ -0,0 +1,94 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ensures that the {@code hst:content} paths of the HST configuration below the given HST roots exist, creating
+ * stub {@code hippostd:folder}s for the missing ones so that {@code getSiteContentBaseBean()} resolves.
+ *
+ * @since 6.2.0
+ */
+public class ContentPathVisitor implements NodeVisitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentPathVisitor.class);
+    private static final String HST_CONTENT_PROPERTY = "hst:content";
+
+    private final List<String> hstRoots;
+    private final Map<String, String> contentPaths = new LinkedHashMap<>();
+
+    public ContentPathVisitor(List<String> hstRoots) {
+        this.hstRoots = List.copyOf(hstRoots);
+    }
+
+    @Override
+    public boolean enters(String path) {
+        for (String hstRoot : hstRoots) {
+            if (NodeVisitor.onPathTo(path, hstRoot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void visit(Node node, String path) throws RepositoryException {
+        if (!node.hasProperty(HST_CONTENT_PROPERTY) || !isBelowHstRoot(path)) {
+            return;
+        }
+        String contentPath = node.getProperty(HST_CONTENT_PROPERTY).getString();
+        if (contentPath != null && !contentPath.isEmpty()) {
+            String absolutePath = contentPath.startsWith("/") ? contentPath : "/" + contentPath;
+            contentPaths.putIfAbsent(absolutePath, node.getPath());
+        }
+    }
+
+    @Override
+    public void finish(Session session) throws RepositoryException {
+        for (Map.Entry<String, String> contentPath : contentPaths.entrySet()) {
+            if (!session.nodeExists(contentPath.getKey())) {
+                createFolders(session, contentPath.getKey());
+                LOG.info("Created stub content folder at '{}' for HST config '{}'",
+                        contentPath.getKey(), contentPath.getValue());
+            }
+        }
+    }
+
+    private boolean isBelowHstRoot(String path) {
+        for (String hstRoot : hstRoots) {
+            if (NodeVisitor.isAtOrBelow(path, hstRoot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates a stub content folder at the given path, ensuring all parent folders exist.
+     */
+    private static void createFolders(Session session, String path) throws RepositoryException {
+        String[] segments = path.substring(1).split("/");
+        Node current = session.getRootNode();
+
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (current.hasNode(segment)) {
+                current = current.getNode(segment);
+            } else {
+                current = current.addNode(segment, "hippostd:folder");
+                if (current.canAddMixin("mix:referenceable")) {
+                    current.addMixin("mix:referenceable");
+                }
+            }
+        }
+    }
+}
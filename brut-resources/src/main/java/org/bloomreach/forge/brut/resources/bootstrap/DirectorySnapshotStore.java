@@ -0,0 +1,106 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link SnapshotStore} keeping one file per key in a local directory. Images are written to a
+ * temporary file in the same directory and atomically moved into place, so the directory can be
+ * shared by concurrently running JVMs.
+ * <p>
+ * The default directory is taken from the {@value #DIRECTORY_PROPERTY} system property and falls
+ * back to {@code brut-snapshots} in {@code java.io.tmpdir}.
+ *
+ * @since 6.2.0
+ */
+public class DirectorySnapshotStore implements SnapshotStore {
+
+    public static final String DIRECTORY_PROPERTY = "brut.snapshot.dir";
+
+    private static final Logger LOG = LoggerFactory.getLogger(DirectorySnapshotStore.class);
+    private static final String IMAGE_SUFFIX = ".brut-image";
+    private static final String DEFAULT_DIRECTORY_NAME = "brut-snapshots";
+
+    private final Path directory;
+
+    public DirectorySnapshotStore(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * @return a store in the directory configured with {@value #DIRECTORY_PROPERTY}, or the default one
+     */
+    public static DirectorySnapshotStore fromSystemProperties() {
+        String configured = System.getProperty(DIRECTORY_PROPERTY);
+        Path directory = configured != null && !configured.isBlank()
+            ? Paths.get(configured)
+            : Paths.get(System.getProperty("java.io.tmpdir"), DEFAULT_DIRECTORY_NAME);
+        return new DirectorySnapshotStore(directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        try {
+            return Files.newInputStream(imagePath(key));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void write(String key, ImageWriter writer) throws IOException {
+        Files.createDirectories(directory);
+        Path target = imagePath(key);
+        Path temp = Files.createTempFile(directory, key + ".", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writer.writeTo(out);
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed to write repository image " + key, e);
+            }
+            move(temp, target);
+            LOG.debug("Stored repository image {}", target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(imagePath(key));
+    }
+
+    private Path imagePath(String key) {
+        if (key == null || !key.matches("[A-Za-z0-9_-]+")) {
+            throw new IllegalArgumentException("Invalid snapshot key: " + key);
+        }
+        return directory.resolve(key + IMAGE_SUFFIX);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import javax.jcr.Session;
  * <ul>
  *   <li>{@link ManualBootstrapStrategy} - Manual node construction (legacy approach)</li>
  *   <li>{@link ConfigServiceBootstrapStrategy} - Uses brXM's ConfigurationConfigService (production approach)</li>
+ *   <li>{@link SnapshotBootstrapStrategy} - Caches another strategy's result as a persistent repository image</li>
  * </ul>
  * <p>
  * The appropriate strategy is selected based on the environment:
@@ -0,0 +1,115 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import org.bloomreach.forge.brut.common.cache.ContentDigests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * SHA-256 digests over the sources of an HCM module: the descriptor, {@code hcm-config},
+ * {@code hcm-content} and {@code hcm-actions.yaml}. Descriptors live either in the module root or in
+ * its {@code META-INF} folder, so both locations are covered.
+ * <p>
+ * File digests are memoized by path, size and modification time, so re-digesting an unchanged
+ * module only walks its directories.
+ */
+final class ModuleDigest {
+
+    private static final String META_INF = "META-INF";
+    private static final List<String> MODULE_CONTENT = List.of(
+        "hcm-module.yaml",
+        "hcm-actions.yaml",
+        "hcm-config",
+        "hcm-content"
+    );
+
+    private static final ConcurrentHashMap<Path, FileDigest> FILE_DIGESTS = new ConcurrentHashMap<>();
+
+    private ModuleDigest() {
+    }
+
+    /**
+     * @return the hex encoded digest of the module described by {@code descriptor}
+     */
+    static String of(Path descriptor) throws IOException {
+        MessageDigest digest = ContentDigests.newSha256();
+        update(digest, descriptor);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Adds the module described by {@code descriptor} to a running digest.
+     */
+    static void update(MessageDigest target, Path descriptor) throws IOException {
+        Path root = descriptor.toAbsolutePath().normalize().getParent();
+        update(target, "module");
+        update(target, fileDigest(descriptor));
+        updateContent(target, root);
+        if (root.getFileName() != null && META_INF.equals(root.getFileName().toString()) && root.getParent() != null) {
+            updateContent(target, root.getParent());
+        }
+    }
+
+    static void clearCache() {
+        FILE_DIGESTS.clear();
+    }
+
+    private static void updateContent(MessageDigest target, Path root) throws IOException {
+        for (String name : MODULE_CONTENT) {
+            Path entry = root.resolve(name);
+            if (Files.isDirectory(entry)) {
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(entry)) {
+                    files = new ArrayList<>(walk.filter(Files::isRegularFile).toList());
+                }
+                files.sort((a, b) -> root.relativize(a).toString().compareTo(root.relativize(b).toString()));
+                for (Path file : files) {
+                    update(target, root.relativize(file).toString().replace('\\', '/'));
+                    update(target, fileDigest(file));
+                }
+            } else if (Files.isRegularFile(entry)) {
+                update(target, name);
+                update(target, fileDigest(entry));
+            }
+        }
+    }
+
+    private static byte[] fileDigest(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        FileDigest cached = FILE_DIGESTS.get(key);
+        if (cached != null && cached.size() == size && cached.modified() == modified) {
+            return cached.digest();
+        }
+        byte[] digest = ContentDigests.newSha256().digest(Files.readAllBytes(key));
+        FILE_DIGESTS.put(key, new FileDigest(size, modified, digest));
+        return digest;
+    }
+
+    static void update(MessageDigest digest, String value) {
+        update(digest, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Length-prefixed, so that adjacent inputs cannot run into each other.
+     */
+    static void update(MessageDigest digest, byte[] value) {
+        int length = value.length;
+        digest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        digest.update(value);
+    }
+
+    private record FileDigest(long size, long modified, byte[] digest) {
+    }
+}
@@ -0,0 +1,55 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+/**
+ * A repository fix-up that runs as part of a {@link NodeVisitorPipeline}.
+ * <p>
+ * The pipeline walks the tree once for all of its visitors and only descends into nodes that at least one
+ * visitor {@link #enters(String) enters}. Visitors may change properties of the visited node; nodes should be
+ * added or removed in {@link #finish(Session)}, after the walk.
+ *
+ * @since 6.2.0
+ */
+public interface NodeVisitor {
+
+    /**
+     * @param path path of a node, without same-name sibling indexes
+     * @return whether this visitor wants to see the node at {@code path}, either because the node is in its
+     * scope or because its scope lies below the node. A visitor that does not enter a node does not see its
+     * descendants either.
+     */
+    boolean enters(String path);
+
+    /**
+     * Visits a node this visitor {@link #enters(String) entered}, parents before children.
+     *
+     * @param path path of the node, as passed to {@link #enters(String)}
+     */
+    void visit(Node node, String path) throws RepositoryException;
+
+    /**
+     * Called once after the walk, before the pipeline saves the session.
+     */
+    default void finish(Session session) throws RepositoryException {
+    }
+
+    /**
+     * @return whether {@code path} is {@code root}, lies below it or lies on the way to it
+     */
+    static boolean onPathTo(String path, String root) {
+        return path.equals(root)
+                || "/".equals(path)
+                || path.startsWith(root + "/")
+                || root.startsWith(path + "/");
+    }
+
+    /**
+     * @return whether {@code path} is {@code root} or lies below it
+     */
+    static boolean isAtOrBelow(String path, String root) {
+        return path.equals(root) || path.startsWith(root + "/");
+    }
+}
@@ -0,0 +1,76 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs several {@link NodeVisitor}s in a single depth-first walk of the repository, followed by a single save.
+ * <p>
+ * Every node is read at most once, whatever the number of visitors; subtrees none of the visitors enters are
+ * skipped. On each node the visitors run in the order they were added.
+ * <pre>
+ * new NodeVisitorPipeline()
+ *     .add(new ContentPathVisitor(List.of("/hst:hst")))
+ *     .run(session);
+ * </pre>
+ *
+ * @since 6.2.0
+ */
+public class NodeVisitorPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NodeVisitorPipeline.class);
+
+    private final List<NodeVisitor> visitors = new ArrayList<>();
+
+    public NodeVisitorPipeline add(NodeVisitor visitor) {
+        visitors.add(visitor);
+        return this;
+    }
+
+    /**
+     * Walks the repository of {@code session} from its root, finishes the visitors and saves the session.
+     *
+     * @return the number of nodes visited
+     */
+    public int run(Session session) throws RepositoryException {
+        int visited = 0;
+        if (!visitors.isEmpty()) {
+            visited = walk(session.getRootNode(), "/", new ArrayList<>(visitors));
+            for (NodeVisitor visitor : visitors) {
+                visitor.finish(session);
+            }
+        }
+        session.save();
+        LOG.debug("Visited {} node(s) for {} visitor(s)", visited, visitors.size());
+        return visited;
+    }
+
+    private int walk(Node node, String path, List<NodeVisitor> entering) throws RepositoryException {
+        for (NodeVisitor visitor : entering) {
+            visitor.visit(node, path);
+        }
+        int visited = 1;
+        String prefix = "/".equals(path) ? "/" : path + "/";
+        for (NodeIterator it = node.getNodes(); it.hasNext(); ) {
+            Node child = it.nextNode();
+            String childPath = prefix + child.getName();
+            List<NodeVisitor> childVisitors = new ArrayList<>(entering.size());
+            for (NodeVisitor visitor : entering) {
+                if (visitor.enters(childPath)) {
+                    childVisitors.add(visitor);
+                }
+            }
+            if (!childVisitors.isEmpty()) {
+                visited += walk(child, childPath, childVisitors);
+            }
+        }
+        return visited;
+    }
+}
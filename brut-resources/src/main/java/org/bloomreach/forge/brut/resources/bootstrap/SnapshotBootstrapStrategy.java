@@ -0,0 +1,179 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import org.bloomreach.forge.brut.common.cache.ContentDigests;
+import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
+import org.bloomreach.forge.brut.common.scan.IndexedResourcePatternResolver;
+import org.onehippo.cm.model.impl.ConfigurationModelImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bootstrap strategy that caches the outcome of another strategy as a repository image.
+ * <p>
+ * The image is stored in a {@link SnapshotStore} under a SHA-256 key computed from everything
+ * that contributes to the bootstrap: the project namespace, the content of every HCM module
+ * (descriptor, {@code hcm-config}, {@code hcm-content} and {@code hcm-actions.yaml}), the CND and
+ * HCM config resources of the {@link BootstrapContext}, the {@code brut.configservice.*} system
+ * properties and the BRUT and brXM versions. On a hit the image is loaded with
+ * {@link BrxmTestingRepository#readImage}, skipping the delegate entirely; on a miss the delegate
+ * runs and its result is written with {@link BrxmTestingRepository#writeImage}. Because the key is
+ * derived from file contents rather than timestamps, a store in a shared local directory serves
+ * all surefire forks of a build and survives between builds and checkouts.
+ * <p>
+ * An image that cannot be read is discarded and the delegate runs instead. Without module
+ * descriptors there is nothing to key on, so the delegate always runs.
+ *
+ * @see DirectorySnapshotStore
+ * @since 6.2.0
+ */
+public class SnapshotBootstrapStrategy implements JcrBootstrapStrategy {
+
+    /**
+     * Set to {@code true} to wrap the bootstrap of {@code ConfigServiceRepository} in this strategy.
+     */
+    public static final String ENABLED_PROPERTY = "brut.snapshot.enabled";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotBootstrapStrategy.class);
+    private static final String KEY_FORMAT = "brut-snapshot-1";
+    private static final String CONFIG_SERVICE_PROPERTY_PREFIX = "brut.configservice.";
+
+    private final BrxmTestingRepository repository;
+    private final JcrBootstrapStrategy delegate;
+    private final SnapshotStore store;
+
+    public SnapshotBootstrapStrategy(BrxmTestingRepository repository, JcrBootstrapStrategy delegate,
+                                     SnapshotStore store) {
+        if (repository == null || delegate == null || store == null) {
+            throw new IllegalArgumentException("repository, delegate and store must not be null");
+        }
+        this.repository = repository;
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    @Override
+    public void initializeHstStructure(Session session, String projectNamespace,
+                                       BootstrapContext context) throws RepositoryException {
+        String key = computeKey(projectNamespace, context);
+        if (key == null) {
+            LOG.debug("No module descriptors to key a repository image on; bootstrapping without snapshot");
+            delegate.initializeHstStructure(session, projectNamespace, context);
+            return;
+        }
+
+        if (loadImage(session, key)) {
+            return;
+        }
+
+        delegate.initializeHstStructure(session, projectNamespace, context);
+        session.save();
+        try {
+            store.write(key, out -> repository.writeImage(session, out));
+            LOG.info("Stored repository image {}", key);
+        } catch (IOException e) {
+            LOG.warn("Failed to store repository image {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean canHandle(BootstrapContext context) {
+        return delegate.canHandle(context);
+    }
+
+    private boolean loadImage(Session session, String key) throws RepositoryException {
+        try (InputStream in = store.open(key)) {
+            if (in == null) {
+                LOG.debug("No repository image {}", key);
+                return false;
+            }
+            repository.readImage(session, in);
+            LOG.info("Loaded repository image {}", key);
+            return true;
+        } catch (IOException e) {
+            LOG.warn("Discarding unreadable repository image {}: {}", key, e.getMessage());
+            try {
+                store.delete(key);
+            } catch (IOException deleteFailure) {
+                LOG.debug("Failed to delete repository image {}", key, deleteFailure);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @return the hex encoded key, or {@code null} if the context has no module descriptors
+     */
+    static String computeKey(String projectNamespace, BootstrapContext context) throws RepositoryException {
+        List<Path> descriptors = context.getModuleDescriptors();
+        if (descriptors == null || descriptors.isEmpty()) {
+            return null;
+        }
+        MessageDigest digest = ContentDigests.newSha256();
+        ModuleDigest.update(digest, KEY_FORMAT);
+        ModuleDigest.update(digest, version(SnapshotBootstrapStrategy.class));
+        ModuleDigest.update(digest, version(ConfigurationModelImpl.class));
+        ModuleDigest.update(digest, String.valueOf(projectNamespace));
+        configServiceProperties().forEach((name, value) -> {
+            ModuleDigest.update(digest, name);
+            ModuleDigest.update(digest, value);
+        });
+        try {
+            for (Path descriptor : descriptors) {
+                ModuleDigest.update(digest, descriptor);
+            }
+            digestResources(digest, context.getClassLoader(), context.getCndPatterns());
+            digestResources(digest, context.getClassLoader(), context.getHcmConfigPatterns());
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to compute repository image key", e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @return the version of the jar of {@code type}, such as the BRUT or brXM version
+     */
+    private static String version(Class<?> type) {
+        return String.valueOf(type.getPackage().getImplementationVersion());
+    }
+
+    private static Map<String, String> configServiceProperties() {
+        Map<String, String> properties = new TreeMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(CONFIG_SERVICE_PROPERTY_PREFIX)) {
+                properties.put(name, System.getProperty(name));
+            }
+        }
+        return properties;
+    }
+
+    private static void digestResources(MessageDigest digest, ClassLoader classLoader, List<String> patterns)
+            throws IOException {
+        ResourcePatternResolver resolver = new IndexedResourcePatternResolver(classLoader);
+        for (String pattern : patterns) {
+            ModuleDigest.update(digest, pattern);
+            for (Resource resource : resolver.getResources(pattern)) {
+                ModuleDigest.update(digest, String.valueOf(resource.getFilename()));
+                try (InputStream in = resource.getInputStream()) {
+                    ModuleDigest.update(digest, in.readAllBytes());
+                }
+            }
+        }
+    }
+}
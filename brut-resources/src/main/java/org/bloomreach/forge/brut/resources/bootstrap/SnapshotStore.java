@@ -0,0 +1,44 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Storage for repository images written by {@link SnapshotBootstrapStrategy}, addressed by a key
+ * derived from everything that went into the bootstrap.
+ * <p>
+ * Implementations must tolerate several JVMs (e.g. surefire forks) reading and writing the same
+ * key concurrently: a reader must only ever see complete images.
+ *
+ * @see DirectorySnapshotStore
+ * @since 6.2.0
+ */
+public interface SnapshotStore {
+
+    /**
+     * Opens the image stored under {@code key}.
+     *
+     * @return a stream the caller closes, or {@code null} if no image is stored under the key
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Stores the image produced by {@code writer} under {@code key}, replacing any existing one.
+     * If {@code writer} fails nothing is stored.
+     */
+    void write(String key, ImageWriter writer) throws IOException;
+
+    /**
+     * Removes the image stored under {@code key}, if any.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Produces the content of an image.
+     */
+    @FunctionalInterface
+    interface ImageWriter {
+        void writeTo(OutputStream out) throws Exception;
+    }
+}
@@ -83,7 +83,7 @@ class DependencyHcmModuleResolverTest {
     }
 
     @Test
-    void resolve_copiesMatchingJarBackedModule(@TempDir Path tempDir) throws Exception {
+    void resolve_readsMatchingJarBackedModuleInPlace(@TempDir Path tempDir) throws Exception {
         Path jarPath = tempDir.resolve("dependency-addon.jar");
         writeJarModule(jarPath,
             "hcm-module.yaml",
@@ -103,13 +103,14 @@ class DependencyHcmModuleResolverTest {
 
             assertEquals(1, resolved.size());
             Path descriptor = resolved.get(0);
+            assertEquals("jar", descriptor.getFileSystem().provider().getScheme());
             assertTrue(Files.exists(descriptor));
             assertTrue(Files.exists(descriptor.getParent().resolve("hcm-config/brxdis-types.cnd")));
         }
     }
 
     @Test
-    void resolve_copiesMatchingMetaInfJarBackedModule(@TempDir Path tempDir) throws Exception {
+    void resolve_readsMatchingMetaInfJarBackedModuleInPlace(@TempDir Path tempDir) throws Exception {
         Path jarPath = tempDir.resolve("dependency-addon.jar");
         writeJarModule(jarPath,
             "META-INF/hcm-module.yaml",
@@ -129,6 +130,7 @@ class DependencyHcmModuleResolverTest {
 
             assertEquals(1, resolved.size());
             Path descriptor = resolved.get(0);
+            assertEquals("jar", descriptor.getFileSystem().provider().getScheme());
             assertTrue(Files.exists(descriptor));
             assertTrue(Files.exists(descriptor.getParent().getParent().resolve("hcm-config/brxdis-types.cnd")));
         }
@@ -0,0 +1,82 @@
+package org.bloomreach.forge.brut.resources;
+
+import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HstConfigurationChangeTrackerTest {
+
+    private static final String HST_ROOT = "/hstroot";
+
+    private BrxmTestingRepository repository;
+    private HstConfigurationChangeTracker tracker;
+    private Session session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = new BrxmTestingRepository();
+        session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+        Node root = session.getRootNode().addNode("hstroot", "nt:unstructured");
+        root.addNode("configurations", "nt:unstructured").addNode("myproject", "nt:unstructured");
+        session.getRootNode().addNode("content", "nt:unstructured");
+        session.save();
+        tracker = HstConfigurationChangeTracker.start(repository, HST_ROOT);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        tracker.close();
+        session.logout();
+        repository.shutdown();
+    }
+
+    @Test
+    void changeBelowRoot_isRecordedBySubtreeBeforeSaveReturns() throws RepositoryException {
+        session.getNode(HST_ROOT + "/configurations/myproject").addNode("sitemap", "nt:unstructured")
+                .setProperty("title", "home");
+        session.save();
+
+        assertTrue(tracker.hasChanges());
+        assertEquals(Set.of(HST_ROOT + "/configurations/myproject"), tracker.drainChanges());
+        assertFalse(tracker.hasChanges());
+        assertTrue(tracker.drainChanges().isEmpty());
+    }
+
+    @Test
+    void changeOutsideRoot_isIgnored() throws RepositoryException {
+        session.getNode("/content").addNode("document", "nt:unstructured");
+        session.save();
+
+        assertFalse(tracker.hasChanges());
+        assertEquals(0, tracker.getChangeCount());
+    }
+
+    @Test
+    void markChanged_countsAndRecordsRoot() {
+        tracker.markChanged(HST_ROOT);
+
+        assertEquals(1, tracker.getChangeCount());
+        assertEquals(Set.of(HST_ROOT), tracker.drainChanges());
+        assertEquals(1, tracker.getChangeCount());
+    }
+
+    @Test
+    void close_stopsTracking() throws RepositoryException {
+        tracker.close();
+        session.getNode(HST_ROOT).setProperty("changed", true);
+        session.save();
+
+        assertFalse(tracker.hasChanges());
+    }
+}
@@ -0,0 +1,57 @@
+package org.bloomreach.forge.brut.resources;
+
+import org.hippoecm.hst.site.addon.module.model.ModuleDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UtilsTest {
+
+    private static final String PAGEMODEL_ADDON_PATH = "org/bloomreach/forge/brut/resources/hst/pagemodel-addon/module.xml";
+
+    @Test
+    void loadAddonModule_returnsCachedDefinition() {
+        ModuleDefinition first = Utils.loadAddonModule(PAGEMODEL_ADDON_PATH);
+
+        assertNotNull(first.getName());
+        assertSame(first, Utils.loadAddonModule(PAGEMODEL_ADDON_PATH));
+    }
+
+    @Test
+    void loadAddonModule_reusesJaxbContextForNewDescriptors() throws Exception {
+        Utils.loadAddonModule(PAGEMODEL_ADDON_PATH);
+        Object context = staticField("moduleDefinitionContext");
+        ModuleDefinition cached = Utils.loadAddonModule(PAGEMODEL_ADDON_PATH);
+        moduleDefinitions().clear();
+
+        ModuleDefinition reparsed = Utils.loadAddonModule(PAGEMODEL_ADDON_PATH);
+
+        assertNotSame(cached, reparsed);
+        assertEquals(cached.getName(), reparsed.getName());
+        assertNotNull(context);
+        assertSame(context, staticField("moduleDefinitionContext"));
+    }
+
+    @Test
+    void loadAddonModule_missingDescriptor_throws() {
+        assertThrows(RuntimeException.class, () -> Utils.loadAddonModule("does/not/exist/module.xml"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ModuleDefinition> moduleDefinitions() throws Exception {
+        return (Map<String, ModuleDefinition>) staticField("MODULE_DEFINITIONS");
+    }
+
+    private static Object staticField(String name) throws Exception {
+        Field field = Utils.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(null);
+    }
+}
@@ -22,7 +22,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ResourcePatternsSpringConfigTest {
@@ -96,4 +98,18 @@ class ResourcePatternsSpringConfigTest {
         assertTrue(configPath.contains("brut-resource-patterns-"));
         assertTrue(configPath.endsWith(".xml"));
     }
+
+    @Test
+    void create_sameContent_reusesTempFile() throws Exception {
+        String first = ResourcePatternsSpringConfig.create(List.of("reused.yaml"), List.of());
+        String second = ResourcePatternsSpringConfig.create(List.of("reused.yaml"), List.of());
+        String other = ResourcePatternsSpringConfig.create(List.of("other.yaml"), List.of());
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+
+        Files.delete(Path.of(new URI(first)));
+        String recreated = ResourcePatternsSpringConfig.create(List.of("reused.yaml"), List.of());
+        assertTrue(Files.readString(Path.of(new URI(recreated))).contains("reused.yaml"));
+    }
 }
@@ -0,0 +1,117 @@
+package org.bloomreach.forge.brut.resources.annotation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SharedDeliveryStackTest {
+
+    @Test
+    void acquire_initializesOnceAndReusesAfterRelease() throws Exception {
+        SharedDeliveryStack<DynamicTest> stack = new SharedDeliveryStack<>();
+        AtomicInteger created = new AtomicInteger();
+        DynamicTest instance = mock(DynamicTest.class);
+
+        DynamicTest first = stack.acquire(() -> {
+            created.incrementAndGet();
+            return instance;
+        });
+        stack.release();
+        DynamicTest second = stack.acquire(() -> {
+            created.incrementAndGet();
+            return mock(DynamicTest.class);
+        });
+
+        assertSame(instance, first);
+        assertSame(instance, second);
+        assertEquals(1, created.get());
+        assertEquals(1, stack.getUsers());
+    }
+
+    @Test
+    void acquire_whileLeased_returnsNull() throws Exception {
+        SharedDeliveryStack<DynamicTest> stack = new SharedDeliveryStack<>();
+        stack.acquire(() -> mock(DynamicTest.class));
+
+        assertNull(stack.acquire(() -> mock(DynamicTest.class)));
+        assertEquals(1, stack.getUsers());
+    }
+
+    @Test
+    void acquire_afterFailedInitialization_retries() throws Exception {
+        SharedDeliveryStack<DynamicTest> stack = new SharedDeliveryStack<>();
+        DynamicTest instance = mock(DynamicTest.class);
+
+        assertThrows(IllegalStateException.class, () -> stack.acquire(() -> {
+            throw new IllegalStateException("bootstrap failed");
+        }));
+
+        assertEquals(0, stack.getUsers());
+        assertSame(instance, stack.acquire(() -> instance));
+    }
+
+    @Test
+    void release_doesNotDestroy_closeDoes() throws Exception {
+        SharedDeliveryStack<DynamicTest> stack = new SharedDeliveryStack<>();
+        DynamicTest instance = mock(DynamicTest.class);
+        stack.acquire(() -> instance);
+
+        stack.release();
+        verify(instance, never()).destroy();
+
+        stack.close();
+        verify(instance).destroy();
+        assertThrows(IllegalStateException.class, () -> stack.acquire(() -> instance));
+    }
+
+    @Test
+    void retire_whileLeased_destroysOnRelease() throws Exception {
+        SharedDeliveryStack<DynamicTest> stack = new SharedDeliveryStack<>();
+        DynamicTest instance = mock(DynamicTest.class);
+        stack.acquire(() -> instance);
+
+        stack.retire();
+        verify(instance, never()).destroy();
+
+        stack.release();
+        verify(instance).destroy();
+    }
+
+    @Test
+    void prepare_initializesWithoutLeasing() throws Exception {
+        SharedDeliveryStack<DynamicTest> stack = new SharedDeliveryStack<>();
+        DynamicTest instance = mock(DynamicTest.class);
+
+        stack.prepare(() -> instance);
+        stack.prepare(() -> mock(DynamicTest.class));
+
+        assertEquals(0, stack.getUsers());
+        assertSame(instance, stack.acquire(() -> mock(DynamicTest.class)));
+    }
+
+    @Test
+    void prepare_afterRetire_doesNothing() throws Exception {
+        SharedDeliveryStack<DynamicTest> stack = new SharedDeliveryStack<>();
+        AtomicInteger created = new AtomicInteger();
+        stack.retire();
+
+        stack.prepare(() -> {
+            created.incrementAndGet();
+            return mock(DynamicTest.class);
+        });
+
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void release_withoutLease_throws() {
+        SharedDeliveryStack<DynamicTest> stack = new SharedDeliveryStack<>();
+
+        assertThrows(IllegalStateException.class, stack::release);
+    }
+}
@@ -0,0 +1,49 @@
+package org.bloomreach.forge.brut.resources.annotation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestConfigTest {
+
+    @Test
+    void computeFingerprint_ignoresTestClass() {
+        TestConfig first = config("classpath*:org/example/beans/*.class", "/hst:myproject", String.class);
+        TestConfig second = config("classpath*:org/example/beans/*.class", "/hst:myproject", Integer.class);
+
+        assertEquals(first.computeFingerprint(), second.computeFingerprint());
+    }
+
+    @Test
+    void computeFingerprint_differsForDifferentConfiguration() {
+        TestConfig first = config("classpath*:org/example/beans/*.class", "/hst:myproject", String.class);
+        TestConfig second = config("classpath*:org/example/beans/*.class", "/hst:other", String.class);
+
+        assertNotEquals(first.computeFingerprint(), second.computeFingerprint());
+    }
+
+    @Test
+    void computeFingerprint_usesContentOfFileSpringConfigs(@TempDir Path tempDir) throws Exception {
+        Path first = Files.writeString(tempDir.resolve("first.xml"), "<beans/>");
+        Path second = Files.writeString(tempDir.resolve("second.xml"), "<beans/>");
+        Path other = Files.writeString(tempDir.resolve("other.xml"), "<beans><bean id=\"x\"/></beans>");
+
+        assertEquals(config(first).computeFingerprint(), config(second).computeFingerprint());
+        assertNotEquals(config(first).computeFingerprint(), config(other).computeFingerprint());
+    }
+
+    private static TestConfig config(Path springConfig) {
+        return new TestConfig(List.of("classpath*:org/example/beans/*.class"), "/hst:myproject",
+                List.of(springConfig.toUri().toString()), List.of(), List.of(), List.of(), List.of(), String.class);
+    }
+
+    private static TestConfig config(String beanPattern, String hstRoot, Class<?> testClass) {
+        return new TestConfig(List.of(beanPattern), hstRoot, List.of("/org/example/custom-jaxrs.xml"),
+                List.of(), List.of(), List.of(), List.of(), testClass);
+    }
+}
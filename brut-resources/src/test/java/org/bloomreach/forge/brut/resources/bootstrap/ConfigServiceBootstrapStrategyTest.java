@@ -1,24 +1,32 @@
 package org.bloomreach.forge.brut.resources.bootstrap;
 
+import org.bloomreach.forge.brut.common.cache.BrutCache;
+import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.onehippo.cm.model.impl.ModuleImpl;
 
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+import javax.jcr.nodetype.NodeTypeManager;
 import java.io.IOException;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -536,11 +544,11 @@ class ConfigServiceBootstrapStrategyTest {
     class ModelCaching {
 
         @Test
-        void modelCache_isStaticConcurrentHashMap() throws Exception {
+        void modelCache_isStaticBoundedCache() throws Exception {
             Field f = ConfigServiceBootstrapStrategy.class.getDeclaredField("MODEL_CACHE");
             f.setAccessible(true);
             assertTrue(Modifier.isStatic(f.getModifiers()), "MODEL_CACHE must be static");
-            assertInstanceOf(ConcurrentHashMap.class, f.get(null), "MODEL_CACHE must be a ConcurrentHashMap");
+            assertInstanceOf(BrutCache.class, f.get(null), "MODEL_CACHE must be a BrutCache");
         }
 
         @Test
@@ -577,8 +585,7 @@ class ConfigServiceBootstrapStrategyTest {
 
             Field cacheField = ConfigServiceBootstrapStrategy.class.getDeclaredField("MODEL_CACHE");
             cacheField.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            Map<String, ?> cache = (Map<String, ?>) cacheField.get(null);
+            BrutCache<?, ?> cache = (BrutCache<?, ?>) cacheField.get(null);
             assertEquals(1, cache.size(), "Cache must contain exactly one entry after first load");
 
             // Second call with identical context must not grow the cache
@@ -587,6 +594,180 @@ class ConfigServiceBootstrapStrategyTest {
 
             clearCache.invoke(null);
         }
+
+        @Test
+        void moduleCache_reparsesOnlyModulesWhoseSourcesChanged(@TempDir Path tempDir) throws Exception {
+            Method clearCache = ConfigServiceBootstrapStrategy.class.getDeclaredMethod("clearModelCache");
+            clearCache.setAccessible(true);
+            clearCache.invoke(null);
+
+            Path first = writeModule(tempDir.resolve("first"), "first");
+            Path second = writeModule(tempDir.resolve("second"), "second");
+            BootstrapContext context = new BootstrapContext(
+                Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+                List.of(first, second), new URLClassLoader(new URL[]{tempDir.toUri().toURL()}));
+
+            Method loadModules = ConfigServiceBootstrapStrategy.class.getDeclaredMethod(
+                "loadModulesExplicitly", BootstrapContext.class);
+            loadModules.setAccessible(true);
+
+            Object initial = loadModules.invoke(strategy, context);
+            Files.writeString(tempDir.resolve("first/hcm-config/main.yaml"),
+                "definitions:\n  config:\n    /content/first:\n      jcr:primaryType: nt:unstructured\n"
+                    + "      title: edited\n");
+            Object edited = loadModules.invoke(strategy, context);
+
+            assertNotSame(initial, edited, "An edited module source must invalidate the model");
+            assertNotSame(moduleNamed(initial, "first"), moduleNamed(edited, "first"));
+            assertSame(moduleNamed(initial, "second"), moduleNamed(edited, "second"),
+                "Unchanged modules must be reused rather than parsed again");
+
+            clearCache.invoke(null);
+        }
+
+        @Test
+        void moduleCache_pruningInOneModelLeavesCachedModuleIntact(@TempDir Path tempDir) throws Exception {
+            Method clearCache = ConfigServiceBootstrapStrategy.class.getDeclaredMethod("clearModelCache");
+            clearCache.setAccessible(true);
+            clearCache.invoke(null);
+
+            Path first = writeModule(tempDir.resolve("first"), "first");
+            Files.writeString(tempDir.resolve("first/hcm-config/orphan.yaml"),
+                "definitions:\n  config:\n    /content/orphan/child:\n      jcr:primaryType: nt:unstructured\n");
+            Path second = writeModule(tempDir.resolve("second"), "second");
+            Path base = writeModule(tempDir.resolve("base"), "base");
+            Files.writeString(tempDir.resolve("base/hcm-config/main.yaml"),
+                "definitions:\n  config:\n    /content/orphan:\n      jcr:primaryType: nt:unstructured\n");
+            URLClassLoader classLoader = new URLClassLoader(new URL[]{tempDir.toUri().toURL()});
+
+            Method loadModules = ConfigServiceBootstrapStrategy.class.getDeclaredMethod(
+                "loadModulesExplicitly", BootstrapContext.class);
+            loadModules.setAccessible(true);
+
+            System.setProperty("brut.configservice.pruneConfigRoots", "/content/orphan");
+            try {
+                // /content/orphan is not defined: the model prunes /content/orphan/child to build
+                Object pruned = loadModules.invoke(strategy, new BootstrapContext(
+                    Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+                    List.of(first, second), classLoader));
+                assertFalse(hasDefinition(moduleNamed(pruned, "first"), "/content/orphan/child"));
+
+                // base defines /content/orphan: the cached module must still hold the pruned definition
+                Object complete = loadModules.invoke(strategy, new BootstrapContext(
+                    Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+                    List.of(base, first, second), classLoader));
+                assertTrue(hasDefinition(moduleNamed(complete, "first"), "/content/orphan/child"),
+                    "Pruning in one model must not change the cached module used by another");
+                assertNotSame(moduleNamed(pruned, "first"), moduleNamed(complete, "first"));
+                assertSame(moduleNamed(pruned, "second"), moduleNamed(complete, "second"));
+            } finally {
+                System.clearProperty("brut.configservice.pruneConfigRoots");
+                clearCache.invoke(null);
+            }
+        }
+
+        private boolean hasDefinition(Object module, String rootPath) {
+            return ((ModuleImpl) module).getConfigSources().stream()
+                .flatMap(source -> source.getConfigDefinitions().stream())
+                .anyMatch(definition -> rootPath.equals(definition.getRootPath().toString()));
+        }
+
+        private Path writeModule(Path root, String name) throws IOException {
+            Files.createDirectories(root.resolve("hcm-config"));
+            Path descriptor = root.resolve("hcm-module.yaml");
+            Files.writeString(descriptor, "group:\n  name: test\nproject: test\nmodule:\n  name: " + name + "\n");
+            Files.writeString(root.resolve("hcm-config/main.yaml"),
+                "definitions:\n  config:\n    /content/" + name + ":\n      jcr:primaryType: nt:unstructured\n");
+            return descriptor;
+        }
+
+        private Object moduleNamed(Object loadedModules, String name) throws Exception {
+            Method modules = loadedModules.getClass().getDeclaredMethod("modules");
+            modules.setAccessible(true);
+            for (Object module : (List<?>) modules.invoke(loadedModules)) {
+                if (name.equals(((ModuleImpl) module).getName())) {
+                    return module;
+                }
+            }
+            throw new AssertionError("No module named " + name);
+        }
+    }
+
+    @Nested
+    class ParallelModuleParsing {
+
+        private static final String PARSE_THREADS = "brut.configservice.parseThreads";
+
+        @Test
+        void readModules_returnsModulesInSourceOrder(@TempDir Path tempDir) throws Exception {
+            List<Object> sources = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                // the first modules are the largest, so they tend to finish parsing last
+                sources.add(moduleSource(tempDir.resolve("m" + i), "m" + i, 8 - i));
+                names.add("m" + i);
+            }
+
+            System.setProperty(PARSE_THREADS, "4");
+            try {
+                List<String> read = new ArrayList<>();
+                for (Object module : readModules(sources)) {
+                    read.add(((ModuleImpl) module).getName());
+                }
+                assertEquals(names, read);
+            } finally {
+                System.clearProperty(PARSE_THREADS);
+            }
+        }
+
+        @Test
+        void readModules_propagatesParseErrorOfOneModule(@TempDir Path tempDir) throws Exception {
+            List<Object> sources = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                sources.add(moduleSource(tempDir.resolve("m" + i), "m" + i, 1));
+            }
+            Files.writeString(tempDir.resolve("m2/hcm-config/main.yaml"), "definitions:\n  config: [unclosed\n");
+
+            Throwable parallel;
+            Throwable sequential;
+            try {
+                System.setProperty(PARSE_THREADS, "4");
+                parallel = assertThrows(InvocationTargetException.class, () -> readModules(sources)).getCause();
+                System.setProperty(PARSE_THREADS, "1");
+                sequential = assertThrows(InvocationTargetException.class, () -> readModules(sources)).getCause();
+            } finally {
+                System.clearProperty(PARSE_THREADS);
+            }
+            assertFalse(parallel instanceof ExecutionException, "The parse error itself must be thrown");
+            assertEquals(sequential.getClass(), parallel.getClass());
+            assertEquals(sequential.getMessage(), parallel.getMessage());
+        }
+
+        private List<?> readModules(List<Object> sources) throws Exception {
+            Method readModules = ConfigServiceBootstrapStrategy.class.getDeclaredMethod("readModules", List.class);
+            readModules.setAccessible(true);
+            return (List<?>) readModules.invoke(strategy, sources);
+        }
+
+        private Object moduleSource(Path root, String name, int definitions) throws Exception {
+            Files.createDirectories(root.resolve("hcm-config"));
+            Path descriptor = root.resolve("hcm-module.yaml");
+            Files.writeString(descriptor, "group:\n  name: test\nproject: test\nmodule:\n  name: " + name + "\n");
+            StringBuilder config = new StringBuilder("definitions:\n  config:\n");
+            for (int i = 0; i < definitions * 50; i++) {
+                config.append("    /content/").append(name).append("-").append(i)
+                    .append(":\n      jcr:primaryType: nt:unstructured\n");
+            }
+            Files.writeString(root.resolve("hcm-config/main.yaml"), config);
+
+            Class<?> moduleSource = Arrays.stream(ConfigServiceBootstrapStrategy.class.getDeclaredClasses())
+                .filter(type -> type.getSimpleName().equals("ModuleSource"))
+                .findFirst().orElseThrow();
+            Constructor<?> constructor = moduleSource.getDeclaredConstructor(
+                String.class, Path.class, String.class, String.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(name, descriptor, null, name);
+        }
     }
 
     @Nested
@@ -704,4 +885,27 @@ class ConfigServiceBootstrapStrategyTest {
             return (boolean) method.invoke(strategy, root);
         }
     }
+
+    @Nested
+    class SelectionNamespace {
+
+        @Test
+        void ensureSelectionNamespace_registersMinimalCndUsingHippoPrefix() throws Exception {
+            try (BrxmTestingRepository repository = new BrxmTestingRepository()) {
+                Session session = repository.login(new SimpleCredentials("admin", "admin".toCharArray()));
+
+                invokeEnsureSelectionNamespace(session);
+
+                NodeTypeManager nodeTypeManager = session.getWorkspace().getNodeTypeManager();
+                assertTrue(nodeTypeManager.getNodeType("selection:valuelist").isNodeType("hippo:document"));
+                assertTrue(nodeTypeManager.getNodeType("selection:listitem").isNodeType("hippo:compound"));
+            }
+        }
+
+        private void invokeEnsureSelectionNamespace(Session session) throws Exception {
+            Method method = ConfigServiceBootstrapStrategy.class.getDeclaredMethod("ensureSelectionNamespace", Session.class);
+            method.setAccessible(true);
+            method.invoke(strategy, session);
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectorySnapshotStoreTest {
+
+    @Test
+    void open_missingKey_returnsNull(@TempDir Path tempDir) throws Exception {
+        DirectorySnapshotStore store = new DirectorySnapshotStore(tempDir.resolve("snapshots"));
+
+        assertNull(store.open("abc"));
+    }
+
+    @Test
+    void write_thenOpen_returnsContent(@TempDir Path tempDir) throws Exception {
+        DirectorySnapshotStore store = new DirectorySnapshotStore(tempDir.resolve("snapshots"));
+
+        store.write("abc", out -> out.write("image".getBytes(StandardCharsets.UTF_8)));
+
+        try (InputStream in = store.open("abc")) {
+            assertNotNull(in);
+            assertEquals("image", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void write_failingWriter_storesNothing(@TempDir Path tempDir) throws Exception {
+        DirectorySnapshotStore store = new DirectorySnapshotStore(tempDir);
+
+        assertThrows(IOException.class, () -> store.write("abc", out -> {
+            out.write(1);
+            throw new Exception("boom");
+        }));
+
+        assertNull(store.open("abc"));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void write_existingKey_replacesImage(@TempDir Path tempDir) throws Exception {
+        DirectorySnapshotStore store = new DirectorySnapshotStore(tempDir);
+        store.write("abc", out -> out.write(1));
+
+        store.write("abc", out -> out.write(2));
+
+        try (InputStream in = store.open("abc")) {
+            assertArrayEquals(new byte[]{2}, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void delete_removesImage(@TempDir Path tempDir) throws Exception {
+        DirectorySnapshotStore store = new DirectorySnapshotStore(tempDir);
+        store.write("abc", out -> out.write(1));
+
+        store.delete("abc");
+
+        assertNull(store.open("abc"));
+    }
+
+    @Test
+    void invalidKey_isRejected(@TempDir Path tempDir) {
+        DirectorySnapshotStore store = new DirectorySnapshotStore(tempDir);
+
+        assertThrows(IllegalArgumentException.class, () -> store.open("../escape"));
+    }
+}
@@ -0,0 +1,83 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import org.bloomreach.forge.brut.common.repository.BrxmTestingRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeVisitorPipelineTest {
+
+    @Test
+    void onPathTo_coversAncestorsAndDescendants() {
+        assertTrue(NodeVisitor.onPathTo("/", "/hst:hst/hst:hosts"));
+        assertTrue(NodeVisitor.onPathTo("/hst:hst", "/hst:hst/hst:hosts"));
+        assertTrue(NodeVisitor.onPathTo("/hst:hst/hst:hosts/dev", "/hst:hst/hst:hosts"));
+        assertFalse(NodeVisitor.onPathTo("/hst:hst/hst:sites", "/hst:hst/hst:hosts"));
+        assertFalse(NodeVisitor.onPathTo("/hst:hst/hst:hostsgroup", "/hst:hst/hst:hosts"));
+    }
+
+    @Test
+    @Tag("integration")
+    void run_walksEachNodeOnceForAllVisitorsAndSkipsUnvisitedSubtrees() throws Exception {
+        try (BrxmTestingRepository repo = new BrxmTestingRepository()) {
+            Session session = repo.login(new SimpleCredentials("admin", "admin".toCharArray()));
+            try {
+                Node root = session.getRootNode();
+                root.addNode("a", "nt:unstructured").addNode("a1", "nt:unstructured");
+                root.addNode("b", "nt:unstructured").addNode("b1", "nt:unstructured");
+                root.addNode("c", "nt:unstructured").addNode("c1", "nt:unstructured");
+                session.save();
+
+                RecordingVisitor first = new RecordingVisitor("/a");
+                RecordingVisitor second = new RecordingVisitor("/b/b1");
+                int visited = new NodeVisitorPipeline().add(first).add(second).run(session);
+
+                assertEquals(List.of("/", "/a", "/a/a1"), first.visited);
+                assertEquals(List.of("/", "/b", "/b/b1"), second.visited);
+                assertEquals(5, visited);
+                assertTrue(first.finished);
+                assertTrue(session.getNode("/a/a1").getProperty("visited").getBoolean());
+                assertFalse(session.hasPendingChanges());
+            } finally {
+                session.logout();
+            }
+        }
+    }
+
+    private static final class RecordingVisitor implements NodeVisitor {
+
+        private final String scope;
+        private final List<String> visited = new ArrayList<>();
+        private boolean finished;
+
+        private RecordingVisitor(String scope) {
+            this.scope = scope;
+        }
+
+        @Override
+        public boolean enters(String path) {
+            return NodeVisitor.onPathTo(path, scope);
+        }
+
+        @Override
+        public void visit(Node node, String path) throws RepositoryException {
+            visited.add(path);
+            if (NodeVisitor.isAtOrBelow(path, scope) && !node.hasNodes()) {
+                node.setProperty("visited", true);
+            }
+        }
+
+        @Override
+        public void finish(Session session) {
+            finished = true;
+        }
+    }
+}
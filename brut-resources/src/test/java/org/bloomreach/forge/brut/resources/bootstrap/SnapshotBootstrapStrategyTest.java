@@ -0,0 +1,90 @@
+package org.bloomreach.forge.brut.resources.bootstrap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotBootstrapStrategyTest {
+
+    @Test
+    void computeKey_withoutModuleDescriptors_returnsNull() throws Exception {
+        assertNull(SnapshotBootstrapStrategy.computeKey("myproject", context(Collections.emptyList())));
+    }
+
+    @Test
+    void computeKey_isStableForSameContent(@TempDir Path tempDir) throws Exception {
+        Path descriptor = createModule(tempDir.resolve("module"), "value: 1");
+
+        String first = SnapshotBootstrapStrategy.computeKey("myproject", context(List.of(descriptor)));
+        String second = SnapshotBootstrapStrategy.computeKey("myproject", context(List.of(descriptor)));
+
+        assertNotNull(first);
+        assertEquals(first, second);
+    }
+
+    @Test
+    void computeKey_ignoresModuleLocation(@TempDir Path tempDir) throws Exception {
+        Path first = createModule(tempDir.resolve("first"), "value: 1");
+        Path second = createModule(tempDir.resolve("second"), "value: 1");
+
+        assertEquals(SnapshotBootstrapStrategy.computeKey("myproject", context(List.of(first))),
+            SnapshotBootstrapStrategy.computeKey("myproject", context(List.of(second))));
+    }
+
+    @Test
+    void computeKey_ignoresWorkingDirectory(@TempDir Path tempDir) throws Exception {
+        Path descriptor = createModule(tempDir.resolve("module"), "value: 1");
+        String workingDirectory = System.getProperty("user.dir");
+        String before = SnapshotBootstrapStrategy.computeKey("myproject", context(List.of(descriptor)));
+        try {
+            System.setProperty("user.dir", tempDir.toString());
+
+            assertEquals(before, SnapshotBootstrapStrategy.computeKey("myproject", context(List.of(descriptor))));
+        } finally {
+            System.setProperty("user.dir", workingDirectory);
+        }
+    }
+
+    @Test
+    void computeKey_changesWithModuleContent(@TempDir Path tempDir) throws Exception {
+        Path descriptor = createModule(tempDir.resolve("module"), "value: 1");
+        String before = SnapshotBootstrapStrategy.computeKey("myproject", context(List.of(descriptor)));
+
+        Files.writeString(tempDir.resolve("module/hcm-config/main.yaml"), "value: 2");
+
+        assertNotEquals(before, SnapshotBootstrapStrategy.computeKey("myproject", context(List.of(descriptor))));
+    }
+
+    @Test
+    void computeKey_changesWithProjectNamespace(@TempDir Path tempDir) throws Exception {
+        Path descriptor = createModule(tempDir.resolve("module"), "value: 1");
+
+        assertNotEquals(SnapshotBootstrapStrategy.computeKey("first", context(List.of(descriptor))),
+            SnapshotBootstrapStrategy.computeKey("second", context(List.of(descriptor))));
+    }
+
+    @Test
+    void constructor_rejectsMissingCollaborators() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new SnapshotBootstrapStrategy(null, new ManualBootstrapStrategy(), null));
+    }
+
+    private static Path createModule(Path root, String config) throws Exception {
+        Files.createDirectories(root.resolve("hcm-config"));
+        Path descriptor = root.resolve("hcm-module.yaml");
+        Files.writeString(descriptor, "group:\n  name: test\nproject: test\nmodule:\n  name: test\n");
+        Files.writeString(root.resolve("hcm-config/main.yaml"), config);
+        return descriptor;
+    }
+
+    private static BootstrapContext context(List<Path> descriptors) {
+        return new BootstrapContext(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+            descriptors, Thread.currentThread().getContextClassLoader());
+    }
+}